@@ -0,0 +1,279 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Turns triggered alerts into batched notifications for their owners. The engine's trigger
+// callback only copies alert IDs into a bounded ring: when the ring is full the overflow is
+// counted and dropped, so a storm of triggers never stalls the engine thread. A dispatcher
+// thread drains the ring once per flush interval and, per recipient, drops repeats of a message
+// already sent within the dedupe window and spends a token bucket, folding whatever exceeds the
+// rate into a single "N more" summary. What is left goes to the channel in batches, sent
+// outside the dispatcher's lock so a slow channel never holds up setChannel or the UI.
+//
+// Alerts without an owner have nobody to notify and are skipped.
+public class AlertDispatcher implements AlertEngine.TriggerListener {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+    public static final long DEFAULT_FLUSH_MILLIS = 1000;
+    public static final long DEFAULT_DEDUPE_MILLIS = 60_000;
+    public static final int DEFAULT_BURST = 20;
+    public static final double DEFAULT_PER_MINUTE = 10;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_SEND_ATTEMPTS = 3;
+    
+    private static AlertDispatcher instance;
+    
+    private final AlertEngine engine;
+    private final long flushMillis;
+    private final long dedupeMillis;
+    private final int burst;
+    private final double tokensPerMilli;
+    
+    // Ring of triggered alert IDs; guarded by queueLock, which is held only to copy IDs
+    private final Object queueLock = new Object();
+    private final int[] queue;
+    private int queueHead;
+    private int queueSize;
+    
+    // Held for a whole flush, so rounds are sent one at a time and in order
+    private final Object sendLock = new Object();
+    
+    // Delivery state; guarded by this
+    private volatile NotificationChannel channel;
+    private Thread thread;
+    private final Map<String, Long> lastSent = new HashMap<>();
+    private final Map<String, double[]> buckets = new HashMap<>();
+    private List<Notification> retryBatch = new ArrayList<>();
+    private int retryAttempts;
+    private int[] drained = new int[0];
+    
+    private volatile long received;
+    private volatile long overflowed;
+    private volatile long deduplicated;
+    private volatile long rateLimited;
+    private volatile long sent;
+    private volatile long batches;
+    private volatile long failed;
+    private volatile String lastError;
+    
+    public static synchronized AlertDispatcher getInstance() {
+        if (instance == null) {
+            instance = new AlertDispatcher(AlertEngine.getInstance(), DEFAULT_QUEUE_CAPACITY, DEFAULT_FLUSH_MILLIS,
+                DEFAULT_DEDUPE_MILLIS, DEFAULT_BURST, DEFAULT_PER_MINUTE);
+        }
+        return instance;
+    }
+    
+    // Each recipient may receive up to burst notifications at once, refilled at perMinute
+    public AlertDispatcher(AlertEngine engine, int queueCapacity, long flushMillis, long dedupeMillis,
+                           int burst, double perMinute) {
+        if (queueCapacity < 1 || flushMillis <= 0 || burst < 1 || !(perMinute > 0)) {
+            throw new IllegalArgumentException("Invalid dispatcher limits");
+        }
+        this.engine = engine;
+        this.queue = new int[queueCapacity];
+        this.flushMillis = flushMillis;
+        this.dedupeMillis = dedupeMillis;
+        this.burst = burst;
+        this.tokensPerMilli = perMinute / 60_000;
+    }
+    
+    // Starts delivering through the channel, replacing any previous one; null stops delivery
+    public synchronized void setChannel(NotificationChannel channel) {
+        this.channel = channel;
+        if (channel != null && thread == null) {
+            engine.addTriggerListener(this);
+            thread = new Thread(this::run, "alert-dispatcher");
+            thread.setDaemon(true);
+            thread.start();
+        } else if (channel == null && thread != null) {
+            engine.removeTriggerListener(this);
+            thread.interrupt();
+            thread = null;
+            synchronized (queueLock) {
+                queueSize = 0;
+            }
+            retryBatch.clear();
+        }
+    }
+    
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+    
+    public long getReceivedCount() { return received; }
+    public long getOverflowCount() { return overflowed; }
+    public long getDeduplicatedCount() { return deduplicated; }
+    public long getRateLimitedCount() { return rateLimited; }
+    public long getSentCount() { return sent; }
+    public long getBatchCount() { return batches; }
+    public long getFailedCount() { return failed; }
+    public String getLastError() { return lastError; }
+    
+    // Engine thread: copies the IDs and returns
+    @Override
+    public void alertsTriggered(int[] alertIds, int count) {
+        int accepted;
+        synchronized (queueLock) {
+            accepted = Math.min(count, queue.length - queueSize);
+            int tail = (queueHead + queueSize) % queue.length;
+            int first = Math.min(accepted, queue.length - tail);
+            System.arraycopy(alertIds, 0, queue, tail, first);
+            System.arraycopy(alertIds, first, queue, 0, accepted - first);
+            queueSize += accepted;
+        }
+        received += accepted;
+        overflowed += count - accepted;
+    }
+    
+    private void run() {
+        Thread self = Thread.currentThread();
+        while (true) {
+            try {
+                Thread.sleep(flushMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (thread != self) {
+                    return;
+                }
+            }
+            flush();
+        }
+    }
+    
+    // Drains the queue and delivers one round of notifications; returns how many were sent
+    public int flush() {
+        synchronized (sendLock) {
+            List<Notification> batch;
+            NotificationChannel target;
+            synchronized (this) {
+                batch = nextBatch();
+                target = channel;
+                retryBatch = new ArrayList<>();
+            }
+            if (batch.isEmpty() || target == null) {
+                return 0;
+            }
+            return deliver(target, batch);
+        }
+    }
+    
+    // Drains the queue into the notifications due this round, after the retries of the last one
+    private List<Notification> nextBatch() {
+        int count;
+        synchronized (queueLock) {
+            count = queueSize;
+            if (drained.length < count) {
+                drained = new int[Math.max(count, 1024)];
+            }
+            int first = Math.min(count, queue.length - queueHead);
+            System.arraycopy(queue, queueHead, drained, 0, first);
+            System.arraycopy(queue, 0, drained, first, count - first);
+            queueHead = (queueHead + count) % queue.length;
+            queueSize = 0;
+        }
+        long now = System.currentTimeMillis();
+        lastSent.values().removeIf(time -> now - time >= dedupeMillis);
+        
+        List<Notification> batch = retryBatch;
+        Map<String, Integer> suppressed = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int alertId = drained[i];
+            String recipient = engine.getOwner(alertId);
+            if (recipient == null) {
+                continue;
+            }
+            String condition = engine.describe(alertId);
+            String key = recipient + '\n' + condition;
+            Long previous = lastSent.get(key);
+            if (previous != null && now - previous < dedupeMillis) {
+                deduplicated++;
+                continue;
+            }
+            if (!takeToken(recipient, now)) {
+                rateLimited++;
+                suppressed.merge(recipient, 1, Integer::sum);
+                continue;
+            }
+            lastSent.put(key, now);
+            String message = String.format("%s (%s %.2f)", condition,
+                engine.isIndicatorAlert(alertId) ? "value" : "traded", engine.getTriggerPrice(alertId));
+            batch.add(new Notification(recipient, alertId,
+                SymbolDictionary.getInstance().symbolOf(engine.getSymbolId(alertId)), message, engine.getTriggerTime(alertId)));
+        }
+        for (Map.Entry<String, Integer> entry : suppressed.entrySet()) {
+            int n = entry.getValue();
+            batch.add(new Notification(entry.getKey(), -1, null,
+                String.format("%,d more alert%s triggered; notifications are rate limited", n, n == 1 ? "" : "s"), now));
+        }
+        return batch;
+    }
+    
+    // Token bucket per recipient: burst capacity, refilled continuously
+    private boolean takeToken(String recipient, long now) {
+        double[] bucket = buckets.computeIfAbsent(recipient, r -> new double[] {burst, now});
+        bucket[0] = Math.min(burst, bucket[0] + (now - bucket[1]) * tokensPerMilli);
+        bucket[1] = now;
+        if (bucket[0] < 1) {
+            return false;
+        }
+        bucket[0]--;
+        return true;
+    }
+    
+    // Sends in chunks without holding the lock; on failure keeps the unsent rest for the next
+    // flush, up to the attempt limit, unless the channel was replaced meanwhile
+    private int deliver(NotificationChannel target, List<Notification> batch) {
+        int delivered = 0;
+        try {
+            while (delivered < batch.size()) {
+                int end = Math.min(batch.size(), delivered + MAX_BATCH_SIZE);
+                target.send(batch.subList(delivered, end));
+                batches++;
+                sent += end - delivered;
+                delivered = end;
+            }
+            synchronized (this) {
+                retryAttempts = 0;
+            }
+        } catch (IOException | RuntimeException e) {
+            lastError = e.getMessage() != null ? e.getMessage() : e.toString();
+            List<Notification> rest = batch.subList(delivered, batch.size());
+            synchronized (this) {
+                if (channel == target && ++retryAttempts < MAX_SEND_ATTEMPTS) {
+                    retryBatch = new ArrayList<>(rest);
+                } else {
+                    failed += rest.size();
+                    retryAttempts = 0;
+                }
+            }
+        }
+        return delivered;
+    }
+    
+    // One message to one recipient; an alert ID of -1 marks a rate-limit summary
+    public static class Notification {
+        private final String recipient;
+        private final int alertId;
+        private final String symbol;
+        private final String message;
+        private final long time;
+        
+        public Notification(String recipient, int alertId, String symbol, String message, long time) {
+            this.recipient = recipient;
+            this.alertId = alertId;
+            this.symbol = symbol;
+            this.message = message;
+            this.time = time;
+        }
+        
+        public String getRecipient() { return recipient; }
+        public int getAlertId() { return alertId; }
+        public String getSymbol() { return symbol; }
+        public String getMessage() { return message; }
+        public long getTime() { return time; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,650 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Price-threshold alerts over the live market data feed. Alerts are stored as columns indexed
+// by alert ID, and each symbol has two books of (threshold, alert ID) pairs sorted by
+// threshold: an upper book of "price at or above" alerts and a lower book of "price at or below"
+// alerts. A tick fires a prefix of the upper book and a suffix of the lower book, found by
+// binary search and removed by moving the book's bound, so a tick costs O(log n + k) for k
+// triggered alerts however many are waiting.
+//
+// New alerts are buffered per symbol and merged into the books on that symbol's next tick, so
+// bulk adds cost a sort and a merge rather than an array shift each. Cancelled alerts stay in
+// their book, are skipped when crossed, and are dropped at the next merge.
+//
+// The engine asks the feed to produce a symbol while it has active alerts. Those requests run
+// in order on a helper thread, never under the engine's lock: the feed may be waiting on the
+// engine's consumer to drain, and the consumer needs that lock.
+//
+// Indicator alerts ("RSI(14) 15m crosses below 30") hang off a series from the IndicatorCache,
+// shared by every alert on the same symbol, indicator, period and timeframe and by any other
+// consumer of it. Each new value is checked once per distinct indicator, on the cache's thread,
+// and the alerts it crossed are found by binary search between its previous and current
+// values, so bar cost follows the number of indicators, not alerts.
+public class AlertEngine implements MarketEventHandler {
+    public static final byte ABOVE = 0;
+    public static final byte BELOW = 1;
+    
+    public static final byte ACTIVE = 0;
+    public static final byte TRIGGERED = 1;
+    public static final byte CANCELLED = 2;
+    
+    private static AlertEngine instance;
+    
+    // Alert columns, indexed by alert ID; guarded by this
+    private int[] symbolIds = new int[1024];
+    private double[] thresholds = new double[1024];
+    private byte[] directions = new byte[1024];
+    private byte[] states = new byte[1024];
+    private double[] triggerPrices = new double[1024];
+    private long[] triggerTimes = new long[1024];
+    // The alert's indicator, or null for a price alert
+    private IndicatorBook[] indicatorBooks = new IndicatorBook[1024];
+    // The user notified when the alert fires, or null for nobody
+    private String[] owners = new String[1024];
+    private int alertCount;
+    private int activeCount;
+    private final IntObjectMap<PriceBook> books = new IntObjectMap<>();
+    // Indicators with active alerts, per symbol ID
+    private final IntObjectMap<ArrayList<IndicatorBook>> indicators = new IntObjectMap<>();
+    private int indicatorCount;
+    
+    private final CopyOnWriteArrayList<TriggerListener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService demandExecutor;
+    private boolean subscribed;
+    // IDs fired by the current tick or indicator update; guarded by this
+    private int[] fired = new int[64];
+    private int firedCount;
+    private volatile long ticksProcessed;
+    private volatile long tickNanos;
+    private volatile long triggeredCount;
+    private volatile long indicatorUpdates;
+    
+    // Receives the IDs of alerts that fired on one tick or indicator update, on the feed
+    // consumer thread that delivered it
+    public interface TriggerListener {
+        void alertsTriggered(int[] alertIds, int count);
+    }
+    
+    public static synchronized AlertEngine getInstance() {
+        if (instance == null) {
+            instance = new AlertEngine();
+        }
+        return instance;
+    }
+    
+    private AlertEngine() {
+        demandExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "alert-demand");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public void addTriggerListener(TriggerListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeTriggerListener(TriggerListener listener) {
+        listeners.remove(listener);
+    }
+    
+    // Adds an alert that fires once when the symbol trades at or beyond the threshold; returns
+    // its ID. The owner is who gets notified, or null for nobody.
+    public int addAlert(String symbol, byte direction, double threshold, String owner) {
+        return addAlert(SymbolDictionary.getInstance().idOf(symbol), direction, threshold, owner);
+    }
+    
+    public synchronized int addAlert(int symbolId, byte direction, double threshold, String owner) {
+        checkDirection(direction);
+        if (!(threshold > 0) || Double.isInfinite(threshold)) {
+            throw new IllegalArgumentException("Alert threshold must be a positive price: " + threshold);
+        }
+        int alertId = newAlert(symbolId, direction, threshold, null, owner);
+        PriceBook book = books.get(symbolId);
+        if (book == null) {
+            book = new PriceBook();
+            books.put(symbolId, book);
+        }
+        book.addPending(alertId);
+        if (book.active++ == 0) {
+            demandExecutor.execute(() -> MarketDataFeed.getInstance().addDemand(symbolId));
+        }
+        return alertId;
+    }
+    
+    // Adds an alert that fires once when the indicator's value crosses the threshold from the
+    // other side, checked as each timeframe bar completes; ABOVE fires on a cross upward through
+    // the threshold and BELOW on a cross downward. Returns its ID.
+    public int addIndicatorAlert(String symbol, byte indicator, int period, long timeframeMillis,
+                                 byte direction, double threshold, String owner) {
+        return addIndicatorAlert(SymbolDictionary.getInstance().idOf(symbol), indicator, period, timeframeMillis,
+            direction, threshold, owner);
+    }
+    
+    // A series the engine does not hold yet is acquired outside the lock, since its backfill is
+    // slow and the feed consumer needs the lock for every bar
+    public int addIndicatorAlert(int symbolId, byte indicator, int period, long timeframeMillis,
+                                 byte direction, double threshold, String owner) {
+        checkDirection(direction);
+        if (Double.isNaN(threshold) || Double.isInfinite(threshold)) {
+            throw new IllegalArgumentException("Alert threshold must be finite: " + threshold);
+        }
+        synchronized (this) {
+            IndicatorBook book = findIndicator(symbolId, indicator, period, timeframeMillis);
+            if (book != null) {
+                return addIndicatorAlert(book, symbolId, direction, threshold, owner);
+            }
+        }
+        // Validates the indicator before anything is recorded
+        IndicatorCache.Series acquired = IndicatorCache.getInstance().acquire(symbolId, indicator, period, timeframeMillis);
+        try {
+            synchronized (this) {
+                IndicatorBook book = findIndicator(symbolId, indicator, period, timeframeMillis);
+                if (book == null) {
+                    book = new IndicatorBook(acquired);
+                    acquired = null;
+                    book.indicator.addListener(book);
+                    ArrayList<IndicatorBook> symbolIndicators = indicators.get(symbolId);
+                    if (symbolIndicators == null) {
+                        symbolIndicators = new ArrayList<>(4);
+                        indicators.put(symbolId, symbolIndicators);
+                    }
+                    symbolIndicators.add(book);
+                    indicatorCount++;
+                }
+                return addIndicatorAlert(book, symbolId, direction, threshold, owner);
+            }
+        } finally {
+            // Another alert added the same indicator meanwhile
+            if (acquired != null) {
+                IndicatorCache.getInstance().release(acquired);
+            }
+        }
+    }
+    
+    // Caller holds the lock
+    private IndicatorBook findIndicator(int symbolId, byte indicator, int period, long timeframeMillis) {
+        ArrayList<IndicatorBook> symbolIndicators = indicators.get(symbolId);
+        if (symbolIndicators != null) {
+            for (IndicatorBook candidate : symbolIndicators) {
+                if (candidate.indicator.matches(indicator, period, timeframeMillis)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+    
+    // Caller holds the lock
+    private int addIndicatorAlert(IndicatorBook book, int symbolId, byte direction, double threshold, String owner) {
+        int alertId = newAlert(symbolId, direction, threshold, book, owner);
+        book.addPending(alertId);
+        book.active++;
+        return alertId;
+    }
+    
+    private static void checkDirection(byte direction) {
+        if (direction != ABOVE && direction != BELOW) {
+            throw new IllegalArgumentException("Unknown alert direction: " + direction);
+        }
+    }
+    
+    // Records an active alert in the columns; called under the lock
+    private int newAlert(int symbolId, byte direction, double threshold, IndicatorBook indicatorBook, String owner) {
+        if (alertCount == symbolIds.length) {
+            int capacity = alertCount * 2;
+            symbolIds = Arrays.copyOf(symbolIds, capacity);
+            thresholds = Arrays.copyOf(thresholds, capacity);
+            directions = Arrays.copyOf(directions, capacity);
+            states = Arrays.copyOf(states, capacity);
+            triggerPrices = Arrays.copyOf(triggerPrices, capacity);
+            triggerTimes = Arrays.copyOf(triggerTimes, capacity);
+            indicatorBooks = Arrays.copyOf(indicatorBooks, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+        }
+        int alertId = alertCount++;
+        symbolIds[alertId] = symbolId;
+        thresholds[alertId] = threshold;
+        directions[alertId] = direction;
+        states[alertId] = ACTIVE;
+        indicatorBooks[alertId] = indicatorBook;
+        owners[alertId] = owner;
+        activeCount++;
+        if (!subscribed) {
+            subscribed = true;
+            demandExecutor.execute(() -> MarketDataFeed.getInstance().subscribe("alert-engine", SymbolDictionary.NONE, this));
+        }
+        return alertId;
+    }
+    
+    // Returns false if the alert had already fired or been cancelled
+    public synchronized boolean cancel(int alertId) {
+        if (alertId < 0 || alertId >= alertCount || states[alertId] != ACTIVE) {
+            return false;
+        }
+        states[alertId] = CANCELLED;
+        activeCount--;
+        IndicatorBook indicatorBook = indicatorBooks[alertId];
+        PriceBook book = indicatorBook != null ? indicatorBook : books.get(symbolIds[alertId]);
+        book.stale++;
+        if (--book.active == 0) {
+            if (indicatorBook != null) {
+                dropIndicator(indicatorBook);
+            } else {
+                releaseDemand(symbolIds[alertId]);
+            }
+        }
+        return true;
+    }
+    
+    public synchronized int getAlertCount() { return alertCount; }
+    public synchronized int getActiveCount() { return activeCount; }
+    // Distinct indicators currently shared by active alerts
+    public synchronized int getIndicatorCount() { return indicatorCount; }
+    public synchronized int getSymbolId(int alertId) { return symbolIds[alertId]; }
+    public synchronized double getThreshold(int alertId) { return thresholds[alertId]; }
+    public synchronized byte getDirection(int alertId) { return directions[alertId]; }
+    public synchronized byte getState(int alertId) { return states[alertId]; }
+    public synchronized double getTriggerPrice(int alertId) { return triggerPrices[alertId]; }
+    public synchronized long getTriggerTime(int alertId) { return triggerTimes[alertId]; }
+    
+    public synchronized int getSymbolCount() {
+        int count = books.size();
+        for (int symbolId : indicators.keys()) {
+            if (!books.containsKey(symbolId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public synchronized boolean isIndicatorAlert(int alertId) {
+        return indicatorBooks[alertId] != null;
+    }
+    
+    // E.g. "RSI(14) 15m", or null for a price alert
+    public synchronized String getIndicatorLabel(int alertId) {
+        IndicatorBook book = indicatorBooks[alertId];
+        return book == null ? null : book.indicator.describe();
+    }
+    
+    public synchronized String getOwner(int alertId) {
+        return owners[alertId];
+    }
+    
+    // The alert's condition, e.g. "AAPL price above 190.00" or "AAPL RSI(14) 15m crosses below 30.00"
+    public synchronized String describe(int alertId) {
+        IndicatorBook book = indicatorBooks[alertId];
+        return String.format("%s %s %s %.2f", SymbolDictionary.getInstance().symbolOf(symbolIds[alertId]),
+            book == null ? "price" : book.indicator.describe(),
+            book == null
+                ? (directions[alertId] == ABOVE ? "above" : "below")
+                : (directions[alertId] == ABOVE ? "crosses above" : "crosses below"),
+            thresholds[alertId]);
+    }
+    
+    public long getTicksProcessed() {
+        return ticksProcessed;
+    }
+    
+    public long getTriggeredCount() {
+        return triggeredCount;
+    }
+    
+    // Indicator values computed, one per distinct indicator per completed timeframe bar
+    public long getIndicatorUpdates() {
+        return indicatorUpdates;
+    }
+    
+    // Mean time spent checking one tick against the books
+    public double getAverageTickNanos() {
+        long ticks = ticksProcessed;
+        return ticks == 0 ? 0 : (double) tickNanos / ticks;
+    }
+    
+    @Override
+    public void onEvent(MarketEvent event, long sequence) {
+        double high;
+        double low;
+        if (event.isTrade()) {
+            high = event.getPrice();
+            low = high;
+        } else if (event.isBar()) {
+            high = event.getHigh();
+            low = event.getLow();
+        } else {
+            return;
+        }
+        long start = System.nanoTime();
+        int symbolId = event.getSymbolId();
+        int count;
+        int[] triggered;
+        synchronized (this) {
+            PriceBook book = books.get(symbolId);
+            if (book == null || book.active == 0) {
+                return;
+            }
+            firedCount = 0;
+            book.compactIfNeeded();
+            book.fire(high, low, event.getTime());
+            if (firedCount > 0 && book.active == 0) {
+                releaseDemand(symbolId);
+            }
+            count = firedCount;
+            // Indicator updates fire on another thread, so the IDs are copied out under the lock
+            triggered = count > 0 ? Arrays.copyOf(fired, count) : null;
+        }
+        ticksProcessed++;
+        tickNanos += System.nanoTime() - start;
+        notifyTriggered(triggered, count);
+    }
+    
+    // Cache thread: checks one new value of a shared indicator against its alerts
+    private void indicatorUpdated(IndicatorBook book, long time, double previous, double value) {
+        int count;
+        int[] triggered;
+        synchronized (this) {
+            if (book.active == 0) {
+                // Dropped while the update was on its way
+                return;
+            }
+            indicatorUpdates++;
+            firedCount = 0;
+            book.compactIfNeeded();
+            book.fire(previous, value, time);
+            if (firedCount > 0 && book.active == 0) {
+                dropIndicator(book);
+            }
+            count = firedCount;
+            triggered = count > 0 ? Arrays.copyOf(fired, count) : null;
+        }
+        notifyTriggered(triggered, count);
+    }
+    
+    private void notifyTriggered(int[] triggered, int count) {
+        if (count > 0) {
+            triggeredCount += count;
+            for (TriggerListener listener : listeners) {
+                listener.alertsTriggered(triggered, count);
+            }
+        }
+    }
+    
+    // Called under the lock when a symbol's last active alert goes
+    private void releaseDemand(int symbolId) {
+        demandExecutor.execute(() -> MarketDataFeed.getInstance().removeDemand(symbolId));
+    }
+    
+    // Called under the lock when an indicator's last active alert goes; the engine's hold on
+    // the cached series is released, which evicts it if nothing else uses it
+    private void dropIndicator(IndicatorBook book) {
+        int symbolId = book.indicator.getSymbolId();
+        ArrayList<IndicatorBook> symbolIndicators = indicators.get(symbolId);
+        symbolIndicators.remove(book);
+        if (symbolIndicators.isEmpty()) {
+            indicators.remove(symbolId);
+        }
+        indicatorCount--;
+        book.indicator.removeListener(book);
+        IndicatorCache.getInstance().release(book.indicator);
+    }
+    
+    // One symbol's alerts; guarded by the engine
+    private class PriceBook {
+        // Upper book ascending from upperStart: a price at or above upperPrices[i] fires i
+        double[] upperPrices = new double[0];
+        int[] upperIds = new int[0];
+        int upperStart;
+        // Lower book ascending up to lowerEnd: a price at or below lowerPrices[i] fires i
+        double[] lowerPrices = new double[0];
+        int[] lowerIds = new int[0];
+        int lowerEnd;
+        int[] pending = new int[8];
+        int pendingCount;
+        int active;
+        int stale;
+        
+        int size() {
+            return upperPrices.length - upperStart + lowerEnd;
+        }
+        
+        void addPending(int alertId) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = alertId;
+        }
+        
+        // Merges pending alerts, and drops dead entries once they are half the book
+        void compactIfNeeded() {
+            if (pendingCount > 0 || stale > size() / 2) {
+                merge();
+            }
+        }
+        
+        // Fires the crossed alerts into the engine's fired list
+        void fire(double high, double low, long time) {
+            int upperEnd = upperBound(upperPrices, upperStart, upperPrices.length, high);
+            for (int i = upperStart; i < upperEnd; i++) {
+                if (!trigger(upperIds[i], high, time)) {
+                    stale--;
+                }
+            }
+            upperStart = upperEnd;
+            int lowerStart = lowerBound(lowerPrices, 0, lowerEnd, low);
+            for (int i = lowerStart; i < lowerEnd; i++) {
+                if (!trigger(lowerIds[i], low, time)) {
+                    stale--;
+                }
+            }
+            lowerEnd = lowerStart;
+        }
+        
+        // Marks the alert fired at the price or indicator value; false if it was no longer active
+        boolean trigger(int alertId, double value, long time) {
+            if (states[alertId] != ACTIVE) {
+                return false;
+            }
+            states[alertId] = TRIGGERED;
+            triggerPrices[alertId] = value;
+            triggerTimes[alertId] = time;
+            activeCount--;
+            active--;
+            if (firedCount == fired.length) {
+                fired = Arrays.copyOf(fired, firedCount * 2);
+            }
+            fired[firedCount++] = alertId;
+            return true;
+        }
+        
+        // Sorts the pending alerts and merges them into the books, dropping cancelled entries
+        void merge() {
+            int upperCount = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                if (directions[pending[i]] == ABOVE) {
+                    upperCount++;
+                }
+            }
+            double[] addedUpperPrices = new double[upperCount];
+            int[] addedUpperIds = new int[upperCount];
+            double[] addedLowerPrices = new double[pendingCount - upperCount];
+            int[] addedLowerIds = new int[pendingCount - upperCount];
+            int u = 0;
+            int l = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                int alertId = pending[i];
+                if (directions[alertId] == ABOVE) {
+                    addedUpperPrices[u] = thresholds[alertId];
+                    addedUpperIds[u++] = alertId;
+                } else {
+                    addedLowerPrices[l] = thresholds[alertId];
+                    addedLowerIds[l++] = alertId;
+                }
+            }
+            sortByPrice(addedUpperPrices, addedUpperIds, 0, u - 1);
+            sortByPrice(addedLowerPrices, addedLowerIds, 0, l - 1);
+            
+            double[] mergedPrices = new double[upperPrices.length - upperStart + u];
+            int[] mergedIds = new int[mergedPrices.length];
+            int upperSize = merge(upperPrices, upperIds, upperStart, upperPrices.length,
+                addedUpperPrices, addedUpperIds, mergedPrices, mergedIds);
+            upperPrices = Arrays.copyOf(mergedPrices, upperSize);
+            upperIds = Arrays.copyOf(mergedIds, upperSize);
+            upperStart = 0;
+            
+            mergedPrices = new double[lowerEnd + l];
+            mergedIds = new int[mergedPrices.length];
+            lowerEnd = merge(lowerPrices, lowerIds, 0, lowerEnd,
+                addedLowerPrices, addedLowerIds, mergedPrices, mergedIds);
+            lowerPrices = Arrays.copyOf(mergedPrices, lowerEnd);
+            lowerIds = Arrays.copyOf(mergedIds, lowerEnd);
+            
+            pendingCount = 0;
+            stale = 0;
+            if (pending.length > 1024) {
+                pending = new int[8];
+            }
+        }
+        
+        // Merges book[from, to) with the sorted additions into the output, keeping only active
+        // alerts; returns the merged size
+        private int merge(double[] prices, int[] ids, int from, int to, double[] addedPrices, int[] addedIds,
+                          double[] mergedPrices, int[] mergedIds) {
+            int n = 0;
+            int i = from;
+            int j = 0;
+            while (i < to || j < addedPrices.length) {
+                boolean takeExisting = j == addedPrices.length || (i < to && prices[i] <= addedPrices[j]);
+                int alertId = takeExisting ? ids[i] : addedIds[j];
+                double price = takeExisting ? prices[i++] : addedPrices[j++];
+                if (states[alertId] == ACTIVE) {
+                    mergedPrices[n] = price;
+                    mergedIds[n++] = alertId;
+                }
+            }
+            return n;
+        }
+    }
+    
+    // Alerts on one shared indicator. A crossing can land anywhere in the books, so they are
+    // never trimmed at the ends: the thresholds between the previous and current values fire,
+    // and fired entries stay in place as stale until the next merge.
+    private class IndicatorBook extends PriceBook implements IndicatorCache.Listener {
+        final IndicatorCache.Series indicator;
+        
+        IndicatorBook(IndicatorCache.Series indicator) {
+            this.indicator = indicator;
+        }
+        
+        @Override
+        public void indicatorUpdated(IndicatorCache.Series series, long time, double previous, double value) {
+            AlertEngine.this.indicatorUpdated(this, time, previous, value);
+        }
+        
+        // Fires the alerts crossed by a move of the indicator from previous to current; nothing
+        // fires on the first value, as a cross needs a reading on the other side
+        void fire(double previous, double current, long time) {
+            if (Double.isNaN(previous)) {
+                return;
+            }
+            if (current > previous) {
+                // Crossed upward through thresholds in (previous, current]
+                int from = upperBound(upperPrices, 0, upperPrices.length, previous);
+                int to = upperBound(upperPrices, from, upperPrices.length, current);
+                for (int i = from; i < to; i++) {
+                    if (trigger(upperIds[i], current, time)) {
+                        stale++;
+                    }
+                }
+            } else if (current < previous) {
+                // Crossed downward through thresholds in [current, previous)
+                int from = lowerBound(lowerPrices, 0, lowerEnd, current);
+                int to = lowerBound(lowerPrices, from, lowerEnd, previous);
+                for (int i = from; i < to; i++) {
+                    if (trigger(lowerIds[i], current, time)) {
+                        stale++;
+                    }
+                }
+            }
+        }
+    }
+    
+    // First index in [from, to) whose price is above the value
+    private static int upperBound(double[] prices, int from, int to, double value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (prices[mid] <= value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+    
+    // First index in [from, to) whose price is at or above the value
+    private static int lowerBound(double[] prices, int from, int to, double value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (prices[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+    
+    // Quicksort of parallel arrays by price, with insertion sort for short ranges
+    private static void sortByPrice(double[] prices, int[] ids, int left, int right) {
+        while (right - left > 16) {
+            double pivot = prices[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (prices[i] < pivot) {
+                    i++;
+                }
+                while (prices[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(prices, ids, i++, j--);
+                }
+            }
+            // Recurse into the smaller side and loop on the larger to bound stack depth
+            if (j - left < right - i) {
+                sortByPrice(prices, ids, left, j);
+                left = i;
+            } else {
+                sortByPrice(prices, ids, i, right);
+                right = j;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            double price = prices[i];
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= left && prices[j] > price) {
+                prices[j + 1] = prices[j];
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            prices[j + 1] = price;
+            ids[j + 1] = id;
+        }
+    }
+    
+    private static void swap(double[] prices, int[] ids, int i, int j) {
+        double price = prices[i];
+        prices[i] = prices[j];
+        prices[j] = price;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,516 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.net.URI;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class AlertsPage extends JPanel {
+    private static final String[] CONDITIONS = {"Price above", "Price below", "Crosses above", "Crosses below"};
+    private static final String[] INDICATORS = {"RSI", "SMA", "EMA"};
+    private static final byte[] INDICATOR_KINDS = {StreamingIndicator.RSI, StreamingIndicator.SMA, StreamingIndicator.EMA};
+    private static final int[] DEFAULT_PERIODS = {14, 20, 20};
+    private static final String[] TIMEFRAMES = {"1m", "5m", "15m", "1h", "1d"};
+    private static final long[] TIMEFRAME_MILLIS = {60_000, 300_000, 900_000, 3_600_000, 86_400_000};
+    private static final String[] STRESS_SYMBOLS = {"AAPL", "MSFT", "GOOGL", "AMZN", "NVDA", "META", "TSLA", "SPY"};
+    private static final int STRESS_ALERTS = 100_000;
+    private static final int MAX_LOG_LINES = 500;
+    private static final String[] CHANNELS = {"Notifications off", "Notify to log file", "Notify via webhook..."};
+    
+    private ThemeManager themeManager;
+    private AuthManager authManager;
+    private JFrame parentFrame;
+    private JTextField symbolField;
+    private JComboBox<String> conditionComboBox;
+    private JComboBox<String> indicatorComboBox;
+    private JTextField periodField;
+    private JComboBox<String> timeframeComboBox;
+    private JTextField priceField;
+    private JButton addButton;
+    private JButton cancelButton;
+    private JButton stressButton;
+    private JComboBox<String> channelComboBox;
+    private JLabel notificationLabel;
+    private JTable alertTable;
+    private AlertTableModel tableModel;
+    private JTextArea triggerLog;
+    private JLabel statusLabel;
+    // Live engine counters, kept apart so refreshes don't overwrite action messages
+    private JLabel statsLabel;
+    private Timer refreshTimer;
+    private SimpleDateFormat timeFormat;
+    
+    // Alerts fired on the engine's thread, drained on the EDT by the refresh timer
+    private final ConcurrentLinkedQueue<Integer> triggered = new ConcurrentLinkedQueue<>();
+    private final AlertEngine.TriggerListener triggerListener = (alertIds, count) -> {
+        for (int i = 0; i < count; i++) {
+            triggered.add(alertIds[i]);
+        }
+    };
+    private final AlertEngine engine;
+    private final AlertDispatcher dispatcher;
+    
+    public AlertsPage(JFrame parentFrame, ThemeManager themeManager, AuthManager authManager) {
+        this.parentFrame = parentFrame;
+        this.themeManager = themeManager;
+        this.authManager = authManager;
+        this.engine = AlertEngine.getInstance();
+        this.dispatcher = AlertDispatcher.getInstance();
+        this.timeFormat = new SimpleDateFormat("HH:mm:ss");
+        
+        setLayout(new BorderLayout());
+        initializeComponents();
+        setupLayout();
+        applyTheme();
+    }
+    
+    private void initializeComponents() {
+        symbolField = new JTextField("AAPL", 8);
+        symbolField.addActionListener(e -> suggestPrice());
+        conditionComboBox = new JComboBox<>(CONDITIONS);
+        conditionComboBox.addActionListener(e -> {
+            updateIndicatorControls();
+            suggestPrice();
+        });
+        indicatorComboBox = new JComboBox<>(INDICATORS);
+        indicatorComboBox.addActionListener(e -> {
+            periodField.setText(String.valueOf(DEFAULT_PERIODS[indicatorComboBox.getSelectedIndex()]));
+            suggestPrice();
+        });
+        periodField = new JTextField(String.valueOf(DEFAULT_PERIODS[0]), 3);
+        periodField.setToolTipText("Indicator period in bars");
+        timeframeComboBox = new JComboBox<>(TIMEFRAMES);
+        timeframeComboBox.setToolTipText("Bar timeframe the indicator is computed on");
+        priceField = new JTextField(8);
+        updateIndicatorControls();
+        suggestPrice();
+        
+        addButton = new JButton("Add Alert");
+        addButton.addActionListener(e -> addAlert());
+        
+        cancelButton = new JButton("Cancel Selected");
+        cancelButton.addActionListener(e -> cancelSelected());
+        
+        stressButton = new JButton(String.format("Stress Test (%,d)", STRESS_ALERTS));
+        stressButton.setToolTipText("Add price alerts within 5% of the price, and RSI and SMA crossing alerts, across the watchlist symbols");
+        stressButton.addActionListener(e -> addStressAlerts());
+        
+        tableModel = new AlertTableModel();
+        alertTable = new JTable(tableModel);
+        alertTable.setFillsViewportHeight(true);
+        alertTable.setRowHeight(22);
+        alertTable.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        triggerLog = new JTextArea(8, 40);
+        triggerLog.setEditable(false);
+        triggerLog.setFont(new Font("Monospace", Font.PLAIN, 12));
+        
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        statsLabel = new JLabel(" ");
+        statsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        // The dispatcher outlives the page, so the combo starts from its current channel
+        channelComboBox = new JComboBox<>(CHANNELS);
+        NotificationChannel channel = dispatcher.getChannel();
+        channelComboBox.setSelectedIndex(channel == null ? 0 : channel instanceof FileNotificationChannel ? 1 : 2);
+        channelComboBox.addActionListener(e -> changeChannel());
+        notificationLabel = new JLabel(" ");
+        notificationLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        refreshTimer = new Timer(250, e -> refresh());
+        
+        if (authManager.isGuestMode()) {
+            addButton.setText("Add Alert (Sign up required)");
+            addButton.setEnabled(false);
+            addButton.setBackground(Color.GRAY);
+            cancelButton.setEnabled(false);
+            stressButton.setEnabled(false);
+            channelComboBox.setEnabled(false);
+            symbolField.setEditable(false);
+            priceField.setEditable(false);
+            periodField.setEditable(false);
+            conditionComboBox.setEnabled(false);
+            indicatorComboBox.setEnabled(false);
+            timeframeComboBox.setEnabled(false);
+        }
+    }
+    
+    private void setupLayout() {
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 10, 20));
+        
+        JLabel titleLabel = new JLabel("Alerts");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        
+        JLabel subtitleLabel = new JLabel("Price alerts checked against every live trade, indicator alerts on every completed bar");
+        subtitleLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(Box.createVerticalStrut(5));
+        titlePanel.add(subtitleLabel);
+        
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+        
+        // Toolbar
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        toolbar.add(new JLabel("Symbol:"));
+        toolbar.add(symbolField);
+        toolbar.add(indicatorComboBox);
+        toolbar.add(periodField);
+        toolbar.add(timeframeComboBox);
+        toolbar.add(conditionComboBox);
+        toolbar.add(priceField);
+        toolbar.add(addButton);
+        toolbar.add(Box.createHorizontalStrut(20));
+        toolbar.add(cancelButton);
+        toolbar.add(stressButton);
+        toolbar.add(Box.createHorizontalStrut(20));
+        toolbar.add(channelComboBox);
+        
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(toolbar, BorderLayout.SOUTH);
+        
+        // Alerts and trigger log
+        JScrollPane tableScroll = new JScrollPane(alertTable);
+        tableScroll.setBorder(BorderFactory.createTitledBorder("Alerts"));
+        JScrollPane logScroll = new JScrollPane(triggerLog);
+        logScroll.setBorder(BorderFactory.createTitledBorder("Triggered"));
+        
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScroll, logScroll);
+        splitPane.setResizeWeight(0.7);
+        splitPane.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(0, 20, 10, 20));
+        statusPanel.add(statsLabel, BorderLayout.NORTH);
+        statusPanel.add(statusLabel, BorderLayout.WEST);
+        statusPanel.add(notificationLabel, BorderLayout.EAST);
+        
+        add(topPanel, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        engine.addTriggerListener(triggerListener);
+        refreshTimer.start();
+        refresh();
+    }
+    
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        engine.removeTriggerListener(triggerListener);
+        super.removeNotify();
+    }
+    
+    private boolean isIndicatorCondition() {
+        return conditionComboBox.getSelectedIndex() >= 2;
+    }
+    
+    // The indicator, period and timeframe only apply to crossing conditions
+    private void updateIndicatorControls() {
+        boolean enabled = isIndicatorCondition() && !authManager.isGuestMode();
+        indicatorComboBox.setEnabled(enabled);
+        periodField.setEnabled(enabled);
+        timeframeComboBox.setEnabled(enabled);
+    }
+    
+    // Pre-fills a threshold 1% beyond the latest price in the chosen direction, or the usual
+    // overbought and oversold levels for RSI
+    private void suggestPrice() {
+        String symbol = symbolField.getText().trim().toUpperCase();
+        if (symbol.isEmpty()) {
+            return;
+        }
+        boolean above = conditionComboBox.getSelectedIndex() % 2 == 0;
+        if (isIndicatorCondition() && INDICATOR_KINDS[indicatorComboBox.getSelectedIndex()] == StreamingIndicator.RSI) {
+            priceField.setText(above ? "70" : "30");
+            return;
+        }
+        double offset = above ? 1.01 : 0.99;
+        priceField.setText(String.format("%.2f", SampleMarketData.latestClose(symbol) * offset));
+    }
+    
+    private void addAlert() {
+        String symbol = symbolField.getText().trim().toUpperCase();
+        if (symbol.isEmpty()) {
+            statusLabel.setText("Enter a symbol");
+            return;
+        }
+        double price;
+        try {
+            price = Double.parseDouble(priceField.getText().trim());
+        } catch (NumberFormatException e) {
+            statusLabel.setText("Enter a valid price");
+            return;
+        }
+        if (!(price > 0) || Double.isInfinite(price)) {
+            statusLabel.setText("Enter a valid price");
+            return;
+        }
+        byte direction = conditionComboBox.getSelectedIndex() % 2 == 0 ? AlertEngine.ABOVE : AlertEngine.BELOW;
+        if (isIndicatorCondition()) {
+            int period;
+            try {
+                period = Integer.parseInt(periodField.getText().trim());
+            } catch (NumberFormatException e) {
+                period = 0;
+            }
+            if (period < 1 || period > 1000) {
+                statusLabel.setText("Enter a period between 1 and 1000");
+                return;
+            }
+            engine.addIndicatorAlert(symbol, INDICATOR_KINDS[indicatorComboBox.getSelectedIndex()], period,
+                TIMEFRAME_MILLIS[timeframeComboBox.getSelectedIndex()], direction, price, owner());
+        } else {
+            engine.addAlert(symbol, direction, price, owner());
+        }
+        refresh();
+    }
+    
+    // Alerts are notified to the signed-in user
+    private String owner() {
+        User user = authManager.getCurrentUser();
+        return user == null ? null : user.getEmail();
+    }
+    
+    private void changeChannel() {
+        int selected = channelComboBox.getSelectedIndex();
+        if (selected == 0) {
+            dispatcher.setChannel(null);
+        } else if (selected == 1) {
+            FileNotificationChannel channel = new FileNotificationChannel(FileNotificationChannel.defaultFile());
+            dispatcher.setChannel(channel);
+            statusLabel.setText("Notifications are appended to " + channel.getFile());
+        } else {
+            String url = JOptionPane.showInputDialog(parentFrame, "Webhook URL to POST notification batches to:",
+                "Alert Notifications", JOptionPane.PLAIN_MESSAGE);
+            try {
+                if (url == null || url.isBlank()) {
+                    throw new IllegalArgumentException("No webhook URL entered");
+                }
+                dispatcher.setChannel(new HttpNotificationChannel(URI.create(url.trim())));
+            } catch (IllegalArgumentException e) {
+                statusLabel.setText(e.getMessage());
+                NotificationChannel current = dispatcher.getChannel();
+                channelComboBox.setSelectedIndex(current == null ? 0 : current instanceof FileNotificationChannel ? 1 : 2);
+            }
+        }
+    }
+    
+    private void cancelSelected() {
+        int cancelled = 0;
+        for (int row : alertTable.getSelectedRows()) {
+            if (engine.cancel(tableModel.alertIdAt(row))) {
+                cancelled++;
+            }
+        }
+        statusLabel.setText(String.format("Cancelled %d alert%s", cancelled, cancelled == 1 ? "" : "s"));
+        tableModel.fireTableDataChanged();
+    }
+    
+    private void addStressAlerts() {
+        stressButton.setEnabled(false);
+        SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() {
+                long start = System.nanoTime();
+                SplittableRandom random = new SplittableRandom();
+                SymbolDictionary dictionary = SymbolDictionary.getInstance();
+                String owner = owner();
+                int[] symbolIds = new int[STRESS_SYMBOLS.length];
+                double[] prices = new double[STRESS_SYMBOLS.length];
+                for (int i = 0; i < STRESS_SYMBOLS.length; i++) {
+                    symbolIds[i] = dictionary.idOf(STRESS_SYMBOLS[i]);
+                    prices[i] = SampleMarketData.latestClose(STRESS_SYMBOLS[i]);
+                }
+                for (int i = 0; i < STRESS_ALERTS; i++) {
+                    int s = random.nextInt(STRESS_SYMBOLS.length);
+                    boolean above = random.nextBoolean();
+                    byte direction = above ? AlertEngine.ABOVE : AlertEngine.BELOW;
+                    if (i % 5 == 0) {
+                        // A fifth on a few shared indicators per symbol: RSI(14) and SMA(20) on 1m and 5m
+                        long timeframe = TIMEFRAME_MILLIS[random.nextInt(2)];
+                        if (random.nextBoolean()) {
+                            engine.addIndicatorAlert(symbolIds[s], StreamingIndicator.RSI, 14, timeframe, direction,
+                                Math.round(above ? 55 + random.nextDouble() * 30 : 15 + random.nextDouble() * 30), owner);
+                        } else {
+                            double distance = random.nextDouble() * 0.02;
+                            engine.addIndicatorAlert(symbolIds[s], StreamingIndicator.SMA, 20, timeframe, direction,
+                                Math.round(prices[s] * (above ? 1 + distance : 1 - distance) * 100) / 100.0, owner);
+                        }
+                    } else {
+                        double distance = random.nextDouble() * 0.05;
+                        double threshold = Math.round(prices[s] * (above ? 1 + distance : 1 - distance) * 100) / 100.0;
+                        engine.addAlert(symbolIds[s], direction, threshold, owner);
+                    }
+                }
+                return (System.nanoTime() - start) / 1_000_000;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    statusLabel.setText(String.format("Added %,d alerts in %,d ms", STRESS_ALERTS, get()));
+                } catch (Exception e) {
+                    statusLabel.setText("Stress test failed: " + e.getMessage());
+                }
+                stressButton.setEnabled(!authManager.isGuestMode());
+                refresh();
+            }
+        };
+        worker.execute();
+    }
+    
+    private void refresh() {
+        // A burst can fire thousands at once; keep only the newest for the log
+        int[] newest = new int[MAX_LOG_LINES];
+        int drained = 0;
+        Integer alertId;
+        while ((alertId = triggered.poll()) != null) {
+            newest[drained++ % MAX_LOG_LINES] = alertId;
+        }
+        if (drained > 0) {
+            StringBuilder lines = new StringBuilder();
+            for (int i = drained - 1; i >= Math.max(0, drained - MAX_LOG_LINES); i--) {
+                lines.append(describeTrigger(newest[i % MAX_LOG_LINES])).append('\n');
+            }
+            triggerLog.insert(lines.toString(), 0);
+            if (triggerLog.getLineCount() > MAX_LOG_LINES) {
+                try {
+                    triggerLog.replaceRange("", triggerLog.getLineStartOffset(MAX_LOG_LINES), triggerLog.getDocument().getLength());
+                } catch (BadLocationException ignored) {
+                    // Trimming is cosmetic
+                }
+            }
+        }
+        if (drained > 0 || tableModel.getRowCount() != engine.getAlertCount()) {
+            tableModel.fireTableDataChanged();
+        }
+        statsLabel.setText(String.format("%,d active of %,d alerts on %d symbols  |  %,d ticks checked, %.0f ns per tick  |  %d shared indicators, %,d updates  |  %,d triggered",
+            engine.getActiveCount(), engine.getAlertCount(), engine.getSymbolCount(),
+            engine.getTicksProcessed(), engine.getAverageTickNanos(),
+            engine.getIndicatorCount(), engine.getIndicatorUpdates(), engine.getTriggeredCount()));
+        if (dispatcher.getChannel() == null) {
+            notificationLabel.setText("Notifications off");
+        } else {
+            String error = dispatcher.getLastError();
+            notificationLabel.setText(String.format("%,d notified in %,d batches, %,d duplicates, %,d rate limited, %,d failed%s",
+                dispatcher.getSentCount(), dispatcher.getBatchCount(), dispatcher.getDeduplicatedCount(),
+                dispatcher.getRateLimitedCount(), dispatcher.getFailedCount(), error == null ? "" : " (last error: " + error + ")"));
+        }
+    }
+    
+    private String describeTrigger(int alertId) {
+        String indicator = engine.getIndicatorLabel(alertId);
+        return String.format("[%s] %s %s %s %.2f - %s %.2f",
+            timeFormat.format(new Date(engine.getTriggerTime(alertId))),
+            SymbolDictionary.getInstance().symbolOf(engine.getSymbolId(alertId)),
+            indicator == null ? "price" : indicator,
+            engine.getDirection(alertId) == AlertEngine.ABOVE
+                ? (indicator == null ? "above" : "crossed above")
+                : (indicator == null ? "below" : "crossed below"),
+            engine.getThreshold(alertId), indicator == null ? "traded" : "at", engine.getTriggerPrice(alertId));
+    }
+    
+    // Newest alerts first; rows are read from the engine on demand, so the table costs nothing
+    // per alert beyond the visible rows
+    private class AlertTableModel extends AbstractTableModel {
+        private final String[] columns = {"ID", "Symbol", "Condition", "Threshold", "Status", "Triggered At"};
+        private int rowCount;
+        
+        int alertIdAt(int row) {
+            return rowCount - 1 - row;
+        }
+        
+        @Override
+        public void fireTableDataChanged() {
+            rowCount = engine.getAlertCount();
+            super.fireTableDataChanged();
+        }
+        
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            int alertId = alertIdAt(row);
+            switch (column) {
+                case 0:
+                    return alertId;
+                case 1:
+                    return SymbolDictionary.getInstance().symbolOf(engine.getSymbolId(alertId));
+                case 2:
+                    String indicator = engine.getIndicatorLabel(alertId);
+                    return indicator == null
+                        ? CONDITIONS[engine.getDirection(alertId)]
+                        : indicator + " " + CONDITIONS[2 + engine.getDirection(alertId)].toLowerCase();
+                case 3:
+                    return String.format("%.2f", engine.getThreshold(alertId));
+                case 4:
+                    byte state = engine.getState(alertId);
+                    return state == AlertEngine.ACTIVE ? "Active" : state == AlertEngine.TRIGGERED ? "Triggered" : "Cancelled";
+                default:
+                    return engine.getState(alertId) == AlertEngine.TRIGGERED
+                        ? String.format("%.2f at %s", engine.getTriggerPrice(alertId),
+                            timeFormat.format(new Date(engine.getTriggerTime(alertId))))
+                        : "";
+            }
+        }
+    }
+    
+    public void applyTheme() {
+        setBackground(themeManager.getBackground());
+        triggerLog.setBackground(themeManager.getCardBackground());
+        triggerLog.setForeground(themeManager.getText());
+        alertTable.setBackground(themeManager.getCardBackground());
+        alertTable.setForeground(themeManager.getText());
+        
+        if (!authManager.isGuestMode()) {
+            addButton.setBackground(themeManager.getPrimary());
+            addButton.setForeground(Color.WHITE);
+        }
+        
+        applyThemeToComponent(this);
+        repaint();
+    }
+    
+    private void applyThemeToComponent(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JLabel) {
+                component.setForeground(themeManager.getText());
+            } else if (component instanceof JTextField) {
+                component.setBackground(themeManager.getCardBackground());
+                component.setForeground(themeManager.getText());
+            } else if (component instanceof JTable || component instanceof JTextArea) {
+                continue;
+            } else if (component instanceof Container) {
+                component.setBackground(themeManager.getBackground());
+                applyThemeToComponent((Container) component);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+// ARIMA(p,1,0): an AR(p) process on log returns, fitted with Yule-Walker equations. The mean
+// and autocovariances are kept as exponentially weighted running moments, so a new bar updates
+// the fit in O(p^2) time independent of the history length.
+public class ArimaModel extends ForecastModel {
+    private final int order;
+    private double mu;
+    private double[] phi;
+    private double[] autocov;
+    private double alpha;
+    
+    public ArimaModel(int order) {
+        this.order = order;
+        this.phi = new double[order];
+        this.autocov = new double[order + 1];
+    }
+    
+    @Override
+    public String getName() {
+        return "ARIMA";
+    }
+    
+    @Override
+    public int getMemory() {
+        return order;
+    }
+    
+    @Override
+    public void fit(double[] returns) {
+        mu = mean(returns);
+        phi = new double[order];
+        autocov = new double[order + 1];
+        alpha = 1.0 / Math.max(returns.length, 20);
+        if (returns.length > order + 1) {
+            for (int k = 0; k <= order; k++) {
+                double sum = 0;
+                for (int t = k; t < returns.length; t++) {
+                    sum += (returns[t] - mu) * (returns[t - k] - mu);
+                }
+                autocov[k] = sum / returns.length;
+            }
+            if (autocov[0] > 0) {
+                phi = levinsonDurbin(autocov, order);
+            }
+        }
+        computeResiduals(returns);
+    }
+    
+    @Override
+    public double update(double[] returns) {
+        int n = returns.length;
+        double latest = returns[n - 1];
+        double residual = latest - predict(returns, n - 1, null, 0);
+        pushResidual(residual);
+        
+        mu += alpha * (latest - mu);
+        for (int k = 0; k <= order && k < n; k++) {
+            autocov[k] = (1 - alpha) * autocov[k] + alpha * (latest - mu) * (returns[n - 1 - k] - mu);
+        }
+        if (autocov[0] > 0) {
+            phi = levinsonDurbin(autocov, order);
+        }
+        return residual;
+    }
+    
+    @Override
+    public double[] getParameters() {
+        double[] parameters = new double[2 * order + 3];
+        parameters[0] = mu;
+        parameters[1] = alpha;
+        System.arraycopy(phi, 0, parameters, 2, order);
+        System.arraycopy(autocov, 0, parameters, order + 2, order + 1);
+        return parameters;
+    }
+    
+    @Override
+    public void setParameters(double[] parameters) {
+        mu = parameters[0];
+        alpha = parameters[1];
+        phi = java.util.Arrays.copyOfRange(parameters, 2, order + 2);
+        autocov = java.util.Arrays.copyOfRange(parameters, order + 2, 2 * order + 3);
+    }
+    
+    @Override
+    protected double predict(double[] history, int n, double[] path, int step) {
+        double value = mu;
+        int available = n + step;
+        for (int k = 1; k <= order && k <= available; k++) {
+            value += phi[k - 1] * (lag(history, n, path, step, k) - mu);
+        }
+        return value;
+    }
+    
+    private static double[] levinsonDurbin(double[] r, int order) {
+        double[] a = new double[order];
+        double[] previous = new double[order];
+        double error = r[0];
+        for (int m = 0; m < order; m++) {
+            double acc = r[m + 1];
+            for (int j = 0; j < m; j++) {
+                acc -= previous[j] * r[m - j];
+            }
+            double reflection = acc / error;
+            a[m] = reflection;
+            for (int j = 0; j < m; j++) {
+                a[j] = previous[j] - reflection * previous[m - 1 - j];
+            }
+            error *= 1 - reflection * reflection;
+            if (error <= 0) {
+                break;
+            }
+            System.arraycopy(a, 0, previous, 0, m + 1);
+        }
+        return a;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Level-of-detail pyramid over a BarSeries. Level 0 is the base series and each level above
+// merges FACTOR consecutive bars of the level below, so any zoom level can be drawn from a
+// level with roughly one bar per few pixels.
+public class BarPyramid {
+    public static final int FACTOR = 4;
+    private static final int MIN_LEVEL_SIZE = 256;
+    
+    private final BarSeries base;
+    private final List<BarSeries> levels = new ArrayList<>();
+    
+    public BarPyramid(BarSeries base) {
+        this.base = base;
+        rebuild();
+    }
+    
+    public BarSeries getBase() {
+        return base;
+    }
+    
+    public int getLevelCount() {
+        return levels.size();
+    }
+    
+    public BarSeries getLevel(int level) {
+        return levels.get(level);
+    }
+    
+    public void rebuild() {
+        levels.clear();
+        levels.add(base);
+        addLevelsAbove();
+    }
+    
+    // Stacks coarser levels on the top one until it is small enough to draw in one pass
+    private void addLevelsAbove() {
+        BarSeries below = levels.get(levels.size() - 1);
+        while (below.size() > MIN_LEVEL_SIZE) {
+            BarSeries above = new BarSeries(below.size() / FACTOR + 1);
+            for (int i = 0; i < below.size(); i += FACTOR) {
+                mergeInto(above, below, i, Math.min(i + FACTOR, below.size()), false);
+            }
+            levels.add(above);
+            below = above;
+        }
+    }
+    
+    // Keeps upper levels in step after the base series appended a bar or updated its last bar,
+    // adding a level on top once the base has grown enough to need one
+    public void onBaseChanged() {
+        for (int level = 1; level < levels.size(); level++) {
+            BarSeries below = levels.get(level - 1);
+            BarSeries above = levels.get(level);
+            int lastBelow = below.size() - 1;
+            int group = lastBelow / FACTOR;
+            int from = group * FACTOR;
+            mergeInto(above, below, from, lastBelow + 1, group < above.size());
+        }
+        addLevelsAbove();
+    }
+    
+    // Coarsest level that still has at least minBars bars in the time range
+    public int chooseLevel(long startTime, long endTime, int minBars) {
+        for (int level = levels.size() - 1; level > 0; level--) {
+            BarSeries series = levels.get(level);
+            int from = Math.max(0, series.indexAtOrBefore(startTime));
+            int to = series.indexAtOrAfter(endTime);
+            if (to - from >= minBars) {
+                return level;
+            }
+        }
+        return 0;
+    }
+    
+    private static void mergeInto(BarSeries above, BarSeries below, int from, int to, boolean replaceLast) {
+        double high = -Double.MAX_VALUE;
+        double low = Double.MAX_VALUE;
+        double volume = 0;
+        for (int i = from; i < to; i++) {
+            high = Math.max(high, below.getHigh(i));
+            low = Math.min(low, below.getLow(i));
+            volume += below.getVolume(i);
+        }
+        if (replaceLast) {
+            above.updateLast(high, low, below.getClose(to - 1), volume);
+        } else {
+            above.append(below.getTime(from), below.getOpen(from), high, low, below.getClose(to - 1), volume);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+import java.util.Arrays;
+
+// Columnar OHLCV storage: one primitive array per field, ordered by timestamp. Appends grow
+// the columns geometrically; reads are plain array access so charts and scans stay cache-friendly.
+public class BarSeries {
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    private long[] times;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private double[] volumes;
+    private int size;
+    
+    public BarSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public BarSeries(int capacity) {
+        capacity = Math.max(capacity, 1);
+        times = new long[capacity];
+        opens = new double[capacity];
+        highs = new double[capacity];
+        lows = new double[capacity];
+        closes = new double[capacity];
+        volumes = new double[capacity];
+    }
+    
+    // Wraps already-filled columns without copying, e.g. from a bulk decode
+    BarSeries(long[] times, double[] opens, double[] highs, double[] lows, double[] closes, double[] volumes, int size) {
+        this.times = times;
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.volumes = volumes;
+        this.size = size;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public long getTime(int i) { return times[i]; }
+    public double getOpen(int i) { return opens[i]; }
+    public double getHigh(int i) { return highs[i]; }
+    public double getLow(int i) { return lows[i]; }
+    public double getClose(int i) { return closes[i]; }
+    public double getVolume(int i) { return volumes[i]; }
+    
+    public long getFirstTime() {
+        return size == 0 ? 0 : times[0];
+    }
+    
+    public long getLastTime() {
+        return size == 0 ? 0 : times[size - 1];
+    }
+    
+    public void append(long time, double open, double high, double low, double close, double volume) {
+        if (size == times.length) {
+            ensureCapacity(size + (size >> 1) + 1);
+        }
+        times[size] = time;
+        opens[size] = open;
+        highs[size] = high;
+        lows[size] = low;
+        closes[size] = close;
+        volumes[size] = volume;
+        size++;
+    }
+    
+    // Overwrites the newest bar in place, e.g. while it is still forming
+    public void updateLast(double high, double low, double close, double volume) {
+        int last = size - 1;
+        highs[last] = high;
+        lows[last] = low;
+        closes[last] = close;
+        volumes[last] = volume;
+    }
+    
+    // Appends all bars of another series; used to stitch together chunks loaded in parallel
+    public void appendAll(BarSeries other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.times, 0, times, size, other.size);
+        System.arraycopy(other.opens, 0, opens, size, other.size);
+        System.arraycopy(other.highs, 0, highs, size, other.size);
+        System.arraycopy(other.lows, 0, lows, size, other.size);
+        System.arraycopy(other.closes, 0, closes, size, other.size);
+        System.arraycopy(other.volumes, 0, volumes, size, other.size);
+        size += other.size;
+    }
+    
+    // Multiplies every price by the factor, e.g. to split-adjust or re-anchor a history
+    public void scalePrices(double factor) {
+        for (int i = 0; i < size; i++) {
+            opens[i] *= factor;
+            highs[i] *= factor;
+            lows[i] *= factor;
+            closes[i] *= factor;
+        }
+    }
+    
+    public void ensureCapacity(int capacity) {
+        if (capacity <= times.length) {
+            return;
+        }
+        times = Arrays.copyOf(times, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+    
+    // Index of the last bar at or before time, or -1 if every bar is later
+    public int indexAtOrBefore(long time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+    
+    // Index of the first bar at or after time, or size() if every bar is earlier
+    public int indexAtOrAfter(long time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
\ No newline at end of file
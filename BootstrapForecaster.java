@@ -0,0 +1,141 @@
+import java.util.stream.IntStream;
+
+// Prediction intervals by residual bootstrapping: each simulated path resamples the model's
+// in-sample residuals as shocks. Paths are generated in fixed-size parallel batches into one
+// preallocated matrix and folded into per-step quantile sketches, so memory stays flat as
+// the number of paths grows.
+public class BootstrapForecaster {
+    private static final int BATCH_SIZE = 1024;
+    
+    private final int paths;
+    private final double coverage;
+    
+    public BootstrapForecaster(int paths, double coverage) {
+        this.paths = paths;
+        this.coverage = coverage;
+    }
+    
+    public int getPaths() {
+        return paths;
+    }
+    
+    public double getCoverage() {
+        return coverage;
+    }
+    
+    public static double[] toLogReturns(double[] prices) {
+        double[] returns = new double[Math.max(0, prices.length - 1)];
+        for (int i = 1; i < prices.length; i++) {
+            returns[i - 1] = Math.log(prices[i] / prices[i - 1]);
+        }
+        return returns;
+    }
+    
+    // The model must already be fitted to the log returns of prices
+    public ForecastResult forecast(String symbol, ForecastModel model, double[] prices, int horizon) {
+        return forecast(symbol, model, prices, horizon, paths);
+    }
+    
+    public ForecastResult forecast(String symbol, ForecastModel model, double[] prices, int horizon, int pathCount) {
+        double[] returns = toLogReturns(prices);
+        double[] residuals = model.getResiduals();
+        double lastPrice = prices[prices.length - 1];
+        
+        double[] mean = new double[horizon];
+        double[] pointPath = new double[horizon];
+        double price = lastPrice;
+        for (int h = 0; h < horizon; h++) {
+            pointPath[h] = model.predictNext(returns, pointPath, h);
+            price *= Math.exp(pointPath[h]);
+            mean[h] = price;
+        }
+        
+        double tail = (1 - coverage) / 2;
+        P2Quantile[] lowerSketches = new P2Quantile[horizon];
+        P2Quantile[] upperSketches = new P2Quantile[horizon];
+        for (int h = 0; h < horizon; h++) {
+            lowerSketches[h] = new P2Quantile(tail);
+            upperSketches[h] = new P2Quantile(1 - tail);
+        }
+        
+        double[][] matrix = new double[Math.min(BATCH_SIZE, pathCount)][horizon];
+        long seed = SampleMarketData.seedFor(symbol + model.getName());
+        for (int done = 0; done < pathCount; done += matrix.length) {
+            int size = Math.min(matrix.length, pathCount - done);
+            long batchSeed = seed + done;
+            IntStream.range(0, size).parallel().forEach(p ->
+                simulatePath(model, returns, residuals, lastPrice, matrix[p], batchSeed + p));
+            for (int h = 0; h < horizon; h++) {
+                P2Quantile lowerSketch = lowerSketches[h];
+                P2Quantile upperSketch = upperSketches[h];
+                for (int p = 0; p < size; p++) {
+                    lowerSketch.add(matrix[p][h]);
+                    upperSketch.add(matrix[p][h]);
+                }
+            }
+        }
+        
+        double[] lower = new double[horizon];
+        double[] upper = new double[horizon];
+        for (int h = 0; h < horizon; h++) {
+            lower[h] = lowerSketches[h].getQuantile();
+            upper[h] = upperSketches[h].getQuantile();
+            // Two separate sketches can cross on a degenerate sample; keep the band ordered
+            if (lower[h] > upper[h]) {
+                double mid = (lower[h] + upper[h]) / 2;
+                lower[h] = mid;
+                upper[h] = mid;
+            }
+        }
+        
+        double[] errors = inSampleErrors(prices, returns, residuals);
+        return new ForecastResult(symbol, model.getName(), prices, mean, lower, upper, coverage, pathCount,
+                errors[0], errors[1], errors[2]);
+    }
+    
+    private static void simulatePath(ForecastModel model, double[] returns, double[] residuals,
+                                     double lastPrice, double[] row, long seed) {
+        long state = mix(seed);
+        int horizon = row.length;
+        for (int h = 0; h < horizon; h++) {
+            double shock = 0;
+            if (residuals.length > 0) {
+                state += 0x9E3779B97F4A7C15L;
+                shock = residuals[(int) ((mix(state) >>> 1) % residuals.length)];
+            }
+            row[h] = model.predictNext(returns, row, h) + shock;
+        }
+        double price = lastPrice;
+        for (int h = 0; h < horizon; h++) {
+            price *= Math.exp(row[h]);
+            row[h] = price;
+        }
+    }
+    
+    // SplitMix64 finalizer, so each path gets an independent stream without allocating a generator
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    // MAE and RMSE in price terms plus directional hit rate of the one-step-ahead fit
+    private static double[] inSampleErrors(double[] prices, double[] returns, double[] residuals) {
+        int start = returns.length - residuals.length;
+        double absSum = 0;
+        double squareSum = 0;
+        int hits = 0;
+        for (int i = 0; i < residuals.length; i++) {
+            int t = start + i;
+            double predictedReturn = returns[t] - residuals[i];
+            double error = prices[t + 1] - prices[t] * Math.exp(predictedReturn);
+            absSum += Math.abs(error);
+            squareSum += error * error;
+            if (Math.signum(predictedReturn) == Math.signum(returns[t])) {
+                hits++;
+            }
+        }
+        int n = Math.max(1, residuals.length);
+        return new double[]{absSum / n, Math.sqrt(squareSum / n), 100.0 * hits / n};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,757 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Candlestick, line and volume chart over a BarPyramid. Each paint binary-searches the viewport
+// on timestamps, picks the pyramid level with a few pixels per bar and batches all bars of one
+// colour together (wicks into a single Path2D, bodies and volume as pixel-aligned fillRect runs,
+// which Java2D fills far faster than a path of rectangles), so the cost of a frame tracks the
+// width of the panel rather than the number of bars loaded.
+//
+// The rendered chart is kept in an image layer. The crosshair and its readout are drawn over
+// it, and a mouse move queues only the strips the old and new crosshair cover, painted together
+// on the next frame. The hovered bar comes from a binary search on time and the hovered marker
+// from a MarkerIndex query.
+public class CandlestickChart extends JComponent {
+    public enum Mode { CANDLES, LINE }
+    
+    private static final int AXIS_WIDTH = 70;
+    private static final int AXIS_HEIGHT = 24;
+    private static final int PADDING = 10;
+    private static final double VOLUME_FRACTION = 0.2;
+    private static final int PIXELS_PER_BAR = 4;
+    private static final int MIN_VISIBLE_BARS = 20;
+    private static final double ZOOM_STEP = 1.15;
+    private static final int MARKER_SIZE = 5;
+    private static final double MARKER_HOVER_PIXELS = 8;
+    private static final int FAST_AVERAGE = 20;
+    private static final int SLOW_AVERAGE = 50;
+    private static final int TIME_LABEL_WIDTH = 110;
+    private static final int CROSSHAIR_FRAMES_PER_SECOND = 60;
+    
+    private static final Font AXIS_FONT = new Font("Arial", Font.PLAIN, 11);
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 14);
+    private static final Stroke LINE_STROKE = new BasicStroke(1.5f);
+    private static final Stroke THIN_STROKE = new BasicStroke(1);
+    private static final Stroke CROSSHAIR_STROKE = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
+        1, new float[] {4, 3}, 0);
+    
+    private final ThemeManager themeManager;
+    private final SimpleDateFormat dayFormat = new SimpleDateFormat("MMM d");
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("MMM d HH:mm");
+    
+    // Reused every frame so painting does not allocate paths
+    private final Path2D.Double upWicks = new Path2D.Double();
+    private final Path2D.Double downWicks = new Path2D.Double();
+    private final Path2D.Double closeLine = new Path2D.Double();
+    
+    // Per-bar pixel geometry, grown on demand and reused across frames
+    private int[] barLeft = new int[0];
+    private int[] bodyTop = new int[0];
+    private int[] bodyHeight = new int[0];
+    private int[] volumeTop = new int[0];
+    private boolean[] barUp = new boolean[0];
+    private final int[] markerXs = new int[3];
+    private final int[] markerYs = new int[3];
+    private final List<Rectangle> dirtyRegions = new ArrayList<>();
+    private final RepaintCoalescer crosshairRepaints = new RepaintCoalescer(this, CROSSHAIR_FRAMES_PER_SECOND);
+    
+    private BarPyramid pyramid;
+    private MarkerIndex markers;
+    private String title;
+    private Mode mode = Mode.CANDLES;
+    private boolean showVolume = true;
+    private long viewStart;
+    private long viewEnd;
+    private int drawnLevel;
+    private int drawnBars;
+    private int dragX = -1;
+    // Scroll with live data while the newest bar is on screen
+    private boolean followLatest = true;
+    
+    // Rendered chart without the crosshair; cleared from any thread when data changes
+    private BufferedImage layer;
+    private volatile boolean layerValid;
+    
+    // Geometry of the last rendered layer, used to map the cursor back to bars and prices
+    private BarSeries drawnSeries;
+    private int drawnFrom;
+    private int drawnTo;
+    private long drawnViewStart;
+    private double drawnPixelsPerMilli;
+    private double drawnBarWidth;
+    private double drawnMin;
+    private double drawnPriceScale;
+    private int drawnPriceBottom;
+    
+    // Crosshair state; crosshairX is -1 while the cursor is outside the plot
+    private int crosshairX = -1;
+    private int crosshairY = -1;
+    private int hoverMarker = -1;
+    private int hoverMarkerX;
+    private int hoverMarkerY;
+    private String hoverTime;
+    private String hoverPrice;
+    private String[] readoutLines = new String[0];
+    private Rectangle readoutBounds = new Rectangle();
+    
+    public CandlestickChart(ThemeManager themeManager) {
+        this.themeManager = themeManager;
+        setPreferredSize(new Dimension(800, 500));
+        setOpaque(true);
+        
+        MouseAdapter navigation = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragX = e.getX();
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragX = -1;
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragX >= 0) {
+                    panByPixels(dragX - e.getX());
+                    dragX = e.getX();
+                }
+                moveCrosshair(e.getX(), e.getY());
+            }
+            
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                moveCrosshair(e.getX(), e.getY());
+            }
+            
+            @Override
+            public void mouseExited(MouseEvent e) {
+                moveCrosshair(-1, -1);
+            }
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAt(e.getX(), Math.pow(ZOOM_STEP, e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        crosshairRepaints.start();
+    }
+    
+    @Override
+    public void removeNotify() {
+        crosshairRepaints.stop();
+        super.removeNotify();
+    }
+    
+    public void setPyramid(BarPyramid pyramid) {
+        this.pyramid = pyramid;
+        resetView();
+    }
+    
+    // Trade and annotation markers drawn over the bars; null clears them
+    public void setMarkers(MarkerIndex markers) {
+        this.markers = markers;
+        invalidateLayer();
+    }
+    
+    public MarkerIndex getMarkers() {
+        return markers;
+    }
+    
+    // Called by live feeds from any thread after the bars changed; the caller schedules the repaint
+    public void dataChanged() {
+        layerValid = false;
+    }
+    
+    public BarPyramid getPyramid() {
+        return pyramid;
+    }
+    
+    // Drawn top-left together with the latest close
+    public void setTitle(String title) {
+        this.title = title;
+        invalidateLayer();
+    }
+    
+    public void setMode(Mode mode) {
+        this.mode = mode;
+        invalidateLayer();
+    }
+    
+    public void setShowVolume(boolean showVolume) {
+        this.showVolume = showVolume;
+        invalidateLayer();
+    }
+    
+    @Override
+    public void setBackground(Color background) {
+        super.setBackground(background);
+        // Theme changes reach the chart through setBackground
+        invalidateLayer();
+    }
+    
+    public int getDrawnLevel() {
+        return drawnLevel;
+    }
+    
+    public int getDrawnBars() {
+        return drawnBars;
+    }
+    
+    // Shows the most recent bars at roughly one candle per PIXELS_PER_BAR pixels
+    public void resetView() {
+        if (pyramid != null) {
+            synchronized (pyramid) {
+                defaultView();
+            }
+        }
+        followLatest = true;
+        invalidateLayer();
+    }
+    
+    // Caller holds the pyramid lock
+    private void defaultView() {
+        BarSeries base = pyramid.getBase();
+        if (base.size() == 0) {
+            viewStart = 0;
+            viewEnd = 0;
+            return;
+        }
+        int first = Math.max(0, base.size() - defaultVisibleBars());
+        viewStart = base.getTime(first);
+        viewEnd = base.getLastTime() + barSpacing(base);
+    }
+    
+    private int defaultVisibleBars() {
+        return Math.max(MIN_VISIBLE_BARS, Math.max(getWidth(), 800) / (PIXELS_PER_BAR * 2));
+    }
+    
+    public void panByPixels(int dx) {
+        int plotWidth = plotWidth();
+        if (pyramid == null || pyramid.getBase().size() == 0 || plotWidth <= 0) {
+            return;
+        }
+        long span = viewEnd - viewStart;
+        long shift = (long) ((double) dx * span / plotWidth);
+        setView(viewStart + shift, viewEnd + shift);
+    }
+    
+    public void zoomAt(int x, double factor) {
+        int plotWidth = plotWidth();
+        if (pyramid == null || pyramid.getBase().size() == 0 || plotWidth <= 0) {
+            return;
+        }
+        double fraction = Math.max(0, Math.min(1, (double) (x - PADDING) / plotWidth));
+        long span = viewEnd - viewStart;
+        long anchor = viewStart + (long) (span * fraction);
+        long newSpan = (long) (span * factor);
+        setView(anchor - (long) (newSpan * fraction), anchor + (long) (newSpan * (1 - fraction)));
+    }
+    
+    private void setView(long start, long end) {
+        BarSeries base = pyramid.getBase();
+        synchronized (pyramid) {
+            long spacing = barSpacing(base);
+            long minSpan = spacing * MIN_VISIBLE_BARS;
+            long fullSpan = base.getLastTime() - base.getFirstTime() + spacing;
+            long span = Math.max(minSpan, Math.min(end - start, fullSpan + spacing * MIN_VISIBLE_BARS));
+            // Keep at least part of the data on screen
+            long earliest = base.getFirstTime() - span / 2;
+            long latest = base.getLastTime() + span / 2;
+            start = Math.max(earliest, Math.min(start, latest - span));
+            viewStart = start;
+            viewEnd = start + span;
+            followLatest = viewEnd >= base.getLastTime();
+        }
+        invalidateLayer();
+    }
+    
+    private void invalidateLayer() {
+        layerValid = false;
+        repaint();
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+            layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            layerValid = false;
+        }
+        if (!layerValid) {
+            // Marked valid before rendering so a tick arriving meanwhile forces the next render
+            layerValid = true;
+            Graphics2D layerGraphics = layer.createGraphics();
+            try {
+                paintLayer(layerGraphics);
+            } finally {
+                layerGraphics.dispose();
+            }
+            if (crosshairX >= 0) {
+                updateHover();
+            }
+        }
+        g.drawImage(layer, 0, 0, null);
+        paintCrosshair((Graphics2D) g);
+    }
+    
+    private void paintLayer(Graphics2D g2d) {
+        drawnSeries = null;
+        g2d.setColor(themeManager.getCardBackground());
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        
+        int plotWidth = plotWidth();
+        int chartBottom = getHeight() - AXIS_HEIGHT;
+        if (pyramid == null || pyramid.getBase().size() == 0 || plotWidth <= 0 || chartBottom <= PADDING) {
+            g2d.setColor(themeManager.getSecondaryText());
+            g2d.setFont(AXIS_FONT);
+            g2d.drawString(pyramid == null ? "Loading bars..." : "No data", PADDING + 10, PADDING + 20);
+            return;
+        }
+        
+        // Live feeds append and update bars under the pyramid's lock
+        synchronized (pyramid) {
+            paintBars(g2d, plotWidth, chartBottom);
+        }
+        paintTimeAxis(g2d, plotWidth, chartBottom);
+    }
+    
+    private void paintBars(Graphics2D g2d, int plotWidth, int chartBottom) {
+        BarSeries base = pyramid.getBase();
+        if (viewEnd <= viewStart || (followLatest && base.size() <= defaultVisibleBars())) {
+            // A series that started empty, e.g. one filled by a replay, widens as bars arrive
+            defaultView();
+        } else if (followLatest) {
+            long latestEnd = base.getLastTime() + barSpacing(base);
+            if (latestEnd > viewEnd) {
+                viewStart += latestEnd - viewEnd;
+                viewEnd = latestEnd;
+            }
+        }
+        int priceBottom = showVolume ? chartBottom - (int) ((chartBottom - PADDING) * VOLUME_FRACTION) : chartBottom;
+        
+        // Cull to the viewport on the coarsest level that still has enough bars for the width
+        drawnLevel = pyramid.chooseLevel(viewStart, viewEnd, plotWidth / PIXELS_PER_BAR);
+        BarSeries series = pyramid.getLevel(drawnLevel);
+        int from = Math.max(0, series.indexAtOrBefore(viewStart));
+        int to = Math.min(series.size(), series.indexAtOrAfter(viewEnd) + 1);
+        drawnBars = Math.max(0, to - from);
+        if (drawnBars == 0) {
+            return;
+        }
+        
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        double maxVolume = 0;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, series.getLow(i));
+            max = Math.max(max, series.getHigh(i));
+            maxVolume = Math.max(maxVolume, series.getVolume(i));
+        }
+        double pad = Math.max(max - min, 1e-9) * 0.05;
+        min -= pad;
+        max += pad;
+        
+        double pixelsPerMilli = (double) plotWidth / (viewEnd - viewStart);
+        double barWidth = barSpacing(series) * pixelsPerMilli;
+        double bodyWidth = Math.max(1, barWidth * 0.7);
+        double priceScale = (priceBottom - PADDING) / (max - min);
+        double volumeScale = maxVolume > 0 ? (chartBottom - priceBottom - 4) / maxVolume : 0;
+        
+        drawnSeries = series;
+        drawnFrom = from;
+        drawnTo = to;
+        drawnViewStart = viewStart;
+        drawnPixelsPerMilli = pixelsPerMilli;
+        drawnBarWidth = barWidth;
+        drawnMin = min;
+        drawnPriceScale = priceScale;
+        drawnPriceBottom = priceBottom;
+        
+        paintGrid(g2d, plotWidth, priceBottom, min, max);
+        
+        Shape oldClip = g2d.getClip();
+        g2d.clipRect(PADDING, PADDING, plotWidth, chartBottom - PADDING);
+        
+        upWicks.reset();
+        downWicks.reset();
+        closeLine.reset();
+        ensureGeometryCapacity(drawnBars);
+        int bodyPixels = (int) Math.round(bodyWidth);
+        
+        for (int i = from; i < to; i++) {
+            int k = i - from;
+            double x = PADDING + (series.getTime(i) - viewStart) * pixelsPerMilli + barWidth / 2;
+            double open = series.getOpen(i);
+            double close = series.getClose(i);
+            boolean up = close >= open;
+            barUp[k] = up;
+            barLeft[k] = (int) Math.round(x - bodyWidth / 2);
+            
+            if (mode == Mode.CANDLES) {
+                double top = priceBottom - (Math.max(open, close) - min) * priceScale;
+                double bottom = priceBottom - (Math.min(open, close) - min) * priceScale;
+                Path2D.Double wicks = up ? upWicks : downWicks;
+                wicks.moveTo(x, priceBottom - (series.getHigh(i) - min) * priceScale);
+                wicks.lineTo(x, priceBottom - (series.getLow(i) - min) * priceScale);
+                bodyTop[k] = (int) top;
+                bodyHeight[k] = Math.max(1, (int) bottom - (int) top);
+            } else {
+                double y = priceBottom - (close - min) * priceScale;
+                if (i == from) {
+                    closeLine.moveTo(x, y);
+                } else {
+                    closeLine.lineTo(x, y);
+                }
+            }
+            
+            if (showVolume && volumeScale > 0) {
+                volumeTop[k] = chartBottom - (int) (series.getVolume(i) * volumeScale);
+            }
+        }
+        
+        Color upColor = themeManager.getSuccess();
+        Color downColor = themeManager.getError();
+        if (showVolume && volumeScale > 0) {
+            // Volume is blended over the card colour up front so the bars fill opaque
+            g2d.setColor(blend(upColor, themeManager.getCardBackground(), 0.35));
+            fillVolume(g2d, true, bodyPixels, chartBottom);
+            g2d.setColor(blend(downColor, themeManager.getCardBackground(), 0.35));
+            fillVolume(g2d, false, bodyPixels, chartBottom);
+        }
+        if (mode == Mode.CANDLES) {
+            g2d.setStroke(THIN_STROKE);
+            g2d.setColor(upColor);
+            g2d.draw(upWicks);
+            fillBodies(g2d, true, bodyPixels);
+            g2d.setColor(downColor);
+            g2d.draw(downWicks);
+            fillBodies(g2d, false, bodyPixels);
+        } else {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setStroke(LINE_STROKE);
+            g2d.setColor(themeManager.getPrimary());
+            g2d.draw(closeLine);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        }
+        if (markers != null) {
+            paintMarkers(g2d, plotWidth);
+        }
+        g2d.setClip(oldClip);
+        
+        if (title != null) {
+            g2d.setFont(TITLE_FONT);
+            g2d.setColor(themeManager.getText());
+            g2d.drawString(String.format("%s  %.2f", title, base.getClose(base.size() - 1)), PADDING + 8, PADDING + 18);
+        }
+    }
+    
+    private void paintMarkers(Graphics2D g2d, int plotWidth) {
+        int from = markers.indexAtOrAfter(viewStart);
+        int to = markers.indexAtOrAfter(viewEnd);
+        // Zoomed far out there can be far more markers than pixels; a stride keeps the scan
+        // proportional to the width and same-column repeats are skipped
+        int stride = Math.max(1, (to - from) / (plotWidth * 2));
+        int lastX = Integer.MIN_VALUE;
+        byte lastKind = -1;
+        for (int i = from; i < to; i += stride) {
+            int x = markerX(i);
+            byte kind = markers.getKind(i);
+            if (x == lastX && kind == lastKind) {
+                continue;
+            }
+            lastX = x;
+            lastKind = kind;
+            int y = markerY(i);
+            if (kind == MarkerIndex.BUY) {
+                g2d.setColor(themeManager.getSuccess());
+                setTriangle(x, y, MARKER_SIZE);
+            } else if (kind == MarkerIndex.SELL) {
+                g2d.setColor(themeManager.getError());
+                setTriangle(x, y, -MARKER_SIZE);
+            } else {
+                g2d.setColor(themeManager.getPrimary());
+                g2d.fillOval(x - MARKER_SIZE / 2, y - MARKER_SIZE / 2, MARKER_SIZE, MARKER_SIZE);
+                continue;
+            }
+            g2d.fillPolygon(markerXs, markerYs, 3);
+        }
+    }
+    
+    // Buy markers point up from below the price, sell markers down from above it
+    private void setTriangle(int x, int y, int size) {
+        markerXs[0] = x;
+        markerYs[0] = y;
+        markerXs[1] = x - Math.abs(size);
+        markerYs[1] = y + 2 * size;
+        markerXs[2] = x + Math.abs(size);
+        markerYs[2] = y + 2 * size;
+    }
+    
+    private int markerX(int marker) {
+        return (int) Math.round(PADDING + (markers.getTime(marker) - drawnViewStart) * drawnPixelsPerMilli);
+    }
+    
+    private int markerY(int marker) {
+        return (int) Math.round(drawnPriceBottom - (markers.getPrice(marker) - drawnMin) * drawnPriceScale);
+    }
+    
+    // Queues just the regions covered by the crosshair before and after the move
+    private void moveCrosshair(int x, int y) {
+        int plotWidth = plotWidth();
+        int chartBottom = getHeight() - AXIS_HEIGHT;
+        boolean inside = x >= PADDING && x < PADDING + plotWidth && y >= PADDING && y < chartBottom;
+        if (!inside && crosshairX < 0) {
+            return;
+        }
+        addCrosshairRegions(dirtyRegions);
+        crosshairX = inside ? x : -1;
+        crosshairY = inside ? y : -1;
+        updateHover();
+        addCrosshairRegions(dirtyRegions);
+        for (Rectangle region : dirtyRegions) {
+            crosshairRepaints.markDirty(region);
+        }
+        dirtyRegions.clear();
+    }
+    
+    // Resolves the bar and marker under the cursor against the last rendered layer
+    private void updateHover() {
+        hoverMarker = -1;
+        readoutLines = new String[0];
+        readoutBounds = new Rectangle();
+        if (crosshairX < 0 || drawnSeries == null) {
+            return;
+        }
+        long time = drawnViewStart + (long) ((crosshairX - PADDING) / drawnPixelsPerMilli);
+        double price = drawnMin + (drawnPriceBottom - crosshairY) / drawnPriceScale;
+        hoverPrice = crosshairY <= drawnPriceBottom ? String.format("%.2f", price) : null;
+        
+        synchronized (pyramid) {
+            int bar = Math.max(drawnFrom, Math.min(drawnTo - 1, drawnSeries.indexAtOrBefore(time)));
+            long barTime = drawnSeries.getTime(bar);
+            crosshairX = (int) Math.round(PADDING + (barTime - drawnViewStart) * drawnPixelsPerMilli + drawnBarWidth / 2);
+            hoverTime = timeFormat.format(new Date(barTime));
+            String bars = String.format("O %.2f  H %.2f  L %.2f  C %.2f  V %s",
+                drawnSeries.getOpen(bar), drawnSeries.getHigh(bar), drawnSeries.getLow(bar),
+                drawnSeries.getClose(bar), formatVolume(drawnSeries.getVolume(bar)));
+            // Averages are over base bars, ending at the last one the hovered bar aggregates
+            BarSeries base = pyramid.getBase();
+            int baseBar = drawnLevel == 0 ? bar
+                : base.indexAtOrBefore(bar + 1 < drawnSeries.size() ? drawnSeries.getTime(bar + 1) - 1 : Long.MAX_VALUE);
+            String averages = String.format("MA%d %s  MA%d %s",
+                FAST_AVERAGE, formatAverage(base, baseBar, FAST_AVERAGE),
+                SLOW_AVERAGE, formatAverage(base, baseBar, SLOW_AVERAGE));
+            
+            if (markers != null && hoverPrice != null) {
+                hoverMarker = markers.nearest(time, price, drawnPixelsPerMilli, drawnPriceScale, MARKER_HOVER_PIXELS);
+            }
+            if (hoverMarker >= 0) {
+                hoverMarkerX = markerX(hoverMarker);
+                hoverMarkerY = markerY(hoverMarker);
+                String kind = markers.getKind(hoverMarker) == MarkerIndex.BUY ? "BUY"
+                    : markers.getKind(hoverMarker) == MarkerIndex.SELL ? "SELL" : "NOTE";
+                String label = markers.getLabel(hoverMarker);
+                String marker = String.format("%s @ %.2f  %s%s", kind, markers.getPrice(hoverMarker),
+                    timeFormat.format(new Date(markers.getTime(hoverMarker))), label == null ? "" : "  " + label);
+                readoutLines = new String[] {bars, averages, marker};
+            } else {
+                readoutLines = new String[] {bars, averages};
+            }
+        }
+        
+        FontMetrics metrics = getFontMetrics(AXIS_FONT);
+        int width = 0;
+        for (String line : readoutLines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        int top = title != null ? PADDING + 26 : PADDING + 6;
+        readoutBounds = new Rectangle(PADDING + 6, top, width + 12, readoutLines.length * 15 + 8);
+    }
+    
+    private void addCrosshairRegions(List<Rectangle> regions) {
+        if (crosshairX < 0) {
+            return;
+        }
+        int plotWidth = plotWidth();
+        int chartBottom = getHeight() - AXIS_HEIGHT;
+        regions.add(new Rectangle(crosshairX - 1, PADDING, 3, chartBottom - PADDING));
+        regions.add(new Rectangle(crosshairX - TIME_LABEL_WIDTH / 2 - 1, chartBottom, TIME_LABEL_WIDTH + 2, AXIS_HEIGHT));
+        regions.add(new Rectangle(PADDING, crosshairY - 1, plotWidth, 3));
+        regions.add(new Rectangle(PADDING + plotWidth, crosshairY - 9, AXIS_WIDTH, 19));
+        regions.add(new Rectangle(readoutBounds.x, readoutBounds.y, readoutBounds.width + 1, readoutBounds.height + 1));
+        if (hoverMarker >= 0) {
+            regions.add(new Rectangle(hoverMarkerX - 2 * MARKER_SIZE - 2, hoverMarkerY - 2 * MARKER_SIZE - 2,
+                4 * MARKER_SIZE + 5, 4 * MARKER_SIZE + 5));
+        }
+    }
+    
+    private void paintCrosshair(Graphics2D g2d) {
+        if (crosshairX < 0 || readoutLines.length == 0) {
+            return;
+        }
+        int plotWidth = plotWidth();
+        int chartBottom = getHeight() - AXIS_HEIGHT;
+        g2d.setFont(AXIS_FONT);
+        FontMetrics metrics = g2d.getFontMetrics();
+        
+        g2d.setColor(themeManager.getSecondaryText());
+        g2d.setStroke(CROSSHAIR_STROKE);
+        g2d.drawLine(crosshairX, PADDING, crosshairX, chartBottom - 1);
+        g2d.drawLine(PADDING, crosshairY, PADDING + plotWidth - 1, crosshairY);
+        g2d.setStroke(THIN_STROKE);
+        
+        // Axis labels
+        g2d.setColor(themeManager.getPrimary());
+        g2d.fillRect(crosshairX - TIME_LABEL_WIDTH / 2, chartBottom + 1, TIME_LABEL_WIDTH, AXIS_HEIGHT - 2);
+        if (hoverPrice != null) {
+            g2d.fillRect(PADDING + plotWidth + 1, crosshairY - 8, AXIS_WIDTH - 2, 17);
+        }
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(hoverTime, crosshairX - metrics.stringWidth(hoverTime) / 2, chartBottom + 16);
+        if (hoverPrice != null) {
+            g2d.drawString(hoverPrice, PADDING + plotWidth + 6, crosshairY + metrics.getAscent() / 2);
+        }
+        
+        if (hoverMarker >= 0) {
+            g2d.setColor(themeManager.getText());
+            g2d.drawOval(hoverMarkerX - 2 * MARKER_SIZE, hoverMarkerY - 2 * MARKER_SIZE, 4 * MARKER_SIZE, 4 * MARKER_SIZE);
+        }
+        
+        g2d.setColor(themeManager.getCardBackground());
+        g2d.fillRect(readoutBounds.x, readoutBounds.y, readoutBounds.width, readoutBounds.height);
+        g2d.setColor(themeManager.getBorder());
+        g2d.drawRect(readoutBounds.x, readoutBounds.y, readoutBounds.width, readoutBounds.height);
+        g2d.setColor(themeManager.getText());
+        for (int i = 0; i < readoutLines.length; i++) {
+            g2d.drawString(readoutLines[i], readoutBounds.x + 6, readoutBounds.y + 15 + i * 15);
+        }
+    }
+    
+    private static String formatAverage(BarSeries series, int bar, int period) {
+        if (bar < period - 1) {
+            return "-";
+        }
+        double sum = 0;
+        for (int i = bar - period + 1; i <= bar; i++) {
+            sum += series.getClose(i);
+        }
+        return String.format("%.2f", sum / period);
+    }
+    
+    private static String formatVolume(double volume) {
+        if (volume >= 1e9) {
+            return String.format("%.2fB", volume / 1e9);
+        } else if (volume >= 1e6) {
+            return String.format("%.2fM", volume / 1e6);
+        } else if (volume >= 1e3) {
+            return String.format("%.1fK", volume / 1e3);
+        }
+        return String.format("%.0f", volume);
+    }
+    
+    private void fillBodies(Graphics2D g2d, boolean up, int width) {
+        if (width < 2) {
+            return;
+        }
+        for (int k = 0; k < drawnBars; k++) {
+            if (barUp[k] == up) {
+                g2d.fillRect(barLeft[k], bodyTop[k], width, bodyHeight[k]);
+            }
+        }
+    }
+    
+    private void fillVolume(Graphics2D g2d, boolean up, int width, int chartBottom) {
+        for (int k = 0; k < drawnBars; k++) {
+            if (barUp[k] == up) {
+                g2d.fillRect(barLeft[k], volumeTop[k], width, chartBottom - volumeTop[k]);
+            }
+        }
+    }
+    
+    private void ensureGeometryCapacity(int bars) {
+        if (barLeft.length < bars) {
+            int capacity = Math.max(bars, barLeft.length * 2);
+            barLeft = new int[capacity];
+            bodyTop = new int[capacity];
+            bodyHeight = new int[capacity];
+            volumeTop = new int[capacity];
+            barUp = new boolean[capacity];
+        }
+    }
+    
+    private void paintGrid(Graphics2D g2d, int plotWidth, int priceBottom, double min, double max) {
+        g2d.setFont(AXIS_FONT);
+        g2d.setStroke(THIN_STROKE);
+        FontMetrics metrics = g2d.getFontMetrics();
+        double step = niceStep((max - min) / 6);
+        for (double value = Math.ceil(min / step) * step; value <= max; value += step) {
+            int y = (int) (priceBottom - (value - min) * (priceBottom - PADDING) / (max - min));
+            g2d.setColor(themeManager.getBorder());
+            g2d.drawLine(PADDING, y, PADDING + plotWidth, y);
+            g2d.setColor(themeManager.getSecondaryText());
+            g2d.drawString(String.format("%.2f", value), PADDING + plotWidth + 6, y + metrics.getAscent() / 2);
+        }
+    }
+    
+    private void paintTimeAxis(Graphics2D g2d, int plotWidth, int chartBottom) {
+        g2d.setColor(themeManager.getBorder());
+        g2d.drawLine(PADDING, chartBottom, PADDING + plotWidth, chartBottom);
+        g2d.setColor(themeManager.getSecondaryText());
+        SimpleDateFormat format = viewEnd - viewStart > 10L * 24 * 3600 * 1000 ? dayFormat : timeFormat;
+        int labels = Math.max(2, plotWidth / 140);
+        for (int i = 0; i < labels; i++) {
+            long time = viewStart + (viewEnd - viewStart) * i / labels;
+            int x = PADDING + plotWidth * i / labels;
+            g2d.drawLine(x, chartBottom, x, chartBottom + 4);
+            g2d.drawString(format.format(new Date(time)), x + 2, chartBottom + 16);
+        }
+    }
+    
+    private int plotWidth() {
+        return getWidth() - PADDING - AXIS_WIDTH;
+    }
+    
+    private static long barSpacing(BarSeries series) {
+        int n = series.size();
+        if (n < 2) {
+            return 60_000L;
+        }
+        return Math.max(1, (series.getLastTime() - series.getFirstTime()) / (n - 1));
+    }
+    
+    private static Color blend(Color color, Color background, double alpha) {
+        return new Color(
+            (int) (color.getRed() * alpha + background.getRed() * (1 - alpha)),
+            (int) (color.getGreen() * alpha + background.getGreen() * (1 - alpha)),
+            (int) (color.getBlue() * alpha + background.getBlue() * (1 - alpha)));
+    }
+    
+    private static double niceStep(double raw) {
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double normalized = raw / magnitude;
+        double nice = normalized < 1.5 ? 1 : normalized < 3 ? 2 : normalized < 7 ? 5 : 10;
+        return nice * magnitude;
+    }
+}
\ No newline at end of file
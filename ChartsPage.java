@@ -0,0 +1,539 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class ChartsPage extends JPanel {
+    private static final int MAX_SAMPLE_BARS = 10_000_000;
+    // The cached sample's 48 bytes, the chart's own copy of them and its pyramid levels
+    private static final long BYTES_PER_BAR = 112;
+    private static final long BAR_INTERVAL_MILLIS = 60_000L;
+    private static final int LIVE_FRAMES_PER_SECOND = 60;
+    private static final int FAST_AVERAGE = 20;
+    private static final int SLOW_AVERAGE = 50;
+    private static final int REPLAY_SAMPLE_BARS = 1_000_000;
+    private static final String[] WATCHLIST = {"AAPL", "MSFT", "GOOGL", "AMZN", "NVDA", "META", "TSLA", "SPY"};
+    private static final String[] REPLAY_SPEEDS = {"Real-time", "60x", "3600x", "Max speed"};
+    
+    // The last generated sample, reused when the page is revisited for the same symbol. Held
+    // softly because it can take a third of the heap.
+    private static SoftReference<SampleBars> cachedSample = new SoftReference<>(null);
+    
+    private ThemeManager themeManager;
+    private AuthManager authManager;
+    private JFrame parentFrame;
+    private JTextField symbolField;
+    private JComboBox<String> modeComboBox;
+    private JCheckBox volumeCheckBox;
+    private JCheckBox liveCheckBox;
+    private JButton loadButton;
+    private JButton importButton;
+    private JButton archiveButton;
+    private JButton resetZoomButton;
+    private JComboBox<String> replaySpeedComboBox;
+    private JButton replayButton;
+    private Timer replayStatusTimer;
+    private ReplaySource replaySource;
+    private JLabel statusLabel;
+    private CandlestickChart chart;
+    private QuoteBoard quoteBoard;
+    private LiveChartFeed liveFeed;
+    private String loadedSymbol;
+    
+    public ChartsPage(JFrame parentFrame, ThemeManager themeManager, AuthManager authManager) {
+        this.parentFrame = parentFrame;
+        this.themeManager = themeManager;
+        this.authManager = authManager;
+        
+        setLayout(new BorderLayout());
+        initializeComponents();
+        setupLayout();
+        applyTheme();
+        loadSampleBars();
+    }
+    
+    private void initializeComponents() {
+        symbolField = new JTextField("AAPL", 8);
+        
+        String[] modes = {"Candlestick", "Line"};
+        modeComboBox = new JComboBox<>(modes);
+        modeComboBox.addActionListener(e -> chart.setMode(
+            "Line".equals(modeComboBox.getSelectedItem()) ? CandlestickChart.Mode.LINE : CandlestickChart.Mode.CANDLES));
+        
+        volumeCheckBox = new JCheckBox("Volume", true);
+        volumeCheckBox.addActionListener(e -> chart.setShowVolume(volumeCheckBox.isSelected()));
+        
+        loadButton = new JButton("Load");
+        loadButton.addActionListener(e -> loadSampleBars());
+        
+        importButton = new JButton("Import...");
+        importButton.setToolTipText("Import bars from CSV (time,open,high,low,close[,volume]) or a saved archive");
+        importButton.addActionListener(e -> importBars());
+        
+        archiveButton = new JButton("Save Archive...");
+        archiveButton.setToolTipText("Save the charted bars as a compressed archive");
+        archiveButton.addActionListener(e -> saveArchive());
+        
+        liveCheckBox = new JCheckBox("Live");
+        liveCheckBox.setToolTipText("Stream ticks into the latest candle");
+        liveCheckBox.addActionListener(e -> updateLiveFeed());
+        
+        resetZoomButton = new JButton("Reset Zoom");
+        resetZoomButton.addActionListener(e -> chart.resetView());
+        
+        replaySpeedComboBox = new JComboBox<>(REPLAY_SPEEDS);
+        replayButton = new JButton("Replay...");
+        replayButton.setToolTipText("Replay recorded trades or bars into the live data feed");
+        replayButton.addActionListener(e -> toggleReplay());
+        replayStatusTimer = new Timer(250, e -> updateReplayStatus());
+        
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        chart = new CandlestickChart(themeManager);
+        
+        quoteBoard = new QuoteBoard(themeManager, WATCHLIST, LIVE_FRAMES_PER_SECOND);
+        quoteBoard.setSymbolListener(symbol -> {
+            symbolField.setText(symbol);
+            loadSampleBars();
+        });
+        liveFeed = new LiveChartFeed(chart, BAR_INTERVAL_MILLIS, LIVE_FRAMES_PER_SECOND);
+    }
+    
+    private void setupLayout() {
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 10, 20));
+        
+        JLabel titleLabel = new JLabel("Charts");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        
+        JLabel subtitleLabel = new JLabel("Candlestick, line and volume charts - drag to pan, scroll to zoom, hover to inspect");
+        subtitleLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(Box.createVerticalStrut(5));
+        titlePanel.add(subtitleLabel);
+        
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+        
+        // Toolbar
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        toolbar.add(new JLabel("Symbol:"));
+        toolbar.add(symbolField);
+        toolbar.add(loadButton);
+        toolbar.add(importButton);
+        toolbar.add(archiveButton);
+        toolbar.add(Box.createHorizontalStrut(20));
+        toolbar.add(new JLabel("Chart Type:"));
+        toolbar.add(modeComboBox);
+        toolbar.add(volumeCheckBox);
+        toolbar.add(liveCheckBox);
+        toolbar.add(resetZoomButton);
+        toolbar.add(Box.createHorizontalStrut(20));
+        toolbar.add(new JLabel("Replay Speed:"));
+        toolbar.add(replaySpeedComboBox);
+        toolbar.add(replayButton);
+        
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(toolbar, BorderLayout.SOUTH);
+        
+        // Chart
+        JPanel chartContainer = new JPanel(new BorderLayout());
+        chartContainer.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createEmptyBorder(10, 20, 10, 20),
+            BorderFactory.createLineBorder(themeManager.getBorder())
+        ));
+        chartContainer.add(chart, BorderLayout.CENTER);
+        
+        // Watchlist
+        JPanel watchlistPanel = new JPanel(new BorderLayout());
+        watchlistPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 20));
+        JLabel watchlistLabel = new JLabel("Watchlist");
+        watchlistLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        watchlistLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 6, 0));
+        JPanel boardBorder = new JPanel(new BorderLayout());
+        boardBorder.setBorder(BorderFactory.createLineBorder(themeManager.getBorder()));
+        boardBorder.add(quoteBoard, BorderLayout.CENTER);
+        watchlistPanel.add(watchlistLabel, BorderLayout.NORTH);
+        watchlistPanel.add(boardBorder, BorderLayout.CENTER);
+        JPanel watchlistColumn = new JPanel(new BorderLayout());
+        watchlistColumn.add(watchlistPanel, BorderLayout.NORTH);
+        
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(0, 20, 10, 20));
+        statusPanel.add(statusLabel, BorderLayout.WEST);
+        
+        add(topPanel, BorderLayout.NORTH);
+        add(chartContainer, BorderLayout.CENTER);
+        add(watchlistColumn, BorderLayout.EAST);
+        add(statusPanel, BorderLayout.SOUTH);
+    }
+    
+    private void loadSampleBars() {
+        String symbol = symbolField.getText().trim().toUpperCase();
+        if (symbol.isEmpty()) {
+            return;
+        }
+        quoteBoard.setSelectedSymbol(symbol);
+        // Size the sample to the heap so large histories do not exhaust memory
+        int count = (int) Math.min(MAX_SAMPLE_BARS, Runtime.getRuntime().maxMemory() / 3 / BYTES_PER_BAR);
+        
+        loadButton.setEnabled(false);
+        statusLabel.setText(String.format("Loading %,d one-minute bars for %s...", count, symbol));
+        
+        SwingWorker<BarPyramid, Void> worker = new SwingWorker<BarPyramid, Void>() {
+            private long elapsedMillis;
+            private MarkerIndex markers;
+            
+            @Override
+            protected BarPyramid doInBackground() throws Exception {
+                long start = System.nanoTime();
+                SampleBars sample = sampleBars(symbol, count);
+                markers = sample.markers;
+                // The live feed appends to the chart's bars, so each load gets its own copy
+                BarSeries bars = new BarSeries(sample.bars.size());
+                bars.appendAll(sample.bars);
+                BarPyramid pyramid = new BarPyramid(bars);
+                elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                return pyramid;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    BarPyramid pyramid = get();
+                    chart.setPyramid(pyramid);
+                    chart.setMarkers(markers);
+                    loadedSymbol = symbol;
+                    updateLiveFeed();
+                    statusLabel.setText(String.format("%s: %,d bars, %d detail levels, %,d trades (loaded in %,d ms)",
+                        symbol, pyramid.getBase().size(), pyramid.getLevelCount(), markers.size(), elapsedMillis));
+                } catch (Exception e) {
+                    statusLabel.setText("Failed to load bars: " + e.getMessage());
+                } finally {
+                    loadButton.setEnabled(true);
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private static synchronized SampleBars sampleBars(String symbol, int count) {
+        SampleBars sample = cachedSample.get();
+        if (sample == null || !sample.symbol.equals(symbol) || sample.count != count) {
+            // Let a previous sample be collected before generating the next one
+            cachedSample.clear();
+            BarSeries bars = SampleMarketData.minuteBars(symbol, count);
+            sample = new SampleBars(symbol, count, bars, crossoverTrades(bars));
+            cachedSample = new SoftReference<>(sample);
+        }
+        return sample;
+    }
+    
+    private static class SampleBars {
+        final String symbol;
+        final int count;
+        // Never modified once generated
+        final BarSeries bars;
+        final MarkerIndex markers;
+        
+        SampleBars(String symbol, int count, BarSeries bars, MarkerIndex markers) {
+            this.symbol = symbol;
+            this.count = count;
+            this.bars = bars;
+            this.markers = markers;
+        }
+    }
+    
+    // Imports bars from a compressed archive, or from CSV for the symbol in the field (used when
+    // the file has a symbol column)
+    private void importBars() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        String symbol = symbolField.getText().trim().toUpperCase();
+        CsvBarImporter importer = new CsvBarImporter(symbol.isEmpty() ? null : symbol);
+        
+        importButton.setEnabled(false);
+        statusLabel.setText("Importing " + file.getFileName() + "...");
+        
+        SwingWorker<BarPyramid, Void> worker = new SwingWorker<BarPyramid, Void>() {
+            private String summary;
+            
+            @Override
+            protected BarPyramid doInBackground() throws Exception {
+                if (TimeSeriesArchive.isArchive(file)) {
+                    long start = System.nanoTime();
+                    TimeSeriesArchive archive = TimeSeriesArchive.open(file);
+                    BarSeries bars = archive.readBars();
+                    summary = String.format("%s: %,d bars from archive (%,d blocks, %.1f bytes/bar, %,d ms)",
+                        file.getFileName(), bars.size(), archive.getBlockCount(), archive.getBytesPerRow(),
+                        (System.nanoTime() - start) / 1_000_000);
+                    return new BarPyramid(bars);
+                }
+                BarSeries bars = importer.importFile(file);
+                summary = String.format("%s: %,d bars (%,.0f MB in %,d ms, %,.0f MB/s, %,d lines skipped)",
+                    file.getFileName(), bars.size(), importer.getBytesRead() / 1e6,
+                    importer.getElapsedMillis(), importer.getMegabytesPerSecond(), importer.getSkippedLines());
+                return new BarPyramid(bars);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    BarPyramid pyramid = get();
+                    // Imported history is not continued by the live feed
+                    loadedSymbol = null;
+                    liveCheckBox.setSelected(false);
+                    liveFeed.stop();
+                    chart.setPyramid(pyramid);
+                    chart.setMarkers(null);
+                    statusLabel.setText(summary);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statusLabel.setText("Import failed: " + cause.getMessage());
+                } finally {
+                    importButton.setEnabled(true);
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private void saveArchive() {
+        BarPyramid pyramid = chart.getPyramid();
+        if (pyramid == null || pyramid.getBase().size() == 0) {
+            statusLabel.setText("No bars to archive");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(symbolField.getText().trim().toUpperCase() + ".tsa"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        // Snapshot under the pyramid lock, since a live feed may be appending
+        BarSeries bars = new BarSeries(pyramid.getBase().size());
+        synchronized (pyramid) {
+            bars.appendAll(pyramid.getBase());
+        }
+        
+        archiveButton.setEnabled(false);
+        SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                TimeSeriesArchive.writeBars(file, bars);
+                return Files.size(file);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    long bytes = get();
+                    statusLabel.setText(String.format("Saved %,d bars to %s (%,d KB, %.1f bytes/bar)",
+                        bars.size(), file.getFileName(), bytes / 1024, (double) bytes / bars.size()));
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statusLabel.setText("Save failed: " + cause.getMessage());
+                } finally {
+                    archiveButton.setEnabled(true);
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    // Sample trade markers from a moving-average crossover over the closes, matching the
+    // averages shown in the chart's crosshair readout
+    private static MarkerIndex crossoverTrades(BarSeries bars) {
+        int n = bars.size();
+        long[] times = new long[n / 8 + 16];
+        double[] prices = new double[times.length];
+        byte[] kinds = new byte[times.length];
+        int count = 0;
+        StreamingIndicator fast = new StreamingIndicator(SymbolDictionary.NONE, StreamingIndicator.SMA, FAST_AVERAGE, BAR_INTERVAL_MILLIS);
+        StreamingIndicator slow = new StreamingIndicator(SymbolDictionary.NONE, StreamingIndicator.SMA, SLOW_AVERAGE, BAR_INTERVAL_MILLIS);
+        int previousSign = 0;
+        for (int i = 0; i < n; i++) {
+            double close = bars.getClose(i);
+            fast.update(close);
+            if (!slow.update(close)) {
+                continue;
+            }
+            int sign = fast.getValue() >= slow.getValue() ? 1 : -1;
+            if (previousSign != 0 && sign != previousSign) {
+                if (count == times.length) {
+                    times = Arrays.copyOf(times, count * 2);
+                    prices = Arrays.copyOf(prices, count * 2);
+                    kinds = Arrays.copyOf(kinds, count * 2);
+                }
+                times[count] = bars.getTime(i);
+                prices[count] = close;
+                kinds[count] = sign > 0 ? MarkerIndex.BUY : MarkerIndex.SELL;
+                count++;
+            }
+            previousSign = sign;
+        }
+        return new MarkerIndex(Arrays.copyOf(times, count), Arrays.copyOf(prices, count),
+            Arrays.copyOf(kinds, count), null);
+    }
+    
+    private void updateLiveFeed() {
+        if (liveCheckBox.isSelected() && loadedSymbol != null && isDisplayable()) {
+            liveFeed.start(loadedSymbol, replaySource != null && replaySource.isBarRecording());
+        } else {
+            liveFeed.stop();
+        }
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        updateLiveFeed();
+    }
+    
+    private void toggleReplay() {
+        if (replaySource != null) {
+            finishReplay();
+            return;
+        }
+        Object[] options = {"Recording File...", "Sample Bars", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this,
+            "Replay recorded market data into the live feed.\nRecordings are CSV lines of time,symbol,price,size (trades)\nor time,symbol,open,high,low,close,volume (bars), time in epoch ms.",
+            "Market Replay", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        Path file = null;
+        if (choice == 0) {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            file = chooser.getSelectedFile().toPath();
+        } else if (choice != 1) {
+            return;
+        }
+        
+        Path recording = file;
+        String symbol = symbolField.getText().trim().toUpperCase();
+        double speed = replaySpeed();
+        replayButton.setEnabled(false);
+        statusLabel.setText("Loading replay...");
+        
+        SwingWorker<ReplaySource, Void> worker = new SwingWorker<ReplaySource, Void>() {
+            @Override
+            protected ReplaySource doInBackground() throws Exception {
+                return recording != null
+                    ? ReplaySource.fromFile(recording, speed)
+                    : ReplaySource.fromBars(symbol, SampleMarketData.minuteBars(symbol, REPLAY_SAMPLE_BARS), speed);
+            }
+            
+            @Override
+            protected void done() {
+                replayButton.setEnabled(true);
+                try {
+                    startReplay(get());
+                } catch (Exception e) {
+                    statusLabel.setText("Failed to load replay: " + e.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    // The chart starts empty and is rebuilt from the replayed stream of its first symbol
+    private void startReplay(ReplaySource source) {
+        if (source.size() == 0) {
+            statusLabel.setText("The recording contains no events");
+            return;
+        }
+        replaySource = source;
+        loadedSymbol = source.getSymbols()[0];
+        chart.setPyramid(new BarPyramid(new BarSeries()));
+        chart.setMarkers(null);
+        liveCheckBox.setSelected(true);
+        updateLiveFeed();
+        
+        source.setCompletionListener(() -> SwingUtilities.invokeLater(() -> {
+            if (replaySource == source) {
+                finishReplay();
+            }
+        }));
+        MarketDataFeed.getInstance().setSource(source);
+        replayButton.setText("Stop Replay");
+        replayStatusTimer.start();
+    }
+    
+    private void finishReplay() {
+        ReplaySource source = replaySource;
+        replaySource = null;
+        replayStatusTimer.stop();
+        MarketDataFeed.getInstance().useDefaultSource();
+        liveCheckBox.setSelected(false);
+        liveFeed.stop();
+        replayButton.setText("Replay...");
+        statusLabel.setText(String.format("%s %s: %,d of %,d events at %,.0f events/s",
+            source.getName(), source.isFinished() && source.getPublishedCount() == source.size() ? "finished" : "stopped",
+            source.getPublishedCount(), source.size(), source.getEventsPerSecond()));
+    }
+    
+    private void updateReplayStatus() {
+        ReplaySource source = replaySource;
+        if (source != null) {
+            statusLabel.setText(String.format("%s: %,d of %,d events (%,.0f events/s)",
+                source.getName(), source.getPublishedCount(), source.size(), source.getEventsPerSecond()));
+        }
+    }
+    
+    private double replaySpeed() {
+        switch (replaySpeedComboBox.getSelectedIndex()) {
+            case 1:
+                return 60;
+            case 2:
+                return 3600;
+            case 3:
+                return ReplaySource.MAX_SPEED;
+            default:
+                return ReplaySource.REAL_TIME;
+        }
+    }
+    
+    @Override
+    public void removeNotify() {
+        if (replaySource != null) {
+            finishReplay();
+        }
+        liveFeed.stop();
+        super.removeNotify();
+    }
+    
+    public void applyTheme() {
+        setBackground(themeManager.getBackground());
+        symbolField.setBackground(themeManager.getCardBackground());
+        symbolField.setForeground(themeManager.getText());
+        
+        applyThemeToComponent(this);
+        repaint();
+    }
+    
+    private void applyThemeToComponent(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JLabel) {
+                component.setForeground(themeManager.getText());
+            } else if (component instanceof JTextField) {
+                component.setBackground(themeManager.getCardBackground());
+                component.setForeground(themeManager.getText());
+            } else if (component instanceof Container) {
+                component.setBackground(themeManager.getBackground());
+                applyThemeToComponent((Container) component);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,323 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Rolling correlations of every pair in a universe over the last window bars. Each bar's
+// cross-section of returns enters the window and the oldest leaves it, so the running sums
+// per asset and the cross sums per pair are updated in place: a rank-two update of the upper
+// triangle, done in square tiles that are spread across cores. The sums are rebuilt exactly
+// from the stored window every few windows so rounding cannot accumulate.
+//
+// Correlations are never stored: they are formed from the sums when read, and the top-k
+// queries keep only their k best candidates while scanning.
+public class CorrelationEngine {
+    private static final int ASSET_TILE = 64;
+    private static final int REBUILD_WINDOWS = 16;
+    
+    private final int[] symbolIds;
+    private final IntIntMap assets = new IntIntMap();
+    private final int size;
+    private final int window;
+    
+    // Upper triangle of the cross sums, row by row: pair (i, j >= i) is at rowOffsets[i] + j
+    private final double[] cross;
+    private final int[] rowOffsets;
+    private final double[] sums;
+    private final int[] tileRows;
+    private final int[] tileColumns;
+    
+    // The window of returns, a cross-section per bar, as a ring
+    private final double[][] returns;
+    private final double[] lastCloses;
+    private double[] spare;
+    private int head;
+    private int count;
+    private long bars;
+    private long updateNanos;
+    
+    public CorrelationEngine(String[] symbols, int window) {
+        if (window < 3) {
+            throw new IllegalArgumentException("Window must be at least 3 bars: " + window);
+        }
+        this.size = symbols.length;
+        this.window = window;
+        this.symbolIds = new int[size];
+        SymbolDictionary dictionary = SymbolDictionary.getInstance();
+        for (int i = 0; i < size; i++) {
+            symbolIds[i] = dictionary.idOf(symbols[i]);
+            if (assets.containsKey(symbolIds[i])) {
+                throw new IllegalArgumentException("Duplicate symbol: " + symbols[i]);
+            }
+            assets.put(symbolIds[i], i);
+        }
+        long pairs = (long) size * (size + 1) / 2;
+        if (pairs > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Universe too large: " + size);
+        }
+        cross = new double[(int) pairs];
+        rowOffsets = new int[size];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            // Row i holds columns i..size-1, indexed by the column itself
+            rowOffsets[i] = offset - i;
+            offset += size - i;
+        }
+        sums = new double[size];
+        returns = new double[window][size];
+        lastCloses = new double[size];
+        spare = new double[size];
+        Arrays.fill(lastCloses, Double.NaN);
+        
+        int tiles = (size + ASSET_TILE - 1) / ASSET_TILE;
+        tileRows = new int[tiles * (tiles + 1) / 2];
+        tileColumns = new int[tileRows.length];
+        int p = 0;
+        for (int a = 0; a < tiles; a++) {
+            for (int b = a; b < tiles; b++) {
+                tileRows[p] = a;
+                tileColumns[p++] = b;
+            }
+        }
+    }
+    
+    public int size() { return size; }
+    public int getWindow() { return window; }
+    public String getSymbol(int asset) { return SymbolDictionary.getInstance().symbolOf(symbolIds[asset]); }
+    public int indexOf(String symbol) { return assets.get(SymbolDictionary.getInstance().find(symbol), -1); }
+    public synchronized long getBarCount() { return bars; }
+    public synchronized boolean isReady() { return count == window; }
+    
+    public synchronized double getAverageUpdateMillis() {
+        return bars == 0 ? 0 : updateNanos / 1e6 / bars;
+    }
+    
+    // Adds one bar's closes, one per asset in universe order; the first bar only sets the base
+    // prices. A missing (NaN) close counts as an unchanged price.
+    public synchronized void addBar(double[] closes) {
+        if (closes.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " closes, got " + closes.length);
+        }
+        long start = System.nanoTime();
+        double[] entering = spare;
+        for (int i = 0; i < size; i++) {
+            double close = closes[i];
+            double previous = lastCloses[i];
+            entering[i] = close > 0 && previous > 0 ? Math.log(close / previous) : 0;
+            if (close > 0) {
+                lastCloses[i] = close;
+            }
+        }
+        if (bars++ == 0) {
+            updateNanos += System.nanoTime() - start;
+            return;
+        }
+        
+        // Slots not yet filled hold zeros, which leave without effect
+        double[] leaving = returns[head];
+        count = Math.min(window, count + 1);
+        for (int i = 0; i < size; i++) {
+            sums[i] += entering[i] - leaving[i];
+        }
+        double[] x = entering;
+        double[] y = leaving;
+        IntStream.range(0, tileRows.length).parallel().forEach(tile -> {
+            int rowStart = tileRows[tile] * ASSET_TILE;
+            int columnStart = tileColumns[tile] * ASSET_TILE;
+            int rowEnd = Math.min(size, rowStart + ASSET_TILE);
+            int columnEnd = Math.min(size, columnStart + ASSET_TILE);
+            for (int i = rowStart; i < rowEnd; i++) {
+                double xi = x[i];
+                double yi = y[i];
+                int offset = rowOffsets[i];
+                for (int j = Math.max(i, columnStart); j < columnEnd; j++) {
+                    cross[offset + j] += xi * x[j] - yi * y[j];
+                }
+            }
+        });
+        spare = leaving;
+        returns[head] = entering;
+        head = (head + 1) % window;
+        if (bars % ((long) window * REBUILD_WINDOWS) == 0) {
+            rebuild();
+        }
+        updateNanos += System.nanoTime() - start;
+    }
+    
+    // Recomputes every sum from the returns in the window
+    private void rebuild() {
+        Arrays.fill(sums, 0);
+        for (double[] r : returns) {
+            for (int i = 0; i < size; i++) {
+                sums[i] += r[i];
+            }
+        }
+        IntStream.range(0, tileRows.length).parallel().forEach(tile -> {
+            int rowStart = tileRows[tile] * ASSET_TILE;
+            int columnStart = tileColumns[tile] * ASSET_TILE;
+            int rowEnd = Math.min(size, rowStart + ASSET_TILE);
+            int columnEnd = Math.min(size, columnStart + ASSET_TILE);
+            for (int i = rowStart; i < rowEnd; i++) {
+                int offset = rowOffsets[i];
+                for (int j = Math.max(i, columnStart); j < columnEnd; j++) {
+                    cross[offset + j] = 0;
+                }
+                for (double[] r : returns) {
+                    double ri = r[i];
+                    for (int j = Math.max(i, columnStart); j < columnEnd; j++) {
+                        cross[offset + j] += ri * r[j];
+                    }
+                }
+            }
+        });
+    }
+    
+    public double getCorrelation(String a, String b) {
+        int i = indexOf(a);
+        int j = indexOf(b);
+        if (i < 0 || j < 0) {
+            throw new IllegalArgumentException("Not in the universe: " + (i < 0 ? a : b));
+        }
+        return getCorrelation(i, j);
+    }
+    
+    // Pearson correlation over the window; NaN until two returns are in it or if either asset
+    // did not move
+    public synchronized double getCorrelation(int i, int j) {
+        return correlation(i, j);
+    }
+    
+    private double correlation(int i, int j) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double n = count;
+        double vi = n * cross[rowOffsets[i] + i] - sums[i] * sums[i];
+        double vj = n * cross[rowOffsets[j] + j] - sums[j] * sums[j];
+        if (!(vi > 0) || !(vj > 0)) {
+            return Double.NaN;
+        }
+        double c = i <= j ? cross[rowOffsets[i] + j] : cross[rowOffsets[j] + i];
+        return Math.max(-1, Math.min(1, (n * c - sums[i] * sums[j]) / Math.sqrt(vi * vj)));
+    }
+    
+    // The k assets most correlated with the asset (or most negatively, with lowest), best first
+    public synchronized int[] mostCorrelated(int asset, int k, boolean lowest) {
+        TopK top = new TopK(Math.min(k, size - 1));
+        double sign = lowest ? -1 : 1;
+        for (int j = 0; j < size; j++) {
+            if (j != asset) {
+                double c = correlation(asset, j);
+                if (!Double.isNaN(c)) {
+                    top.offer(sign * c, j, -1);
+                }
+            }
+        }
+        return top.firsts();
+    }
+    
+    // The k most correlated distinct pairs in the universe, best first, as {i, j} pairs. Rows
+    // are scanned in parallel, each tile keeping its own k best, and the tiles' bests merged.
+    public synchronized int[][] mostCorrelatedPairs(int k) {
+        int rowTiles = (size + ASSET_TILE - 1) / ASSET_TILE;
+        TopK[] partial = new TopK[rowTiles];
+        IntStream.range(0, rowTiles).parallel().forEach(tile -> {
+            TopK top = new TopK(k);
+            int rowEnd = Math.min(size, (tile + 1) * ASSET_TILE);
+            for (int i = tile * ASSET_TILE; i < rowEnd; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    double c = correlation(i, j);
+                    if (!Double.isNaN(c)) {
+                        top.offer(c, i, j);
+                    }
+                }
+            }
+            partial[tile] = top;
+        });
+        TopK merged = new TopK(k);
+        for (TopK top : partial) {
+            for (int p = 0; p < top.count; p++) {
+                merged.offer(top.scores[p], top.firsts[p], top.seconds[p]);
+            }
+        }
+        int[] order = merged.order();
+        int[][] pairs = new int[order.length][];
+        for (int p = 0; p < order.length; p++) {
+            pairs[p] = new int[] {merged.firsts[order[p]], merged.seconds[order[p]]};
+        }
+        return pairs;
+    }
+    
+    // Bounded min-heap on score: holds the k highest offered so far
+    private static class TopK {
+        private final double[] scores;
+        private final int[] firsts;
+        private final int[] seconds;
+        private int count;
+        
+        TopK(int capacity) {
+            scores = new double[Math.max(0, capacity)];
+            firsts = new int[scores.length];
+            seconds = new int[scores.length];
+        }
+        
+        void offer(double score, int first, int second) {
+            if (count < scores.length) {
+                int p = count++;
+                while (p > 0 && scores[(p - 1) / 2] > score) {
+                    move((p - 1) / 2, p);
+                    p = (p - 1) / 2;
+                }
+                set(p, score, first, second);
+            } else if (count > 0 && score > scores[0]) {
+                int p = 0;
+                while (true) {
+                    int child = 2 * p + 1;
+                    if (child >= count) {
+                        break;
+                    }
+                    if (child + 1 < count && scores[child + 1] < scores[child]) {
+                        child++;
+                    }
+                    if (scores[child] >= score) {
+                        break;
+                    }
+                    move(child, p);
+                    p = child;
+                }
+                set(p, score, first, second);
+            }
+        }
+        
+        private void move(int from, int to) {
+            set(to, scores[from], firsts[from], seconds[from]);
+        }
+        
+        private void set(int p, double score, int first, int second) {
+            scores[p] = score;
+            firsts[p] = first;
+            seconds[p] = second;
+        }
+        
+        // Heap slots from highest score to lowest
+        int[] order() {
+            Integer[] slots = new Integer[count];
+            for (int p = 0; p < count; p++) {
+                slots[p] = p;
+            }
+            Arrays.sort(slots, (a, b) -> Double.compare(scores[b], scores[a]));
+            int[] order = new int[count];
+            for (int p = 0; p < count; p++) {
+                order[p] = slots[p];
+            }
+            return order;
+        }
+        
+        int[] firsts() {
+            int[] order = order();
+            int[] result = new int[count];
+            for (int p = 0; p < count; p++) {
+                result[p] = firsts[order[p]];
+            }
+            return result;
+        }
+    }
+}
\ No newline at end of file
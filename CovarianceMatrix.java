@@ -0,0 +1,257 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Sample covariance of asset returns shrunk toward a scaled identity (Ledoit-Wolf). The product
+// X'X of the demeaned return matrix is computed in square tiles of assets over chunks of
+// observations, so both tiles' return rows stay in cache while every pair in them is
+// accumulated, and the tiles of the upper triangle are spread across cores.
+//
+// Stored as a dense row-major N x N array.
+public class CovarianceMatrix {
+    private static final int ASSET_TILE = 64;
+    private static final int OBSERVATION_CHUNK = 512;
+    
+    private final int size;
+    private final double[] values;
+    private final double[] means;
+    private final double shrinkage;
+    
+    private CovarianceMatrix(int size, double[] values, double[] means, double shrinkage) {
+        this.size = size;
+        this.values = values;
+        this.means = means;
+        this.shrinkage = shrinkage;
+    }
+    
+    // returns[asset][observation], all assets over the same observations. A shrinkage in [0, 1]
+    // is used as given; a negative one is replaced by the Ledoit-Wolf optimal intensity.
+    public static CovarianceMatrix estimate(double[][] returns, double shrinkage) {
+        int n = returns.length;
+        int t = n == 0 ? 0 : returns[0].length;
+        if (t < 2) {
+            throw new IllegalArgumentException("Need at least two observations per asset");
+        }
+        double[] means = new double[n];
+        double[][] centered = new double[n][];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double[] row = returns[i];
+            if (row.length != t) {
+                throw new IllegalArgumentException("Asset " + i + " has " + row.length + " observations, expected " + t);
+            }
+            double sum = 0;
+            for (double r : row) {
+                sum += r;
+            }
+            double mean = sum / t;
+            double[] c = new double[t];
+            for (int k = 0; k < t; k++) {
+                c[k] = row[k] - mean;
+            }
+            means[i] = mean;
+            centered[i] = c;
+        });
+        
+        // Upper-triangle tiles, each owned by one task
+        int tiles = (n + ASSET_TILE - 1) / ASSET_TILE;
+        int[] tileRows = new int[tiles * (tiles + 1) / 2];
+        int[] tileColumns = new int[tileRows.length];
+        int p = 0;
+        for (int a = 0; a < tiles; a++) {
+            for (int b = a; b < tiles; b++) {
+                tileRows[p] = a;
+                tileColumns[p++] = b;
+            }
+        }
+        double[] values = new double[n * n];
+        IntStream.range(0, tileRows.length).parallel().forEach(tile ->
+            accumulateTile(centered, values, n, t, tileRows[tile] * ASSET_TILE, tileColumns[tile] * ASSET_TILE));
+        // The tiles filled the upper triangle unscaled (1/T normalization for the shrinkage estimate)
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                double v = values[i * n + j] / t;
+                values[i * n + j] = v;
+                values[j * n + i] = v;
+            }
+        }
+        
+        double intensity = shrinkage >= 0 ? Math.min(1, shrinkage) : ledoitWolfIntensity(centered, values, n, t);
+        double target = 0;
+        for (int i = 0; i < n; i++) {
+            target += values[i * n + i];
+        }
+        target /= n;
+        // Shrink toward target * I, then rescale to the unbiased 1/(T-1) normalization
+        double unbias = (double) t / (t - 1);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double shrunk = (1 - intensity) * values[i * n + j] + (i == j ? intensity * target : 0);
+                values[i * n + j] = shrunk * unbias;
+            }
+        }
+        return new CovarianceMatrix(n, values, means, intensity);
+    }
+    
+    // Accumulates one tile in 2 x 2 blocks of asset pairs: each pass over a chunk of
+    // observations loads four return values and feeds four independent sums
+    private static void accumulateTile(double[][] centered, double[] values, int n, int t, int rowStart, int columnStart) {
+        int rowEnd = Math.min(n, rowStart + ASSET_TILE);
+        int columnEnd = Math.min(n, columnStart + ASSET_TILE);
+        for (int k0 = 0; k0 < t; k0 += OBSERVATION_CHUNK) {
+            int k1 = Math.min(t, k0 + OBSERVATION_CHUNK);
+            for (int i = rowStart; i < rowEnd; i += 2) {
+                double[] x0 = centered[i];
+                double[] x1 = centered[Math.min(i + 1, rowEnd - 1)];
+                // Diagonal tiles only need j >= i; the pair (i + 1, i) this includes is discarded
+                for (int j = Math.max(i, columnStart); j < columnEnd; j += 2) {
+                    double[] y0 = centered[j];
+                    double[] y1 = centered[Math.min(j + 1, columnEnd - 1)];
+                    double s00 = 0;
+                    double s01 = 0;
+                    double s10 = 0;
+                    double s11 = 0;
+                    for (int k = k0; k < k1; k++) {
+                        double a0 = x0[k];
+                        double a1 = x1[k];
+                        double b0 = y0[k];
+                        double b1 = y1[k];
+                        s00 += a0 * b0;
+                        s01 += a0 * b1;
+                        s10 += a1 * b0;
+                        s11 += a1 * b1;
+                    }
+                    values[i * n + j] += s00;
+                    if (j + 1 < columnEnd) {
+                        values[i * n + j + 1] += s01;
+                    }
+                    if (i + 1 < rowEnd) {
+                        if (j >= i + 1) {
+                            values[(i + 1) * n + j] += s10;
+                        }
+                        if (j + 1 < columnEnd) {
+                            values[(i + 1) * n + j + 1] += s11;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    // Ledoit and Wolf (2004): intensity = min(b^2, d^2) / d^2, where d^2 is the distance of S
+    // from the target and b^2 the sampling variance of S. The sum over observations of
+    // ||x x' - S||^2 reduces to sum ||x||^4 - T ||S||^2, so it costs O(NT) rather than O(N^2 T).
+    private static double ledoitWolfIntensity(double[][] centered, double[] s, int n, int t) {
+        double trace = 0;
+        double squaredNorm = 0;
+        for (int i = 0; i < n; i++) {
+            trace += s[i * n + i];
+        }
+        for (double v : s) {
+            squaredNorm += v * v;
+        }
+        double mu = trace / n;
+        double d2 = (squaredNorm - 2 * mu * trace + mu * mu * n) / n;
+        if (d2 <= 0) {
+            return 1;
+        }
+        double[] norms = new double[t];
+        for (int i = 0; i < n; i++) {
+            double[] x = centered[i];
+            for (int k = 0; k < t; k++) {
+                norms[k] += x[k] * x[k];
+            }
+        }
+        double fourth = 0;
+        for (double norm : norms) {
+            fourth += norm * norm;
+        }
+        double b2 = Math.max(0, (fourth - t * squaredNorm) / ((double) t * t) / n);
+        return Math.min(b2, d2) / d2;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public double get(int i, int j) {
+        return values[i * size + j];
+    }
+    
+    public double getVolatility(int i) {
+        return Math.sqrt(values[i * size + i]);
+    }
+    
+    public double getCorrelation(int i, int j) {
+        double denominator = Math.sqrt(values[i * size + i] * values[j * size + j]);
+        return denominator == 0 ? 0 : values[i * size + j] / denominator;
+    }
+    
+    // Mean return of each asset over the observations
+    public double[] getMeans() {
+        return means.clone();
+    }
+    
+    // The shrinkage intensity applied, 0 for the raw sample covariance
+    public double getShrinkage() {
+        return shrinkage;
+    }
+    
+    // out = C * w. Long-only optimal weights are mostly zero, so a sparse w is multiplied as a
+    // sum of the rows (C is symmetric) of its nonzero entries, reading only those rows; a dense
+    // one row by row, in parallel for large matrices.
+    public void multiply(double[] w, double[] out) {
+        int nonzero = 0;
+        for (double x : w) {
+            if (x != 0) {
+                nonzero++;
+            }
+        }
+        if (nonzero < size / 4) {
+            Arrays.fill(out, 0);
+            for (int j = 0; j < size; j++) {
+                double weight = w[j];
+                if (weight == 0) {
+                    continue;
+                }
+                int offset = j * size;
+                for (int i = 0; i < size; i++) {
+                    out[i] += weight * values[offset + i];
+                }
+            }
+        } else if (size >= 256) {
+            IntStream.range(0, size).parallel().forEach(i -> out[i] = rowDot(i, w));
+        } else {
+            for (int i = 0; i < size; i++) {
+                out[i] = rowDot(i, w);
+            }
+        }
+    }
+    
+    // w' C w
+    public double quadraticForm(double[] w) {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += w[i] * rowDot(i, w);
+        }
+        return sum;
+    }
+    
+    // Four independent sums so the additions pipeline instead of waiting on each other
+    private double rowDot(int i, double[] w) {
+        int offset = i * size;
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int j = 0;
+        for (; j + 3 < size; j += 4) {
+            s0 += values[offset + j] * w[j];
+            s1 += values[offset + j + 1] * w[j + 1];
+            s2 += values[offset + j + 2] * w[j + 2];
+            s3 += values[offset + j + 3] * w[j + 3];
+        }
+        for (; j < size; j++) {
+            s0 += values[offset + j] * w[j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
\ No newline at end of file
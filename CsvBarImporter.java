@@ -0,0 +1,458 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+// Imports historical bars from CSV into a BarSeries. The file is split into line-aligned
+// chunks that are memory-mapped and parsed in parallel straight from the bytes, with no String
+// or split per line, and the per-chunk columns are then stitched together in file order.
+//
+// Rows are "time,open,high,low,close[,volume]", optionally with a symbol column after the time
+// ("time,symbol,open,..."), in which case only the importer's symbol is kept. Time is epoch
+// seconds or milliseconds, yyyyMMdd, or yyyy-MM-dd with an optional " HH:mm[:ss[.fff]]" or
+// "THH:mm..." part, read as UTC. Header lines and rows that do not parse are skipped.
+public class CsvBarImporter {
+    private static final long MIN_CHUNK_BYTES = 8L << 20;
+    // Each chunk is one mapping, which must stay well under the 2 GB mapping limit
+    private static final long MAX_CHUNK_BYTES = 256L << 20;
+    private static final long BOUNDARY_SCAN_BYTES = 64 * 1024;
+    // Chunk columns start small and grow as rows are kept, since a symbol filter may keep few
+    private static final int INITIAL_CHUNK_ROWS = 4096;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Mantissas stay below 2^53 so the final scaling rounds correctly
+    private static final long MANTISSA_LIMIT = (1L << 53) / 10 - 1;
+    
+    private final byte[] symbol;
+    private volatile long rowCount;
+    private volatile long skippedLines;
+    private volatile long bytesRead;
+    private volatile long elapsedNanos;
+    
+    public CsvBarImporter() {
+        this(null);
+    }
+    
+    // Keeps only rows for the symbol in files with a symbol column; null keeps every row
+    public CsvBarImporter(String symbol) {
+        this.symbol = symbol == null ? null : symbol.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    public BarSeries importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size);
+            ChunkParser[] parsers = new ChunkParser[bounds.length - 1];
+            try {
+                IntStream.range(0, parsers.length).parallel().forEach(i -> {
+                    try {
+                        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+                        parsers[i] = new ChunkParser(buffer, symbol);
+                        parsers[i].parse();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            
+            long total = 0;
+            long skipped = 0;
+            for (ChunkParser parser : parsers) {
+                total += parser.bars.size();
+                skipped += parser.skipped;
+            }
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IOException(String.format("%,d rows is more than one series can hold", total));
+            }
+            BarSeries bars = new BarSeries((int) total);
+            for (ChunkParser parser : parsers) {
+                bars.appendAll(parser.bars);
+            }
+            bars = inTimeOrder(bars);
+            
+            rowCount = bars.size();
+            skippedLines = skipped;
+            bytesRead = size;
+            elapsedNanos = System.nanoTime() - start;
+            return bars;
+        }
+    }
+    
+    public long getRowCount() {
+        return rowCount;
+    }
+    
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+    
+    public long getBytesRead() {
+        return bytesRead;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+    
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesRead / 1e6 / (elapsedNanos / 1e9);
+    }
+    
+    // Chunk starts are moved forward to the next line start, so every line is parsed by
+    // exactly one chunk
+    private static long[] chunkBounds(FileChannel channel, long size) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (cores * 4L) + 1));
+        int chunks = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+        long[] bounds = new long[chunks + 1];
+        ByteBuffer scan = ByteBuffer.allocate((int) BOUNDARY_SCAN_BYTES);
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = Math.max(bounds[i - 1], nextLineStart(channel, i * chunkBytes, size, scan));
+        }
+        bounds[chunks] = size;
+        return bounds;
+    }
+    
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer scan) throws IOException {
+        long cursor = position - 1;
+        while (cursor < size) {
+            scan.clear();
+            int read = channel.read(scan, cursor);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return cursor + i + 1;
+                }
+            }
+            cursor += read;
+        }
+        return size;
+    }
+    
+    // Files exported newest-first are reversed; anything else out of order is rejected
+    private static BarSeries inTimeOrder(BarSeries bars) throws IOException {
+        int n = bars.size();
+        boolean ascending = true;
+        boolean descending = true;
+        for (int i = 1; i < n && (ascending || descending); i++) {
+            long previous = bars.getTime(i - 1);
+            long current = bars.getTime(i);
+            ascending &= current >= previous;
+            descending &= current <= previous;
+        }
+        if (ascending) {
+            return bars;
+        }
+        if (!descending) {
+            throw new IOException("Rows must be in time order");
+        }
+        BarSeries reversed = new BarSeries(n);
+        for (int i = n - 1; i >= 0; i--) {
+            reversed.append(bars.getTime(i), bars.getOpen(i), bars.getHigh(i), bars.getLow(i),
+                bars.getClose(i), bars.getVolume(i));
+        }
+        return reversed;
+    }
+    
+    // Parses one mapped chunk with a single forward cursor
+    private static class ChunkParser {
+        final ByteBuffer buffer;
+        final byte[] symbol;
+        final int limit;
+        final BarSeries bars;
+        int pos;
+        boolean error;
+        long skipped;
+        
+        ChunkParser(ByteBuffer buffer, byte[] symbol) {
+            this.buffer = buffer;
+            this.symbol = symbol;
+            this.limit = buffer.limit();
+            this.bars = new BarSeries(INITIAL_CHUNK_ROWS);
+        }
+        
+        void parse() {
+            while (pos < limit) {
+                int lineStart = pos;
+                error = false;
+                parseLine();
+                if (error) {
+                    // Header lines (starting with a letter) are expected; anything else is a bad row
+                    byte first = buffer.get(lineStart);
+                    boolean header = (first >= 'A' && first <= 'Z') || (first >= 'a' && first <= 'z') || first == '"';
+                    boolean blank = first == '\n' || first == '\r';
+                    if (!header && !blank) {
+                        skipped++;
+                    }
+                }
+                skipLine();
+            }
+        }
+        
+        private void parseLine() {
+            long time = parseTime();
+            expectComma();
+            if (!error && isLetter(peek())) {
+                if (!matchSymbol()) {
+                    return;
+                }
+                expectComma();
+            }
+            double open = parseNumber();
+            expectComma();
+            double high = parseNumber();
+            expectComma();
+            double low = parseNumber();
+            expectComma();
+            double close = parseNumber();
+            double volume = 0;
+            if (!error && peek() == ',') {
+                pos++;
+                volume = parseNumber();
+            }
+            skipSpaces();
+            byte end = peek();
+            if (!error && (end == '\n' || end == '\r' || end == 0)) {
+                bars.append(time, open, high, low, close, volume);
+            } else {
+                error = true;
+            }
+        }
+        
+        // With a symbol filter, rows for other symbols are dropped; without one every row is kept
+        private boolean matchSymbol() {
+            int start = pos;
+            while (pos < limit && buffer.get(pos) != ',' && buffer.get(pos) != '\n') {
+                pos++;
+            }
+            if (symbol == null) {
+                return true;
+            }
+            int length = pos;
+            while (length > start && buffer.get(length - 1) == ' ') {
+                length--;
+            }
+            if (length - start != symbol.length) {
+                return false;
+            }
+            for (int i = 0; i < symbol.length; i++) {
+                if (buffer.get(start + i) != symbol[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private long parseTime() {
+            skipSpaces();
+            int start = pos;
+            long value = parseDigits();
+            int digits = pos - start;
+            if (error) {
+                return 0;
+            }
+            if (digits == 4 && peek() == '-') {
+                int year = (int) value;
+                pos++;
+                int month = (int) parseFixed(2);
+                expect((byte) '-');
+                int day = (int) parseFixed(2);
+                long millis = daysFromCivil(year, month, day) * 86_400_000L;
+                byte separator = peek();
+                if (separator == 'T' || (separator == ' ' && isDigit(peekAt(1)))) {
+                    pos++;
+                    millis += parseFixed(2) * 3_600_000L;
+                    expect((byte) ':');
+                    millis += parseFixed(2) * 60_000L;
+                    if (peek() == ':') {
+                        pos++;
+                        millis += parseFixed(2) * 1000L;
+                        if (peek() == '.') {
+                            pos++;
+                            int fractionStart = pos;
+                            long fraction = parseDigits();
+                            int fractionDigits = pos - fractionStart;
+                            while (fractionDigits > 3) {
+                                fraction /= 10;
+                                fractionDigits--;
+                            }
+                            while (fractionDigits < 3) {
+                                fraction *= 10;
+                                fractionDigits++;
+                            }
+                            millis += fraction;
+                        }
+                    }
+                    if (peek() == 'Z') {
+                        pos++;
+                    }
+                }
+                if (month < 1 || month > 12 || day < 1 || day > 31) {
+                    error = true;
+                }
+                return millis;
+            }
+            if (digits == 8 && value >= 19000101 && value <= 29991231) {
+                int year = (int) (value / 10000);
+                int month = (int) (value / 100 % 100);
+                int day = (int) (value % 100);
+                return daysFromCivil(year, month, day) * 86_400_000L;
+            }
+            // Epoch seconds until the year 5138, milliseconds beyond
+            return value < 100_000_000_000L ? value * 1000 : value;
+        }
+        
+        private double parseNumber() {
+            skipSpaces();
+            if (error) {
+                return 0;
+            }
+            boolean negative = false;
+            byte c = peek();
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                pos++;
+            }
+            long mantissa = 0;
+            int exponent = 0;
+            boolean any = false;
+            while (pos < limit && isDigit(c = buffer.get(pos))) {
+                if (mantissa < MANTISSA_LIMIT) {
+                    mantissa = mantissa * 10 + (c - '0');
+                } else {
+                    exponent++;
+                }
+                any = true;
+                pos++;
+            }
+            if (pos < limit && buffer.get(pos) == '.') {
+                pos++;
+                while (pos < limit && isDigit(c = buffer.get(pos))) {
+                    if (mantissa < MANTISSA_LIMIT) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        exponent--;
+                    }
+                    any = true;
+                    pos++;
+                }
+            }
+            if (!any) {
+                error = true;
+                return 0;
+            }
+            if (pos < limit && (buffer.get(pos) == 'e' || buffer.get(pos) == 'E')) {
+                pos++;
+                boolean negativeExponent = peek() == '-';
+                if (peek() == '-' || peek() == '+') {
+                    pos++;
+                }
+                int start = pos;
+                long value = parseDigits();
+                if (pos == start) {
+                    error = true;
+                    return 0;
+                }
+                exponent += (int) (negativeExponent ? -value : value);
+            }
+            double value = mantissa;
+            if (exponent < 0) {
+                value = -exponent < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-exponent] : value / Math.pow(10, -exponent);
+            } else if (exponent > 0) {
+                value = exponent < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[exponent] : value * Math.pow(10, exponent);
+            }
+            return negative ? -value : value;
+        }
+        
+        private long parseDigits() {
+            long value = 0;
+            int start = pos;
+            byte c;
+            while (pos < limit && isDigit(c = buffer.get(pos)) && pos - start < 18) {
+                value = value * 10 + (c - '0');
+                pos++;
+            }
+            if (pos == start) {
+                error = true;
+            }
+            return value;
+        }
+        
+        private long parseFixed(int digits) {
+            long value = 0;
+            for (int i = 0; i < digits; i++) {
+                byte c = peek();
+                if (!isDigit(c)) {
+                    error = true;
+                    return 0;
+                }
+                value = value * 10 + (c - '0');
+                pos++;
+            }
+            return value;
+        }
+        
+        private void expectComma() {
+            skipSpaces();
+            expect((byte) ',');
+        }
+        
+        private void expect(byte expected) {
+            if (peek() == expected) {
+                pos++;
+            } else {
+                error = true;
+            }
+        }
+        
+        private void skipSpaces() {
+            while (pos < limit && (buffer.get(pos) == ' ' || buffer.get(pos) == '\t')) {
+                pos++;
+            }
+        }
+        
+        private void skipLine() {
+            while (pos < limit && buffer.get(pos) != '\n') {
+                pos++;
+            }
+            pos++;
+        }
+        
+        private byte peek() {
+            return pos < limit ? buffer.get(pos) : 0;
+        }
+        
+        private byte peekAt(int offset) {
+            return pos + offset < limit ? buffer.get(pos + offset) : 0;
+        }
+    }
+    
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static boolean isLetter(byte c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+    
+    // Days since 1970-01-01 in the proleptic Gregorian calendar
+    static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = (year >= 0 ? year : year - 399) / 400;
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
\ No newline at end of file
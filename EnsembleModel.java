@@ -0,0 +1,103 @@
+public class EnsembleModel extends ForecastModel {
+    private final ForecastModel[] members;
+    
+    public EnsembleModel(ForecastModel[] members) {
+        this.members = members;
+    }
+    
+    @Override
+    public String getName() {
+        return "Ensemble";
+    }
+    
+    @Override
+    public int getMemory() {
+        int memory = 0;
+        for (ForecastModel member : members) {
+            memory = Math.max(memory, member.getMemory());
+        }
+        return memory;
+    }
+    
+    @Override
+    public void fit(double[] returns) {
+        for (ForecastModel member : members) {
+            member.fit(returns);
+        }
+        computeResiduals(returns);
+    }
+    
+    // Member parameters are concatenated, each prefixed with its length
+    @Override
+    public double[] getParameters() {
+        double[][] memberParameters = new double[members.length][];
+        int length = 0;
+        for (int i = 0; i < members.length; i++) {
+            memberParameters[i] = members[i].getParameters();
+            length += memberParameters[i].length + 1;
+        }
+        double[] parameters = new double[length];
+        int offset = 0;
+        for (double[] values : memberParameters) {
+            parameters[offset++] = values.length;
+            System.arraycopy(values, 0, parameters, offset, values.length);
+            offset += values.length;
+        }
+        return parameters;
+    }
+    
+    @Override
+    public void setParameters(double[] parameters) {
+        int offset = 0;
+        for (ForecastModel member : members) {
+            int length = (int) parameters[offset++];
+            if (length != member.getParameterCount()) {
+                throw new IllegalArgumentException(member.getName() + " expects " + member.getParameterCount() + " parameters, got " + length);
+            }
+            member.setParameters(java.util.Arrays.copyOfRange(parameters, offset, offset + length));
+            offset += length;
+        }
+    }
+    
+    @Override
+    public double update(double[] returns) {
+        // The ensemble error is the mean of the member errors, each taken before its update
+        double sum = 0;
+        for (ForecastModel member : members) {
+            sum += member.update(returns);
+        }
+        double residual = sum / members.length;
+        pushResidual(residual);
+        return residual;
+    }
+    
+    @Override
+    public boolean needsRefit() {
+        for (ForecastModel member : members) {
+            if (member.needsRefit()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Refits only the members that deferred one, then rescores the ensemble
+    @Override
+    public void refit(double[] returns) {
+        for (ForecastModel member : members) {
+            if (member.needsRefit()) {
+                member.refit(returns);
+            }
+        }
+        computeResiduals(returns);
+    }
+    
+    @Override
+    protected double predict(double[] history, int n, double[] path, int step) {
+        double sum = 0;
+        for (ForecastModel member : members) {
+            sum += member.predict(history, n, path, step);
+        }
+        return sum / members.length;
+    }
+}
\ No newline at end of file
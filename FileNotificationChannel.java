@@ -0,0 +1,53 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+// Appends notifications to a local text file, one tab-separated line each, for testing
+// alerts without a delivery service
+public class FileNotificationChannel implements NotificationChannel {
+    private final Path file;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    
+    public FileNotificationChannel(Path file) {
+        this.file = file;
+    }
+    
+    // ~/.aitrader/alert-notifications.log
+    public static Path defaultFile() {
+        return new File(System.getProperty("user.home"), ".aitrader").toPath().resolve("alert-notifications.log");
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    @Override
+    public String getName() {
+        return "Log file (" + file + ")";
+    }
+    
+    @Override
+    public void send(List<AlertDispatcher.Notification> batch) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (AlertDispatcher.Notification notification : batch) {
+                writer.write(timeFormat.format(new Date(notification.getTime())));
+                writer.write('\t');
+                writer.write(notification.getRecipient());
+                writer.write('\t');
+                writer.write(notification.getMessage());
+                writer.newLine();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,235 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Persists fitted forecast parameters per symbol/model in an append-only binary log. The log is
+// memory-mapped once at launch and records are decoded lazily on lookup; later records for the
+// same key supersede earlier ones. Appending never touches the mapped region, so the mapping
+// stays valid for the life of the process.
+public class FittedModelStore {
+    private static final int MAGIC = 0x4149464D; // "AIFM"
+    // Bumped whenever a model's parameter layout changes; a log of another version is discarded
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final long COMPACT_THRESHOLD = 4L * 1024 * 1024;
+    
+    private static FittedModelStore instance;
+    
+    private final Path file;
+    private MappedByteBuffer mapped;
+    private final Map<String, Integer> mappedOffsets = new HashMap<>();
+    private final Map<String, StoredFit> recentFits = new HashMap<>();
+    // Why the log last failed to load or append, or null; fits are still kept for the session
+    private String lastError;
+    // The file on disk is from another version and is replaced by the next save
+    private boolean stale;
+    
+    public static synchronized FittedModelStore getInstance() {
+        if (instance == null) {
+            Path dir = new File(System.getProperty("user.home"), ".aitrader").toPath();
+            instance = new FittedModelStore(dir.resolve("fitted-models.bin"));
+        }
+        return instance;
+    }
+    
+    public FittedModelStore(Path file) {
+        this.file = file;
+        load();
+    }
+    
+    private void load() {
+        try {
+            if (!Files.exists(file) || Files.size(file) < HEADER_SIZE) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    stale = true;
+                    return;
+                }
+            }
+            if (Files.size(file) > COMPACT_THRESHOLD) {
+                compact();
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            int position = HEADER_SIZE;
+            int limit = mapped.capacity();
+            while (position + 4 <= limit) {
+                int length = mapped.getInt(position);
+                if (length <= 0 || position + 4 + length > limit) {
+                    break; // Truncated tail from an interrupted write
+                }
+                mappedOffsets.put(readKey(mapped, position + 4), position + 4);
+                position += 4 + length;
+            }
+        } catch (IOException e) {
+            lastError = "Could not read " + file + ": " + e.getMessage();
+            mapped = null;
+            mappedOffsets.clear();
+        }
+    }
+    
+    // Restores a stored fit into the model if one exists for the same training data
+    public synchronized boolean restore(String symbol, int lookback, ForecastModel model, long fingerprint) {
+        String key = keyFor(symbol, lookback, model);
+        StoredFit fit = recentFits.get(key);
+        if (fit == null && mappedOffsets.containsKey(key)) {
+            fit = decode(mapped, mappedOffsets.get(key));
+        }
+        if (fit == null || fit.fingerprint != fingerprint || fit.parameters.length != model.getParameterCount()) {
+            return false;
+        }
+        try {
+            model.restore(fit.parameters, fit.residuals);
+            return true;
+        } catch (RuntimeException e) {
+            return false; // Parameter layout changed since the fit was stored
+        }
+    }
+    
+    // Keeps the fit for this session and appends it to the log; false if it could not be written
+    public synchronized boolean save(String symbol, int lookback, ForecastModel model, long fingerprint) {
+        StoredFit fit = new StoredFit(keyFor(symbol, lookback, model), fingerprint, System.currentTimeMillis(),
+                model.getParameters(), model.getResiduals().clone());
+        recentFits.put(fit.key, fit);
+        try {
+            Files.createDirectories(file.getParent());
+            boolean fresh = stale || !Files.exists(file) || Files.size(file) < HEADER_SIZE;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    stale ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)) {
+                if (fresh) {
+                    channel.write(header());
+                }
+                channel.write(encode(fit));
+            }
+            stale = false;
+        } catch (IOException e) {
+            lastError = "Could not write " + file + ": " + e.getMessage();
+            return false;
+        }
+        return true;
+    }
+    
+    public synchronized String getLastError() {
+        return lastError;
+    }
+    
+    // Cheap identity for a training window, so a stored fit is only reused on the same data
+    public static long fingerprint(double[] prices) {
+        long hash = 0xCBF29CE484222325L ^ prices.length;
+        for (double price : prices) {
+            hash = (hash ^ Double.doubleToLongBits(price)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+    
+    private static String keyFor(String symbol, int lookback, ForecastModel model) {
+        return symbol + "/" + lookback + "/" + model.getName();
+    }
+    
+    private void compact() throws IOException {
+        Map<String, StoredFit> latest = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int position = HEADER_SIZE;
+        while (position + 4 <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + 4 + length > buffer.capacity()) {
+                break;
+            }
+            StoredFit fit = decode(buffer, position + 4);
+            latest.put(fit.key, fit);
+            position += 4 + length;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header());
+            for (StoredFit fit : latest.values()) {
+                channel.write(encode(fit));
+            }
+        }
+        Files.move(temp, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private static ByteBuffer header() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).flip();
+        return buffer;
+    }
+    
+    // Record: length, key, fingerprint, fitted-at, double parameters, float residuals
+    private static ByteBuffer encode(StoredFit fit) {
+        byte[] key = fit.key.getBytes(StandardCharsets.UTF_8);
+        int length = 2 + key.length + 8 + 8 + 4 + fit.parameters.length * 8 + 4 + fit.residuals.length * 4;
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+        buffer.putInt(length);
+        buffer.putShort((short) key.length).put(key);
+        buffer.putLong(fit.fingerprint).putLong(fit.fittedAt);
+        buffer.putInt(fit.parameters.length);
+        for (double parameter : fit.parameters) {
+            buffer.putDouble(parameter);
+        }
+        buffer.putInt(fit.residuals.length);
+        for (double residual : fit.residuals) {
+            buffer.putFloat((float) residual);
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    private static String readKey(ByteBuffer buffer, int offset) {
+        int keyLength = buffer.getShort(offset);
+        byte[] key = new byte[keyLength];
+        for (int i = 0; i < keyLength; i++) {
+            key[i] = buffer.get(offset + 2 + i);
+        }
+        return new String(key, StandardCharsets.UTF_8);
+    }
+    
+    private static StoredFit decode(ByteBuffer buffer, int offset) {
+        String key = readKey(buffer, offset);
+        int position = offset + 2 + buffer.getShort(offset);
+        long fingerprint = buffer.getLong(position);
+        long fittedAt = buffer.getLong(position + 8);
+        position += 16;
+        double[] parameters = new double[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < parameters.length; i++, position += 8) {
+            parameters[i] = buffer.getDouble(position);
+        }
+        double[] residuals = new double[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < residuals.length; i++, position += 4) {
+            residuals[i] = buffer.getFloat(position);
+        }
+        return new StoredFit(key, fingerprint, fittedAt, parameters, residuals);
+    }
+    
+    private static class StoredFit {
+        final String key;
+        final long fingerprint;
+        final long fittedAt;
+        final double[] parameters;
+        final double[] residuals;
+        
+        StoredFit(String key, long fingerprint, long fittedAt, double[] parameters, double[] residuals) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.fittedAt = fittedAt;
+            this.parameters = parameters;
+            this.residuals = residuals;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,406 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+
+// Forecast chart rendered from an immutable ForecastResult. Grid, axes and the history line are
+// drawn once into a cached backdrop image; each paint only blits it and draws the forecast band,
+// forecast line and hover readout on top.
+//
+// In live mode the layout keeps a few empty slots ahead of the forecast. A forecast whose history
+// is the previous one plus new bars draws just those bars into the backdrop and repaints that
+// strip and the forecast region; the chart only redraws in full once the slots run out.
+public class ForecastChart extends JComponent {
+    private static final int MAX_HISTORY_POINTS = 60;
+    private static final int LIVE_ROOM_SLOTS = 10;
+    private static final int MARGIN = 20;
+    private static final int AXIS_WIDTH = 55;
+    private static final int GRID_LINES = 4;
+    
+    private static final Stroke HISTORY_STROKE = new BasicStroke(2);
+    private static final Stroke FORECAST_STROKE = new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{5}, 0);
+    private static final Stroke GRID_STROKE = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, new float[]{2, 4}, 0);
+    private static final Stroke HOVER_STROKE = new BasicStroke(1);
+    private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final Font AXIS_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Font HOVER_FONT = new Font("Arial", Font.BOLD, 11);
+    private static final Color GRID_COLOR = new Color(229, 231, 235);
+    
+
+    private final ThemeManager themeManager;
+    private ForecastResult forecast;
+    private boolean live;
+    
+    // Backdrop cache and the layout it was drawn with
+    private BufferedImage backdrop;
+    private long backdropHistoryKey;
+    private double scaleMin;
+    private double scaleMax;
+    // Slot of the latest history point, where the forecast starts
+    private int anchorSlot;
+    private int slots;
+    private Rectangle plot = new Rectangle();
+    
+    private int hoverStep = -1;
+    
+    public ForecastChart(ThemeManager themeManager) {
+        this.themeManager = themeManager;
+        setPreferredSize(new Dimension(400, 200));
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        
+        MouseAdapter hoverTracker = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHoverStep(stepAt(e.getX()));
+            }
+            
+            @Override
+            public void mouseExited(MouseEvent e) {
+                setHoverStep(-1);
+            }
+        };
+        addMouseListener(hoverTracker);
+        addMouseMotionListener(hoverTracker);
+    }
+    
+    public ForecastResult getForecast() {
+        return forecast;
+    }
+    
+    public void setForecast(ForecastResult result) {
+        ForecastResult previous = forecast;
+        forecast = result;
+        if (result == null || previous == null || backdrop == null) {
+            backdrop = null;
+            repaint();
+            return;
+        }
+        long key = historyKey(result);
+        if (key == backdropHistoryKey && fitsScale(result, anchorSlot)) {
+            // Same history and scale: only the forecast region changes
+            repaint(forecastRegion());
+            return;
+        }
+        int added = appendedBars(previous, result);
+        if (added > 0 && fitsScale(result, anchorSlot + added)) {
+            Rectangle strip = appendHistory(added);
+            backdropHistoryKey = key;
+            repaint(strip.union(forecastRegion()));
+            if (hoverStep >= 0) {
+                repaint(plot.x, plot.y, plot.width + 1, 24);
+            }
+            return;
+        }
+        backdrop = null;
+        repaint();
+    }
+    
+    // Leaves room for live bars ahead of the forecast
+    public void setLive(boolean live) {
+        if (live != this.live) {
+            this.live = live;
+            backdrop = null;
+            repaint();
+        }
+    }
+    
+    @Override
+    public void setBackground(Color background) {
+        super.setBackground(background);
+        backdrop = null;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 2 * MARGIN || height <= 2 * MARGIN) {
+            return;
+        }
+        if (backdrop == null || backdrop.getWidth() != width || backdrop.getHeight() != height) {
+            backdrop = renderBackdrop(width, height);
+        }
+        g.drawImage(backdrop, 0, 0, null);
+        
+        if (forecast != null) {
+            Graphics2D g2d = (Graphics2D) g.create();
+            try {
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                paintOverlay(g2d);
+            } finally {
+                g2d.dispose();
+            }
+        }
+    }
+    
+    private BufferedImage renderBackdrop(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setColor(getBackground());
+            g2d.fillRect(0, 0, width, height);
+            
+            int boxWidth = width - 2 * MARGIN;
+            int boxHeight = height - 2 * MARGIN;
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(MARGIN, MARGIN, boxWidth, boxHeight);
+            g2d.setColor(Color.LIGHT_GRAY);
+            g2d.drawRect(MARGIN, MARGIN, boxWidth, boxHeight);
+            
+            plot = new Rectangle(MARGIN + AXIS_WIDTH, MARGIN + 15, boxWidth - AXIS_WIDTH - 15, boxHeight - 45);
+            if (forecast == null) {
+                g2d.setFont(LABEL_FONT);
+                g2d.setColor(Color.GRAY);
+                g2d.drawString("Run a forecast to see the chart", plot.x, plot.y + plot.height / 2);
+                return image;
+            }
+            
+
+            layoutScale(forecast);
+            backdropHistoryKey = historyKey(forecast);
+            paintGrid(g2d);
+            paintHistory(g2d, 0);
+            
+            // Labels
+            int labelY = MARGIN + boxHeight - 10;
+            g2d.setFont(LABEL_FONT);
+            g2d.setColor(Color.BLACK);
+            g2d.drawString("Historical", plot.x, labelY);
+            g2d.setColor(themeManager.getSuccess());
+            String legend = String.format("Forecast (%.0f%% interval)", forecast.getCoverage() * 100);
+            g2d.drawString(legend, plot.x + plot.width - g2d.getFontMetrics().stringWidth(legend), labelY);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+    
+    // Grid, price axis and the line marking today
+    private void paintGrid(Graphics2D g2d) {
+        g2d.setFont(AXIS_FONT);
+        FontMetrics metrics = g2d.getFontMetrics();
+        for (int i = 0; i <= GRID_LINES; i++) {
+            double value = scaleMax - (scaleMax - scaleMin) * i / GRID_LINES;
+            int y = yFor(value);
+            g2d.setColor(GRID_COLOR);
+            g2d.setStroke(GRID_STROKE);
+            g2d.drawLine(plot.x, y, plot.x + plot.width, y);
+            g2d.setColor(Color.GRAY);
+            String label = String.format("$%.2f", value);
+            g2d.drawString(label, plot.x - metrics.stringWidth(label) - 6, y + metrics.getAscent() / 2);
+        }
+        g2d.setStroke(HOVER_STROKE);
+        g2d.setColor(Color.LIGHT_GRAY);
+        g2d.drawLine(plot.x, plot.y, plot.x, plot.y + plot.height);
+        int todayX = xFor(anchorSlot);
+        g2d.setStroke(GRID_STROKE);
+        g2d.drawLine(todayX, plot.y, todayX, plot.y + plot.height);
+    }
+    
+    // Historical data (solid line) from the slot up to the anchor
+    private void paintHistory(Graphics2D g2d, int fromSlot) {
+        g2d.setColor(themeManager.getPrimary());
+        g2d.setStroke(HISTORY_STROKE);
+        int previousX = xFor(fromSlot);
+        int previousY = yFor(historyAt(fromSlot));
+        for (int slot = fromSlot + 1; slot <= anchorSlot; slot++) {
+            int x = xFor(slot);
+            int y = yFor(historyAt(slot));
+            g2d.drawLine(previousX, previousY, x, y);
+            previousX = x;
+            previousY = y;
+        }
+    }
+    
+    private double historyAt(int slot) {
+        return forecast.getHistory(forecast.getHistoryLength() - 1 - anchorSlot + slot);
+    }
+    
+    // Draws the bars added since the backdrop was drawn and moves today's line after them;
+    // returns the strip of the backdrop that changed
+    private Rectangle appendHistory(int added) {
+        int oldAnchor = anchorSlot;
+        anchorSlot += added;
+        int left = xFor(oldAnchor) - 3;
+        Rectangle strip = new Rectangle(left, plot.y - 2, xFor(anchorSlot) + 3 - left, plot.height + 4);
+        Graphics2D g2d = backdrop.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.clip(strip);
+            g2d.setColor(Color.WHITE);
+            g2d.fill(strip);
+            paintGrid(g2d);
+            // Redrawn from two slots back so the clipped edges of the old line match exactly
+            paintHistory(g2d, Math.max(0, oldAnchor - 2));
+        } finally {
+            g2d.dispose();
+        }
+        return strip;
+    }
+    
+    // How many bars the result's history adds to the previous one, if its shown part is the
+    // previous history moved along by them and there is room to draw them; otherwise 0
+    private int appendedBars(ForecastResult previous, ForecastResult result) {
+        int length = result.getHistoryLength();
+        if (previous.getHistoryLength() != length) {
+            return 0;
+        }
+        for (int added = 1; added <= slots - anchorSlot - result.getHorizon() && anchorSlot + added < length; added++) {
+            boolean shifted = true;
+            for (int k = 0; k <= anchorSlot && shifted; k++) {
+                shifted = previous.getHistory(length - 1 - k) == result.getHistory(length - 1 - added - k);
+            }
+            if (shifted) {
+                for (int k = 0; k < added; k++) {
+                    double close = result.getHistory(length - 1 - k);
+                    if (close < scaleMin || close > scaleMax) {
+                        return 0;
+                    }
+                }
+                return added;
+            }
+        }
+        return 0;
+    }
+    
+    private void paintOverlay(Graphics2D g2d) {
+        int horizon = forecast.getHorizon();
+        int anchor = anchorSlot;
+        int anchorX = xFor(anchor);
+        int anchorY = yFor(forecast.getLastPrice());
+        
+        // Prediction interval band
+        Polygon band = new Polygon();
+        band.addPoint(anchorX, anchorY);
+        for (int h = 0; h < horizon; h++) {
+            band.addPoint(xFor(anchor + h + 1), yFor(forecast.getUpper(h)));
+        }
+        for (int h = horizon - 1; h >= 0; h--) {
+            band.addPoint(xFor(anchor + h + 1), yFor(forecast.getLower(h)));
+        }
+        Color success = themeManager.getSuccess();
+        g2d.setColor(new Color(success.getRed(), success.getGreen(), success.getBlue(), 50));
+        g2d.fillPolygon(band);
+        
+        // Forecast data (dashed line)
+        g2d.setColor(success);
+        g2d.setStroke(FORECAST_STROKE);
+        int previousX = anchorX;
+        int previousY = anchorY;
+        for (int h = 0; h < horizon; h++) {
+            int x = xFor(anchor + h + 1);
+            int y = yFor(forecast.getMean(h));
+            g2d.drawLine(previousX, previousY, x, y);
+            previousX = x;
+            previousY = y;
+        }
+        
+        if (hoverStep >= 0 && hoverStep < horizon) {
+            int x = xFor(anchor + hoverStep + 1);
+            g2d.setStroke(HOVER_STROKE);
+            g2d.setColor(Color.GRAY);
+            g2d.drawLine(x, plot.y, x, plot.y + plot.height);
+            
+            String text = String.format("Day %d: $%.2f (±$%.2f)", hoverStep + 1,
+                    forecast.getMean(hoverStep), forecast.getHalfWidth(hoverStep));
+            g2d.setFont(HOVER_FONT);
+            Rectangle box = hoverBox(x, g2d.getFontMetrics().stringWidth(text));
+            g2d.setColor(new Color(255, 255, 255, 230));
+            g2d.fillRect(box.x, box.y, box.width, box.height);
+            g2d.setColor(Color.GRAY);
+            g2d.drawRect(box.x, box.y, box.width, box.height);
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(text, box.x + 5, box.y + 14);
+        }
+    }
+    
+    private void layoutScale(ForecastResult result) {
+        int historyCount = Math.min(result.getHistoryLength(), MAX_HISTORY_POINTS);
+        int historyStart = result.getHistoryLength() - historyCount;
+        anchorSlot = historyCount - 1;
+        slots = historyCount + result.getHorizon() - 1 + (live ? LIVE_ROOM_SLOTS : 0);
+        
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = historyStart; i < result.getHistoryLength(); i++) {
+            min = Math.min(min, result.getHistory(i));
+            max = Math.max(max, result.getHistory(i));
+        }
+        for (int h = 0; h < result.getHorizon(); h++) {
+            min = Math.min(min, result.getLower(h));
+            max = Math.max(max, result.getUpper(h));
+        }
+        // Headroom lets later forecasts on the same history reuse the backdrop
+        double pad = Math.max(max - min, 1e-6) * 0.15;
+        scaleMin = min - pad;
+        scaleMax = max + pad;
+    }
+    
+    // Whether the forecast, starting at the anchor slot, fits the backdrop's slots and prices
+    private boolean fitsScale(ForecastResult result, int anchor) {
+        if (anchor + result.getHorizon() > slots || !live && anchor + result.getHorizon() != slots) {
+            return false;
+        }
+        for (int h = 0; h < result.getHorizon(); h++) {
+            if (result.getLower(h) < scaleMin || result.getUpper(h) > scaleMax) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long historyKey(ForecastResult result) {
+        long hash = result.getHistoryLength();
+        for (int i = 0; i < result.getHistoryLength(); i++) {
+            hash = 31 * hash + Double.doubleToLongBits(result.getHistory(i));
+        }
+        return hash;
+    }
+    
+    private int xFor(int slot) {
+        return plot.x + (int) ((long) slot * plot.width / Math.max(1, slots));
+    }
+    
+    private int yFor(double value) {
+        return plot.y + (int) ((scaleMax - value) / (scaleMax - scaleMin) * plot.height);
+    }
+    
+    private int stepAt(int x) {
+        if (forecast == null || backdrop == null) {
+            return -1;
+        }
+        int anchor = anchorSlot;
+        double slot = (double) (x - plot.x) * Math.max(1, slots) / Math.max(1, plot.width);
+        int step = (int) Math.round(slot) - anchor - 1;
+        return step >= 0 && step < forecast.getHorizon() ? step : -1;
+    }
+    
+    private Rectangle hoverBox(int x, int textWidth) {
+        int width = textWidth + 10;
+        int left = Math.min(x + 6, plot.x + plot.width - width);
+        return new Rectangle(Math.max(plot.x, left), plot.y + 2, width, 20);
+    }
+    
+    private Rectangle forecastRegion() {
+        if (forecast == null) {
+            return new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int left = xFor(anchorSlot) - 2;
+        return new Rectangle(left, plot.y - 2, plot.x + plot.width - left + 4, plot.height + 4);
+    }
+    
+    private void setHoverStep(int step) {
+        if (step == hoverStep) {
+            return;
+        }
+        hoverStep = step;
+        // The hover guide lives in the forecast region and the readout along the top of the plot
+        repaint(forecastRegion());
+        repaint(plot.x, plot.y, plot.width + 1, 24);
+    }
+}
\ No newline at end of file
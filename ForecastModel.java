@@ -0,0 +1,163 @@
+public abstract class ForecastModel {
+    private double[] residuals = new double[0];
+    // Index of the oldest residual once update() has started rotating the pool
+    private int residualCursor;
+    // Set when update() has slid past a return without refitting
+    private boolean refitPending;
+    
+    public abstract String getName();
+    
+    // Fits the model to a series of log returns
+    public abstract void fit(double[] returns);
+    
+    // Minimum number of trailing returns the model needs to make a prediction
+    public abstract int getMemory();
+    
+    // Expected return at position n + step, reading history[0..n) followed by path[0..step)
+    protected abstract double predict(double[] history, int n, double[] path, int step);
+    
+    public double predictNext(double[] history, double[] path, int step) {
+        return predict(history, history.length, path, step);
+    }
+    
+    // Fitted coefficients in a flat form the fitted-model store can persist
+    public abstract double[] getParameters();
+    
+    public abstract void setParameters(double[] parameters);
+    
+    // Length of the array getParameters() returns, so a stored fit of another layout is not restored
+    public int getParameterCount() {
+        return getParameters().length;
+    }
+    
+    // In-sample errors oldest first, aligned with the tail of the returns they were measured on
+    public double[] getResiduals() {
+        if (residualCursor == 0) {
+            return residuals;
+        }
+        double[] ordered = new double[residuals.length];
+        int head = residuals.length - residualCursor;
+        System.arraycopy(residuals, residualCursor, ordered, 0, head);
+        System.arraycopy(residuals, 0, ordered, head, residualCursor);
+        return ordered;
+    }
+    
+    protected void setResiduals(double[] residuals) {
+        this.residuals = residuals;
+        residualCursor = 0;
+    }
+    
+    // Update after a new return has been appended at the end of returns; returns the one-step-ahead
+    // error on that return. Models that can fold the bar into their state in O(1) override this;
+    // the rest only record the error and leave a refit pending, which the caller rate-limits.
+    public double update(double[] returns) {
+        int n = returns.length;
+        double residual = returns[n - 1] - predict(returns, n - 1, null, 0);
+        pushResidual(residual);
+        refitPending = true;
+        return residual;
+    }
+    
+    // Whether update() has skipped a refit that has not run yet
+    public boolean needsRefit() {
+        return refitPending;
+    }
+    
+    // Runs the refit update() deferred, on the whole window
+    public void refit(double[] returns) {
+        fit(returns);
+        refitPending = false;
+    }
+    
+    // Replaces the oldest residual in the bootstrap pool so the pool tracks recent errors
+    protected void pushResidual(double residual) {
+        if (residuals.length == 0) {
+            residuals = new double[]{residual};
+            return;
+        }
+        residuals[residualCursor] = residual;
+        residualCursor = (residualCursor + 1) % residuals.length;
+    }
+    
+    // Warm start from a stored fit instead of calling fit()
+    public void restore(double[] parameters, double[] residuals) {
+        setParameters(parameters);
+        setResiduals(residuals);
+    }
+    
+    // In-sample one-step-ahead errors, used as the resampling pool for bootstrap paths
+    protected void computeResiduals(double[] returns) {
+        int start = Math.min(getMemory(), returns.length);
+        double[] errors = new double[returns.length - start];
+        for (int t = start; t < returns.length; t++) {
+            errors[t - start] = returns[t] - predict(returns, t, null, 0);
+        }
+        setResiduals(errors);
+    }
+    
+    protected static double lag(double[] history, int n, double[] path, int step, int k) {
+        int index = step - k;
+        return index >= 0 ? path[index] : history[n + index];
+    }
+    
+    protected static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+    
+    // Solves a small symmetric positive definite system in place with Cholesky decomposition
+    protected static double[] solveSymmetric(double[][] a, double[] b) {
+        int n = b.length;
+        double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = a[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    l[i][i] = Math.sqrt(Math.max(sum, 1e-12));
+                } else {
+                    l[i][j] = sum / l[j][j];
+                }
+            }
+        }
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i][k] * y[k];
+            }
+            y[i] = sum / l[i][i];
+        }
+        double[] x = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = y[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k][i] * x[k];
+            }
+            x[i] = sum / l[i][i];
+        }
+        return x;
+    }
+    
+    public static ForecastModel create(String name) {
+        switch (name) {
+            case "ARIMA":
+                return new ArimaModel(3);
+            case "LSTM":
+                return new NeuralNetModel(8, 16);
+            case "Prophet":
+                return new ProphetModel(5);
+            case "Kalman":
+                return new KalmanDriftModel();
+            default:
+                return new EnsembleModel(new ForecastModel[]{
+                    new ArimaModel(3), new NeuralNetModel(8, 16), new ProphetModel(5)
+                });
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+public class ForecastResult {
+    private final String symbol;
+    private final String modelName;
+    private final double[] history;
+    private final double[] mean;
+    private final double[] lower;
+    private final double[] upper;
+    private final double coverage;
+    private final int paths;
+    private final double mae;
+    private final double rmse;
+    private final double hitRate;
+    
+    public ForecastResult(String symbol, String modelName, double[] history, double[] mean, double[] lower,
+                          double[] upper, double coverage, int paths, double mae, double rmse, double hitRate) {
+        this.symbol = symbol;
+        this.modelName = modelName;
+        this.history = history.clone();
+        this.mean = mean.clone();
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+        this.coverage = coverage;
+        this.paths = paths;
+        this.mae = mae;
+        this.rmse = rmse;
+        this.hitRate = hitRate;
+    }
+    
+    public String getSymbol() { return symbol; }
+    public String getModelName() { return modelName; }
+    public int getHorizon() { return mean.length; }
+    public double getCoverage() { return coverage; }
+    public int getPaths() { return paths; }
+    public double getMae() { return mae; }
+    public double getRmse() { return rmse; }
+    public double getHitRate() { return hitRate; }
+    
+    public int getHistoryLength() { return history.length; }
+    public double getHistory(int i) { return history[i]; }
+    public double getLastPrice() { return history[history.length - 1]; }
+    
+    public double getMean(int step) { return mean[step]; }
+    public double getLower(int step) { return lower[step]; }
+    public double getUpper(int step) { return upper[step]; }
+    
+    // Half-width of the prediction interval, shown as the "±" figure
+    public double getHalfWidth(int step) {
+        return (upper[step] - lower[step]) / 2;
+    }
+}
\ No newline at end of file
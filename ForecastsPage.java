@@ -2,8 +2,26 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class ForecastsPage extends JPanel {
+    private static final int LIVE_PATHS = 1000;
+    // Models that cannot update in O(1) refit at most this often in live mode
+    private static final long LIVE_REFIT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(3);
+    private static final String[] CORRELATION_UNIVERSE = {
+        "SPY", "AAPL", "MSFT", "GOOGL", "AMZN", "NVDA", "META", "TSLA", "JPM", "KO", "PG", "JNJ"
+    };
+    private static final int CORRELATION_WINDOW = 60;
+    private static final int CORRELATION_HISTORY = 252;
+    // Correlation summaries of one-off forecasts by symbol; the sample history they replay is fixed
+    private static final Map<String, String> correlationSummaries = new ConcurrentHashMap<>();
+    
     private ThemeManager themeManager;
     private AuthManager authManager;
     private JFrame parentFrame;
@@ -12,14 +30,24 @@ public class ForecastsPage extends JPanel {
     private JSpinner horizonSpinner;
     private JComboBox<String> modelComboBox;
     private JCheckBox aiAssistCheckBox;
+    private JCheckBox liveModeCheckBox;
     private JButton runForecastButton;
     private JTextArea resultsArea;
-    private JPanel chartPanel;
+    private ForecastChart chartPanel;
+    private JLabel[] metricValueLabels;
+    private BootstrapForecaster forecaster;
+    private FittedModelStore fittedModelStore;
+    private ForecastResult currentForecast;
+    
+    // The running live-mode session, or null; only read and replaced on the EDT
+    private LiveSession liveSession;
     
     public ForecastsPage(JFrame parentFrame, ThemeManager themeManager, AuthManager authManager) {
         this.parentFrame = parentFrame;
         this.themeManager = themeManager;
         this.authManager = authManager;
+        this.forecaster = new BootstrapForecaster(5000, 0.85);
+        this.fittedModelStore = FittedModelStore.getInstance();
         
         setLayout(new BorderLayout());
         initializeComponents();
@@ -32,12 +60,21 @@ public class ForecastsPage extends JPanel {
         lookbackSpinner = new JSpinner(new SpinnerNumberModel(30, 1, 365, 1));
         horizonSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 30, 1));
         
-        String[] models = {"ARIMA", "LSTM", "Prophet", "Ensemble"};
+        String[] models = {"ARIMA", "LSTM", "Prophet", "Kalman", "Ensemble"};
         modelComboBox = new JComboBox<>(models);
         modelComboBox.setSelectedItem("Ensemble");
         
         aiAssistCheckBox = new JCheckBox("Let AI recommend best model configuration");
         
+        liveModeCheckBox = new JCheckBox("Live mode: update the forecast on every new bar");
+        liveModeCheckBox.addActionListener(e -> {
+            if (liveModeCheckBox.isSelected()) {
+                startLiveMode();
+            } else {
+                stopLiveMode();
+            }
+        });
+        
         runForecastButton = new JButton("Run Forecast");
         runForecastButton.addActionListener(e -> runForecast());
         
@@ -58,6 +95,7 @@ public class ForecastsPage extends JPanel {
             horizonSpinner.setEnabled(false);
             modelComboBox.setEnabled(false);
             aiAssistCheckBox.setEnabled(false);
+            liveModeCheckBox.setEnabled(false);
             
             // Show sample results
             showSampleResults();
@@ -129,8 +167,12 @@ public class ForecastsPage extends JPanel {
         gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 4;
         inputGrid.add(aiAssistCheckBox, gbc);
         
-        // Run button
+        // Live mode
         gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 4;
+        inputGrid.add(liveModeCheckBox, gbc);
+        
+        // Run button
+        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 4;
         gbc.fill = GridBagConstraints.NONE;
         gbc.anchor = GridBagConstraints.CENTER;
         JPanel buttonPanel = new JPanel();
@@ -205,72 +247,10 @@ public class ForecastsPage extends JPanel {
         return banner;
     }
     
-    private JPanel createChartPanel() {
-        JPanel panel = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2d = (Graphics2D) g;
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                
-                // Draw sample forecast chart
-                int width = getWidth() - 40;
-                int height = getHeight() - 40;
-                int x = 20;
-                int y = 20;
-                
-                // Background
-                g2d.setColor(Color.WHITE);
-                g2d.fillRect(x, y, width, height);
-                g2d.setColor(Color.LIGHT_GRAY);
-                g2d.drawRect(x, y, width, height);
-                
-                // Historical data (solid line)
-                g2d.setColor(themeManager.getPrimary());
-                g2d.setStroke(new BasicStroke(2));
-                
-                int[] historicalX = new int[15];
-                int[] historicalY = new int[15];
-                
-                for (int i = 0; i < 15; i++) {
-                    historicalX[i] = x + 20 + (i * (width - 40) / 20);
-                    historicalY[i] = y + 20 + (int)(Math.sin(i * 0.3) * 30 + Math.random() * 20 + height/2 - 40);
-                }
-                
-                for (int i = 0; i < 14; i++) {
-                    g2d.drawLine(historicalX[i], historicalY[i], historicalX[i + 1], historicalY[i + 1]);
-                }
-                
-                // Forecast data (dashed line)
-                g2d.setColor(themeManager.getSuccess());
-                g2d.setStroke(new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{5}, 0));
-                
-                int[] forecastX = new int[6];
-                int[] forecastY = new int[6];
-                
-                forecastX[0] = historicalX[14];
-                forecastY[0] = historicalY[14];
-                
-                for (int i = 1; i < 6; i++) {
-                    forecastX[i] = x + 20 + ((14 + i) * (width - 40) / 20);
-                    forecastY[i] = forecastY[i-1] + (int)(Math.random() * 20 - 10);
-                }
-                
-                for (int i = 0; i < 5; i++) {
-                    g2d.drawLine(forecastX[i], forecastY[i], forecastX[i + 1], forecastY[i + 1]);
-                }
-                
-                // Labels
-                g2d.setColor(Color.BLACK);
-                g2d.setFont(new Font("Arial", Font.PLAIN, 12));
-                g2d.drawString("Historical", x + 20, y + height - 10);
-                g2d.setColor(themeManager.getSuccess());
-                g2d.drawString("Forecast", x + width - 80, y + height - 10);
-            }
-        };
-        panel.setPreferredSize(new Dimension(400, 200));
-        panel.setBackground(Color.WHITE);
-        return panel;
+    private ForecastChart createChartPanel() {
+        ForecastChart chart = new ForecastChart(themeManager);
+        chart.setForecast(currentForecast);
+        return chart;
     }
     
     private JPanel createMetricsPanel() {
@@ -288,7 +268,9 @@ public class ForecastsPage extends JPanel {
             {"Confidence", "85%"}
         };
         
-        for (String[] metric : metrics) {
+        metricValueLabels = new JLabel[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            String[] metric = metrics[i];
             JPanel metricPanel = new JPanel(new BorderLayout());
             metricPanel.setOpaque(false);
             metricPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -299,6 +281,7 @@ public class ForecastsPage extends JPanel {
             JLabel valueLabel = new JLabel(metric[1]);
             valueLabel.setFont(new Font("Arial", Font.BOLD, 16));
             valueLabel.setForeground(themeManager.getPrimary());
+            metricValueLabels[i] = valueLabel;
             
             metricPanel.add(nameLabel, BorderLayout.NORTH);
             metricPanel.add(valueLabel, BorderLayout.CENTER);
@@ -306,9 +289,20 @@ public class ForecastsPage extends JPanel {
             panel.add(metricPanel);
         }
         
+        if (currentForecast != null) {
+            updateMetrics(currentForecast);
+        }
+        
         return panel;
     }
     
+    private void updateMetrics(ForecastResult result) {
+        metricValueLabels[0].setText(String.format("%.2f", result.getMae()));
+        metricValueLabels[1].setText(String.format("%.2f", result.getRmse()));
+        metricValueLabels[2].setText(String.format("%.1f%%", result.getHitRate()));
+        metricValueLabels[3].setText(String.format("%.0f%%", result.getCoverage() * 100));
+    }
+    
     private void runForecast() {
         if (authManager.isGuestMode()) {
             showUpgradeDialog();
@@ -318,19 +312,32 @@ public class ForecastsPage extends JPanel {
         runForecastButton.setEnabled(false);
         runForecastButton.setText("Running Forecast...");
         
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+        String symbol = symbolField.getText().toUpperCase();
+        int lookback = (Integer) lookbackSpinner.getValue();
+        int horizon = (Integer) horizonSpinner.getValue();
+        String model = (String) modelComboBox.getSelectedItem();
+        
+        SwingWorker<ForecastResult, Void> worker = new SwingWorker<ForecastResult, Void>() {
+            private String correlation;
+            
             @Override
-            protected String doInBackground() throws Exception {
-                Thread.sleep(3000); // Simulate forecast computation
-                return generateForecastResults();
+            protected ForecastResult doInBackground() throws Exception {
+                ForecastResult result = computeForecast(symbol, model, lookback, horizon);
+                correlation = marketCorrelation(symbol);
+                return result;
             }
             
             @Override
             protected void done() {
                 try {
-                    String results = get();
-                    resultsArea.setText(results);
-                    chartPanel.repaint(); // Update chart with new data
+                    currentForecast = get();
+                    resultsArea.setText(generateForecastResults(currentForecast, lookback, correlation));
+                    String storeError = fittedModelStore.getLastError();
+                    if (storeError != null) {
+                        resultsArea.append("\n\nFitted models are not being cached: " + storeError);
+                    }
+                    updateMetrics(currentForecast);
+                    chartPanel.setForecast(currentForecast);
                 } catch (Exception e) {
                     resultsArea.setText("Forecast failed: " + e.getMessage());
                 } finally {
@@ -342,19 +349,232 @@ public class ForecastsPage extends JPanel {
         worker.execute();
     }
     
+    private ForecastResult computeForecast(String symbol, String modelName, int lookback, int horizon) {
+        double[] prices = SampleMarketData.dailyCloses(symbol, lookback + 1);
+        ForecastModel model = ForecastModel.create(modelName);
+        
+        // Reuse a stored fit for the same training window instead of re-training
+        long fingerprint = FittedModelStore.fingerprint(prices);
+        if (!fittedModelStore.restore(symbol, lookback, model, fingerprint)) {
+            model.fit(BootstrapForecaster.toLogReturns(prices));
+            fittedModelStore.save(symbol, lookback, model, fingerprint);
+        }
+        return forecaster.forecast(symbol, model, prices, horizon);
+    }
+    
+    private void startLiveMode() {
+        if (authManager.isGuestMode()) {
+            return;
+        }
+        stopLiveMode();
+        
+        LiveSession session = new LiveSession(symbolField.getText().toUpperCase(),
+            (Integer) lookbackSpinner.getValue(), (Integer) horizonSpinner.getValue(),
+            (String) modelComboBox.getSelectedItem());
+        liveSession = session;
+        setLiveControlsEnabled(false);
+        chartPanel.setLive(true);
+        session.start();
+    }
+    
+    private void stopLiveMode() {
+        if (liveSession != null) {
+            liveSession.stop();
+            liveSession = null;
+            chartPanel.setLive(false);
+        }
+        setLiveControlsEnabled(true);
+    }
+    
+    private void setLiveControlsEnabled(boolean enabled) {
+        if (authManager.isGuestMode()) {
+            return;
+        }
+        symbolField.setEditable(enabled);
+        lookbackSpinner.setEnabled(enabled);
+        horizonSpinner.setEnabled(enabled);
+        modelComboBox.setEnabled(enabled);
+        runForecastButton.setEnabled(enabled);
+    }
+    
+    // One run of live mode. The model and window are confined to the session's own executor
+    // thread; once stopped, bars still in flight and updates part way through are dropped.
+    private class LiveSession {
+        private final String symbol;
+        private final int lookback;
+        private final int horizon;
+        private final String modelName;
+        private final ExecutorService executor;
+        private volatile boolean stopped;
+        private Runnable unsubscribe;
+        private ForecastModel model;
+        private double[] prices;
+        private double[] returns;
+        private long lastRefit;
+        // Fed each live close, with the rest of the universe unchanged
+        private CorrelationEngine correlations;
+        private double[] correlationBar;
+        // Closes received but not yet applied, so a burst of bars costs one forecast
+        private final Object pendingLock = new Object();
+        private double[] pending = new double[16];
+        private int pendingCount;
+        private boolean drainScheduled;
+        
+        LiveSession(String symbol, int lookback, int horizon, String modelName) {
+            this.symbol = symbol;
+            this.lookback = lookback;
+            this.horizon = horizon;
+            this.modelName = modelName;
+            this.executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "forecast-live-" + symbol);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        void start() {
+            executor.execute(() -> {
+                prices = SampleMarketData.dailyCloses(symbol, lookback + 1);
+                returns = BootstrapForecaster.toLogReturns(prices);
+                model = ForecastModel.create(modelName);
+                long fingerprint = FittedModelStore.fingerprint(prices);
+                if (!fittedModelStore.restore(symbol, lookback, model, fingerprint)) {
+                    model.fit(returns);
+                    fittedModelStore.save(symbol, lookback, model, fingerprint);
+                }
+                lastRefit = System.nanoTime();
+                correlations = correlationEngine(symbol);
+                correlationBar = new double[correlations.size()];
+                Arrays.fill(correlationBar, Double.NaN);
+                publish();
+            });
+            unsubscribe = MarketDataFeed.getInstance().subscribe("forecast-" + symbol, symbol, (event, sequence) -> {
+                if (event.isBar()) {
+                    onBar(event.getClose());
+                }
+            });
+        }
+        
+        void stop() {
+            stopped = true;
+            unsubscribe.run();
+            executor.shutdownNow();
+        }
+        
+        // Runs on the feed's consumer thread
+        private void onBar(double close) {
+            synchronized (pendingLock) {
+                if (pendingCount == pending.length) {
+                    pending = Arrays.copyOf(pending, pending.length * 2);
+                }
+                pending[pendingCount++] = close;
+                if (drainScheduled) {
+                    return;
+                }
+                drainScheduled = true;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Stopped while the bar was in flight
+            }
+        }
+        
+        // Slides the window over each pending bar and updates the model, then publishes once. A refit
+        // the model deferred runs at most once per drain, and only after the refit interval.
+        private void drain() {
+            double[] closes;
+            synchronized (pendingLock) {
+                closes = Arrays.copyOf(pending, pendingCount);
+                pendingCount = 0;
+                drainScheduled = false;
+            }
+            for (double close : closes) {
+                if (stopped) {
+                    return;
+                }
+                int last = prices.length - 1;
+                System.arraycopy(prices, 1, prices, 0, last);
+                prices[last] = close;
+                System.arraycopy(returns, 1, returns, 0, returns.length - 1);
+                returns[returns.length - 1] = Math.log(close / prices[last - 1]);
+                model.update(returns);
+                correlationBar[correlations.indexOf(symbol)] = close;
+                correlations.addBar(correlationBar);
+            }
+            if (model.needsRefit() && System.nanoTime() - lastRefit >= LIVE_REFIT_INTERVAL_NANOS) {
+                model.refit(returns);
+                lastRefit = System.nanoTime();
+            }
+            publish();
+        }
+        
+        private void publish() {
+            if (stopped) {
+                return;
+            }
+            ForecastResult result = forecaster.forecast(symbol, model, prices, horizon, LIVE_PATHS);
+            String correlation = describeCorrelation(correlations, symbol);
+            SwingUtilities.invokeLater(() -> {
+                if (liveSession != this) {
+                    return;
+                }
+                currentForecast = result;
+                resultsArea.setText(generateForecastResults(result, lookback, correlation));
+                updateMetrics(result);
+                chartPanel.setForecast(result);
+            });
+        }
+    }
+    
+    @Override
+    public void removeNotify() {
+        stopLiveMode();
+        super.removeNotify();
+    }
+    
     private void showSampleResults() {
-        String sampleResults = "SAMPLE FORECAST RESULTS (Guest Mode)\n" +
+        resultsArea.setText("Running sample forecast...");
+        
+        SwingWorker<ForecastResult, Void> worker = new SwingWorker<ForecastResult, Void>() {
+            private String sampleResults;
+            
+            @Override
+            protected ForecastResult doInBackground() throws Exception {
+                ForecastResult result = computeForecast("AAPL", "Ensemble", 30, 5);
+                sampleResults = generateSampleResults(result);
+                return result;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    currentForecast = get();
+                    chartPanel.setForecast(currentForecast);
+                    resultsArea.setText(sampleResults);
+                } catch (Exception e) {
+                    resultsArea.setText("Sample forecast failed: " + e.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private String generateSampleResults(ForecastResult result) {
+        StringBuilder predictions = new StringBuilder();
+        for (int h = 0; h < result.getHorizon(); h++) {
+            predictions.append(String.format("Day %d: $%.2f (±$%.2f)\n",
+                h + 1, result.getMean(h), result.getHalfWidth(h)));
+        }
+        
+        return "SAMPLE FORECAST RESULTS (Guest Mode)\n" +
                 "=====================================\n\n" +
                 "Symbol: AAPL\n" +
                 "Model: Ensemble (ARIMA + LSTM + Prophet)\n" +
                 "Forecast Period: 5 days\n" +
-                "Confidence Level: 85%\n\n" +
+                String.format("Confidence Level: %.0f%%\n\n", result.getCoverage() * 100) +
                 "PRICE PREDICTIONS:\n" +
-                "Day 1: $198.45 (±$2.15)\n" +
-                "Day 2: $199.20 (±$2.30)\n" +
-                "Day 3: $200.10 (±$2.45)\n" +
-                "Day 4: $199.85 (±$2.60)\n" +
-                "Day 5: $201.25 (±$2.75)\n\n" +
+                predictions + "\n" +
                 "TREND ANALYSIS:\n" +
                 "• Bullish momentum expected\n" +
                 "• Support level: $196.50\n" +
@@ -362,18 +582,21 @@ public class ForecastsPage extends JPanel {
                 "• Volatility: Moderate\n\n" +
                 "RISK FACTORS:\n" +
                 "• Earnings announcement in 2 weeks\n" +
-                "• Market correlation: 0.75 with SPY\n" +
+                marketCorrelation("AAPL") +
                 "• Technical indicators: Mixed signals\n\n" +
                 "Sign up for real-time forecasts with live data!";
-        
-        resultsArea.setText(sampleResults);
     }
     
-    private String generateForecastResults() {
-        String symbol = symbolField.getText().toUpperCase();
-        int lookback = (Integer) lookbackSpinner.getValue();
-        int horizon = (Integer) horizonSpinner.getValue();
-        String model = (String) modelComboBox.getSelectedItem();
+    private String generateForecastResults(ForecastResult result, int lookback, String correlation) {
+        int horizon = result.getHorizon();
+        double target = result.getMean(horizon - 1);
+        boolean bullish = target >= result.getLastPrice();
+        
+        StringBuilder predictions = new StringBuilder();
+        for (int h = 0; h < horizon; h++) {
+            predictions.append(String.format("Day %d: $%.2f (±$%.2f)\n",
+                h + 1, result.getMean(h), result.getHalfWidth(h)));
+        }
         
         return String.format(
             "FORECAST RESULTS\n" +
@@ -384,27 +607,79 @@ public class ForecastsPage extends JPanel {
             "Forecast Horizon: %d days\n" +
             "Generated: %s\n\n" +
             "PREDICTIONS:\n" +
-            "Expected trend: Bullish\n" +
-            "Price target: $%.2f\n" +
-            "Confidence: %.1f%%\n\n" +
+            "Expected trend: %s\n" +
+            "Price target: $%.2f (±$%.2f)\n" +
+            "Confidence: %.1f%% (%d bootstrap paths)\n\n" +
+            "%s\n" +
             "METRICS:\n" +
             "MAE: %.2f\n" +
             "RMSE: %.2f\n" +
             "Hit Rate: %.1f%%\n\n" +
+            "CORRELATION (%d-day):\n" +
+            "%s\n" +
             "RECOMMENDATION:\n" +
-            "Based on the forecast model, %s shows positive momentum\n" +
-            "with moderate volatility expected over the next %d days.",
-            symbol, model, lookback, horizon, 
+            "Based on the forecast model, %s shows %s momentum\n" +
+            "with prices expected between $%.2f and $%.2f over the next %d days.",
+            result.getSymbol(), result.getModelName(), lookback, horizon,
             new java.util.Date().toString(),
-            195.50 + Math.random() * 10,
-            80 + Math.random() * 15,
-            2.1 + Math.random(),
-            3.2 + Math.random(),
-            65 + Math.random() * 20,
-            symbol, horizon
+            bullish ? "Bullish" : "Bearish",
+            target, result.getHalfWidth(horizon - 1),
+            result.getCoverage() * 100, result.getPaths(),
+            predictions,
+            result.getMae(),
+            result.getRmse(),
+            result.getHitRate(),
+            CORRELATION_WINDOW, correlation,
+            result.getSymbol(), bullish ? "positive" : "negative",
+            result.getLower(horizon - 1), result.getUpper(horizon - 1), horizon
         );
     }
     
+    // Rolling correlation of the symbol with SPY and its closest peers over the last year of daily
+    // closes, computed once per symbol; slow, so call it off the EDT
+    private static String marketCorrelation(String symbol) {
+        return correlationSummaries.computeIfAbsent(symbol, s -> describeCorrelation(correlationEngine(s), s));
+    }
+    
+    // An engine over SPY, the peers and the symbol, streamed bar by bar through the last year
+    private static CorrelationEngine correlationEngine(String symbol) {
+        String[] universe = CORRELATION_UNIVERSE;
+        if (!Arrays.asList(universe).contains(symbol)) {
+            universe = Arrays.copyOf(universe, universe.length + 1);
+            universe[universe.length - 1] = symbol;
+        }
+        double[][] closes = new double[universe.length][];
+        for (int i = 0; i < universe.length; i++) {
+            closes[i] = SampleMarketData.dailyCloses(universe[i], CORRELATION_HISTORY + 1);
+        }
+        CorrelationEngine correlations = new CorrelationEngine(universe, CORRELATION_WINDOW);
+        double[] bar = new double[universe.length];
+        for (int k = 0; k <= CORRELATION_HISTORY; k++) {
+            for (int i = 0; i < universe.length; i++) {
+                bar[i] = closes[i][k];
+            }
+            correlations.addBar(bar);
+        }
+        return correlations;
+    }
+    
+    private static String describeCorrelation(CorrelationEngine correlations, String symbol) {
+        int asset = correlations.indexOf(symbol);
+        StringBuilder text = new StringBuilder();
+        if (!symbol.equals("SPY")) {
+            text.append(String.format("• Market correlation: %.2f with SPY\n", correlations.getCorrelation(symbol, "SPY")));
+        }
+        text.append("• Most correlated:");
+        for (int peer : correlations.mostCorrelated(asset, 3, false)) {
+            text.append(String.format(" %s %.2f", correlations.getSymbol(peer), correlations.getCorrelation(asset, peer)));
+        }
+        text.append("\n• Least correlated:");
+        for (int peer : correlations.mostCorrelated(asset, 2, true)) {
+            text.append(String.format(" %s %.2f", correlations.getSymbol(peer), correlations.getCorrelation(asset, peer)));
+        }
+        return text.append('\n').toString();
+    }
+    
     private void showUpgradeDialog() {
         int result = JOptionPane.showConfirmDialog(
             this,
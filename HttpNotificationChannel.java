@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// Posts each batch as one JSON document to a webhook URL, the hook for an email or push
+// service. Any non-2xx response fails the batch so the dispatcher retries it.
+public class HttpNotificationChannel implements NotificationChannel {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    
+    private final URI endpoint;
+    private final HttpClient client;
+    
+    public HttpNotificationChannel(URI endpoint) {
+        String scheme = endpoint.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            throw new IllegalArgumentException("Webhook URL must be http or https: " + endpoint);
+        }
+        this.endpoint = endpoint;
+        this.client = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+    }
+    
+    @Override
+    public String getName() {
+        return "Webhook (" + endpoint + ")";
+    }
+    
+    @Override
+    public void send(List<AlertDispatcher.Notification> batch) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(toJson(batch)))
+            .build();
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while posting notifications", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook returned HTTP " + response.statusCode());
+        }
+    }
+    
+    // {"notifications":[{"recipient":...,"alertId":...,"symbol":...,"message":...,"time":...}]}
+    static String toJson(List<AlertDispatcher.Notification> batch) {
+        StringBuilder json = new StringBuilder(batch.size() * 128);
+        json.append("{\"notifications\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            AlertDispatcher.Notification notification = batch.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"recipient\":");
+            appendString(json, notification.getRecipient());
+            json.append(",\"alertId\":").append(notification.getAlertId());
+            json.append(",\"symbol\":");
+            appendString(json, notification.getSymbol());
+            json.append(",\"message\":");
+            appendString(json, notification.getMessage());
+            json.append(",\"time\":").append(notification.getTime()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+    
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
\ No newline at end of file
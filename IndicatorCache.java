@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// One computation per indicator for the whole process, shared by alerts and paper-trading
+// strategies. Consumers acquire a series by symbol, kind, period and timeframe; the first
+// acquire creates it, backfills it from the sample history outside the lock and asks the feed
+// for the symbol, and later acquires of the same key share it. Each
+// live bar then updates every series on its symbol once, appends the new value to the
+// series' memoized history and tells its listeners, however many consumers hold it. A series
+// is evicted, and its demand released, when the last holder releases it.
+//
+// Listeners are called on the cache's consumer thread after its lock is released, so they may
+// take their own locks and call back into the cache. Feed calls run on a helper thread for
+// the same reason as the engines': the feed may be waiting on this consumer.
+public class IndicatorCache implements MarketEventHandler {
+    private static final int BACKFILL_BARS = 500;
+    private static final int MAX_BACKFILL_MINUTES = 100_000;
+    private static final int MAX_HISTORY = 10_000;
+    private static final long MINUTE_MILLIS = 60_000;
+    private static final long DAY_MILLIS = 86_400_000;
+    
+    private static IndicatorCache instance;
+    
+    // Live series per symbol ID; guarded by this
+    private final IntObjectMap<ArrayList<Series>> series = new IntObjectMap<>();
+    private int seriesCount;
+    private long acquisitions;
+    private long computations;
+    private boolean subscribed;
+    private final ExecutorService feedExecutor;
+    
+    // Updated series of the current bar, notified once the lock is released; consumer thread only
+    private Series[] updated = new Series[16];
+    private double[] updatedPrevious = new double[16];
+    private double[] updatedValues = new double[16];
+    
+    // Called with each new value of a series, on the cache's consumer thread
+    public interface Listener {
+        void indicatorUpdated(Series series, long time, double previous, double value);
+    }
+    
+    public static synchronized IndicatorCache getInstance() {
+        if (instance == null) {
+            instance = new IndicatorCache();
+        }
+        return instance;
+    }
+    
+    private IndicatorCache() {
+        feedExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "indicator-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public Series acquire(String symbol, byte kind, int period, long timeframeMillis) {
+        return acquire(SymbolDictionary.getInstance().idOf(symbol), kind, period, timeframeMillis);
+    }
+    
+    // Returns the shared series, creating it if nobody holds it; balance each call with release.
+    // A new series is backfilled without the lock, so a slow backfill holds up neither live bars
+    // nor other consumers; if another acquire of the key wins the race, its series is shared.
+    public Series acquire(int symbolId, byte kind, int period, long timeframeMillis) {
+        synchronized (this) {
+            acquisitions++;
+            Series existing = find(symbolId, kind, period, timeframeMillis);
+            if (existing != null) {
+                existing.references++;
+                return existing;
+            }
+        }
+        // Validates the key before anything is recorded
+        Series created = new Series(new StreamingIndicator(symbolId, kind, period, timeframeMillis));
+        created.backfill();
+        synchronized (this) {
+            Series existing = find(symbolId, kind, period, timeframeMillis);
+            if (existing != null) {
+                existing.references++;
+                return existing;
+            }
+            return add(created);
+        }
+    }
+    
+    // Caller holds the lock
+    private Series find(int symbolId, byte kind, int period, long timeframeMillis) {
+        ArrayList<Series> symbolSeries = series.get(symbolId);
+        if (symbolSeries != null) {
+            for (Series candidate : symbolSeries) {
+                if (candidate.indicator.matches(kind, period, timeframeMillis)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+    
+    // Records a backfilled series with its first holder; caller holds the lock
+    private Series add(Series created) {
+        int symbolId = created.indicator.getSymbolId();
+        created.references = 1;
+        ArrayList<Series> symbolSeries = series.get(symbolId);
+        if (symbolSeries == null) {
+            symbolSeries = new ArrayList<>(4);
+            series.put(symbolId, symbolSeries);
+        }
+        symbolSeries.add(created);
+        seriesCount++;
+        boolean subscribe = !subscribed;
+        subscribed = true;
+        feedExecutor.execute(() -> {
+            MarketDataFeed feed = MarketDataFeed.getInstance();
+            if (subscribe) {
+                feed.subscribe("indicator-cache", SymbolDictionary.NONE, this);
+            }
+            feed.addDemand(symbolId);
+        });
+        return created;
+    }
+    
+    // Drops one hold on the series; the last one evicts it
+    public synchronized void release(Series released) {
+        if (released.references == 0) {
+            throw new IllegalStateException("Series already evicted: " + released.describe());
+        }
+        if (--released.references > 0) {
+            return;
+        }
+        int symbolId = released.indicator.getSymbolId();
+        ArrayList<Series> symbolSeries = series.get(symbolId);
+        symbolSeries.remove(released);
+        if (symbolSeries.isEmpty()) {
+            series.remove(symbolId);
+        }
+        seriesCount--;
+        released.listeners.clear();
+        feedExecutor.execute(() -> MarketDataFeed.getInstance().removeDemand(symbolId));
+    }
+    
+    // Distinct series currently held
+    public synchronized int getSeriesCount() { return seriesCount; }
+    // Acquire calls, shared or not; against getSeriesCount this shows how much is shared
+    public synchronized long getAcquisitions() { return acquisitions; }
+    // Indicator values computed from live bars, one per series per completed timeframe bar
+    public synchronized long getComputations() { return computations; }
+    
+    @Override
+    public void onEvent(MarketEvent event, long sequence) {
+        if (!event.isBar()) {
+            return;
+        }
+        int count = 0;
+        synchronized (this) {
+            ArrayList<Series> symbolSeries = series.get(event.getSymbolId());
+            if (symbolSeries == null) {
+                return;
+            }
+            for (Series s : symbolSeries) {
+                if (!s.indicator.onBar(event.getTime(), event.getClose())) {
+                    continue;
+                }
+                s.record(event.getTime());
+                computations++;
+                if (s.listeners.isEmpty()) {
+                    continue;
+                }
+                if (count == updated.length) {
+                    updated = Arrays.copyOf(updated, count * 2);
+                    updatedPrevious = Arrays.copyOf(updatedPrevious, count * 2);
+                    updatedValues = Arrays.copyOf(updatedValues, count * 2);
+                }
+                updated[count] = s;
+                updatedPrevious[count] = s.indicator.getPreviousValue();
+                updatedValues[count++] = s.indicator.getValue();
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            for (Listener listener : updated[i].listeners) {
+                listener.indicatorUpdated(updated[i], event.getTime(), updatedPrevious[i], updatedValues[i]);
+            }
+            updated[i] = null;
+        }
+    }
+    
+    // One shared indicator and the values it has produced, oldest first; read under the cache's lock
+    public class Series {
+        private final StreamingIndicator indicator;
+        private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+        private int references;
+        private long[] times = new long[64];
+        private double[] values = new double[64];
+        private int size;
+        
+        private Series(StreamingIndicator indicator) {
+            this.indicator = indicator;
+        }
+        
+        // Replays the sample history: minute bars for intraday timeframes, daily closes otherwise
+        private void backfill() {
+            long timeframe = indicator.getTimeframeMillis();
+            String symbol = SymbolDictionary.getInstance().symbolOf(indicator.getSymbolId());
+            long bars = (long) indicator.getWarmupBars() + BACKFILL_BARS;
+            if (timeframe >= DAY_MILLIS && timeframe % DAY_MILLIS == 0) {
+                double[] closes = SampleMarketData.dailyCloses(symbol, (int) Math.min(bars * (timeframe / DAY_MILLIS), 2520));
+                long today = Math.floorDiv(System.currentTimeMillis(), DAY_MILLIS) * DAY_MILLIS;
+                for (int i = 0; i < closes.length; i++) {
+                    long time = today - (closes.length - i) * DAY_MILLIS;
+                    if (indicator.onBar(time, closes[i])) {
+                        record(time);
+                    }
+                }
+            } else if (timeframe >= MINUTE_MILLIS && timeframe % MINUTE_MILLIS == 0) {
+                BarSeries minutes = SampleMarketData.minuteBars(symbol, (int) Math.min(bars * (timeframe / MINUTE_MILLIS), MAX_BACKFILL_MINUTES));
+                for (int i = 0; i < minutes.size(); i++) {
+                    if (indicator.onBar(minutes.getTime(i), minutes.getClose(i))) {
+                        record(minutes.getTime(i));
+                    }
+                }
+            }
+        }
+        
+        // Appends the indicator's new value, keeping the newest MAX_HISTORY
+        private void record(long time) {
+            if (size == times.length) {
+                if (size >= MAX_HISTORY) {
+                    int keep = MAX_HISTORY / 2;
+                    System.arraycopy(times, size - keep, times, 0, keep);
+                    System.arraycopy(values, size - keep, values, 0, keep);
+                    size = keep;
+                } else {
+                    times = Arrays.copyOf(times, size * 2);
+                    values = Arrays.copyOf(values, size * 2);
+                }
+            }
+            times[size] = time;
+            values[size++] = indicator.getValue();
+        }
+        
+        public void addListener(Listener listener) {
+            listeners.add(listener);
+        }
+        
+        public void removeListener(Listener listener) {
+            listeners.remove(listener);
+        }
+        
+        public boolean matches(byte kind, int period, long timeframeMillis) {
+            return indicator.matches(kind, period, timeframeMillis);
+        }
+        
+        public int getSymbolId() { return indicator.getSymbolId(); }
+        public byte getKind() { return indicator.getKind(); }
+        public int getPeriod() { return indicator.getPeriod(); }
+        public long getTimeframeMillis() { return indicator.getTimeframeMillis(); }
+        public String describe() { return indicator.describe(); }
+        
+        public double getValue() {
+            synchronized (IndicatorCache.this) {
+                return indicator.getValue();
+            }
+        }
+        
+        public double getPreviousValue() {
+            synchronized (IndicatorCache.this) {
+                return indicator.getPreviousValue();
+            }
+        }
+        
+        public boolean isReady() {
+            synchronized (IndicatorCache.this) {
+                return indicator.isReady();
+            }
+        }
+        
+        public int getReferenceCount() {
+            synchronized (IndicatorCache.this) {
+                return references;
+            }
+        }
+        
+        // Values in the memoized history, each timed by the bar that completed its timeframe bar
+        public int size() {
+            synchronized (IndicatorCache.this) {
+                return size;
+            }
+        }
+        
+        public long getTime(int i) {
+            synchronized (IndicatorCache.this) {
+                return times[i];
+            }
+        }
+        
+        public double getValue(int i) {
+            synchronized (IndicatorCache.this) {
+                return values[i];
+            }
+        }
+    }
+}
\ No newline at end of file
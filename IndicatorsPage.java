@@ -0,0 +1,348 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.Arrays;
+
+public class IndicatorsPage extends JPanel {
+    private static final String[] PRESET_SCREENS = {
+        "RSI(14) < 30 AND PRICE > SMA(200)",
+        "RSI(14) > 70",
+        "PRICE > SMA(50) AND SMA(50) > SMA(200)",
+        "EMA(12) > EMA(26) AND RSI(14) < 50"
+    };
+    private static final String[] WATCHLIST = {"AAPL", "MSFT", "GOOGL", "AMZN", "NVDA", "META", "TSLA", "SPY"};
+    private static final int SIMULATED_SYMBOLS = 10_000;
+    private static final int LOOKBACK_DAYS = 300;
+    private static final int MAX_ROWS = 500;
+    
+    // Loading the universe's history is the slow part, so it is kept across visits to the page.
+    // Built under the class lock on a worker; the EDT only reads the volatile field.
+    private static volatile UniverseScreener sharedScreener;
+    
+    private ThemeManager themeManager;
+    private AuthManager authManager;
+    private JFrame parentFrame;
+    private JComboBox<String> screenComboBox;
+    private JButton runButton;
+    private JTable resultsTable;
+    private ResultsTableModel tableModel;
+    private JLabel statusLabel;
+    private Timer refreshTimer;
+    private UniverseScreener screener;
+    private Runnable unsubscribe;
+    private long shownVersion = -1;
+    private boolean refreshing;
+    
+    public IndicatorsPage(JFrame parentFrame, ThemeManager themeManager, AuthManager authManager) {
+        this.parentFrame = parentFrame;
+        this.themeManager = themeManager;
+        this.authManager = authManager;
+        
+        setLayout(new BorderLayout());
+        initializeComponents();
+        setupLayout();
+        applyTheme();
+        loadUniverse();
+    }
+    
+    private void initializeComponents() {
+        screenComboBox = new JComboBox<>(PRESET_SCREENS);
+        screenComboBox.setEditable(true);
+        screenComboBox.setToolTipText("Conditions joined by AND on PRICE, SMA(n), EMA(n), RSI(n) and numbers, over daily closes");
+        screenComboBox.setPreferredSize(new Dimension(360, screenComboBox.getPreferredSize().height));
+        
+        runButton = new JButton("Run Screen");
+        runButton.setEnabled(false);
+        runButton.addActionListener(e -> runScreen());
+        
+        tableModel = new ResultsTableModel();
+        resultsTable = new JTable(tableModel);
+        resultsTable.setFillsViewportHeight(true);
+        resultsTable.setRowHeight(22);
+        resultsTable.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        statusLabel = new JLabel("Loading universe...");
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        refreshTimer = new Timer(500, e -> refresh());
+        
+        // Guests can run the preset screens but not write their own
+        if (authManager.isGuestMode()) {
+            screenComboBox.setEditable(false);
+            screenComboBox.setToolTipText("Sign up to write your own screens");
+        }
+    }
+    
+    private void setupLayout() {
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 10, 20));
+        
+        JLabel titleLabel = new JLabel("Indicators");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        
+        JLabel subtitleLabel = new JLabel(String.format("Screen %,d symbols on indicator conditions, re-evaluated on every live bar",
+            SIMULATED_SYMBOLS + WATCHLIST.length));
+        subtitleLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(Box.createVerticalStrut(5));
+        titlePanel.add(subtitleLabel);
+        
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+        
+        // Toolbar
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        toolbar.add(new JLabel("Screen:"));
+        toolbar.add(screenComboBox);
+        toolbar.add(runButton);
+        
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(toolbar, BorderLayout.SOUTH);
+        
+        JScrollPane tableScroll = new JScrollPane(resultsTable);
+        tableScroll.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createEmptyBorder(10, 20, 10, 20), BorderFactory.createTitledBorder("Matches")));
+        
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(0, 20, 10, 20));
+        statusPanel.add(statusLabel, BorderLayout.WEST);
+        
+        add(topPanel, BorderLayout.NORTH);
+        add(tableScroll, BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+    }
+    
+    // Live bars only come for symbols with demand, so the watchlist is asked for while the page shows
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        MarketDataFeed feed = MarketDataFeed.getInstance();
+        SymbolDictionary dictionary = SymbolDictionary.getInstance();
+        for (String symbol : WATCHLIST) {
+            feed.addDemand(dictionary.idOf(symbol));
+        }
+        subscribeScreener();
+        refreshTimer.start();
+    }
+    
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        if (unsubscribe != null) {
+            unsubscribe.run();
+            unsubscribe = null;
+        }
+        MarketDataFeed feed = MarketDataFeed.getInstance();
+        SymbolDictionary dictionary = SymbolDictionary.getInstance();
+        for (String symbol : WATCHLIST) {
+            feed.removeDemand(dictionary.idOf(symbol));
+        }
+        super.removeNotify();
+    }
+    
+    // Once the universe is loaded and the page is showing
+    private void subscribeScreener() {
+        if (screener != null && unsubscribe == null && isDisplayable()) {
+            unsubscribe = MarketDataFeed.getInstance().subscribe("indicator-screener", SymbolDictionary.NONE, screener);
+        }
+    }
+    
+    private void loadUniverse() {
+        UniverseScreener shared = sharedScreener;
+        if (shared != null) {
+            screener = shared;
+            runButton.setEnabled(true);
+            if (screener.getVersion() == 0) {
+                runScreen();
+            }
+            return;
+        }
+        SwingWorker<UniverseScreener, Void> worker = new SwingWorker<UniverseScreener, Void>() {
+            @Override
+            protected UniverseScreener doInBackground() {
+                synchronized (IndicatorsPage.class) {
+                    if (sharedScreener == null) {
+                        String[] symbols = new String[WATCHLIST.length + SIMULATED_SYMBOLS];
+                        System.arraycopy(WATCHLIST, 0, symbols, 0, WATCHLIST.length);
+                        for (int i = 0; i < SIMULATED_SYMBOLS; i++) {
+                            symbols[WATCHLIST.length + i] = String.format("SIM%05d", i);
+                        }
+                        sharedScreener = new UniverseScreener(symbols, LOOKBACK_DAYS);
+                    }
+                    return sharedScreener;
+                }
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    screener = get();
+                } catch (Exception e) {
+                    statusLabel.setText("Could not load the universe: " + e.getMessage());
+                    return;
+                }
+                runButton.setEnabled(true);
+                subscribeScreener();
+                runScreen();
+            }
+        };
+        worker.execute();
+    }
+    
+    private void runScreen() {
+        Object selected = screenComboBox.getSelectedItem();
+        UniverseScreener.Screen screen;
+        try {
+            screen = UniverseScreener.Screen.parse(selected == null ? "" : selected.toString(), screener.getLookback());
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText(e.getMessage());
+            return;
+        }
+        runButton.setEnabled(false);
+        statusLabel.setText("Screening " + screen + "...");
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                screener.setScreen(screen);
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (Exception e) {
+                    statusLabel.setText("Screen failed: " + e.getMessage());
+                }
+                runButton.setEnabled(true);
+                refresh();
+            }
+        };
+        worker.execute();
+    }
+    
+    // Re-reads the matches only when a bar or a new screen has changed them; the copy is taken on
+    // a worker so a busy screener never holds up the EDT
+    private void refresh() {
+        if (screener == null || refreshing) {
+            return;
+        }
+        long version = screener.getVersion();
+        if (version == 0 || version == shownVersion) {
+            return;
+        }
+        refreshing = true;
+        UniverseScreener source = screener;
+        SwingWorker<UniverseScreener.Results, Void> worker = new SwingWorker<UniverseScreener.Results, Void>() {
+            @Override
+            protected UniverseScreener.Results doInBackground() {
+                return source.getResults(MAX_ROWS);
+            }
+            
+            @Override
+            protected void done() {
+                refreshing = false;
+                UniverseScreener.Results results;
+                try {
+                    results = get();
+                } catch (Exception e) {
+                    statusLabel.setText("Could not read the matches: " + e.getMessage());
+                    return;
+                }
+                if (results == null) {
+                    return;
+                }
+                shownVersion = results.getVersion();
+                tableModel.update(results);
+                statusLabel.setText(String.format("%s  |  %,d of %,d symbols match  |  full scan %.0f ms  |  %,d live updates, %.0f µs each",
+                    results.getScreen(), results.getMatchCount(), results.getUniverseSize(), results.getScanMillis(),
+                    results.getIncrementalUpdates(), results.getAverageUpdateMicros()));
+            }
+        };
+        worker.execute();
+    }
+    
+    // Ranked matches, best first, with the value of each operand the screen reads
+    private class ResultsTableModel extends AbstractTableModel {
+        private UniverseScreener.Screen screen;
+        private UniverseScreener.Results results;
+        private int[] operands = new int[0];
+        
+        void update(UniverseScreener.Results newResults) {
+            boolean structure = newResults.getScreen() != screen;
+            screen = newResults.getScreen();
+            results = newResults;
+            if (structure) {
+                int count = 0;
+                operands = new int[screen.getOperandCount()];
+                for (int o = 0; o < screen.getOperandCount(); o++) {
+                    if (screen.getOperand(o).isIndicator()) {
+                        operands[count++] = o;
+                    }
+                }
+                operands = Arrays.copyOf(operands, count);
+                fireTableStructureChanged();
+            } else {
+                fireTableDataChanged();
+            }
+        }
+        
+        @Override
+        public int getRowCount() {
+            return results == null ? 0 : results.getRowCount();
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return 3 + operands.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            switch (column) {
+                case 0: return "Rank";
+                case 1: return "Symbol";
+                case 2: return "Price";
+                default: return screen.getOperand(operands[column - 3]).getName();
+            }
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            switch (column) {
+                case 0: return row + 1;
+                case 1: return results.getSymbol(row);
+                case 2: return String.format("%.2f", results.getLastClose(row));
+                default: return String.format("%.2f", results.getOperandValue(operands[column - 3], row));
+            }
+        }
+    }
+    
+    public void applyTheme() {
+        setBackground(themeManager.getBackground());
+        resultsTable.setBackground(themeManager.getCardBackground());
+        resultsTable.setForeground(themeManager.getText());
+        runButton.setBackground(themeManager.getPrimary());
+        runButton.setForeground(Color.WHITE);
+        
+        applyThemeToComponent(this);
+        repaint();
+    }
+    
+    private void applyThemeToComponent(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JLabel) {
+                component.setForeground(themeManager.getText());
+            } else if (component instanceof JTable || component instanceof JComboBox) {
+                continue;
+            } else if (component instanceof Container) {
+                component.setBackground(themeManager.getBackground());
+                applyThemeToComponent((Container) component);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+// Open-addressing int -> int map with linear probing and no boxing, for symbol-ID keyed
+// counters and indexes. Removal shifts later entries back instead of leaving tombstones.
+// Not thread-safe.
+public class IntIntMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    
+    private int[] keys;
+    private int[] values;
+    private int size;
+    
+    public IntIntMap() {
+        this(16);
+    }
+    
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean containsKey(int key) {
+        return keys[slot(key)] != EMPTY;
+    }
+    
+    public int get(int key, int defaultValue) {
+        int i = slot(key);
+        return keys[i] != EMPTY ? values[i] : defaultValue;
+    }
+    
+    public void put(int key, int value) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            i = claim(i, key);
+        }
+        values[i] = value;
+    }
+    
+    // Adds the delta to the key's value (0 when absent) and returns the new value
+    public int addTo(int key, int delta) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            i = claim(i, key);
+            values[i] = 0;
+        }
+        return values[i] += delta;
+    }
+    
+    public boolean remove(int key) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        // Backward-shift deletion: move later entries of the probe run into the gap
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = SymbolDictionary.mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+    
+    // Keys in table order
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+    
+    // The key's slot, or the empty slot where it would go
+    private int slot(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key not supported: " + key);
+        }
+        int mask = keys.length - 1;
+        int i = SymbolDictionary.mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+    
+    private int claim(int i, int key) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            i = slot(key);
+        }
+        keys[i] = key;
+        size++;
+        return i;
+    }
+    
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
\ No newline at end of file
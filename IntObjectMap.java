@@ -0,0 +1,146 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// Open-addressing int -> object map with linear probing, the object-valued counterpart of
+// IntIntMap for per-symbol state keyed by symbol ID. Not thread-safe.
+public class IntObjectMap<V> {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    
+    public IntObjectMap() {
+        this(16);
+    }
+    
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean containsKey(int key) {
+        return keys[slot(key)] != EMPTY;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) values[slot(key)];
+    }
+    
+    public void put(int key, V value) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            i = claim(i, key);
+        }
+        values[i] = value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        int i = slot(key);
+        if (keys[i] != EMPTY) {
+            return (V) values[i];
+        }
+        V value = factory.apply(key);
+        i = claim(slot(key), key);
+        values[i] = value;
+        return value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            return null;
+        }
+        V removed = (V) values[i];
+        int mask = keys.length - 1;
+        // Backward-shift deletion: move later entries of the probe run into the gap
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = SymbolDictionary.mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+    
+    // Keys in table order
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    // The key's slot, or the empty slot where it would go
+    private int slot(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key not supported: " + key);
+        }
+        int mask = keys.length - 1;
+        int i = SymbolDictionary.mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+    
+    private int claim(int i, int key) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            i = slot(key);
+        }
+        keys[i] = key;
+        size++;
+        return i;
+    }
+    
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
\ No newline at end of file
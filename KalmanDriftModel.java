@@ -0,0 +1,83 @@
+// Local-level Kalman filter on log returns: the drift follows a random walk and each return is
+// the drift plus noise. Predictions condition on the filtered state at the end of the fitted
+// series, and each new bar is a single O(1) filter step.
+public class KalmanDriftModel extends ForecastModel {
+    private static final double SIGNAL_TO_NOISE = 0.01;
+    
+    private double level;
+    private double variance;
+    private double processNoise;
+    private double observationNoise;
+    
+    @Override
+    public String getName() {
+        return "Kalman";
+    }
+    
+    @Override
+    public int getMemory() {
+        return 0;
+    }
+    
+    @Override
+    public void fit(double[] returns) {
+        double mu = mean(returns);
+        double sum = 0;
+        for (double r : returns) {
+            sum += (r - mu) * (r - mu);
+        }
+        observationNoise = returns.length > 1 ? Math.max(sum / (returns.length - 1), 1e-12) : 1e-4;
+        processNoise = observationNoise * SIGNAL_TO_NOISE;
+        level = returns.length > 0 ? returns[0] : 0;
+        variance = observationNoise;
+        
+        double[] errors = new double[Math.max(0, returns.length - 1)];
+        for (int t = 1; t < returns.length; t++) {
+            errors[t - 1] = step(returns[t]);
+        }
+        setResiduals(errors);
+    }
+    
+    @Override
+    public double update(double[] returns) {
+        double innovation = step(returns[returns.length - 1]);
+        pushResidual(innovation);
+        return innovation;
+    }
+    
+    // One filter step; returns the innovation
+    private double step(double observation) {
+        variance += processNoise;
+        double gain = variance / (variance + observationNoise);
+        double innovation = observation - level;
+        level += gain * innovation;
+        variance *= 1 - gain;
+        return innovation;
+    }
+    
+    @Override
+    protected double predict(double[] history, int n, double[] path, int step) {
+        double filtered = level;
+        double p = variance;
+        for (int i = 0; i < step; i++) {
+            p += processNoise;
+            double gain = p / (p + observationNoise);
+            filtered += gain * (path[i] - filtered);
+            p *= 1 - gain;
+        }
+        return filtered;
+    }
+    
+    @Override
+    public double[] getParameters() {
+        return new double[]{level, variance, processNoise, observationNoise};
+    }
+    
+    @Override
+    public void setParameters(double[] parameters) {
+        level = parameters[0];
+        variance = parameters[1];
+        processNoise = parameters[2];
+        observationNoise = parameters[3];
+    }
+}
\ No newline at end of file
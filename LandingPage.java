@@ -420,49 +420,43 @@ public class LandingPage extends JPanel {
     }
     
     private JPanel createChartPreview() {
-        JPanel chartPanel = new JPanel() {
+        CandlestickChart chart = new CandlestickChart(themeManager);
+        chart.setTitle("AAPL - Live Chart");
+        chart.setShowVolume(false);
+        chart.setPyramid(new BarPyramid(SampleMarketData.minuteBars("AAPL", 240)));
+        LiveChartFeed liveFeed = new LiveChartFeed(chart, 60_000L, 30);
+        
+        JPanel chartPanel = new JPanel(new BorderLayout()) {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
                 Graphics2D g2d = (Graphics2D) g;
                 g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
                 
-                // Draw a simple chart preview
-                int width = getWidth() - 40;
-                int height = getHeight() - 40;
-                int x = 20;
-                int y = 20;
-                
                 // Background
-                RoundRectangle2D roundedRectangle = new RoundRectangle2D.Float(x, y, width, height, 15, 15);
-                g2d.setColor(Color.WHITE);
+                RoundRectangle2D roundedRectangle = new RoundRectangle2D.Float(20, 20, getWidth() - 40, getHeight() - 40, 15, 15);
+                g2d.setColor(themeManager.getCardBackground());
                 g2d.fill(roundedRectangle);
                 g2d.setColor(new Color(0, 0, 0, 50));
                 g2d.draw(roundedRectangle);
-                
-                // Chart lines
-                g2d.setColor(themeManager.getPrimary());
-                g2d.setStroke(new BasicStroke(3));
-                
-                int[] xPoints = new int[10];
-                int[] yPoints = new int[10];
-                
-                for (int i = 0; i < 10; i++) {
-                    xPoints[i] = x + 20 + (i * (width - 40) / 9);
-                    yPoints[i] = y + 20 + (int)(Math.random() * (height - 40));
-                }
-                
-                for (int i = 0; i < 9; i++) {
-                    g2d.drawLine(xPoints[i], yPoints[i], xPoints[i + 1], yPoints[i + 1]);
-                }
-                
-                // Chart title
-                g2d.setColor(Color.BLACK);
-                g2d.setFont(new Font("Arial", Font.BOLD, 16));
-                g2d.drawString("AAPL - Live Chart", x + 20, y + 40);
+            }
+            
+            // Stream ticks only while the preview is on screen
+            @Override
+            public void addNotify() {
+                super.addNotify();
+                liveFeed.start("AAPL");
+            }
+            
+            @Override
+            public void removeNotify() {
+                liveFeed.stop();
+                super.removeNotify();
             }
         };
         chartPanel.setOpaque(false);
+        chartPanel.setBorder(BorderFactory.createEmptyBorder(28, 28, 28, 28));
+        chartPanel.add(chart, BorderLayout.CENTER);
         chartPanel.setPreferredSize(new Dimension(400, 300));
         
         return chartPanel;
@@ -0,0 +1,94 @@
+// Streams trades (or, for bar recordings, bars) from the MarketDataFeed into a chart's bar
+// series. Each event folds into the forming bar in place (or opens the next one) under the
+// pyramid's lock, and repaints are coalesced to a fixed frame rate however fast events arrive.
+public class LiveChartFeed implements MarketEventHandler {
+    private final CandlestickChart chart;
+    private final RepaintCoalescer coalescer;
+    private final long barIntervalMillis;
+    private volatile BarPyramid pyramid;
+    private volatile boolean fromBars;
+    private Runnable unsubscribe;
+    // Touched only on the consumer thread
+    private boolean changedInBatch;
+    
+    public LiveChartFeed(CandlestickChart chart, long barIntervalMillis, int framesPerSecond) {
+        this.chart = chart;
+        this.barIntervalMillis = barIntervalMillis;
+        this.coalescer = new RepaintCoalescer(chart, framesPerSecond);
+    }
+    
+    // Streams trades into the chart's current pyramid; call again after the chart is given new bars
+    public void start(String symbol) {
+        start(symbol, false);
+    }
+    
+    // Builds bars from bar events instead of trades, for sources that only carry bars
+    public void start(String symbol, boolean fromBars) {
+        stop();
+        this.fromBars = fromBars;
+        pyramid = chart.getPyramid();
+        if (pyramid == null) {
+            return;
+        }
+        coalescer.start();
+        unsubscribe = MarketDataFeed.getInstance().subscribe("chart-" + symbol, symbol, this);
+    }
+    
+    public void stop() {
+        if (unsubscribe != null) {
+            unsubscribe.run();
+            unsubscribe = null;
+        }
+        coalescer.stop();
+    }
+    
+    public boolean isRunning() {
+        return unsubscribe != null;
+    }
+    
+    public RepaintCoalescer getCoalescer() {
+        return coalescer;
+    }
+    
+    @Override
+    public void onEvent(MarketEvent event, long sequence) {
+        if (fromBars && event.isBar()) {
+            fold(event.getTime(), event.getOpen(), event.getHigh(), event.getLow(), event.getClose(), event.getVolume());
+        } else if (!fromBars && event.isTrade()) {
+            onTrade(event.getTime(), event.getPrice(), event.getSize());
+        }
+    }
+    
+    @Override
+    public void onBatchEnd() {
+        if (changedInBatch) {
+            changedInBatch = false;
+            chart.dataChanged();
+            coalescer.markDirty();
+        }
+    }
+    
+    public void onTrade(long time, double price, double size) {
+        fold(time, price, price, price, price, size);
+    }
+    
+    private void fold(long time, double open, double high, double low, double close, double volume) {
+        BarPyramid target = pyramid;
+        if (target == null) {
+            return;
+        }
+        long barTime = time - Math.floorMod(time, barIntervalMillis);
+        BarSeries base = target.getBase();
+        synchronized (target) {
+            int last = base.size() - 1;
+            if (last >= 0 && base.getTime(last) >= barTime) {
+                base.updateLast(Math.max(base.getHigh(last), high), Math.min(base.getLow(last), low),
+                    close, base.getVolume(last) + volume);
+            } else {
+                base.append(barTime, open, high, low, close, volume);
+            }
+            target.onBaseChanged();
+        }
+        changedInBatch = true;
+    }
+}
\ No newline at end of file
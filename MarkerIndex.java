@@ -0,0 +1,152 @@
+// Immutable index over chart markers such as trades and annotations. Markers are kept in time
+// order so a viewport is a binary-searched range, and an implicit k-d tree over (time, price)
+// finds the marker nearest the cursor in screen pixels in O(log n) for hover inspection.
+public class MarkerIndex {
+    public static final byte BUY = 0;
+    public static final byte SELL = 1;
+    public static final byte NOTE = 2;
+    
+    private final long[] times;
+    private final double[] prices;
+    private final byte[] kinds;
+    private final String[] labels;
+    // Marker positions in k-d order: each range's middle entry splits it on time at even
+    // depths and on price at odd depths
+    private final int[] tree;
+    
+    // Times must be ascending; labels may be null or contain nulls
+    public MarkerIndex(long[] times, double[] prices, byte[] kinds, String[] labels) {
+        int n = times.length;
+        if (prices.length != n || kinds.length != n || (labels != null && labels.length != n)) {
+            throw new IllegalArgumentException("Marker columns must have equal length");
+        }
+        for (int i = 1; i < n; i++) {
+            if (times[i] < times[i - 1]) {
+                throw new IllegalArgumentException("Marker times must be ascending");
+            }
+        }
+        this.times = times.clone();
+        this.prices = prices.clone();
+        this.kinds = kinds.clone();
+        this.labels = labels == null ? new String[n] : labels.clone();
+        this.tree = new int[n];
+        for (int i = 0; i < n; i++) {
+            tree[i] = i;
+        }
+        build(0, n, 0);
+    }
+    
+    public int size() {
+        return times.length;
+    }
+    
+    public long getTime(int i) { return times[i]; }
+    public double getPrice(int i) { return prices[i]; }
+    public byte getKind(int i) { return kinds[i]; }
+    public String getLabel(int i) { return labels[i]; }
+    
+    // First marker at or after the time, or size() if there is none
+    public int indexAtOrAfter(long time) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    // Marker closest to (time, price) when both axes are measured in pixels, or -1 if none lies
+    // within maxPixels
+    public int nearest(long time, double price, double pixelsPerMilli, double pixelsPerPrice, double maxPixels) {
+        double[] best = {maxPixels * maxPixels, -1};
+        search(0, tree.length, 0, time, price, pixelsPerMilli, pixelsPerPrice, best);
+        return (int) best[1];
+    }
+    
+    private void search(int from, int to, int depth, long time, double price,
+                        double pixelsPerMilli, double pixelsPerPrice, double[] best) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        int marker = tree[mid];
+        double dx = (times[marker] - time) * pixelsPerMilli;
+        double dy = (prices[marker] - price) * pixelsPerPrice;
+        double distance = dx * dx + dy * dy;
+        if (distance < best[0]) {
+            best[0] = distance;
+            best[1] = marker;
+        }
+        
+        double split = (depth & 1) == 0 ? dx : dy;
+        // Visit the side containing the query first; the other side only if the splitting
+        // line is closer than the best match so far
+        if (split > 0) {
+            search(from, mid, depth + 1, time, price, pixelsPerMilli, pixelsPerPrice, best);
+            if (split * split < best[0]) {
+                search(mid + 1, to, depth + 1, time, price, pixelsPerMilli, pixelsPerPrice, best);
+            }
+        } else {
+            search(mid + 1, to, depth + 1, time, price, pixelsPerMilli, pixelsPerPrice, best);
+            if (split * split < best[0]) {
+                search(from, mid, depth + 1, time, price, pixelsPerMilli, pixelsPerPrice, best);
+            }
+        }
+    }
+    
+    private void build(int from, int to, int depth) {
+        while (to - from > 1) {
+            int mid = (from + to) >>> 1;
+            select(from, to - 1, mid, depth & 1);
+            // Recurse into the smaller half and loop on the larger to bound stack depth
+            if (mid - from < to - mid - 1) {
+                build(from, mid, depth + 1);
+                from = mid + 1;
+            } else {
+                build(mid + 1, to, depth + 1);
+                to = mid;
+            }
+            depth++;
+        }
+    }
+    
+    // Quickselect: partially orders tree[left..right] so that position k holds its median by axis
+    private void select(int left, int right, int k, int axis) {
+        while (left < right) {
+            double pivot = key(tree[(left + right) >>> 1], axis);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (key(tree[i], axis) < pivot) {
+                    i++;
+                }
+                while (key(tree[j], axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+    
+    private double key(int marker, int axis) {
+        return axis == 0 ? times[marker] : prices[marker];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// One consumer of a MarketDataRingBuffer: a daemon thread that follows the ring's cursor and
+// hands every available event to its handler, then advances its own sequence so the producer
+// may reuse those slots.
+public class MarketDataConsumer implements Runnable {
+    // Told about each exception a handler throws; the consumer carries on with the next event
+    public interface ErrorHandler {
+        void onHandlerError(MarketDataConsumer consumer, RuntimeException error);
+    }
+    
+    private final MarketDataRingBuffer ring;
+    private final String name;
+    private final int symbolId;
+    private final MarketEventHandler handler;
+    private final AtomicLong sequence;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile long handlerErrors;
+    
+    MarketDataConsumer(MarketDataRingBuffer ring, String name, int symbolId, MarketEventHandler handler, long startSequence) {
+        this.ring = ring;
+        this.name = name;
+        this.symbolId = symbolId;
+        this.handler = handler;
+        this.sequence = new AtomicLong(startSequence);
+        this.thread = new Thread(this, "market-data-" + name);
+        this.thread.setDaemon(true);
+    }
+    
+    void start() {
+        thread.start();
+    }
+    
+    AtomicLong getSequence() {
+        return sequence;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    // Sequence of the last event this consumer has finished with
+    public long getProcessedSequence() {
+        return sequence.get();
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Published events this consumer has not finished with yet
+    public long getLag() {
+        return ring.getCursor() - sequence.get();
+    }
+    
+    public long getErrorCount() {
+        return handlerErrors;
+    }
+    
+    // Stops consuming. Once this returns the handler is not called again and the producer no
+    // longer waits on this consumer; called from the handler itself, it stops after the event.
+    public void stop() {
+        requestStop();
+        awaitStop();
+    }
+    
+    // Asks the thread to stop after the event in hand; false if it was already asked
+    synchronized boolean requestStop() {
+        if (!running) {
+            return false;
+        }
+        running = false;
+        ring.wakeConsumers();
+        return true;
+    }
+    
+    // Waits for the thread to finish its event, then releases the producer. The gate stays until
+    // the thread is done, so the slots it is reading cannot be reused under it.
+    void awaitStop() {
+        if (Thread.currentThread() != thread) {
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ring.removeGatingSequence(sequence);
+    }
+    
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        while (running) {
+            long available = ring.waitFor(next, this);
+            if (available < next) {
+                continue;
+            }
+            for (; next <= available; next++) {
+                if (!running) {
+                    return;
+                }
+                MarketEvent event = ring.get(next);
+                if (symbolId == SymbolDictionary.NONE || symbolId == event.getSymbolId()) {
+                    try {
+                        handler.onEvent(event, next);
+                    } catch (RuntimeException e) {
+                        reportError(e);
+                    }
+                }
+            }
+            try {
+                handler.onBatchEnd();
+            } catch (RuntimeException e) {
+                reportError(e);
+            }
+            sequence.lazySet(available);
+        }
+    }
+    
+    // A failing handler must not stall the ring. Every failure goes to the ring's error handler;
+    // without one, only the first is reported, as an uncaught exception of this thread.
+    private void reportError(RuntimeException e) {
+        long errors = handlerErrors++;
+        ErrorHandler errorHandler = ring.getErrorHandler();
+        if (errorHandler != null) {
+            errorHandler.onHandlerError(this, e);
+        } else if (errors == 0) {
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+}
\ No newline at end of file
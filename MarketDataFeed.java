@@ -0,0 +1,118 @@
+// The application's market data layer: a single MarketDataRingBuffer written by one active
+// MarketDataSource at a time (the simulated feed by default, or a replay) and read by any
+// number of subscribers, each on its own consumer thread.
+public class MarketDataFeed {
+    private static final int RING_CAPACITY = 1 << 16;
+    
+    private static MarketDataFeed instance;
+    
+    private final MarketDataRingBuffer ring = new MarketDataRingBuffer(RING_CAPACITY);
+    private final MarketDataSource defaultSource = new SimulatedBarFeed();
+    // Subscriber count per symbol ID, forwarded to the source as demand
+    private final IntIntMap symbolDemand = new IntIntMap();
+    private MarketDataSource source;
+    
+    public static synchronized MarketDataFeed getInstance() {
+        if (instance == null) {
+            instance = new MarketDataFeed();
+            instance.useDefaultSource();
+        }
+        return instance;
+    }
+    
+    private MarketDataFeed() {
+    }
+    
+    public MarketDataRingBuffer getRingBuffer() {
+        return ring;
+    }
+    
+    // Stops the current source before starting the new one, so the ring keeps a single producer
+    public synchronized void setSource(MarketDataSource newSource) {
+        if (source != null) {
+            source.stop();
+        }
+        source = newSource;
+        source.start(this);
+        for (int symbolId : symbolDemand.keys()) {
+            source.addSymbol(symbolId);
+        }
+    }
+    
+    // Switches back to the simulated feed, e.g. after a replay
+    public void useDefaultSource() {
+        setSource(defaultSource);
+    }
+    
+    public synchronized MarketDataSource getSource() {
+        return source;
+    }
+    
+    // Receives exceptions thrown by subscribers' handlers
+    public void setErrorHandler(MarketDataConsumer.ErrorHandler errorHandler) {
+        ring.setErrorHandler(errorHandler);
+    }
+    
+    // Delivers events for the symbol (or every symbol when null) to the handler on a new consumer
+    // thread; returns an action that cancels the subscription. The producer waits for the slowest
+    // subscriber, so a handler must not block and should queue anything slow for its own thread.
+    public Runnable subscribe(String name, String symbol, MarketEventHandler handler) {
+        return subscribe(name, symbol == null ? SymbolDictionary.NONE : SymbolDictionary.getInstance().idOf(symbol), handler);
+    }
+    
+    // As above, by SymbolDictionary ID, or every symbol for SymbolDictionary.NONE
+    public synchronized Runnable subscribe(String name, int symbolId, MarketEventHandler handler) {
+        if (symbolId != SymbolDictionary.NONE) {
+            addDemand(symbolId);
+        }
+        MarketDataConsumer consumer = ring.addConsumer(name, symbolId, handler);
+        return () -> unsubscribe(consumer, symbolId);
+    }
+    
+    // Waits for the consumer outside the lock, since its handler may be calling into the feed
+    private void unsubscribe(MarketDataConsumer consumer, int symbolId) {
+        synchronized (this) {
+            if (!consumer.requestStop()) {
+                return;
+            }
+            if (symbolId != SymbolDictionary.NONE) {
+                removeDemand(symbolId);
+            }
+        }
+        consumer.awaitStop();
+    }
+    
+    // Asks the source to produce the symbol without a consumer of its own, for subscribers that
+    // take every symbol and filter themselves; balance each call with removeDemand
+    public synchronized void addDemand(int symbolId) {
+        if (symbolDemand.addTo(symbolId, 1) == 1) {
+            source.addSymbol(symbolId);
+        }
+    }
+    
+    public synchronized void removeDemand(int symbolId) {
+        if (symbolDemand.get(symbolId, 0) > 0 && symbolDemand.addTo(symbolId, -1) == 0) {
+            symbolDemand.remove(symbolId);
+            source.removeSymbol(symbolId);
+        }
+    }
+    
+    // Publishing methods are for the active source's producer thread only
+    public void publishTrade(int symbolId, long time, double price, double size) {
+        long sequence = ring.next();
+        ring.get(sequence).setTrade(symbolId, time, price, size);
+        ring.publish(sequence);
+    }
+    
+    public void publishQuote(int symbolId, long time, double bid, double bidSize, double ask, double askSize) {
+        long sequence = ring.next();
+        ring.get(sequence).setQuote(symbolId, time, bid, bidSize, ask, askSize);
+        ring.publish(sequence);
+    }
+    
+    public void publishBar(int symbolId, long time, double open, double high, double low, double close, double volume) {
+        long sequence = ring.next();
+        ring.get(sequence).setBar(symbolId, time, open, high, low, close, volume);
+        ring.publish(sequence);
+    }
+}
\ No newline at end of file
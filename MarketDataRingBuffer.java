@@ -0,0 +1,197 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Preallocated single-producer/multi-consumer ring of MarketEvents. The producer claims a
+// sequence, fills that slot's event in place and publishes by advancing the cursor; each
+// consumer runs on its own thread and owns a sequence marking what it has processed. Before
+// reusing a slot the producer waits for the slowest consumer, so the event path never allocates.
+//
+// Slow consumers are handled with back-pressure, not drops: a consumer a full ring behind holds
+// the producer, and with it every other consumer, until it catches up. Handlers must therefore
+// return quickly and hand slow work to an executor of their own. An idle consumer spins and
+// yields briefly, then blocks until the producer publishes, which only takes the lock while
+// some consumer is blocked.
+public class MarketDataRingBuffer {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+    
+    private final MarketEvent[] events;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    // Replaced wholesale when consumers come and go; read on every wrap check
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+    private volatile MarketDataConsumer.ErrorHandler errorHandler;
+    
+    // Consumers blocked waiting for the next publish
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition published = waitLock.newCondition();
+    private final AtomicInteger blockedConsumers = new AtomicInteger();
+    
+    // Claim state, touched only by the producer thread
+    private long nextSequence = -1;
+    private long cachedGatingSequence = -1;
+    // The gates cachedGatingSequence was taken over; a new consumer invalidates it
+    private AtomicLong[] cachedGates;
+    
+    public MarketDataRingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        events = new MarketEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new MarketEvent();
+        }
+        mask = capacity - 1;
+    }
+    
+    public int getCapacity() {
+        return events.length;
+    }
+    
+    // Highest published sequence, -1 before the first event
+    public long getCursor() {
+        return cursor.get();
+    }
+    
+    // Producer only: claims the next slot, waiting while it still holds an event some consumer
+    // has not processed
+    public long next() {
+        long next = nextSequence + 1;
+        long wrapPoint = next - events.length;
+        AtomicLong[] gates = gatingSequences;
+        if (wrapPoint > cachedGatingSequence || gates != cachedGates) {
+            cachedGates = gates;
+            long minimum;
+            int idle = 0;
+            while (wrapPoint > (minimum = minimumSequence(nextSequence))) {
+                idle = backOff(idle);
+            }
+            cachedGatingSequence = minimum;
+        }
+        nextSequence = next;
+        return next;
+    }
+    
+    public MarketEvent get(long sequence) {
+        return events[(int) (sequence & mask)];
+    }
+    
+    // Producer only: makes the event at the sequence, and all before it, visible to consumers
+    public void publish(long sequence) {
+        // A full write, so a consumer that blocks after this sees either the new cursor or is
+        // counted below
+        cursor.set(sequence);
+        if (blockedConsumers.get() > 0) {
+            wakeConsumers();
+        }
+    }
+    
+    // Consumer side: spins, then yields, a bounded number of times, then blocks until the
+    // sequence is published. Returns the cursor, which is below the sequence only if the
+    // consumer was stopped while waiting.
+    long waitFor(long sequence, MarketDataConsumer consumer) {
+        long available;
+        for (int idle = 0; idle < SPIN_TRIES + YIELD_TRIES; idle++) {
+            if ((available = cursor.get()) >= sequence) {
+                return available;
+            }
+            if (idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        waitLock.lock();
+        try {
+            blockedConsumers.incrementAndGet();
+            try {
+                while ((available = cursor.get()) < sequence && consumer.isRunning()) {
+                    published.await();
+                }
+            } finally {
+                blockedConsumers.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            available = cursor.get();
+        } finally {
+            waitLock.unlock();
+        }
+        return available;
+    }
+    
+    void wakeConsumers() {
+        waitLock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+    
+    // Receives failures thrown by any consumer's handler; null reports them to the consumer
+    // thread's uncaught exception handler instead
+    public void setErrorHandler(MarketDataConsumer.ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+    
+    MarketDataConsumer.ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+    
+    // Starts a consumer thread that sees every event published from now on, or only those for
+    // the symbol ID unless it is SymbolDictionary.NONE. The gate is registered before its start
+    // is read from the cursor, so the producer cannot wrap past the first event it will see.
+    public MarketDataConsumer addConsumer(String name, int symbolId, MarketEventHandler handler) {
+        MarketDataConsumer consumer = new MarketDataConsumer(this, name, symbolId, handler, cursor.get());
+        addGatingSequence(consumer.getSequence());
+        consumer.getSequence().set(cursor.get());
+        consumer.start();
+        return consumer;
+    }
+    
+    synchronized void addGatingSequence(AtomicLong sequence) {
+        AtomicLong[] current = gatingSequences;
+        AtomicLong[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = sequence;
+        gatingSequences = updated;
+    }
+    
+    synchronized void removeGatingSequence(AtomicLong sequence) {
+        AtomicLong[] current = gatingSequences;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == sequence) {
+                AtomicLong[] updated = new AtomicLong[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                gatingSequences = updated;
+                return;
+            }
+        }
+    }
+    
+    private long minimumSequence(long minimum) {
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+    
+    // Producer's wait for a slow consumer: spin, then yield, then park with a growing timeout
+    private static int backOff(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            int parks = Math.min(10, idle - SPIN_TRIES - YIELD_TRIES);
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << parks));
+        }
+        return idle + 1;
+    }
+}
\ No newline at end of file
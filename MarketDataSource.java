@@ -0,0 +1,18 @@
+// Producer side of the MarketDataFeed. A source publishes from a single thread of its own and
+// must have stopped publishing by the time stop() returns, so sources can be swapped without
+// two producers ever writing the ring at once.
+public interface MarketDataSource {
+    String getName();
+    
+    void start(MarketDataFeed feed);
+    
+    void stop();
+    
+    // Demand hints from subscribers, by SymbolDictionary ID; sources that replay a fixed
+    // recording may ignore them
+    default void addSymbol(int symbolId) {
+    }
+    
+    default void removeSymbol(int symbolId) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+// Mutable market data event. Instances are preallocated in the MarketDataRingBuffer and
+// overwritten in place by the producer, so consumers must copy out anything they keep past
+// their onEvent call. Symbols are carried as SymbolDictionary IDs.
+public class MarketEvent {
+    public static final byte TRADE = 0;
+    public static final byte QUOTE = 1;
+    public static final byte BAR = 2;
+    
+    private byte type;
+    private int symbolId;
+    private long time;
+    // Trades: price and size. Bars: close and volume.
+    private double price;
+    private double size;
+    private double bid;
+    private double ask;
+    private double bidSize;
+    private double askSize;
+    private double open;
+    private double high;
+    private double low;
+    
+    public void setTrade(int symbolId, long time, double price, double size) {
+        this.type = TRADE;
+        this.symbolId = symbolId;
+        this.time = time;
+        this.price = price;
+        this.size = size;
+    }
+    
+    public void setQuote(int symbolId, long time, double bid, double bidSize, double ask, double askSize) {
+        this.type = QUOTE;
+        this.symbolId = symbolId;
+        this.time = time;
+        this.bid = bid;
+        this.bidSize = bidSize;
+        this.ask = ask;
+        this.askSize = askSize;
+    }
+    
+    public void setBar(int symbolId, long time, double open, double high, double low, double close, double volume) {
+        this.type = BAR;
+        this.symbolId = symbolId;
+        this.time = time;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.price = close;
+        this.size = volume;
+    }
+    
+    public void copyFrom(MarketEvent other) {
+        type = other.type;
+        symbolId = other.symbolId;
+        time = other.time;
+        price = other.price;
+        size = other.size;
+        bid = other.bid;
+        ask = other.ask;
+        bidSize = other.bidSize;
+        askSize = other.askSize;
+        open = other.open;
+        high = other.high;
+        low = other.low;
+    }
+    
+    public byte getType() { return type; }
+    public int getSymbolId() { return symbolId; }
+    public String getSymbol() { return SymbolDictionary.getInstance().symbolOf(symbolId); }
+    public long getTime() { return time; }
+    public double getPrice() { return price; }
+    public double getSize() { return size; }
+    public double getBid() { return bid; }
+    public double getAsk() { return ask; }
+    public double getBidSize() { return bidSize; }
+    public double getAskSize() { return askSize; }
+    public double getOpen() { return open; }
+    public double getHigh() { return high; }
+    public double getLow() { return low; }
+    public double getClose() { return price; }
+    public double getVolume() { return size; }
+    
+    public boolean isTrade() { return type == TRADE; }
+    public boolean isQuote() { return type == QUOTE; }
+    public boolean isBar() { return type == BAR; }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+public interface MarketEventHandler {
+    // Called on the consumer's own thread; the event is only valid until this call returns
+    void onEvent(MarketEvent event, long sequence);
+    
+    // Called after each run of available events, e.g. to publish or repaint once per batch
+    default void onBatchEnd() {
+    }
+}
\ No newline at end of file
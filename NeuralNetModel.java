@@ -0,0 +1,122 @@
+import java.util.SplittableRandom;
+
+// Nonlinear autoregression standing in for the LSTM option: a fixed random tanh layer over
+// lagged returns with a ridge-regression readout, so it trains in closed form on the client
+public class NeuralNetModel extends ForecastModel {
+    private static final long WEIGHT_SEED = 0x5DEECE66DL;
+    private static final double RIDGE = 1.0;
+    
+    private final int lags;
+    private final int hidden;
+    private final double[][] inputWeights;
+    private final double[] bias;
+    private double[] readout;
+    private double mu;
+    private double scale = 1;
+    
+    public NeuralNetModel(int lags, int hidden) {
+        this.lags = lags;
+        this.hidden = hidden;
+        this.inputWeights = new double[hidden][lags];
+        this.bias = new double[hidden];
+        this.readout = new double[hidden + 1];
+        
+        SplittableRandom random = new SplittableRandom(WEIGHT_SEED);
+        for (int h = 0; h < hidden; h++) {
+            for (int k = 0; k < lags; k++) {
+                inputWeights[h][k] = (random.nextDouble() * 2 - 1) / Math.sqrt(lags);
+            }
+            bias[h] = random.nextDouble() * 0.2 - 0.1;
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "LSTM";
+    }
+    
+    @Override
+    public int getMemory() {
+        return lags;
+    }
+    
+    @Override
+    public void fit(double[] returns) {
+        mu = mean(returns);
+        double variance = 0;
+        for (double r : returns) {
+            variance += (r - mu) * (r - mu);
+        }
+        scale = returns.length > 1 ? Math.sqrt(variance / (returns.length - 1)) : 1;
+        if (scale == 0) {
+            scale = 1;
+        }
+        
+        int features = hidden + 1;
+        double[][] gram = new double[features][features];
+        double[] target = new double[features];
+        double[] activations = new double[features];
+        for (int t = lags; t < returns.length; t++) {
+            activate(returns, t, null, 0, activations);
+            double y = (returns[t] - mu) / scale;
+            for (int i = 0; i < features; i++) {
+                target[i] += activations[i] * y;
+                for (int j = 0; j <= i; j++) {
+                    gram[i][j] += activations[i] * activations[j];
+                }
+            }
+        }
+        for (int i = 0; i < features; i++) {
+            gram[i][i] += RIDGE;
+            for (int j = 0; j < i; j++) {
+                gram[j][i] = gram[i][j];
+            }
+        }
+        readout = returns.length > lags ? solveSymmetric(gram, target) : new double[features];
+        computeResiduals(returns);
+    }
+    
+    // The hidden layer is regenerated from a fixed seed, so only the readout needs storing
+    @Override
+    public double[] getParameters() {
+        double[] parameters = new double[readout.length + 2];
+        parameters[0] = mu;
+        parameters[1] = scale;
+        System.arraycopy(readout, 0, parameters, 2, readout.length);
+        return parameters;
+    }
+    
+    @Override
+    public void setParameters(double[] parameters) {
+        mu = parameters[0];
+        scale = parameters[1];
+        readout = java.util.Arrays.copyOfRange(parameters, 2, hidden + 3);
+    }
+    
+    @Override
+    protected double predict(double[] history, int n, double[] path, int step) {
+        if (n + step < lags) {
+            return mu;
+        }
+        double value = readout[hidden];
+        for (int h = 0; h < hidden; h++) {
+            double sum = bias[h];
+            for (int k = 1; k <= lags; k++) {
+                sum += inputWeights[h][k - 1] * (lag(history, n, path, step, k) - mu) / scale;
+            }
+            value += readout[h] * Math.tanh(sum);
+        }
+        return mu + value * scale;
+    }
+    
+    private void activate(double[] history, int n, double[] path, int step, double[] activations) {
+        for (int h = 0; h < hidden; h++) {
+            double sum = bias[h];
+            for (int k = 1; k <= lags; k++) {
+                sum += inputWeights[h][k - 1] * (lag(history, n, path, step, k) - mu) / scale;
+            }
+            activations[h] = Math.tanh(sum);
+        }
+        activations[hidden] = 1;
+    }
+}
\ No newline at end of file
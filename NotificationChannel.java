@@ -0,0 +1,11 @@
+import java.io.IOException;
+import java.util.List;
+
+// Delivers batches of alert notifications, e.g. to a log file or a webhook. Called from the
+// AlertDispatcher's thread only, so implementations may block; a thrown exception makes the
+// dispatcher retry the batch on its next flush.
+public interface NotificationChannel {
+    String getName();
+    
+    void send(List<AlertDispatcher.Notification> batch) throws IOException;
+}
\ No newline at end of file
@@ -12,6 +12,7 @@ public class OutputPanel extends JPanel {
     private JTextArea javaArea;
     private JButton copyButton;
     private String currentCode = "";
+    private String currentJson = "";
     
     public OutputPanel(ThemeManager themeManager, AuthManager authManager) {
         this.themeManager = themeManager;
@@ -250,31 +251,24 @@ public class OutputPanel extends JPanel {
         javaArea.setText(sampleJava);
         
         currentCode = sampleJava; // Default to Java
+        currentJson = sampleJson;
     }
     
-    public void updateCode(String newCode) {
+    // Only tabs whose text actually changed are set, since setText re-lays out the whole area
+    public void updateCode(String newCode, String newJson) {
         if (authManager.isGuestMode()) return;
         
-        this.currentCode = newCode;
-        
         // Update Java tab with generated code
-        javaArea.setText(newCode);
+        if (!newCode.equals(currentCode)) {
+            currentCode = newCode;
+            javaArea.setText(newCode);
+        }
         
         // Update JSON representation
-        updateJsonFromCode();
-    }
-    
-    private void updateJsonFromCode() {
-        // Simple JSON generation based on current code
-        String json = "{\n" +
-                "  \"strategy\": {\n" +
-                "    \"name\": \"Generated Strategy\",\n" +
-                "    \"type\": \"momentum\",\n" +
-                "    \"language\": \"java\",\n" +
-                "    \"generated\": true\n" +
-                "  }\n" +
-                "}";
-        jsonArea.setText(json);
+        if (!newJson.equals(currentJson)) {
+            currentJson = newJson;
+            jsonArea.setText(newJson);
+        }
     }
     
     private void copyCurrentCode() {
@@ -0,0 +1,99 @@
+// Streaming quantile estimate using the P-square algorithm (Jain & Chlamtac): five markers,
+// constant memory no matter how many observations are added
+public class P2Quantile {
+    private final double p;
+    private final double[] heights = new double[5];
+    private final double[] positions = new double[5];
+    private final double[] desired = new double[5];
+    private final double[] increments = new double[5];
+    private long count;
+    
+    public P2Quantile(double p) {
+        this.p = p;
+        increments[0] = 0;
+        increments[1] = p / 2;
+        increments[2] = p;
+        increments[3] = (1 + p) / 2;
+        increments[4] = 1;
+    }
+    
+    public void add(double x) {
+        if (count < 5) {
+            heights[(int) count++] = x;
+            if (count == 5) {
+                java.util.Arrays.sort(heights);
+                for (int i = 0; i < 5; i++) {
+                    positions[i] = i + 1;
+                }
+                desired[0] = 1;
+                desired[1] = 1 + 2 * p;
+                desired[2] = 1 + 4 * p;
+                desired[3] = 3 + 2 * p;
+                desired[4] = 5;
+            }
+            return;
+        }
+        count++;
+        
+        int k;
+        if (x < heights[0]) {
+            heights[0] = x;
+            k = 0;
+        } else if (x >= heights[4]) {
+            heights[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (k < 3 && x >= heights[k + 1]) {
+                k++;
+            }
+        }
+        for (int i = k + 1; i < 5; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            desired[i] += increments[i];
+        }
+        
+        for (int i = 1; i < 4; i++) {
+            double d = desired[i] - positions[i];
+            if ((d >= 1 && positions[i + 1] - positions[i] > 1) || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int sign = d > 0 ? 1 : -1;
+                double candidate = parabolic(i, sign);
+                if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                    heights[i] = candidate;
+                } else {
+                    heights[i] = heights[i] + sign * (heights[i + sign] - heights[i]) / (positions[i + sign] - positions[i]);
+                }
+                // Rounding can still push a marker past a neighbour; the markers must stay in order
+                heights[i] = Math.max(heights[i - 1], Math.min(heights[i + 1], heights[i]));
+                positions[i] += sign;
+            }
+        }
+    }
+    
+    public double getQuantile() {
+        if (count >= 5) {
+            return heights[2];
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double[] sorted = java.util.Arrays.copyOf(heights, (int) count);
+        java.util.Arrays.sort(sorted);
+        return sorted[(int) Math.min(count - 1, Math.round(p * (count - 1)))];
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    private double parabolic(int i, int sign) {
+        double nPrev = positions[i - 1];
+        double n = positions[i];
+        double nNext = positions[i + 1];
+        return heights[i] + sign / (nNext - nPrev) * (
+            (n - nPrev + sign) * (heights[i + 1] - heights[i]) / (nNext - n) +
+            (nNext - n - sign) * (heights[i] - heights[i - 1]) / (n - nPrev));
+    }
+}
\ No newline at end of file
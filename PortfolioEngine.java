@@ -0,0 +1,313 @@
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Marks portfolios to market from the live feed. Positions are stored as columns indexed by
+// position ID, and each symbol keeps the IDs of the positions that hold it. A tick on a symbol
+// moves only those positions: each one's market value changes by quantity times the price move,
+// and the same delta is added to its portfolio's totals, so a tick costs O(positions in the
+// symbol) and nothing is ever revalued in full. Unrealized P&L and weights are derived from
+// the running totals when read.
+//
+// Feed subscription and demand run on a helper thread for the same reason as AlertEngine's:
+// the feed may be waiting on this engine's consumer, which needs the engine's lock.
+public class PortfolioEngine implements MarketEventHandler {
+    private static PortfolioEngine instance;
+    
+    // Position columns, indexed by position ID; guarded by this
+    private int[] positionPortfolios = new int[1024];
+    private int[] positionSymbols = new int[1024];
+    private double[] quantities = new double[1024];
+    private double[] averageCosts = new double[1024];
+    private double[] lastPrices = new double[1024];
+    private double[] marketValues = new double[1024];
+    private double[] realizedPnl = new double[1024];
+    private int positionCount;
+    
+    // Portfolio columns, indexed by portfolio ID
+    private String[] portfolioNames = new String[16];
+    private double[] portfolioMarketValues = new double[16];
+    private double[] portfolioCosts = new double[16];
+    private double[] portfolioGross = new double[16];
+    private double[] portfolioRealized = new double[16];
+    private int[][] portfolioPositions = new int[16][];
+    private int[] portfolioPositionCounts = new int[16];
+    private long[] portfolioTradeCounts = new long[16];
+    private int portfolioCount;
+    
+    private final IntObjectMap<SymbolPositions> symbols = new IntObjectMap<>();
+    private final ExecutorService feedExecutor;
+    private boolean subscribed;
+    private volatile long ticksProcessed;
+    private volatile long positionsMarked;
+    private volatile long tickNanos;
+    
+    public static synchronized PortfolioEngine getInstance() {
+        if (instance == null) {
+            instance = new PortfolioEngine();
+        }
+        return instance;
+    }
+    
+    private PortfolioEngine() {
+        feedExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "portfolio-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public synchronized int createPortfolio(String name) {
+        if (portfolioCount == portfolioNames.length) {
+            int capacity = portfolioCount * 2;
+            portfolioNames = Arrays.copyOf(portfolioNames, capacity);
+            portfolioMarketValues = Arrays.copyOf(portfolioMarketValues, capacity);
+            portfolioCosts = Arrays.copyOf(portfolioCosts, capacity);
+            portfolioGross = Arrays.copyOf(portfolioGross, capacity);
+            portfolioRealized = Arrays.copyOf(portfolioRealized, capacity);
+            portfolioPositions = Arrays.copyOf(portfolioPositions, capacity);
+            portfolioPositionCounts = Arrays.copyOf(portfolioPositionCounts, capacity);
+            portfolioTradeCounts = Arrays.copyOf(portfolioTradeCounts, capacity);
+        }
+        int portfolioId = portfolioCount++;
+        portfolioNames[portfolioId] = name;
+        portfolioPositions[portfolioId] = new int[8];
+        return portfolioId;
+    }
+    
+    // The growth, conservative and balanced books shown until the user adds their own
+    public synchronized void loadSamplePortfolios() {
+        if (portfolioCount > 0) {
+            return;
+        }
+        String[][] holdings = {
+            {"Growth Portfolio", "NVDA", "TSLA", "META", "AMZN", "GOOGL"},
+            {"Conservative Portfolio", "SPY", "KO", "PG", "JNJ"},
+            {"Balanced Portfolio", "AAPL", "MSFT", "SPY", "JPM", "KO"}
+        };
+        for (String[] portfolio : holdings) {
+            int portfolioId = createPortfolio(portfolio[0]);
+            for (int i = 1; i < portfolio.length; i++) {
+                double price = SampleMarketData.latestClose(portfolio[i]);
+                // Roughly equal $20k lots, bought 10% below today's price
+                trade(portfolioId, portfolio[i], Math.round(20_000 / price), Math.round(price * 90) / 100.0);
+            }
+        }
+    }
+    
+    public int trade(int portfolioId, String symbol, double quantity, double price) {
+        return trade(portfolioId, SymbolDictionary.getInstance().idOf(symbol), quantity, price);
+    }
+    
+    // Applies a fill of quantity (negative to sell) at the price to the portfolio's position in
+    // the symbol, opening it if needed; returns the position ID. Reducing or flipping a position
+    // realizes P&L against its average cost.
+    public synchronized int trade(int portfolioId, int symbolId, double quantity, double price) {
+        if (portfolioId < 0 || portfolioId >= portfolioCount) {
+            throw new IllegalArgumentException("Unknown portfolio: " + portfolioId);
+        }
+        if (!(price > 0) || Double.isInfinite(price)
+                || quantity == 0 || Double.isNaN(quantity) || Double.isInfinite(quantity)) {
+            throw new IllegalArgumentException("Invalid fill: " + quantity + " @ " + price);
+        }
+        SymbolPositions holders = symbols.get(symbolId);
+        if (holders == null) {
+            holders = new SymbolPositions(price);
+            symbols.put(symbolId, holders);
+            requestSymbol(symbolId);
+        }
+        int positionId = holders.byPortfolio.get(portfolioId, -1);
+        if (positionId < 0) {
+            positionId = newPosition(portfolioId, symbolId, holders.lastPrice);
+            holders.add(portfolioId, positionId);
+        }
+        
+        double held = quantities[positionId];
+        double cost = averageCosts[positionId];
+        double oldCost = held * cost;
+        if (held == 0 || Math.signum(held) == Math.signum(quantity)) {
+            cost = (held * cost + quantity * price) / (held + quantity);
+        } else {
+            double closed = Math.min(Math.abs(quantity), Math.abs(held)) * Math.signum(held);
+            double pnl = closed * (price - cost);
+            realizedPnl[positionId] += pnl;
+            portfolioRealized[portfolioId] += pnl;
+            if (Math.abs(quantity) > Math.abs(held)) {
+                // Flipped through flat: the remainder opens at the fill price
+                cost = price;
+            } else if (held + quantity == 0) {
+                cost = 0;
+            }
+        }
+        held += quantity;
+        quantities[positionId] = held;
+        averageCosts[positionId] = cost;
+        portfolioCosts[portfolioId] += held * cost - oldCost;
+        portfolioTradeCounts[portfolioId]++;
+        mark(positionId, lastPrices[positionId]);
+        return positionId;
+    }
+    
+    private int newPosition(int portfolioId, int symbolId, double price) {
+        if (positionCount == positionSymbols.length) {
+            int capacity = positionCount * 2;
+            positionPortfolios = Arrays.copyOf(positionPortfolios, capacity);
+            positionSymbols = Arrays.copyOf(positionSymbols, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            averageCosts = Arrays.copyOf(averageCosts, capacity);
+            lastPrices = Arrays.copyOf(lastPrices, capacity);
+            marketValues = Arrays.copyOf(marketValues, capacity);
+            realizedPnl = Arrays.copyOf(realizedPnl, capacity);
+        }
+        int positionId = positionCount++;
+        positionPortfolios[positionId] = portfolioId;
+        positionSymbols[positionId] = symbolId;
+        lastPrices[positionId] = price;
+        int count = portfolioPositionCounts[portfolioId];
+        if (count == portfolioPositions[portfolioId].length) {
+            portfolioPositions[portfolioId] = Arrays.copyOf(portfolioPositions[portfolioId], count * 2);
+        }
+        portfolioPositions[portfolioId][count] = positionId;
+        portfolioPositionCounts[portfolioId] = count + 1;
+        return positionId;
+    }
+    
+    // Revalues one position at the price and moves its portfolio's totals by the difference
+    private void mark(int positionId, double price) {
+        double oldValue = marketValues[positionId];
+        double newValue = quantities[positionId] * price;
+        lastPrices[positionId] = price;
+        marketValues[positionId] = newValue;
+        int portfolioId = positionPortfolios[positionId];
+        portfolioMarketValues[portfolioId] += newValue - oldValue;
+        portfolioGross[portfolioId] += Math.abs(newValue) - Math.abs(oldValue);
+    }
+    
+    // Called under the lock for each newly held symbol
+    private void requestSymbol(int symbolId) {
+        boolean subscribe = !subscribed;
+        subscribed = true;
+        feedExecutor.execute(() -> {
+            MarketDataFeed feed = MarketDataFeed.getInstance();
+            if (subscribe) {
+                feed.subscribe("portfolio-engine", SymbolDictionary.NONE, this);
+            }
+            feed.addDemand(symbolId);
+        });
+    }
+    
+    @Override
+    public void onEvent(MarketEvent event, long sequence) {
+        double price;
+        if (event.isTrade()) {
+            price = event.getPrice();
+        } else if (event.isBar()) {
+            price = event.getClose();
+        } else {
+            return;
+        }
+        long start = System.nanoTime();
+        int marked;
+        synchronized (this) {
+            SymbolPositions holders = symbols.get(event.getSymbolId());
+            if (holders == null || holders.lastPrice == price) {
+                return;
+            }
+            holders.lastPrice = price;
+            for (int i = 0; i < holders.count; i++) {
+                mark(holders.positionIds[i], price);
+            }
+            marked = holders.count;
+        }
+        ticksProcessed++;
+        positionsMarked += marked;
+        tickNanos += System.nanoTime() - start;
+    }
+    
+    // Recomputes every portfolio total from its positions, discarding rounding drift from the
+    // running sums; O(positions), for occasional use rather than per tick
+    public synchronized void reconcile() {
+        Arrays.fill(portfolioMarketValues, 0, portfolioCount, 0);
+        Arrays.fill(portfolioCosts, 0, portfolioCount, 0);
+        Arrays.fill(portfolioGross, 0, portfolioCount, 0);
+        for (int i = 0; i < positionCount; i++) {
+            int portfolioId = positionPortfolios[i];
+            portfolioMarketValues[portfolioId] += marketValues[i];
+            portfolioCosts[portfolioId] += quantities[i] * averageCosts[i];
+            portfolioGross[portfolioId] += Math.abs(marketValues[i]);
+        }
+    }
+    
+    // Latest price seen for the symbol, or NaN if no portfolio holds it
+    public synchronized double getSymbolPrice(int symbolId) {
+        SymbolPositions holders = symbols.get(symbolId);
+        return holders == null ? Double.NaN : holders.lastPrice;
+    }
+    
+    public synchronized int getPortfolioCount() { return portfolioCount; }
+    public synchronized int getTotalPositionCount() { return positionCount; }
+    public synchronized String getPortfolioName(int portfolioId) { return portfolioNames[portfolioId]; }
+    public synchronized int getPositionCount(int portfolioId) { return portfolioPositionCounts[portfolioId]; }
+    public synchronized long getTradeCount(int portfolioId) { return portfolioTradeCounts[portfolioId]; }
+    // Net market value of the portfolio's positions
+    public synchronized double getMarketValue(int portfolioId) { return portfolioMarketValues[portfolioId]; }
+    public synchronized double getCostBasis(int portfolioId) { return portfolioCosts[portfolioId]; }
+    public synchronized double getUnrealizedPnl(int portfolioId) { return portfolioMarketValues[portfolioId] - portfolioCosts[portfolioId]; }
+    public synchronized double getRealizedPnl(int portfolioId) { return portfolioRealized[portfolioId]; }
+    public synchronized double getGrossExposure(int portfolioId) { return portfolioGross[portfolioId]; }
+    public synchronized double getNetExposure(int portfolioId) { return portfolioMarketValues[portfolioId]; }
+    
+    // The portfolio's index-th position, in the order they were opened
+    public synchronized int getPositionId(int portfolioId, int index) { return portfolioPositions[portfolioId][index]; }
+    public synchronized int getPortfolioId(int positionId) { return positionPortfolios[positionId]; }
+    public synchronized int getSymbolId(int positionId) { return positionSymbols[positionId]; }
+    public synchronized double getQuantity(int positionId) { return quantities[positionId]; }
+    public synchronized double getAverageCost(int positionId) { return averageCosts[positionId]; }
+    public synchronized double getLastPrice(int positionId) { return lastPrices[positionId]; }
+    public synchronized double getPositionMarketValue(int positionId) { return marketValues[positionId]; }
+    public synchronized double getPositionRealizedPnl(int positionId) { return realizedPnl[positionId]; }
+    
+    public synchronized double getPositionUnrealizedPnl(int positionId) {
+        return marketValues[positionId] - quantities[positionId] * averageCosts[positionId];
+    }
+    
+    // Share of the portfolio's gross exposure, signed by the position's side
+    public synchronized double getPositionWeight(int positionId) {
+        double gross = portfolioGross[positionPortfolios[positionId]];
+        return gross == 0 ? 0 : marketValues[positionId] / gross;
+    }
+    
+    public long getTicksProcessed() {
+        return ticksProcessed;
+    }
+    
+    public long getPositionsMarked() {
+        return positionsMarked;
+    }
+    
+    public double getAverageTickNanos() {
+        long ticks = ticksProcessed;
+        return ticks == 0 ? 0 : (double) tickNanos / ticks;
+    }
+    
+    // Positions holding one symbol, with the symbol's latest price; guarded by the engine
+    private static class SymbolPositions {
+        int[] positionIds = new int[4];
+        int count;
+        // Portfolio ID -> its position in this symbol
+        final IntIntMap byPortfolio = new IntIntMap(4);
+        double lastPrice;
+        
+        SymbolPositions(double lastPrice) {
+            this.lastPrice = lastPrice;
+        }
+        
+        void add(int portfolioId, int positionId) {
+            if (count == positionIds.length) {
+                positionIds = Arrays.copyOf(positionIds, count * 2);
+            }
+            positionIds[count++] = positionId;
+            byPortfolio.put(portfolioId, positionId);
+        }
+    }
+}
\ No newline at end of file
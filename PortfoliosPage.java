@@ -0,0 +1,927 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class PortfoliosPage extends JPanel {
+    private static final int STRESS_PORTFOLIOS = 100;
+    private static final int STRESS_POSITIONS_PER_PORTFOLIO = 500;
+    private static final int STRESS_SYMBOLS = 1000;
+    private static final int HISTORY_DAYS = 504;
+    private static final int BENCHMARK_ASSETS = 2000;
+    private static final String[] BACKTEST_PERIODS = {"1 year", "3 years", "5 years", "9 years"};
+    private static final int[] BACKTEST_DAYS = {252, 756, 1260, 2268};
+    private static final String[] RISK_PROFILES = {"Minimum variance", "Balanced", "Return seeking"};
+    private static final double[] RISK_TOLERANCES = {0, 0.5, 2};
+    private static final int RISK_HORIZON_DAYS = 10;
+    private static final int RISK_SIMULATIONS = 5000;
+    private static final double[] RISK_CONFIDENCES = {0.95, 0.99};
+    // How often the risk line re-marks every position to current prices
+    private static final long RISK_REMARK_MILLIS = 15_000;
+    
+    private ThemeManager themeManager;
+    private AuthManager authManager;
+    private JFrame parentFrame;
+    private JTable portfolioTable;
+    private PortfolioTableModel portfolioModel;
+    private JTable positionTable;
+    private PositionTableModel positionModel;
+    private JButton newPortfolioButton;
+    private JTextField symbolField;
+    private JTextField quantityField;
+    private JButton buyButton;
+    private JButton sellButton;
+    private JButton stressButton;
+    private JButton optimizeButton;
+    private JButton backtestButton;
+    private JButton benchmarkButton;
+    private JButton riskButton;
+    private JLabel summaryLabel;
+    private JLabel riskLabel;
+    private JLabel statusLabel;
+    // Live engine counters, kept apart so refreshes don't overwrite action messages
+    private JLabel statsLabel;
+    private Timer refreshTimer;
+    private final PortfolioEngine engine;
+    private final RiskEngine historicalRisk;
+    private final RiskEngine monteCarloRisk;
+    // Portfolio and fill count the risk line was computed for, and when its positions were last
+    // marked. A fill updates only the traded positions; all marks are refreshed every
+    // RISK_REMARK_MILLIS. Both run on a worker, since building scenario columns is too slow for
+    // the EDT.
+    private int riskPortfolio = -1;
+    private long riskTradeCount = -1;
+    private long riskMarkedAt;
+    private boolean riskRunning;
+    
+    public PortfoliosPage(JFrame parentFrame, ThemeManager themeManager, AuthManager authManager) {
+        this.parentFrame = parentFrame;
+        this.themeManager = themeManager;
+        this.authManager = authManager;
+        this.engine = PortfolioEngine.getInstance();
+        engine.loadSamplePortfolios();
+        this.historicalRisk = RiskEngine.historical(HISTORY_DAYS, 1);
+        this.monteCarloRisk = RiskEngine.monteCarlo(HISTORY_DAYS, RISK_HORIZON_DAYS, RISK_SIMULATIONS, 7);
+        
+        setLayout(new BorderLayout());
+        initializeComponents();
+        setupLayout();
+        applyTheme();
+    }
+    
+    private void initializeComponents() {
+        portfolioModel = new PortfolioTableModel();
+        portfolioTable = new JTable(portfolioModel);
+        portfolioTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        portfolioTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                positionModel.fireTableDataChanged();
+                refresh();
+            }
+        });
+        
+        positionModel = new PositionTableModel();
+        positionTable = new JTable(positionModel);
+        positionTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        positionTable.getSelectionModel().addListSelectionListener(e -> {
+            int row = positionTable.getSelectedRow();
+            if (!e.getValueIsAdjusting() && row >= 0) {
+                symbolField.setText((String) positionModel.getValueAt(row, 0));
+            }
+        });
+        
+        PnlRenderer pnlRenderer = new PnlRenderer();
+        for (JTable table : new JTable[] {portfolioTable, positionTable}) {
+            table.setFillsViewportHeight(true);
+            table.setRowHeight(22);
+            table.setFont(new Font("Arial", Font.PLAIN, 12));
+            table.setDefaultRenderer(Object.class, pnlRenderer);
+        }
+        
+        newPortfolioButton = new JButton("New Portfolio...");
+        newPortfolioButton.addActionListener(e -> createPortfolio());
+        
+        symbolField = new JTextField("AAPL", 8);
+        quantityField = new JTextField("100", 6);
+        buyButton = new JButton("Buy");
+        buyButton.addActionListener(e -> trade(1));
+        sellButton = new JButton("Sell");
+        sellButton.addActionListener(e -> trade(-1));
+        
+        stressButton = new JButton(String.format("Stress Test (%,d positions)", STRESS_PORTFOLIOS * STRESS_POSITIONS_PER_PORTFOLIO));
+        stressButton.setToolTipText(String.format("Open %,d portfolios of %,d positions each across %,d simulated symbols",
+            STRESS_PORTFOLIOS, STRESS_POSITIONS_PER_PORTFOLIO, STRESS_SYMBOLS));
+        stressButton.addActionListener(e -> addStressPortfolios());
+        
+        optimizeButton = new JButton("Optimize...");
+        optimizeButton.setToolTipText("Mean-variance allocation of the selected portfolio's holdings over two years of daily returns");
+        optimizeButton.addActionListener(e -> optimizeSelected());
+        
+        backtestButton = new JButton("Backtest Rebalancing...");
+        backtestButton.setToolTipText("Replay rebalancing policies for the selected portfolio's weights with trading costs");
+        backtestButton.addActionListener(e -> backtestRebalancing());
+        
+        benchmarkButton = new JButton(String.format("Optimizer Benchmark (%,d assets)", BENCHMARK_ASSETS));
+        benchmarkButton.addActionListener(e -> runOptimizerBenchmark());
+        
+        riskButton = new JButton("Risk Report...");
+        riskButton.setToolTipText("Value at risk, expected shortfall and stress scenarios for the selected portfolio");
+        riskButton.addActionListener(e -> showRiskReport());
+        
+        summaryLabel = new JLabel(" ");
+        summaryLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        riskLabel = new JLabel(" ");
+        riskLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        statsLabel = new JLabel(" ");
+        statsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        
+        refreshTimer = new Timer(250, e -> refresh());
+        
+        if (authManager.isGuestMode()) {
+            buyButton.setText("Buy (Sign up required)");
+            buyButton.setEnabled(false);
+            buyButton.setBackground(Color.GRAY);
+            sellButton.setEnabled(false);
+            newPortfolioButton.setEnabled(false);
+            stressButton.setEnabled(false);
+            optimizeButton.setEnabled(false);
+            backtestButton.setEnabled(false);
+            benchmarkButton.setEnabled(false);
+            symbolField.setEditable(false);
+            quantityField.setEditable(false);
+        }
+    }
+    
+    private void setupLayout() {
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 10, 20));
+        
+        JLabel titleLabel = new JLabel("Portfolios");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        
+        JLabel subtitleLabel = new JLabel("Positions marked to market on every live trade");
+        subtitleLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(Box.createVerticalStrut(5));
+        titlePanel.add(subtitleLabel);
+        
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+        
+        // Toolbar
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        toolbar.add(newPortfolioButton);
+        toolbar.add(Box.createHorizontalStrut(20));
+        toolbar.add(new JLabel("Symbol:"));
+        toolbar.add(symbolField);
+        toolbar.add(new JLabel("Quantity:"));
+        toolbar.add(quantityField);
+        toolbar.add(buyButton);
+        toolbar.add(sellButton);
+        toolbar.add(Box.createHorizontalStrut(20));
+        toolbar.add(optimizeButton);
+        toolbar.add(backtestButton);
+        toolbar.add(riskButton);
+        toolbar.add(Box.createHorizontalStrut(20));
+        toolbar.add(stressButton);
+        toolbar.add(benchmarkButton);
+        
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(toolbar, BorderLayout.SOUTH);
+        
+        // Portfolios above the selected portfolio's positions
+        JScrollPane portfolioScroll = new JScrollPane(portfolioTable);
+        portfolioScroll.setBorder(BorderFactory.createTitledBorder("Portfolios"));
+        
+        JPanel positionPanel = new JPanel(new BorderLayout());
+        JPanel summaryPanel = new JPanel(new GridLayout(2, 1));
+        summaryPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        summaryPanel.add(summaryLabel);
+        summaryPanel.add(riskLabel);
+        positionPanel.add(summaryPanel, BorderLayout.NORTH);
+        JScrollPane positionScroll = new JScrollPane(positionTable);
+        positionScroll.setBorder(BorderFactory.createTitledBorder("Positions"));
+        positionPanel.add(positionScroll, BorderLayout.CENTER);
+        
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, portfolioScroll, positionPanel);
+        splitPane.setResizeWeight(0.35);
+        splitPane.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(0, 20, 10, 20));
+        statusPanel.add(statusLabel, BorderLayout.WEST);
+        statusPanel.add(statsLabel, BorderLayout.EAST);
+        
+        add(topPanel, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        portfolioModel.fireTableDataChanged();
+        if (portfolioTable.getSelectedRow() < 0 && portfolioModel.getRowCount() > 0) {
+            portfolioTable.setRowSelectionInterval(0, 0);
+        }
+        refreshTimer.start();
+        refresh();
+    }
+    
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+    
+    private int selectedPortfolio() {
+        return portfolioTable.getSelectedRow();
+    }
+    
+    private void createPortfolio() {
+        String name = JOptionPane.showInputDialog(parentFrame, "Portfolio name:", "New Portfolio", JOptionPane.PLAIN_MESSAGE);
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        int portfolioId = engine.createPortfolio(name.trim());
+        portfolioModel.fireTableDataChanged();
+        portfolioTable.setRowSelectionInterval(portfolioId, portfolioId);
+    }
+    
+    // Fills at the symbol's live price when a portfolio already holds it, else its latest close
+    private void trade(int side) {
+        int portfolioId = selectedPortfolio();
+        if (portfolioId < 0) {
+            statusLabel.setText("Select a portfolio");
+            return;
+        }
+        String symbol = symbolField.getText().trim().toUpperCase();
+        if (symbol.isEmpty()) {
+            statusLabel.setText("Enter a symbol");
+            return;
+        }
+        double quantity;
+        try {
+            quantity = Double.parseDouble(quantityField.getText().trim());
+        } catch (NumberFormatException e) {
+            quantity = 0;
+        }
+        if (!(quantity > 0) || Double.isInfinite(quantity)) {
+            statusLabel.setText("Enter a positive quantity");
+            return;
+        }
+        int symbolId = SymbolDictionary.getInstance().idOf(symbol);
+        double price = engine.getSymbolPrice(symbolId);
+        if (Double.isNaN(price)) {
+            price = SampleMarketData.latestClose(symbol);
+        }
+        engine.trade(portfolioId, symbolId, side * quantity, price);
+        statusLabel.setText(String.format("%s %,.0f %s at %.2f", side > 0 ? "Bought" : "Sold", quantity, symbol, price));
+        positionModel.fireTableDataChanged();
+        refresh();
+    }
+    
+    private void addStressPortfolios() {
+        stressButton.setEnabled(false);
+        SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() {
+                long start = System.nanoTime();
+                SplittableRandom random = new SplittableRandom();
+                SymbolDictionary dictionary = SymbolDictionary.getInstance();
+                int[] symbolIds = new int[STRESS_SYMBOLS];
+                double[] prices = new double[STRESS_SYMBOLS];
+                for (int i = 0; i < STRESS_SYMBOLS; i++) {
+                    String symbol = String.format("SIM%04d", i);
+                    symbolIds[i] = dictionary.idOf(symbol);
+                    prices[i] = SampleMarketData.latestClose(symbol);
+                }
+                int first = engine.getPortfolioCount();
+                for (int p = 0; p < STRESS_PORTFOLIOS; p++) {
+                    int portfolioId = engine.createPortfolio(String.format("Stress Book %d", first + p + 1));
+                    for (int i = 0; i < STRESS_POSITIONS_PER_PORTFOLIO; i++) {
+                        int s = random.nextInt(STRESS_SYMBOLS);
+                        // Mostly long, some short, at up to 10% either side of today's price
+                        double quantity = (random.nextInt(10) == 0 ? -1 : 1) * (10 + random.nextInt(490));
+                        engine.trade(portfolioId, symbolIds[s], quantity, prices[s] * (0.9 + random.nextDouble() * 0.2));
+                    }
+                }
+                return (System.nanoTime() - start) / 1_000_000;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    statusLabel.setText(String.format("Opened %,d positions in %,d ms",
+                        STRESS_PORTFOLIOS * STRESS_POSITIONS_PER_PORTFOLIO, get()));
+                } catch (Exception e) {
+                    statusLabel.setText("Stress test failed: " + e.getMessage());
+                }
+                stressButton.setEnabled(!authManager.isGuestMode());
+                portfolioModel.fireTableDataChanged();
+                refresh();
+            }
+        };
+        worker.execute();
+    }
+    
+    // Daily log returns of the symbols over the same window, as returns[asset][day]
+    private static double[][] historicalReturns(List<String> symbols) {
+        double[][] returns = new double[symbols.size()][];
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = BootstrapForecaster.toLogReturns(SampleMarketData.dailyCloses(symbols.get(i), HISTORY_DAYS + 1));
+        }
+        return returns;
+    }
+    
+    private void optimizeSelected() {
+        int portfolioId = selectedPortfolio();
+        if (portfolioId < 0) {
+            statusLabel.setText("Select a portfolio");
+            return;
+        }
+        List<String> symbols = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < engine.getPositionCount(portfolioId); i++) {
+            int positionId = engine.getPositionId(portfolioId, i);
+            if (engine.getQuantity(positionId) != 0) {
+                symbols.add(SymbolDictionary.getInstance().symbolOf(engine.getSymbolId(positionId)));
+                positions.add(positionId);
+            }
+        }
+        if (symbols.size() < 2) {
+            statusLabel.setText("Optimizing needs at least two open positions");
+            return;
+        }
+        
+        JComboBox<String> profileComboBox = new JComboBox<>(RISK_PROFILES);
+        JCheckBox longOnlyCheckBox = new JCheckBox("Long only", true);
+        JTextField maxWeightField = new JTextField(String.valueOf(Math.max(25, (int) Math.ceil(100.0 / symbols.size()))), 4);
+        JPanel form = new JPanel(new GridLayout(0, 2, 8, 8));
+        form.add(new JLabel("Objective:"));
+        form.add(profileComboBox);
+        form.add(new JLabel("Max weight (%):"));
+        form.add(maxWeightField);
+        form.add(new JLabel(""));
+        form.add(longOnlyCheckBox);
+        if (JOptionPane.showConfirmDialog(parentFrame, form, "Optimize " + engine.getPortfolioName(portfolioId),
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        PortfolioOptimizer optimizer;
+        try {
+            optimizer = new PortfolioOptimizer(longOnlyCheckBox.isSelected(),
+                Double.parseDouble(maxWeightField.getText().trim()) / 100,
+                RISK_TOLERANCES[profileComboBox.getSelectedIndex()]);
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText(e instanceof NumberFormatException ? "Enter a valid max weight" : e.getMessage());
+            return;
+        }
+        
+        optimizeButton.setEnabled(false);
+        statusLabel.setText("Optimizing...");
+        SwingWorker<PortfolioOptimizer.Result, Void> worker = new SwingWorker<PortfolioOptimizer.Result, Void>() {
+            @Override
+            protected PortfolioOptimizer.Result doInBackground() {
+                return optimizer.optimize(historicalReturns(symbols));
+            }
+            
+            @Override
+            protected void done() {
+                optimizeButton.setEnabled(!authManager.isGuestMode());
+                try {
+                    showAllocation(portfolioId, symbols, positions, get());
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statusLabel.setText("Optimization failed: " + cause.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    // Current against optimal weights, with the option to trade to the optimum
+    private void showAllocation(int portfolioId, List<String> symbols, List<Integer> positions, PortfolioOptimizer.Result result) {
+        String[] columns = {"Symbol", "Current", "Optimal"};
+        Object[][] rows = new Object[symbols.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[] {symbols.get(i),
+                String.format("%.1f%%", engine.getPositionWeight(positions.get(i)) * 100),
+                String.format("%.1f%%", result.getWeight(i) * 100)};
+        }
+        JTable table = new JTable(rows, columns);
+        table.setEnabled(false);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(360, Math.min(300, 40 + rows.length * 18)));
+        
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.add(scroll, BorderLayout.CENTER);
+        panel.add(new JLabel(String.format("<html>Expected return %.1f%% a year, volatility %.1f%%<br>" +
+            "Covariance shrinkage %.2f, %d iterations%s, %.0f ms</html>",
+            result.getExpectedReturn() * 252 * 100, result.getVolatility() * Math.sqrt(252) * 100,
+            result.getShrinkage(), result.getIterations(), result.isConverged() ? "" : " (not converged)",
+            result.getCovarianceMillis() + result.getSolveMillis())), BorderLayout.SOUTH);
+        
+        Object[] options = {"Apply", "Close"};
+        int choice = JOptionPane.showOptionDialog(parentFrame, panel, "Optimal Allocation",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[1]);
+        if (choice == 0) {
+            applyWeights(portfolioId, positions, result);
+        }
+    }
+    
+    // Trades each position to its optimal share of the portfolio's current gross value, in
+    // whole shares at the live price
+    private void applyWeights(int portfolioId, List<Integer> positions, PortfolioOptimizer.Result result) {
+        double capital = engine.getGrossExposure(portfolioId);
+        int trades = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            int positionId = positions.get(i);
+            int symbolId = engine.getSymbolId(positionId);
+            double price = engine.getSymbolPrice(symbolId);
+            double target = Math.round(result.getWeight(i) * capital / price);
+            double delta = target - engine.getQuantity(positionId);
+            if (delta != 0) {
+                engine.trade(portfolioId, symbolId, delta, price);
+                trades++;
+            }
+        }
+        statusLabel.setText(String.format("Rebalanced %s with %d trades", engine.getPortfolioName(portfolioId), trades));
+        positionModel.fireTableDataChanged();
+        refresh();
+    }
+    
+    // Replays calendar and drift-band policies over the selected portfolio's current weights
+    private void backtestRebalancing() {
+        int portfolioId = selectedPortfolio();
+        if (portfolioId < 0) {
+            statusLabel.setText("Select a portfolio");
+            return;
+        }
+        double capital = engine.getMarketValue(portfolioId);
+        List<String> symbols = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < engine.getPositionCount(portfolioId); i++) {
+            int positionId = engine.getPositionId(portfolioId, i);
+            if (engine.getQuantity(positionId) != 0) {
+                symbols.add(SymbolDictionary.getInstance().symbolOf(engine.getSymbolId(positionId)));
+                values.add(engine.getPositionMarketValue(positionId));
+            }
+        }
+        if (symbols.size() < 2 || !(capital > 0)) {
+            statusLabel.setText("Backtesting needs at least two open positions and a positive value");
+            return;
+        }
+        
+        JComboBox<String> periodComboBox = new JComboBox<>(BACKTEST_PERIODS);
+        periodComboBox.setSelectedIndex(2);
+        JTextField commissionField = new JTextField("1", 4);
+        JTextField slippageField = new JTextField("5", 4);
+        JTextField feeField = new JTextField("1.00", 4);
+        JPanel form = new JPanel(new GridLayout(0, 2, 8, 8));
+        form.add(new JLabel("History:"));
+        form.add(periodComboBox);
+        form.add(new JLabel("Commission (bps):"));
+        form.add(commissionField);
+        form.add(new JLabel("Slippage (bps):"));
+        form.add(slippageField);
+        form.add(new JLabel("Fee per trade ($):"));
+        form.add(feeField);
+        if (JOptionPane.showConfirmDialog(parentFrame, form, "Backtest " + engine.getPortfolioName(portfolioId),
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        double commission;
+        double slippage;
+        double fee;
+        try {
+            commission = Double.parseDouble(commissionField.getText().trim());
+            slippage = Double.parseDouble(slippageField.getText().trim());
+            fee = Double.parseDouble(feeField.getText().trim());
+        } catch (NumberFormatException e) {
+            statusLabel.setText("Enter valid costs");
+            return;
+        }
+        int days = BACKTEST_DAYS[periodComboBox.getSelectedIndex()];
+        
+        double[] current = new double[symbols.size()];
+        double[] equal = new double[symbols.size()];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = values.get(i) / capital;
+            equal[i] = 1.0 / current.length;
+        }
+        List<RebalanceSimulator.Policy> policies = new ArrayList<>();
+        policies.add(new RebalanceSimulator.Policy("Buy and hold", current, 0, 0, 0));
+        policies.add(new RebalanceSimulator.Policy("Monthly", current, 21, 0, 0));
+        policies.add(new RebalanceSimulator.Policy("Quarterly", current, 63, 0, 0));
+        policies.add(new RebalanceSimulator.Policy("Annually", current, 252, 0, 0));
+        policies.add(new RebalanceSimulator.Policy("5% drift band", current, 0, 0.05, 100));
+        policies.add(new RebalanceSimulator.Policy("10% drift band", current, 0, 0.10, 100));
+        policies.add(new RebalanceSimulator.Policy("Equal weight, quarterly", equal, 63, 0, 0));
+        
+        backtestButton.setEnabled(false);
+        statusLabel.setText("Backtesting...");
+        SwingWorker<RebalanceSimulator.Result[], Void> worker = new SwingWorker<RebalanceSimulator.Result[], Void>() {
+            @Override
+            protected RebalanceSimulator.Result[] doInBackground() {
+                double[][] returns = new double[symbols.size()][];
+                for (int i = 0; i < returns.length; i++) {
+                    returns[i] = BootstrapForecaster.toLogReturns(SampleMarketData.dailyCloses(symbols.get(i), days + 1));
+                }
+                return new RebalanceSimulator(returns, commission, slippage, fee, capital).simulate(policies);
+            }
+            
+            @Override
+            protected void done() {
+                backtestButton.setEnabled(!authManager.isGuestMode());
+                try {
+                    showBacktest(engine.getPortfolioName(portfolioId), BACKTEST_PERIODS[periodComboBox.getSelectedIndex()], get());
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statusLabel.setText("Backtest failed: " + cause.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private void showBacktest(String portfolio, String period, RebalanceSimulator.Result[] results) {
+        String[] columns = {"Policy", "Rebalances", "Turnover / yr", "Costs", "Return / yr", "Before costs", "Volatility", "Max drawdown"};
+        Object[][] rows = new Object[results.length][];
+        for (int i = 0; i < results.length; i++) {
+            RebalanceSimulator.Result result = results[i];
+            rows[i] = new Object[] {result.getPolicy(), result.getRebalances(),
+                String.format("%.0f%%", result.getAnnualTurnover() * 100), formatMoney(result.getCosts()),
+                String.format("%.2f%%", result.getAnnualReturn() * 100), String.format("%.2f%%", result.getGrossAnnualReturn() * 100),
+                String.format("%.1f%%", result.getVolatility() * 100), String.format("%.1f%%", result.getMaxDrawdown() * 100)};
+        }
+        JTable table = new JTable(rows, columns);
+        table.setEnabled(false);
+        table.getColumnModel().getColumn(0).setPreferredWidth(180);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(820, 40 + rows.length * 18));
+        JOptionPane.showMessageDialog(parentFrame, scroll, String.format("Rebalancing - %s, %s", portfolio, period),
+            JOptionPane.PLAIN_MESSAGE);
+    }
+    
+    private void runOptimizerBenchmark() {
+        benchmarkButton.setEnabled(false);
+        statusLabel.setText(String.format("Optimizing %,d assets...", BENCHMARK_ASSETS));
+        SwingWorker<PortfolioOptimizer.Result, Void> worker = new SwingWorker<PortfolioOptimizer.Result, Void>() {
+            @Override
+            protected PortfolioOptimizer.Result doInBackground() {
+                List<String> symbols = new ArrayList<>();
+                for (int i = 0; i < BENCHMARK_ASSETS; i++) {
+                    symbols.add(String.format("SIM%04d", i));
+                }
+                return new PortfolioOptimizer(true, 0.02, 0).optimize(historicalReturns(symbols));
+            }
+            
+            @Override
+            protected void done() {
+                benchmarkButton.setEnabled(!authManager.isGuestMode());
+                try {
+                    PortfolioOptimizer.Result result = get();
+                    int holdings = 0;
+                    for (double weight : result.getWeights()) {
+                        if (weight > 1e-6) {
+                            holdings++;
+                        }
+                    }
+                    statusLabel.setText(String.format(
+                        "Minimum variance over %,d assets: covariance %.0f ms, solve %.0f ms (%d iterations), %d holdings, %.1f%% volatility",
+                        BENCHMARK_ASSETS, result.getCovarianceMillis(), result.getSolveMillis(), result.getIterations(),
+                        holdings, result.getVolatility() * Math.sqrt(252) * 100));
+                } catch (Exception e) {
+                    statusLabel.setText("Benchmark failed: " + e.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    // Rows are read from the engine on demand, so a refresh only touches what is visible
+    private void refresh() {
+        int selected = selectedPortfolio();
+        if (portfolioModel.getRowCount() != engine.getPortfolioCount()) {
+            portfolioModel.fireTableDataChanged();
+            if (selected >= 0) {
+                portfolioTable.setRowSelectionInterval(selected, selected);
+            }
+        } else if (portfolioModel.getRowCount() > 0) {
+            portfolioModel.fireTableRowsUpdated(0, portfolioModel.getRowCount() - 1);
+        }
+        if (selected >= 0 && positionModel.getRowCount() != engine.getPositionCount(selected)) {
+            positionModel.fireTableDataChanged();
+        } else if (positionModel.getRowCount() > 0) {
+            positionModel.fireTableRowsUpdated(0, positionModel.getRowCount() - 1);
+        }
+        
+        if (selected >= 0) {
+            summaryLabel.setText(String.format("%s   Value %s   Unrealized %s   Realized %s   Gross %s   Net %s",
+                engine.getPortfolioName(selected), formatMoney(engine.getMarketValue(selected)),
+                formatSigned(engine.getUnrealizedPnl(selected)), formatSigned(engine.getRealizedPnl(selected)),
+                formatMoney(engine.getGrossExposure(selected)), formatMoney(engine.getNetExposure(selected))));
+            updateRisk(selected);
+        } else {
+            summaryLabel.setText("Select a portfolio");
+            riskLabel.setText(" ");
+            riskPortfolio = -1;
+        }
+        statsLabel.setText(String.format("%,d positions in %,d portfolios  |  %,d ticks, %,d position marks, %.0f ns per tick",
+            engine.getTotalPositionCount(), engine.getPortfolioCount(), engine.getTicksProcessed(),
+            engine.getPositionsMarked(), engine.getAverageTickNanos()));
+    }
+    
+    private void updateRisk(int portfolioId) {
+        long tradeCount = engine.getTradeCount(portfolioId);
+        long now = System.currentTimeMillis();
+        boolean remark = portfolioId != riskPortfolio || now - riskMarkedAt >= RISK_REMARK_MILLIS;
+        if (riskRunning || (!remark && tradeCount == riskTradeCount)) {
+            return;
+        }
+        if (portfolioId != riskPortfolio) {
+            riskLabel.setText("Computing risk...");
+        }
+        riskRunning = true;
+        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                synchronized (historicalRisk) {
+                    if (remark) {
+                        loadRisk(portfolioId);
+                    } else {
+                        historicalRisk.updatePortfolio(engine, portfolioId);
+                        monteCarloRisk.updatePortfolio(engine, portfolioId);
+                    }
+                    return String.format("99%% VaR 1-day %s, %d-day %s   CVaR 1-day %s, %d-day %s   Worst stress %s",
+                        formatMoney(historicalRisk.getValueAtRisk(0.99)), RISK_HORIZON_DAYS, formatMoney(monteCarloRisk.getValueAtRisk(0.99)),
+                        formatMoney(historicalRisk.getConditionalValueAtRisk(0.99)), RISK_HORIZON_DAYS,
+                        formatMoney(monteCarloRisk.getConditionalValueAtRisk(0.99)), formatSigned(worstStress(historicalRisk)));
+                }
+            }
+            
+            @Override
+            protected void done() {
+                riskRunning = false;
+                riskPortfolio = portfolioId;
+                riskTradeCount = tradeCount;
+                if (remark) {
+                    riskMarkedAt = now;
+                }
+                // A newer selection is picked up by the next refresh
+                if (portfolioId != selectedPortfolio()) {
+                    return;
+                }
+                try {
+                    riskLabel.setText(get());
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    riskLabel.setText("Risk failed: " + cause.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    // Callers hold the historicalRisk lock, so one portfolio's exposures are read at a time
+    private void loadRisk(int portfolioId) {
+        historicalRisk.setPortfolio(engine, portfolioId);
+        monteCarloRisk.setPortfolio(engine, portfolioId);
+    }
+    
+    private static double worstStress(RiskEngine risk) {
+        double worst = 0;
+        for (int k = 0; k < risk.getStressCount(); k++) {
+            worst = Math.min(worst, risk.getStressPnl(k));
+        }
+        return worst;
+    }
+    
+    // Historical 1-day and Monte Carlo multi-day tail losses, then each stress scenario's P&L
+    private void showRiskReport() {
+        int portfolioId = selectedPortfolio();
+        if (portfolioId < 0) {
+            statusLabel.setText("Select a portfolio");
+            return;
+        }
+        riskButton.setEnabled(false);
+        statusLabel.setText("Computing risk...");
+        SwingWorker<List<Object[]>, Void> worker = new SwingWorker<List<Object[]>, Void>() {
+            @Override
+            protected List<Object[]> doInBackground() {
+                synchronized (historicalRisk) {
+                    loadRisk(portfolioId);
+                    return riskReportRows();
+                }
+            }
+            
+            @Override
+            protected void done() {
+                riskButton.setEnabled(true);
+                List<Object[]> rows;
+                try {
+                    rows = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statusLabel.setText("Risk report failed: " + cause.getMessage());
+                    return;
+                }
+                statusLabel.setText(" ");
+                JTable table = new JTable(rows.toArray(new Object[0][]), new String[] {"Measure", "Value"});
+                table.setEnabled(false);
+                table.getColumnModel().getColumn(0).setPreferredWidth(320);
+                JScrollPane scroll = new JScrollPane(table);
+                scroll.setPreferredSize(new Dimension(480, 40 + rows.size() * 18));
+                JOptionPane.showMessageDialog(parentFrame, scroll, "Risk - " + engine.getPortfolioName(portfolioId),
+                    JOptionPane.PLAIN_MESSAGE);
+            }
+        };
+        worker.execute();
+    }
+    
+    private List<Object[]> riskReportRows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (RiskEngine risk : new RiskEngine[] {historicalRisk, monteCarloRisk}) {
+            String method = risk.isMonteCarlo()
+                ? String.format("Monte Carlo %d-day (%,d paths)", risk.getHorizonDays(), risk.getScenarioCount())
+                : String.format("Historical %d-day (%,d days)", risk.getHorizonDays(), risk.getScenarioCount());
+            for (double confidence : RISK_CONFIDENCES) {
+                rows.add(new Object[] {String.format("%s VaR %.0f%%", method, confidence * 100),
+                    formatMoney(risk.getValueAtRisk(confidence))});
+                rows.add(new Object[] {String.format("%s CVaR %.0f%%", method, confidence * 100),
+                    formatMoney(risk.getConditionalValueAtRisk(confidence))});
+            }
+        }
+        for (int k = 0; k < historicalRisk.getStressCount(); k++) {
+            rows.add(new Object[] {"Stress: " + historicalRisk.getStressName(k), formatSigned(historicalRisk.getStressPnl(k))});
+        }
+        return rows;
+    }
+    
+    private static String formatMoney(double value) {
+        return String.format("$%,.2f", value);
+    }
+    
+    private static String formatSigned(double value) {
+        return String.format("%s$%,.2f", value < 0 ? "-" : "+", Math.abs(value));
+    }
+    
+    private class PortfolioTableModel extends AbstractTableModel {
+        private final String[] columns = {"Portfolio", "Positions", "Value", "Unrealized P&L", "Realized P&L", "Gross", "Net"};
+        private int rowCount;
+        
+        @Override
+        public void fireTableDataChanged() {
+            rowCount = engine.getPortfolioCount();
+            super.fireTableDataChanged();
+        }
+        
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            switch (column) {
+                case 0:
+                    return engine.getPortfolioName(row);
+                case 1:
+                    return String.format("%,d", engine.getPositionCount(row));
+                case 2:
+                    return formatMoney(engine.getMarketValue(row));
+                case 3:
+                    return formatSigned(engine.getUnrealizedPnl(row));
+                case 4:
+                    return formatSigned(engine.getRealizedPnl(row));
+                case 5:
+                    return formatMoney(engine.getGrossExposure(row));
+                default:
+                    return formatMoney(engine.getNetExposure(row));
+            }
+        }
+    }
+    
+    // The selected portfolio's positions in the order they were opened
+    private class PositionTableModel extends AbstractTableModel {
+        private final String[] columns = {"Symbol", "Quantity", "Avg Cost", "Last", "Market Value", "Unrealized P&L", "P&L %", "Weight"};
+        private int portfolioId = -1;
+        private int rowCount;
+        
+        @Override
+        public void fireTableDataChanged() {
+            portfolioId = selectedPortfolio();
+            rowCount = portfolioId < 0 ? 0 : engine.getPositionCount(portfolioId);
+            super.fireTableDataChanged();
+        }
+        
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            int positionId = engine.getPositionId(portfolioId, row);
+            switch (column) {
+                case 0:
+                    return SymbolDictionary.getInstance().symbolOf(engine.getSymbolId(positionId));
+                case 1:
+                    return String.format("%,.0f", engine.getQuantity(positionId));
+                case 2:
+                    return String.format("%.2f", engine.getAverageCost(positionId));
+                case 3:
+                    return String.format("%.2f", engine.getLastPrice(positionId));
+                case 4:
+                    return formatMoney(engine.getPositionMarketValue(positionId));
+                case 5:
+                    return formatSigned(engine.getPositionUnrealizedPnl(positionId));
+                case 6:
+                    double cost = Math.abs(engine.getQuantity(positionId) * engine.getAverageCost(positionId));
+                    return cost == 0 ? "-" : String.format("%+.2f%%", engine.getPositionUnrealizedPnl(positionId) / cost * 100);
+                default:
+                    return String.format("%.1f%%", engine.getPositionWeight(positionId) * 100);
+            }
+        }
+    }
+    
+    // Colors signed P&L cells green or red
+    private class PnlRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            String text = value == null ? "" : value.toString();
+            String name = table.getColumnName(column);
+            setHorizontalAlignment(column == 0 ? LEFT : RIGHT);
+            if (!isSelected && (name.contains("P&L") && !text.equals("-"))) {
+                setForeground(text.startsWith("-") ? themeManager.getError() : themeManager.getSuccess());
+            } else if (!isSelected) {
+                setForeground(themeManager.getText());
+            }
+            return this;
+        }
+    }
+    
+    public void applyTheme() {
+        setBackground(themeManager.getBackground());
+        for (JTable table : new JTable[] {portfolioTable, positionTable}) {
+            table.setBackground(themeManager.getCardBackground());
+            table.setForeground(themeManager.getText());
+        }
+        
+        if (!authManager.isGuestMode()) {
+            buyButton.setBackground(themeManager.getPrimary());
+            buyButton.setForeground(Color.WHITE);
+        }
+        
+        applyThemeToComponent(this);
+        repaint();
+    }
+    
+    private void applyThemeToComponent(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JLabel) {
+                component.setForeground(themeManager.getText());
+            } else if (component instanceof JTextField) {
+                component.setBackground(themeManager.getCardBackground());
+                component.setForeground(themeManager.getText());
+            } else if (component instanceof JTable) {
+                continue;
+            } else if (component instanceof Container) {
+                component.setBackground(themeManager.getBackground());
+                applyThemeToComponent((Container) component);
+            }
+        }
+    }
+}
\ No newline at end of file
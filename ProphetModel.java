@@ -0,0 +1,93 @@
+// Additive trend plus periodic seasonality in the spirit of Prophet, expressed on log returns
+public class ProphetModel extends ForecastModel {
+    private final int period;
+    private double trend;
+    private double[] seasonal;
+    private double alpha;
+    // Advances as the training window slides, keeping each index on its seasonal phase
+    private int phaseOffset;
+    
+    public ProphetModel(int period) {
+        this.period = period;
+        this.seasonal = new double[period];
+    }
+    
+    @Override
+    public String getName() {
+        return "Prophet";
+    }
+    
+    @Override
+    public int getMemory() {
+        return 0;
+    }
+    
+    @Override
+    public void fit(double[] returns) {
+        // Recent observations carry more weight so the trend follows changepoints
+        double weightSum = 0;
+        double weighted = 0;
+        for (int t = 0; t < returns.length; t++) {
+            double weight = 1.0 + (double) t / Math.max(1, returns.length);
+            weighted += weight * returns[t];
+            weightSum += weight;
+        }
+        trend = weightSum == 0 ? 0 : weighted / weightSum;
+        alpha = 1.0 / Math.max(returns.length, 20);
+        phaseOffset = 0;
+        
+        seasonal = new double[period];
+        int[] counts = new int[period];
+        for (int t = 0; t < returns.length; t++) {
+            seasonal[phaseOf(t)] += returns[t] - trend;
+            counts[phaseOf(t)]++;
+        }
+        for (int i = 0; i < period; i++) {
+            // Shrink sparse phases toward zero so short lookbacks do not overfit
+            seasonal[i] = counts[i] == 0 ? 0 : seasonal[i] / (counts[i] + 2);
+        }
+        computeResiduals(returns);
+    }
+    
+    // Expects a fixed-length window that slid by one bar to take in the new return
+    @Override
+    public double update(double[] returns) {
+        int n = returns.length;
+        phaseOffset = (phaseOffset + 1) % period;
+        double latest = returns[n - 1];
+        double residual = latest - predict(returns, n - 1, null, 0);
+        pushResidual(residual);
+        
+        trend += alpha * (latest - trend);
+        int phase = phaseOf(n - 1);
+        seasonal[phase] += Math.min(1, alpha * period) * ((latest - trend) - seasonal[phase]);
+        return residual;
+    }
+    
+    @Override
+    public double[] getParameters() {
+        double[] parameters = new double[period + 3];
+        parameters[0] = trend;
+        parameters[1] = alpha;
+        parameters[2] = phaseOffset;
+        System.arraycopy(seasonal, 0, parameters, 3, period);
+        return parameters;
+    }
+    
+    @Override
+    public void setParameters(double[] parameters) {
+        trend = parameters[0];
+        alpha = parameters[1];
+        phaseOffset = (int) parameters[2];
+        seasonal = java.util.Arrays.copyOfRange(parameters, 3, period + 3);
+    }
+    
+    @Override
+    protected double predict(double[] history, int n, double[] path, int step) {
+        return trend + seasonal[phaseOf(n + step)];
+    }
+    
+    private int phaseOf(int index) {
+        return (index + phaseOffset) % period;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,247 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.Consumer;
+
+// Watchlist of live quotes fed by a QuoteConflator. A frame timer drains the conflator's dirty
+// set and repaints only the rows whose symbols changed, so EDT work per frame is bounded by the
+// number of watched symbols however fast the feed runs. Rows flash briefly on up and down ticks.
+public class QuoteBoard extends JComponent {
+    private static final int ROW_HEIGHT = 24;
+    private static final int HEADER_HEIGHT = 26;
+    private static final int FOOTER_HEIGHT = 22;
+    private static final int PADDING = 10;
+    private static final long FLASH_MILLIS = 400;
+    private static final String[] COLUMNS = {"Symbol", "Last", "Chg%", "Bid", "Ask", "Volume"};
+    private static final double[] COLUMN_WEIGHTS = {0.16, 0.17, 0.15, 0.17, 0.17, 0.18};
+    
+    private final ThemeManager themeManager;
+    private final QuoteConflator conflator;
+    private final Timer frameTimer;
+    private final String[] symbols;
+    private final int[] symbolIds;
+    // Symbol ID -> row, so drained IDs for unwatched symbols are skipped in O(1)
+    private final IntIntMap rows;
+    private final QuoteConflator.Quote[] quotes;
+    private final double[] referencePrices;
+    private final double[] previousLast;
+    private final long[] flashUntil;
+    private final int[] flashDirection;
+    private Consumer<String> symbolListener;
+    private int selectedRow = -1;
+    private long rowRepaints;
+    
+    public QuoteBoard(ThemeManager themeManager, String[] symbols, int framesPerSecond) {
+        this.themeManager = themeManager;
+        this.conflator = new QuoteConflator();
+        this.symbols = symbols.clone();
+        int n = symbols.length;
+        symbolIds = new int[n];
+        rows = new IntIntMap(n);
+        quotes = new QuoteConflator.Quote[n];
+        referencePrices = new double[n];
+        previousLast = new double[n];
+        flashUntil = new long[n];
+        flashDirection = new int[n];
+        for (int row = 0; row < n; row++) {
+            symbolIds[row] = SymbolDictionary.getInstance().idOf(symbols[row]);
+            rows.put(symbolIds[row], row);
+            quotes[row] = new QuoteConflator.Quote();
+            // Change is measured from the session's starting price
+            referencePrices[row] = SampleMarketData.latestClose(symbols[row]);
+        }
+        frameTimer = new Timer(Math.max(1, 1000 / framesPerSecond), e -> drainFrame());
+        
+        setFont(new Font("Arial", Font.PLAIN, 12));
+        setPreferredSize(new Dimension(380, HEADER_HEIGHT + n * ROW_HEIGHT + FOOTER_HEIGHT + PADDING * 2));
+        setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = rowAt(e.getY());
+                if (row >= 0) {
+                    selectedRow = row;
+                    repaint();
+                    if (symbolListener != null) {
+                        symbolListener.accept(QuoteBoard.this.symbols[row]);
+                    }
+                }
+            }
+        });
+    }
+    
+    // Called on the EDT with the ticker of a clicked row
+    public void setSymbolListener(Consumer<String> symbolListener) {
+        this.symbolListener = symbolListener;
+    }
+    
+    public void setSelectedSymbol(String symbol) {
+        selectedRow = -1;
+        for (int row = 0; row < symbols.length; row++) {
+            if (symbols[row].equals(symbol)) {
+                selectedRow = row;
+            }
+        }
+        repaint();
+    }
+    
+    public QuoteConflator getConflator() {
+        return conflator;
+    }
+    
+    // Streams only while on screen; watched symbols are requested from the feed as demand
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        MarketDataFeed feed = MarketDataFeed.getInstance();
+        for (int symbolId : symbolIds) {
+            feed.addDemand(symbolId);
+        }
+        conflator.start();
+        frameTimer.start();
+    }
+    
+    @Override
+    public void removeNotify() {
+        frameTimer.stop();
+        conflator.stop();
+        MarketDataFeed feed = MarketDataFeed.getInstance();
+        for (int symbolId : symbolIds) {
+            feed.removeDemand(symbolId);
+        }
+        super.removeNotify();
+    }
+    
+    private void drainFrame() {
+        long now = System.currentTimeMillis();
+        conflator.drain(symbolId -> {
+            int row = rows.get(symbolId, -1);
+            if (row < 0 || !conflator.read(symbolId, quotes[row])) {
+                return;
+            }
+            double price = quotes[row].getLast();
+            if (previousLast[row] != 0 && price != previousLast[row]) {
+                flashDirection[row] = price > previousLast[row] ? 1 : -1;
+                flashUntil[row] = now + FLASH_MILLIS;
+            }
+            previousLast[row] = price;
+            repaintRow(row);
+        });
+        for (int row = 0; row < symbols.length; row++) {
+            if (flashUntil[row] != 0 && flashUntil[row] <= now) {
+                flashUntil[row] = 0;
+                repaintRow(row);
+            }
+        }
+        repaint(0, getHeight() - FOOTER_HEIGHT - PADDING, getWidth(), FOOTER_HEIGHT + PADDING);
+    }
+    
+    private void repaintRow(int row) {
+        rowRepaints++;
+        repaint(0, rowTop(row), getWidth(), ROW_HEIGHT);
+    }
+    
+    private int rowTop(int row) {
+        return PADDING + HEADER_HEIGHT + row * ROW_HEIGHT;
+    }
+    
+    private int rowAt(int y) {
+        int row = Math.floorDiv(y - PADDING - HEADER_HEIGHT, ROW_HEIGHT);
+        return row >= 0 && row < symbols.length ? row : -1;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        int width = getWidth();
+        int tableWidth = width - PADDING * 2;
+        g2d.setColor(themeManager.getCardBackground());
+        g2d.fillRect(0, 0, width, getHeight());
+        
+        Font font = getFont();
+        Font boldFont = font.deriveFont(Font.BOLD);
+        FontMetrics metrics = g2d.getFontMetrics(font);
+        int baseline = (ROW_HEIGHT + metrics.getAscent() - metrics.getDescent()) / 2;
+        
+        // Header
+        g2d.setFont(boldFont);
+        g2d.setColor(themeManager.getSecondaryText());
+        int x = PADDING;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            int columnWidth = (int) (tableWidth * COLUMN_WEIGHTS[c]);
+            drawCell(g2d, COLUMNS[c], x, columnWidth, PADDING + baseline, c > 0);
+            x += columnWidth;
+        }
+        g2d.setColor(themeManager.getBorder());
+        g2d.drawLine(PADDING, PADDING + HEADER_HEIGHT - 1, width - PADDING, PADDING + HEADER_HEIGHT - 1);
+        
+        long now = System.currentTimeMillis();
+        Rectangle clip = g2d.getClipBounds();
+        for (int row = 0; row < symbols.length; row++) {
+            int top = rowTop(row);
+            if (clip != null && (top + ROW_HEIGHT < clip.y || top > clip.y + clip.height)) {
+                continue;
+            }
+            if (flashUntil[row] > now) {
+                Color flash = flashDirection[row] > 0 ? themeManager.getSuccess() : themeManager.getError();
+                g2d.setColor(new Color(flash.getRed(), flash.getGreen(), flash.getBlue(), 50));
+                g2d.fillRect(PADDING, top, tableWidth, ROW_HEIGHT);
+            } else if (row == selectedRow) {
+                Color primary = themeManager.getPrimary();
+                g2d.setColor(new Color(primary.getRed(), primary.getGreen(), primary.getBlue(), 35));
+                g2d.fillRect(PADDING, top, tableWidth, ROW_HEIGHT);
+            }
+            paintRow(g2d, row, top + baseline, tableWidth, font, boldFont);
+        }
+        
+        // Footer: feed updates against rows actually repainted
+        g2d.setFont(font.deriveFont(11f));
+        g2d.setColor(themeManager.getSecondaryText());
+        g2d.drawString(String.format("%,d updates conflated into %,d row repaints",
+            conflator.getUpdateCount(), rowRepaints), PADDING, getHeight() - PADDING - 6);
+    }
+    
+    private void paintRow(Graphics2D g2d, int row, int baseline, int tableWidth, Font font, Font boldFont) {
+        QuoteConflator.Quote quote = quotes[row];
+        boolean hasQuote = quote.getSymbolId() != SymbolDictionary.NONE;
+        double change = hasQuote && quote.getLast() > 0 ? quote.getLast() / referencePrices[row] - 1 : 0;
+        String[] cells = {
+            symbols[row],
+            hasQuote && quote.getLast() > 0 ? String.format("%.2f", quote.getLast()) : "-",
+            hasQuote && quote.getLast() > 0 ? String.format("%+.2f%%", change * 100) : "-",
+            hasQuote ? String.format("%.2f", quote.getBid()) : "-",
+            hasQuote ? String.format("%.2f", quote.getAsk()) : "-",
+            hasQuote ? formatVolume(quote.getVolume()) : "-"
+        };
+        int x = PADDING;
+        for (int c = 0; c < cells.length; c++) {
+            int columnWidth = (int) (tableWidth * COLUMN_WEIGHTS[c]);
+            g2d.setFont(c == 0 ? boldFont : font);
+            if (c == 2 && hasQuote) {
+                g2d.setColor(change >= 0 ? themeManager.getSuccess() : themeManager.getError());
+            } else {
+                g2d.setColor(themeManager.getText());
+            }
+            drawCell(g2d, cells[c], x, columnWidth, baseline, c > 0);
+            x += columnWidth;
+        }
+    }
+    
+    private static void drawCell(Graphics2D g2d, String text, int x, int width, int baseline, boolean rightAligned) {
+        int textX = rightAligned ? x + width - g2d.getFontMetrics().stringWidth(text) - 4 : x + 4;
+        g2d.drawString(text, textX, baseline);
+    }
+    
+    private static String formatVolume(double volume) {
+        if (volume >= 1e9) {
+            return String.format("%.2fB", volume / 1e9);
+        } else if (volume >= 1e6) {
+            return String.format("%.2fM", volume / 1e6);
+        } else if (volume >= 1e3) {
+            return String.format("%.1fK", volume / 1e3);
+        }
+        return String.format("%.0f", volume);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+// Conflates the market data feed down to the latest quote per symbol for UI consumers. One
+// consumer thread folds every trade, quote and bar into a fixed slot per symbol ID and sets the
+// symbol's bit in a dirty bitset; the EDT drains the bitset once per frame and reads only the
+// symbols that changed. A burst of any size costs the EDT one read per changed symbol per frame.
+//
+// Slots are written by the consumer thread only and read under a per-slot sequence number
+// (even when stable, odd while being written), so readers never block the feed and retry on
+// the rare torn read.
+public class QuoteConflator implements MarketEventHandler {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    
+    private final int capacity;
+    private final AtomicLongArray versions;
+    private final AtomicLongArray dirty;
+    private final double[] last;
+    private final double[] bid;
+    private final double[] ask;
+    private final double[] volume;
+    private final long[] times;
+    private volatile long updateCount;
+    private volatile long droppedCount;
+    private Runnable unsubscribe;
+    
+    public QuoteConflator() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    // Symbol IDs at or above the capacity are ignored
+    public QuoteConflator(int capacity) {
+        this.capacity = capacity;
+        versions = new AtomicLongArray(capacity);
+        dirty = new AtomicLongArray((capacity + 63) >>> 6);
+        last = new double[capacity];
+        bid = new double[capacity];
+        ask = new double[capacity];
+        volume = new double[capacity];
+        times = new long[capacity];
+    }
+    
+    public synchronized void start() {
+        if (unsubscribe == null) {
+            unsubscribe = MarketDataFeed.getInstance().subscribe("quote-conflator", SymbolDictionary.NONE, this);
+        }
+    }
+    
+    public synchronized void stop() {
+        if (unsubscribe != null) {
+            unsubscribe.run();
+            unsubscribe = null;
+        }
+    }
+    
+    public synchronized boolean isRunning() {
+        return unsubscribe != null;
+    }
+    
+    // Events folded into slots since creation
+    public long getUpdateCount() {
+        return updateCount;
+    }
+    
+    // Events ignored because their symbol ID was beyond the capacity
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+    
+    @Override
+    public void onEvent(MarketEvent event, long sequence) {
+        int id = event.getSymbolId();
+        if (id >= capacity) {
+            droppedCount++;
+            return;
+        }
+        long version = versions.get(id);
+        versions.set(id, version + 1);
+        VarHandle.storeStoreFence();
+        if (event.isQuote()) {
+            bid[id] = event.getBid();
+            ask[id] = event.getAsk();
+        } else if (event.isTrade()) {
+            last[id] = event.getPrice();
+            volume[id] += event.getSize();
+        } else {
+            // Bar recordings carry no trades; the close stands in for the last price
+            last[id] = event.getClose();
+            volume[id] += event.getVolume();
+        }
+        times[id] = event.getTime();
+        versions.lazySet(id, version + 2);
+        
+        int word = id >>> 6;
+        long bit = 1L << id;
+        if ((dirty.get(word) & bit) == 0) {
+            dirty.accumulateAndGet(word, bit, (current, mask) -> current | mask);
+        }
+        updateCount++;
+    }
+    
+    // Clears the dirty set and passes each symbol ID that changed since the last drain to the
+    // visitor; returns how many there were
+    public int drain(IntConsumer visitor) {
+        int changed = 0;
+        for (int word = 0; word < dirty.length(); word++) {
+            if (dirty.get(word) == 0) {
+                continue;
+            }
+            long bits = dirty.getAndSet(word, 0);
+            while (bits != 0) {
+                visitor.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+                changed++;
+            }
+        }
+        return changed;
+    }
+    
+    // Copies a consistent view of the symbol's slot into the quote; false if it has never been
+    // updated
+    public boolean read(int symbolId, Quote into) {
+        if (symbolId < 0 || symbolId >= capacity) {
+            return false;
+        }
+        while (true) {
+            long before = versions.get(symbolId);
+            if (before == 0) {
+                return false;
+            }
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            into.last = last[symbolId];
+            into.bid = bid[symbolId];
+            into.ask = ask[symbolId];
+            into.volume = volume[symbolId];
+            into.time = times[symbolId];
+            VarHandle.acquireFence();
+            if (versions.get(symbolId) == before) {
+                into.symbolId = symbolId;
+                return true;
+            }
+        }
+    }
+    
+    // Reusable copy of one symbol's latest state
+    public static class Quote {
+        private int symbolId = SymbolDictionary.NONE;
+        private double last;
+        private double bid;
+        private double ask;
+        private double volume;
+        private long time;
+        
+        public int getSymbolId() { return symbolId; }
+        public double getLast() { return last; }
+        public double getBid() { return bid; }
+        public double getAsk() { return ask; }
+        public double getVolume() { return volume; }
+        public long getTime() { return time; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Replays rebalancing policies over historical returns. Each policy holds dollar amounts per
+// asset that grow with the day's returns; on its rebalance days it trades back to its target
+// weights and pays commission, slippage and a fee per trade out of the portfolio. A policy is
+// one pass over the days, reading every asset's return column in step, so the history is never
+// copied per policy; the policies share it read-only and run in parallel.
+//
+// A second, cost-free book rebalances on the same days under the same minimum-trade rule, so
+// the drag of the costs alone can be reported alongside the after-cost result.
+public class RebalanceSimulator {
+    private static final double TRADING_DAYS = 252.0;
+    
+    private final double[][] growth;
+    private final int assetCount;
+    private final int dayCount;
+    private final double commissionBps;
+    private final double slippageBps;
+    private final double tradeFee;
+    private final double capital;
+    
+    // logReturns[asset][day], all assets over the same days; costs in basis points of the
+    // traded value, plus a fixed fee per asset traded
+    public RebalanceSimulator(double[][] logReturns, double commissionBps, double slippageBps,
+                              double tradeFee, double capital) {
+        if (logReturns.length == 0 || logReturns[0].length == 0) {
+            throw new IllegalArgumentException("No returns to replay");
+        }
+        if (commissionBps < 0 || slippageBps < 0 || tradeFee < 0 || !(capital > 0)) {
+            throw new IllegalArgumentException("Costs must be non-negative and capital positive");
+        }
+        this.assetCount = logReturns.length;
+        this.dayCount = logReturns[0].length;
+        this.growth = new double[assetCount][];
+        for (int a = 0; a < assetCount; a++) {
+            if (logReturns[a].length != dayCount) {
+                throw new IllegalArgumentException("Asset " + a + " has " + logReturns[a].length + " days, expected " + dayCount);
+            }
+            double[] factors = new double[dayCount];
+            for (int d = 0; d < dayCount; d++) {
+                factors[d] = Math.exp(logReturns[a][d]);
+            }
+            growth[a] = factors;
+        }
+        this.commissionBps = commissionBps;
+        this.slippageBps = slippageBps;
+        this.tradeFee = tradeFee;
+        this.capital = capital;
+    }
+    
+    public int getAssetCount() { return assetCount; }
+    public int getDayCount() { return dayCount; }
+    
+    // Results in the order of the policies
+    public Result[] simulate(List<Policy> policies) {
+        for (Policy policy : policies) {
+            if (policy.targets.length != assetCount) {
+                throw new IllegalArgumentException(policy.name + " has " + policy.targets.length + " weights, expected " + assetCount);
+            }
+        }
+        Result[] results = new Result[policies.size()];
+        IntStream.range(0, results.length).parallel().forEach(p -> results[p] = simulate(policies.get(p)));
+        return results;
+    }
+    
+    public Result simulate(Policy policy) {
+        long start = System.nanoTime();
+        double[] targets = policy.targets;
+        double[] holdings = new double[assetCount];
+        double[] grossHoldings = new double[assetCount];
+        boolean[] traded = new boolean[assetCount];
+        for (int a = 0; a < assetCount; a++) {
+            holdings[a] = targets[a] * capital;
+            grossHoldings[a] = holdings[a];
+        }
+        double costRate = (commissionBps + slippageBps) / 10_000;
+        double value = capital;
+        double grossValue = capital;
+        double peak = capital;
+        double maxDrawdown = 0;
+        double returnSum = 0;
+        double returnSquares = 0;
+        double turnover = 0;
+        double costs = 0;
+        int rebalances = 0;
+        int trades = 0;
+        
+        for (int d = 0; d < dayCount; d++) {
+            double previous = value;
+            value = 0;
+            grossValue = 0;
+            for (int a = 0; a < assetCount; a++) {
+                double factor = growth[a][d];
+                holdings[a] *= factor;
+                grossHoldings[a] *= factor;
+                value += holdings[a];
+                grossValue += grossHoldings[a];
+            }
+            
+            if (policy.isDue(d, holdings, value)) {
+                double tradedValue = rebalance(holdings, value, targets, policy.minimumTrade, traded);
+                int tradesToday = 0;
+                for (boolean assetTraded : traded) {
+                    if (assetTraded) {
+                        tradesToday++;
+                    }
+                }
+                rebalance(grossHoldings, grossValue, targets, policy.minimumTrade, traded);
+                // Costs come out of every holding in proportion to its size
+                double cost = tradedValue * costRate + tradesToday * tradeFee;
+                double scale = (value - cost) / value;
+                for (int a = 0; a < assetCount; a++) {
+                    holdings[a] *= scale;
+                }
+                turnover += tradedValue / 2 / value;
+                value -= cost;
+                costs += cost;
+                trades += tradesToday;
+                rebalances++;
+            }
+            
+            double dailyReturn = value / previous - 1;
+            returnSum += dailyReturn;
+            returnSquares += dailyReturn * dailyReturn;
+            peak = Math.max(peak, value);
+            maxDrawdown = Math.max(maxDrawdown, 1 - value / peak);
+        }
+        
+        Result result = new Result();
+        result.policy = policy.name;
+        result.finalValue = value;
+        result.grossFinalValue = grossValue;
+        result.costs = costs;
+        result.rebalances = rebalances;
+        result.trades = trades;
+        double years = dayCount / TRADING_DAYS;
+        result.annualTurnover = turnover / years;
+        result.annualReturn = Math.pow(value / capital, 1 / years) - 1;
+        result.grossAnnualReturn = Math.pow(grossValue / capital, 1 / years) - 1;
+        double mean = returnSum / dayCount;
+        double variance = Math.max(0, returnSquares / dayCount - mean * mean);
+        result.volatility = Math.sqrt(variance * TRADING_DAYS);
+        result.maxDrawdown = maxDrawdown;
+        result.millis = (System.nanoTime() - start) / 1e6;
+        return result;
+    }
+    
+    // Trades the holdings back toward the target weights of value, skipping assets that would
+    // trade less than minimumTrade. Skipped assets keep their holdings and the assets traded
+    // share the rest of the value by target weight, so the holdings still sum to value. Marks
+    // the assets traded and returns the dollars traded.
+    private static double rebalance(double[] holdings, double value, double[] targets, double minimumTrade,
+                                    boolean[] traded) {
+        double kept = 0;
+        double tradedWeight = 0;
+        int tradeCount = 0;
+        for (int a = 0; a < holdings.length; a++) {
+            traded[a] = Math.abs(targets[a] * value - holdings[a]) >= minimumTrade;
+            if (traded[a]) {
+                tradedWeight += targets[a];
+                tradeCount++;
+            } else {
+                kept += holdings[a];
+            }
+        }
+        if (tradeCount == 0) {
+            return 0;
+        }
+        if (!(tradedWeight > 0)) {
+            // Only zero-weight assets cleared the minimum; their proceeds need somewhere to go
+            Arrays.fill(traded, true);
+            tradedWeight = 1;
+            kept = 0;
+        }
+        double scale = (value - kept) / tradedWeight;
+        double amount = 0;
+        for (int a = 0; a < holdings.length; a++) {
+            if (traded[a]) {
+                double target = targets[a] * scale;
+                amount += Math.abs(target - holdings[a]);
+                holdings[a] = target;
+            }
+        }
+        return amount;
+    }
+    
+    // Target weights and when to trade back to them: every frequency days (0 for never),
+    // and/or whenever a weight has drifted more than the band from its target (0 for no band).
+    // Trades smaller than minimumTrade dollars are skipped.
+    public static class Policy {
+        private final String name;
+        private final double[] targets;
+        private final int frequencyDays;
+        private final double band;
+        private final double minimumTrade;
+        
+        public Policy(String name, double[] targets, int frequencyDays, double band, double minimumTrade) {
+            double sum = 0;
+            for (double w : targets) {
+                sum += w;
+            }
+            if (Math.abs(sum - 1) > 1e-6) {
+                throw new IllegalArgumentException(name + " weights sum to " + sum + ", not 1");
+            }
+            if (frequencyDays < 0 || band < 0 || minimumTrade < 0) {
+                throw new IllegalArgumentException("Invalid rebalancing rule for " + name);
+            }
+            this.name = name;
+            this.targets = targets.clone();
+            this.frequencyDays = frequencyDays;
+            this.band = band;
+            this.minimumTrade = minimumTrade;
+        }
+        
+        public String getName() { return name; }
+        public int getFrequencyDays() { return frequencyDays; }
+        public double getBand() { return band; }
+        
+        private boolean isDue(int day, double[] holdings, double value) {
+            if (frequencyDays > 0 && (day + 1) % frequencyDays == 0) {
+                return true;
+            }
+            if (band > 0) {
+                for (int a = 0; a < holdings.length; a++) {
+                    if (Math.abs(holdings[a] / value - targets[a]) > band) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+    
+    public static class Result {
+        private String policy;
+        private double finalValue;
+        private double grossFinalValue;
+        private double costs;
+        private int rebalances;
+        private int trades;
+        private double annualTurnover;
+        private double annualReturn;
+        private double grossAnnualReturn;
+        private double volatility;
+        private double maxDrawdown;
+        private double millis;
+        
+        public String getPolicy() { return policy; }
+        public double getFinalValue() { return finalValue; }
+        public double getGrossFinalValue() { return grossFinalValue; }
+        public double getCosts() { return costs; }
+        public int getRebalances() { return rebalances; }
+        public int getTrades() { return trades; }
+        // One-way traded value over portfolio value, per year
+        public double getAnnualTurnover() { return annualTurnover; }
+        public double getAnnualReturn() { return annualReturn; }
+        public double getGrossAnnualReturn() { return grossAnnualReturn; }
+        public double getCostDrag() { return grossAnnualReturn - annualReturn; }
+        public double getVolatility() { return volatility; }
+        public double getMaxDrawdown() { return maxDrawdown; }
+        public double getMillis() { return millis; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+import javax.swing.*;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Turns any number of data updates from any thread into at most one repaint per frame.
+// Producers only set an atomic flag; a Swing timer checks it once per frame on the EDT, so
+// a burst of thousands of ticks costs the EDT a single paint. Updates that only touch part of
+// the component queue their regions instead, and Swing merges a frame's regions into one paint.
+public class RepaintCoalescer {
+    private final JComponent component;
+    private final Timer timer;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicLong updates = new AtomicLong();
+    private final List<Rectangle> regions = new ArrayList<>();
+    private long frames;
+    
+    public RepaintCoalescer(JComponent component, int framesPerSecond) {
+        this.component = component;
+        this.timer = new Timer(Math.max(1, 1000 / framesPerSecond), e -> onFrame());
+        this.timer.setCoalesce(true);
+    }
+    
+    // Safe to call from any thread, as often as updates arrive
+    public void markDirty() {
+        updates.incrementAndGet();
+        dirty.set(true);
+    }
+    
+    // Repaints only the region at the next frame; safe to call from any thread
+    public void markDirty(Rectangle region) {
+        updates.incrementAndGet();
+        synchronized (regions) {
+            regions.add(new Rectangle(region));
+        }
+    }
+    
+    public void start() {
+        timer.start();
+    }
+    
+    public void stop() {
+        timer.stop();
+    }
+    
+    public long getUpdateCount() {
+        return updates.get();
+    }
+    
+    // Number of repaints actually issued; read on the EDT
+    public long getFrameCount() {
+        return frames;
+    }
+    
+    private void onFrame() {
+        boolean full = dirty.getAndSet(false);
+        Rectangle[] pending;
+        synchronized (regions) {
+            pending = regions.toArray(new Rectangle[0]);
+            regions.clear();
+        }
+        if (full) {
+            frames++;
+            component.repaint();
+        } else if (pending.length > 0) {
+            frames++;
+            for (Rectangle region : pending) {
+                component.repaint(region);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,266 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+// Market data source that replays a recording of trades or bars into the MarketDataFeed, as a
+// local stand-in for a vendor connection. Events are preloaded into columns so the replay loop
+// only publishes. Pacing follows the recorded timestamps scaled by a speed multiplier: it parks
+// until shortly before each event is due and spins the rest of the way. MAX_SPEED publishes
+// back to back for load testing.
+//
+// Recording files are CSV lines of "time,symbol,price,size" for trades or
+// "time,symbol,open,high,low,close,volume" for bars, with time in epoch milliseconds, in time
+// order. An optional header line and blank lines are skipped.
+public class ReplaySource implements MarketDataSource {
+    public static final double REAL_TIME = 1;
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+    
+    // Parking overshoots by tens of microseconds, so stop parking this far ahead and spin
+    private static final long SPIN_NANOS = 100_000;
+    private static final int PROGRESS_INTERVAL = 4096;
+    
+    private final String name;
+    private final double speed;
+    private final long[] times;
+    // SymbolDictionary IDs per event, and the distinct symbols in the recording
+    private final int[] symbolIds;
+    private final String[] symbols;
+    private final boolean bars;
+    // Trades use the first two columns (price, size); bars all five (OHLCV)
+    private final double[] first;
+    private final double[] second;
+    private final double[] third;
+    private final double[] fourth;
+    private final double[] fifth;
+    private final int size;
+    
+    private volatile boolean running;
+    private volatile int published;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private Thread thread;
+    private Runnable completionListener;
+    
+    private ReplaySource(String name, double speed, long[] times, int[] symbolIds, String[] symbols, boolean bars,
+                         double[] first, double[] second, double[] third, double[] fourth, double[] fifth, int size) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        this.name = name;
+        this.speed = speed;
+        this.times = times;
+        this.symbolIds = symbolIds;
+        this.symbols = symbols;
+        this.bars = bars;
+        this.first = first;
+        this.second = second;
+        this.third = third;
+        this.fourth = fourth;
+        this.fifth = fifth;
+        this.size = size;
+    }
+    
+    public static ReplaySource fromFile(Path file, double speed) throws IOException {
+        int capacity = 1024;
+        long[] times = new long[capacity];
+        int[] symbolIds = new int[capacity];
+        double[][] columns = new double[5][capacity];
+        SymbolDictionary dictionary = SymbolDictionary.getInstance();
+        IntIntMap seenSymbols = new IntIntMap();
+        String[] symbols = new String[16];
+        int columnCount = -1;
+        int size = 0;
+        long lastTime = Long.MIN_VALUE;
+        
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || (size == 0 && !Character.isDigit(line.charAt(0)))) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (columnCount < 0) {
+                    columnCount = fields.length;
+                    if (columnCount != 4 && columnCount != 7) {
+                        throw new IOException("Line " + lineNumber + ": expected 4 (trade) or 7 (bar) columns");
+                    }
+                } else if (fields.length != columnCount) {
+                    throw new IOException("Line " + lineNumber + ": expected " + columnCount + " columns");
+                }
+                if (size == times.length) {
+                    capacity = size * 2;
+                    times = Arrays.copyOf(times, capacity);
+                    symbolIds = Arrays.copyOf(symbolIds, capacity);
+                    for (int c = 0; c < columns.length; c++) {
+                        columns[c] = Arrays.copyOf(columns[c], capacity);
+                    }
+                }
+                try {
+                    long time = Long.parseLong(fields[0].trim());
+                    if (time < lastTime) {
+                        throw new IOException("Line " + lineNumber + ": timestamps must be in order");
+                    }
+                    lastTime = time;
+                    times[size] = time;
+                    String symbol = fields[1].trim();
+                    int id = dictionary.idOf(symbol);
+                    if (!seenSymbols.containsKey(id)) {
+                        int index = seenSymbols.size();
+                        seenSymbols.put(id, index);
+                        if (index == symbols.length) {
+                            symbols = Arrays.copyOf(symbols, index * 2);
+                        }
+                        symbols[index] = symbol;
+                    }
+                    symbolIds[size] = id;
+                    for (int c = 2; c < columnCount; c++) {
+                        columns[c - 2][size] = Double.parseDouble(fields[c].trim());
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+                }
+                size++;
+            }
+        }
+        return new ReplaySource(file.getFileName().toString(), speed, times, symbolIds,
+            Arrays.copyOf(symbols, seenSymbols.size()), columnCount == 7,
+            columns[0], columns[1], columns[2], columns[3], columns[4], size);
+    }
+    
+    // Replays an in-memory bar history, e.g. sample data for load tests
+    public static ReplaySource fromBars(String symbol, BarSeries series, double speed) {
+        int n = series.size();
+        long[] times = new long[n];
+        double[] opens = new double[n];
+        double[] highs = new double[n];
+        double[] lows = new double[n];
+        double[] closes = new double[n];
+        double[] volumes = new double[n];
+        int[] symbolIds = new int[n];
+        Arrays.fill(symbolIds, SymbolDictionary.getInstance().idOf(symbol));
+        for (int i = 0; i < n; i++) {
+            times[i] = series.getTime(i);
+            opens[i] = series.getOpen(i);
+            highs[i] = series.getHigh(i);
+            lows[i] = series.getLow(i);
+            closes[i] = series.getClose(i);
+            volumes[i] = series.getVolume(i);
+        }
+        return new ReplaySource(symbol + " sample", speed, times, symbolIds, new String[] {symbol}, true,
+            opens, highs, lows, closes, volumes, n);
+    }
+    
+    // Called on the replay thread after the last event has been published
+    public void setCompletionListener(Runnable completionListener) {
+        this.completionListener = completionListener;
+    }
+    
+    @Override
+    public String getName() {
+        return "Replay " + name;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isBarRecording() {
+        return bars;
+    }
+    
+    public String[] getSymbols() {
+        return symbols.clone();
+    }
+    
+    public int getPublishedCount() {
+        return published;
+    }
+    
+    public boolean isFinished() {
+        return finishNanos != 0;
+    }
+    
+    // Average publish rate since the replay started
+    public double getEventsPerSecond() {
+        long start = startNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        return published / Math.max(1e-9, (end - start) / 1e9);
+    }
+    
+    @Override
+    public synchronized void start(MarketDataFeed feed) {
+        if (thread != null) {
+            throw new IllegalStateException("A replay source can only be started once");
+        }
+        running = true;
+        thread = new Thread(() -> replay(feed), "market-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private void replay(MarketDataFeed feed) {
+        long start = System.nanoTime();
+        startNanos = start;
+        long firstTime = size > 0 ? times[0] : 0;
+        boolean paced = speed != MAX_SPEED;
+        int i = 0;
+        for (; i < size && running; i++) {
+            if (paced && !awaitDue(start + (long) ((times[i] - firstTime) * 1_000_000 / speed))) {
+                break;
+            }
+            int symbol = symbolIds[i];
+            if (bars) {
+                feed.publishBar(symbol, times[i], first[i], second[i], third[i], fourth[i], fifth[i]);
+            } else {
+                feed.publishTrade(symbol, times[i], first[i], second[i]);
+            }
+            if ((i & (PROGRESS_INTERVAL - 1)) == 0) {
+                published = i + 1;
+            }
+        }
+        published = i;
+        finishNanos = System.nanoTime();
+        if (i == size && completionListener != null) {
+            completionListener.run();
+        }
+    }
+    
+    // Waits until the due time: parks while it is far off, then spins for precision. Returns
+    // false if the replay was stopped meanwhile.
+    private boolean awaitDue(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+            if (!running) {
+                return false;
+            }
+        }
+        while (System.nanoTime() < dueNanos) {
+            Thread.onSpinWait();
+        }
+        return running;
+    }
+}
\ No newline at end of file
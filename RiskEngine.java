@@ -0,0 +1,443 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Value at risk, expected shortfall (CVaR) and stress losses of a set of dollar exposures.
+// Every scenario is a row of simple returns over the horizon, one per asset, held in a
+// double[scenarios][assets] matrix, so a scenario's P&L is the dot product of its row with the
+// exposures. Historical scenarios are the overlapping horizon windows of the daily history;
+// Monte Carlo scenarios add up randomly drawn historical days, the same days for every asset,
+// which keeps the assets' co-movement without assuming a distribution.
+//
+// The scenario P&Ls are kept up to date: changing one exposure adds its return column times
+// the change, O(scenarios), and only a change to most of the exposures re-runs the full
+// product, in parallel over blocks of scenarios. Replacing the exposures drops the columns of
+// assets no longer held, so the matrix tracks the current book rather than every book loaded.
+// A portfolio loaded with setPortfolio can then be followed trade by trade with
+// updatePortfolio, which only touches the positions whose quantity changed; re-marking the
+// rest to current prices is a full reload, left to the caller's schedule.
+public class RiskEngine {
+    public static final int DEFAULT_HISTORY_DAYS = 504;
+    private static final int SCENARIO_BLOCK = 256;
+    private static final String MARKET_PROXY = "SPY";
+    private static final int WEEK_DAYS = 5;
+    private static final String[] STRESS_NAMES = {
+        "Market crash (-20%)", "Market rally (+10%)", "Volatility spike (-3 sd)",
+        "Worst " + MARKET_PROXY + " day", "Worst " + MARKET_PROXY + " week"
+    };
+    
+    private final int historyDays;
+    private final int horizonDays;
+    private final int scenarioCount;
+    // Historical day indices summed by each Monte Carlo scenario; null for historical
+    private final int[][] draws;
+    private final int marketWorstDay;
+    private final int marketWorstWeek;
+    
+    // Asset columns, indexed by asset number; guarded by this
+    private final IntIntMap assets = new IntIntMap();
+    private double[] exposures = new double[16];
+    // Shares behind each exposure as last loaded from a portfolio
+    private double[] quantities = new double[16];
+    private double[][] scenarioReturns;
+    private double[][] stressReturns;
+    private int assetCount;
+    
+    private final double[] scenarioPnl;
+    private final double[] stressPnl = new double[STRESS_NAMES.length];
+    private double[] sortedPnl;
+    private boolean sorted;
+    private long incrementalUpdates;
+    private long fullRecomputes;
+    private long lastUpdateNanos;
+    
+    // Each overlapping window of horizonDays in the last historyDays days is a scenario
+    public static RiskEngine historical(int historyDays, int horizonDays) {
+        return new RiskEngine(historyDays, horizonDays, 0, 0);
+    }
+    
+    // Each of the simulations draws horizonDays days from the history with replacement
+    public static RiskEngine monteCarlo(int historyDays, int horizonDays, int simulations, long seed) {
+        if (simulations < 1) {
+            throw new IllegalArgumentException("Need at least one simulation");
+        }
+        return new RiskEngine(historyDays, horizonDays, simulations, seed);
+    }
+    
+    private RiskEngine(int historyDays, int horizonDays, int simulations, long seed) {
+        double[] market = logReturns(MARKET_PROXY, historyDays);
+        if (horizonDays < 1 || horizonDays > historyDays / 2) {
+            throw new IllegalArgumentException("Horizon must be between 1 and " + historyDays / 2 + " days: " + horizonDays);
+        }
+        this.historyDays = historyDays;
+        this.horizonDays = horizonDays;
+        if (simulations > 0) {
+            SplittableRandom random = new SplittableRandom(seed);
+            draws = new int[simulations][horizonDays];
+            for (int[] days : draws) {
+                for (int j = 0; j < horizonDays; j++) {
+                    days[j] = random.nextInt(historyDays);
+                }
+            }
+            scenarioCount = simulations;
+        } else {
+            draws = null;
+            scenarioCount = historyDays - horizonDays + 1;
+        }
+        scenarioReturns = new double[scenarioCount][exposures.length];
+        stressReturns = new double[STRESS_NAMES.length][exposures.length];
+        scenarioPnl = new double[scenarioCount];
+        sortedPnl = new double[scenarioCount];
+        
+        int worstDay = 0;
+        int worstWeek = 0;
+        double worstWeekReturn = Double.POSITIVE_INFINITY;
+        for (int d = 0; d < historyDays; d++) {
+            if (market[d] < market[worstDay]) {
+                worstDay = d;
+            }
+            if (d + WEEK_DAYS <= historyDays) {
+                double week = 0;
+                for (int k = d; k < d + WEEK_DAYS; k++) {
+                    week += market[k];
+                }
+                if (week < worstWeekReturn) {
+                    worstWeekReturn = week;
+                    worstWeek = d;
+                }
+            }
+        }
+        marketWorstDay = worstDay;
+        marketWorstWeek = worstWeek;
+    }
+    
+    private static double[] logReturns(String symbol, int historyDays) {
+        double[] closes = SampleMarketData.dailyCloses(symbol, historyDays + 1);
+        if (closes.length != historyDays + 1) {
+            throw new IllegalArgumentException("Only " + (closes.length - 1) + " days of history available");
+        }
+        return BootstrapForecaster.toLogReturns(closes);
+    }
+    
+    public int getHistoryDays() { return historyDays; }
+    public int getHorizonDays() { return horizonDays; }
+    public int getScenarioCount() { return scenarioCount; }
+    public boolean isMonteCarlo() { return draws != null; }
+    public int getStressCount() { return STRESS_NAMES.length; }
+    public String getStressName(int stress) { return STRESS_NAMES[stress]; }
+    public synchronized int getAssetCount() { return assetCount; }
+    public synchronized long getIncrementalUpdates() { return incrementalUpdates; }
+    public synchronized long getFullRecomputes() { return fullRecomputes; }
+    public synchronized double getLastUpdateMillis() { return lastUpdateNanos / 1e6; }
+    
+    public synchronized double getExposure(int symbolId) {
+        int asset = assets.get(symbolId, -1);
+        return asset < 0 ? 0 : exposures[asset];
+    }
+    
+    public void setExposure(String symbol, double marketValue) {
+        setExposure(SymbolDictionary.getInstance().idOf(symbol), marketValue);
+    }
+    
+    // Changes one exposure (dollars, negative for short) and moves every scenario P&L by it
+    public synchronized void setExposure(int symbolId, double marketValue) {
+        long start = System.nanoTime();
+        int asset = assetFor(symbolId);
+        double delta = marketValue - exposures[asset];
+        if (delta != 0) {
+            exposures[asset] = marketValue;
+            applyDelta(asset, delta);
+            incrementalUpdates++;
+        }
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+    
+    // Replaces all exposures with the first count given, zeroing the rest. A handful of changes
+    // are applied column by column; when most exposures moved the P&Ls are recomputed in full.
+    public synchronized void setExposures(int[] symbolIds, double[] marketValues, int count) {
+        long start = System.nanoTime();
+        // A position with no value, e.g. one closed out, needs no column
+        int[] columns = new int[count];
+        for (int i = 0; i < count; i++) {
+            columns[i] = marketValues[i] == 0 ? -1 : assetFor(symbolIds[i]);
+        }
+        double[] target = new double[exposures.length];
+        for (int i = 0; i < count; i++) {
+            if (columns[i] >= 0) {
+                target[columns[i]] += marketValues[i];
+            }
+        }
+        int changed = 0;
+        for (int asset = 0; asset < assetCount; asset++) {
+            if (target[asset] != exposures[asset]) {
+                changed++;
+            }
+        }
+        if (changed * 4 < assetCount) {
+            for (int asset = 0; asset < assetCount; asset++) {
+                double delta = target[asset] - exposures[asset];
+                if (delta != 0) {
+                    exposures[asset] = target[asset];
+                    applyDelta(asset, delta);
+                }
+            }
+            incrementalUpdates += changed;
+        } else {
+            exposures = target;
+            recompute();
+        }
+        evictUnheld();
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+    
+    // Loads the portfolio's positions at their current marks
+    public void setPortfolio(PortfolioEngine portfolios, int portfolioId) {
+        loadPortfolio(portfolios, portfolioId, true);
+    }
+    
+    // Follows trades in the portfolio last loaded with setPortfolio: only positions whose
+    // quantity changed take their current value, each as a single column update, and the rest
+    // keep the marks they were loaded at
+    public void updatePortfolio(PortfolioEngine portfolios, int portfolioId) {
+        loadPortfolio(portfolios, portfolioId, false);
+    }
+    
+    private void loadPortfolio(PortfolioEngine portfolios, int portfolioId, boolean remark) {
+        int count;
+        int[] symbolIds;
+        double[] shares;
+        double[] values;
+        synchronized (portfolios) {
+            count = portfolios.getPositionCount(portfolioId);
+            symbolIds = new int[count];
+            shares = new double[count];
+            values = new double[count];
+            for (int i = 0; i < count; i++) {
+                int positionId = portfolios.getPositionId(portfolioId, i);
+                symbolIds[i] = portfolios.getSymbolId(positionId);
+                shares[i] = portfolios.getQuantity(positionId);
+                values[i] = portfolios.getPositionMarketValue(positionId);
+            }
+        }
+        synchronized (this) {
+            if (remark) {
+                setExposures(symbolIds, values, count);
+            }
+            long start = System.nanoTime();
+            double[] targetShares = new double[assetCount + count];
+            double[] targetValues = new double[assetCount + count];
+            int[] columns = new int[count];
+            for (int i = 0; i < count; i++) {
+                columns[i] = values[i] == 0 && shares[i] == 0 ? -1 : assetFor(symbolIds[i]);
+                if (columns[i] >= 0) {
+                    targetShares[columns[i]] += shares[i];
+                    targetValues[columns[i]] += values[i];
+                }
+            }
+            for (int asset = 0; asset < assetCount; asset++) {
+                if (remark || targetShares[asset] == quantities[asset]) {
+                    quantities[asset] = targetShares[asset];
+                    continue;
+                }
+                quantities[asset] = targetShares[asset];
+                double delta = targetValues[asset] - exposures[asset];
+                if (delta != 0) {
+                    exposures[asset] = targetValues[asset];
+                    applyDelta(asset, delta);
+                    incrementalUpdates++;
+                }
+            }
+            if (!remark) {
+                evictUnheld();
+                lastUpdateNanos = System.nanoTime() - start;
+            }
+        }
+    }
+    
+    // The loss exceeded in only 1 - confidence of the scenarios; positive for a loss
+    public synchronized double getValueAtRisk(double confidence) {
+        return -sortedPnl()[tailSize(confidence) - 1];
+    }
+    
+    // The average loss across the scenarios at or beyond the value at risk
+    public synchronized double getConditionalValueAtRisk(double confidence) {
+        double[] pnl = sortedPnl();
+        int tail = tailSize(confidence);
+        double sum = 0;
+        for (int s = 0; s < tail; s++) {
+            sum += pnl[s];
+        }
+        return -sum / tail;
+    }
+    
+    public synchronized double getWorstLoss() {
+        return -sortedPnl()[0];
+    }
+    
+    public synchronized double getStressPnl(int stress) {
+        return stressPnl[stress];
+    }
+    
+    private int tailSize(double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Confidence must be in (0, 1): " + confidence);
+        }
+        return Math.max(1, (int) Math.ceil((1 - confidence) * scenarioCount - 1e-9));
+    }
+    
+    private double[] sortedPnl() {
+        if (!sorted) {
+            System.arraycopy(scenarioPnl, 0, sortedPnl, 0, scenarioCount);
+            Arrays.sort(sortedPnl);
+            sorted = true;
+        }
+        return sortedPnl;
+    }
+    
+    private void applyDelta(int asset, double delta) {
+        for (int s = 0; s < scenarioCount; s++) {
+            scenarioPnl[s] += scenarioReturns[s][asset] * delta;
+        }
+        for (int k = 0; k < stressPnl.length; k++) {
+            stressPnl[k] += stressReturns[k][asset] * delta;
+        }
+        sorted = false;
+    }
+    
+    private void recompute() {
+        int blocks = (scenarioCount + SCENARIO_BLOCK - 1) / SCENARIO_BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int end = Math.min(scenarioCount, (block + 1) * SCENARIO_BLOCK);
+            for (int s = block * SCENARIO_BLOCK; s < end; s++) {
+                scenarioPnl[s] = dot(scenarioReturns[s], exposures, assetCount);
+            }
+        });
+        for (int k = 0; k < stressPnl.length; k++) {
+            stressPnl[k] = dot(stressReturns[k], exposures, assetCount);
+        }
+        sorted = false;
+        fullRecomputes++;
+    }
+    
+    // Four independent sums so the additions pipeline instead of waiting on each other
+    private static double dot(double[] row, double[] weights, int length) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int j = 0;
+        for (; j + 3 < length; j += 4) {
+            s0 += row[j] * weights[j];
+            s1 += row[j + 1] * weights[j + 1];
+            s2 += row[j + 2] * weights[j + 2];
+            s3 += row[j + 3] * weights[j + 3];
+        }
+        for (; j < length; j++) {
+            s0 += row[j] * weights[j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+    
+    // Moves the columns of assets with exposure left to the front and forgets the rest; their
+    // P&L contribution is already zero, so the scenario and stress P&Ls are unchanged
+    private void evictUnheld() {
+        int held = 0;
+        for (int asset = 0; asset < assetCount; asset++) {
+            if (exposures[asset] != 0) {
+                held++;
+            }
+        }
+        if (held == assetCount) {
+            return;
+        }
+        int[] symbolIds = new int[assetCount];
+        for (int symbolId : assets.keys()) {
+            symbolIds[assets.get(symbolId, -1)] = symbolId;
+        }
+        assets.clear();
+        int next = 0;
+        for (int asset = 0; asset < assetCount; asset++) {
+            if (exposures[asset] == 0) {
+                continue;
+            }
+            if (next != asset) {
+                exposures[next] = exposures[asset];
+                quantities[next] = quantities[asset];
+                for (int s = 0; s < scenarioCount; s++) {
+                    scenarioReturns[s][next] = scenarioReturns[s][asset];
+                }
+                for (int k = 0; k < stressReturns.length; k++) {
+                    stressReturns[k][next] = stressReturns[k][asset];
+                }
+            }
+            assets.put(symbolIds[asset], next++);
+        }
+        Arrays.fill(exposures, next, assetCount, 0);
+        Arrays.fill(quantities, next, assetCount, 0);
+        assetCount = next;
+    }
+    
+    // The asset's column, filling in its scenario and stress returns on first use
+    private int assetFor(int symbolId) {
+        int asset = assets.get(symbolId, -1);
+        if (asset >= 0) {
+            return asset;
+        }
+        double[] returns = logReturns(SymbolDictionary.getInstance().symbolOf(symbolId), historyDays);
+        if (assetCount == exposures.length) {
+            int capacity = assetCount * 2;
+            exposures = Arrays.copyOf(exposures, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            for (int s = 0; s < scenarioCount; s++) {
+                scenarioReturns[s] = Arrays.copyOf(scenarioReturns[s], capacity);
+            }
+            for (int k = 0; k < stressReturns.length; k++) {
+                stressReturns[k] = Arrays.copyOf(stressReturns[k], capacity);
+            }
+        }
+        asset = assetCount++;
+        assets.put(symbolId, asset);
+        
+        if (draws != null) {
+            for (int s = 0; s < scenarioCount; s++) {
+                double sum = 0;
+                for (int day : draws[s]) {
+                    sum += returns[day];
+                }
+                scenarioReturns[s][asset] = Math.expm1(sum);
+            }
+        } else {
+            double window = 0;
+            for (int d = 0; d < historyDays; d++) {
+                window += returns[d];
+                if (d >= horizonDays) {
+                    window -= returns[d - horizonDays];
+                }
+                if (d >= horizonDays - 1) {
+                    scenarioReturns[d - horizonDays + 1][asset] = Math.expm1(window);
+                }
+            }
+        }
+        
+        double mean = 0;
+        for (double r : returns) {
+            mean += r;
+        }
+        mean /= historyDays;
+        double variance = 0;
+        for (double r : returns) {
+            variance += (r - mean) * (r - mean);
+        }
+        double volatility = Math.sqrt(variance / (historyDays - 1));
+        double week = 0;
+        for (int d = marketWorstWeek; d < marketWorstWeek + WEEK_DAYS; d++) {
+            week += returns[d];
+        }
+        stressReturns[0][asset] = -0.20;
+        stressReturns[1][asset] = 0.10;
+        stressReturns[2][asset] = Math.expm1(-3 * volatility * Math.sqrt(horizonDays));
+        stressReturns[3][asset] = Math.expm1(returns[marketWorstDay]);
+        stressReturns[4][asset] = Math.expm1(week);
+        return asset;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+import java.util.SplittableRandom;
+
+public class SampleMarketData {
+    private static final double TRADING_DAYS = 252.0;
+    private static final int HISTORY_DAYS = 2520;
+    
+    private SampleMarketData() {
+    }
+    
+    // The most recent closes of a deterministic per-symbol history, so the same ticker always
+    // yields the same series and every window ends on the same latest close
+    public static double[] dailyCloses(String symbol, int count) {
+        double[] history = fullHistory(symbol);
+        int length = Math.min(count, history.length);
+        return java.util.Arrays.copyOfRange(history, history.length - length, history.length);
+    }
+    
+    public static double latestClose(String symbol) {
+        double[] history = fullHistory(symbol);
+        return history[history.length - 1];
+    }
+    
+    private static double[] fullHistory(String symbol) {
+        SplittableRandom random = new SplittableRandom(seedFor(symbol));
+        double price = 50 + random.nextDouble() * 250;
+        double drift = 0.04 + random.nextDouble() * 0.12;
+        double volatility = 0.18 + random.nextDouble() * 0.22;
+        double dailyDrift = (drift - 0.5 * volatility * volatility) / TRADING_DAYS;
+        double dailyVol = volatility / Math.sqrt(TRADING_DAYS);
+        
+        double[] closes = new double[HISTORY_DAYS];
+        double momentum = 0;
+        double level = 1;
+        for (int i = 0; i < HISTORY_DAYS; i++) {
+            double shock = gaussian(random) * dailyVol;
+            momentum = 0.15 * momentum + shock;
+            level *= Math.exp(dailyDrift + momentum);
+            closes[i] = level;
+        }
+        // Anchor the latest close at the symbol's base price so recent prices look plausible
+        double scale = price / level;
+        for (int i = 0; i < HISTORY_DAYS; i++) {
+            closes[i] = Math.round(closes[i] * scale * 100) / 100.0;
+        }
+        return closes;
+    }
+    
+    // Deterministic one-minute bars ending now at the symbol's latest close, so live ticks
+    // continue where the history stops
+    public static BarSeries minuteBars(String symbol, int count) {
+        SplittableRandom random = new SplittableRandom(seedFor(symbol) * 31 + count);
+        double minuteVol = (0.18 + random.nextDouble() * 0.22) / Math.sqrt(TRADING_DAYS * 390);
+        double anchor = latestClose(symbol);
+        double price = anchor;
+        long minute = 60_000L;
+        long start = (System.currentTimeMillis() / minute - count) * minute;
+        
+        BarSeries bars = new BarSeries(count);
+        for (int i = 0; i < count; i++) {
+            double open = price;
+            double close = open * Math.exp(gaussian(random) * minuteVol);
+            double wick = Math.abs(gaussian(random)) * minuteVol * 0.5;
+            double high = Math.max(open, close) * (1 + wick);
+            double low = Math.min(open, close) * (1 - wick * random.nextDouble());
+            double volume = 60_000_000 * (0.5 + random.nextDouble());
+            bars.append(start + i * minute, open, high, low, close, volume);
+            price = close;
+        }
+        bars.scalePrices(anchor / price);
+        return bars;
+    }
+    
+    static long seedFor(String symbol) {
+        long seed = 1125899906842597L;
+        for (int i = 0; i < symbol.length(); i++) {
+            seed = 31 * seed + symbol.charAt(i);
+        }
+        return seed;
+    }
+    
+    static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Stand-in live market data source: continues each demanded symbol's sample history with a
+// random walk, publishing a quote and a trade per tick and one bar per interval. All symbols
+// share one scheduler thread, which is the ring's single producer while this source is active.
+public class SimulatedBarFeed implements MarketDataSource {
+    private static final long BAR_INTERVAL_MILLIS = 1000;
+    private static final int TICKS_PER_BAR = 8;
+    private static final long TICK_INTERVAL_MILLIS = BAR_INTERVAL_MILLIS / TICKS_PER_BAR;
+    
+    private final ScheduledExecutorService scheduler;
+    private final IntObjectMap<SymbolStream> streams = new IntObjectMap<>();
+    private MarketDataFeed feed;
+    
+    public SimulatedBarFeed() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "simulated-bar-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public String getName() {
+        return "Simulated";
+    }
+    
+    @Override
+    public synchronized void start(MarketDataFeed feed) {
+        this.feed = feed;
+    }
+    
+    @Override
+    public void stop() {
+        synchronized (this) {
+            feed = null;
+            streams.forEachValue(SimulatedBarFeed::cancel);
+        }
+        // A tick may be mid-flight; once this no-op runs on the scheduler thread it has finished
+        try {
+            scheduler.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @Override
+    public synchronized void addSymbol(int symbolId) {
+        if (feed == null) {
+            return;
+        }
+        SymbolStream stream = streams.computeIfAbsent(symbolId, SymbolStream::new);
+        if (stream.task == null) {
+            MarketDataFeed target = feed;
+            stream.task = scheduler.scheduleAtFixedRate(() -> stream.emitTick(target),
+                    TICK_INTERVAL_MILLIS, TICK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @Override
+    public synchronized void removeSymbol(int symbolId) {
+        SymbolStream stream = streams.get(symbolId);
+        if (stream != null) {
+            cancel(stream);
+        }
+    }
+    
+    private static void cancel(SymbolStream stream) {
+        if (stream.task != null) {
+            stream.task.cancel(false);
+            stream.task = null;
+        }
+    }
+    
+    private static class SymbolStream {
+        final int symbolId;
+        final SplittableRandom random;
+        final double tickVolatility;
+        double lastPrice;
+        double barOpen;
+        double barHigh;
+        double barLow;
+        double barVolume;
+        int ticksInBar;
+        ScheduledFuture<?> task;
+        
+        SymbolStream(int symbolId) {
+            this.symbolId = symbolId;
+            String symbol = SymbolDictionary.getInstance().symbolOf(symbolId);
+            this.random = new SplittableRandom(SampleMarketData.seedFor(symbol) ^ System.nanoTime());
+            double[] recent = SampleMarketData.dailyCloses(symbol, 61);
+            double[] returns = BootstrapForecaster.toLogReturns(recent);
+            double sum = 0;
+            for (double r : returns) {
+                sum += r * r;
+            }
+            this.tickVolatility = Math.sqrt(sum / returns.length / TICKS_PER_BAR);
+            this.lastPrice = recent[recent.length - 1];
+        }
+        
+        void emitTick(MarketDataFeed feed) {
+            if (ticksInBar == 0) {
+                barOpen = lastPrice;
+                barHigh = lastPrice;
+                barLow = lastPrice;
+                barVolume = 0;
+            }
+            double price = Math.round(lastPrice * Math.exp(SampleMarketData.gaussian(random) * tickVolatility) * 100) / 100.0;
+            double size = 1_000_000 * (0.5 + random.nextDouble()) / TICKS_PER_BAR;
+            lastPrice = price;
+            barHigh = Math.max(barHigh, price);
+            barLow = Math.min(barLow, price);
+            barVolume += size;
+            ticksInBar++;
+            
+            long time = System.currentTimeMillis();
+            double quoteSize = Math.round(size / 10);
+            feed.publishQuote(symbolId, time, price - 0.01, quoteSize, price + 0.01, quoteSize);
+            feed.publishTrade(symbolId, time, price, size);
+            if (ticksInBar == TICKS_PER_BAR) {
+                ticksInBar = 0;
+                feed.publishBar(symbolId, time, barOpen, barHigh, barLow, price, barVolume);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -8,6 +8,8 @@ public class StrategyData {
     private boolean useTrailingStop;
     private double maxRisk;
     private int maxPositions;
+    private String[] indicators;
+    private String[] entryConditions;
     
     public StrategyData() {
         this.name = "";
@@ -19,6 +21,8 @@ public class StrategyData {
         this.useTrailingStop = false;
         this.maxRisk = 2.0;
         this.maxPositions = 5;
+        this.indicators = new String[0];
+        this.entryConditions = new String[0];
     }
     
     // Getters and setters
@@ -48,4 +52,11 @@ public class StrategyData {
     
     public int getMaxPositions() { return maxPositions; }
     public void setMaxPositions(int maxPositions) { this.maxPositions = maxPositions; }
+    
+    public String[] getIndicators() { return indicators; }
+    public void setIndicators(String[] indicators) { this.indicators = indicators; }
+    
+    // One condition per line of the editor's entry rules
+    public String[] getEntryConditions() { return entryConditions; }
+    public void setEntryConditions(String[] entryConditions) { this.entryConditions = entryConditions; }
 }
\ No newline at end of file
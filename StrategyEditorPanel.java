@@ -4,13 +4,36 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public class StrategyEditorPanel extends JPanel {
+    private static final int CODE_GENERATION_DELAY_MILLIS = 250;
+    private static final String GUEST_CODE = "// Guest Mode - Sign up to generate custom code\n" +
+        "// Sample strategy code would appear here for authenticated users\n\n" +
+        "public class SampleMomentumStrategy {\n" +
+        "    // Strategy implementation\n" +
+        "    // Entry: RSI > 70, Price > SMA20\n" +
+        "    // Exit: 5% profit target, 2% stop loss\n" +
+        "    // Risk: 2% per trade, max 5 positions\n" +
+        "}";
+    
+    // Code is generated off the EDT, on one thread shared by every editor
+    private static final ExecutorService codeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "strategy-codegen");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Serializes snapshots on that thread only
+    private static final StrategyJson codeJson = new StrategyJson();
+    
     private ThemeManager themeManager;
     private AuthManager authManager;
     private StrategyData strategyData;
-    private Consumer<String> codeGenerationListener;
+    private BiConsumer<String, String> codeGenerationListener;
     private Consumer<String> messageListener;
     
     // Form components
@@ -28,6 +51,16 @@ public class StrategyEditorPanel extends JPanel {
     private JButton saveButton;
     private JButton backtestButton;
     private JButton resetButton;
+    private JButton paperTradeButton;
+    private JButton openButton;
+    private StrategyRunner strategyRunner;
+    
+    // Restarted by every edit, so a burst of keystrokes or spinner ticks generates once
+    private Timer codeTimer;
+    // Bumped by every edit; a generation is only shown if the form has not changed since
+    private final AtomicLong codeGeneration = new AtomicLong();
+    // Compact JSON fingerprint of the strategy last shown, so an unchanged form is not regenerated
+    private volatile long shownFingerprint;
     
     public StrategyEditorPanel(ThemeManager themeManager, AuthManager authManager) {
         this.themeManager = themeManager;
@@ -70,22 +103,41 @@ public class StrategyEditorPanel extends JPanel {
         saveButton = new JButton("Save Strategy");
         backtestButton = new JButton("Run Backtest");
         resetButton = new JButton("Reset");
+        paperTradeButton = new JButton("Paper Trade");
+        openButton = new JButton("Open Saved...");
         
         // Add action listeners
         saveButton.addActionListener(e -> saveStrategy());
         backtestButton.addActionListener(e -> runBacktest());
         resetButton.addActionListener(e -> resetForm());
+        paperTradeButton.addActionListener(e -> togglePaperTrading());
+        openButton.addActionListener(e -> openStrategy());
+        
+        codeTimer = new Timer(CODE_GENERATION_DELAY_MILLIS, e -> startCodeGeneration());
+        codeTimer.setRepeats(false);
         
         // Add change listeners for code generation
-        nameField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+        javax.swing.event.DocumentListener codeListener = new javax.swing.event.DocumentListener() {
             public void changedUpdate(javax.swing.event.DocumentEvent e) { generateCode(); }
             public void removeUpdate(javax.swing.event.DocumentEvent e) { generateCode(); }
             public void insertUpdate(javax.swing.event.DocumentEvent e) { generateCode(); }
+        };
+        nameField.getDocument().addDocumentListener(codeListener);
+        entryConditionsArea.getDocument().addDocumentListener(codeListener);
+        indicatorsList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                generateCode();
+            }
         });
+        trailingStopCheckBox.addActionListener(e -> generateCode());
+        maxPositionsSpinner.addChangeListener(e -> generateCode());
         
         typeComboBox.addActionListener(e -> generateCode());
+        assetClassComboBox.addActionListener(e -> generateCode());
+        timeframeComboBox.addActionListener(e -> generateCode());
         profitTargetSpinner.addChangeListener(e -> generateCode());
         stopLossSpinner.addChangeListener(e -> generateCode());
+        maxRiskSpinner.addChangeListener(e -> generateCode());
     }
     
     private void setupLayout() {
@@ -260,19 +312,27 @@ public class StrategyEditorPanel extends JPanel {
             saveButton.setEnabled(false);
             backtestButton.setEnabled(false);
             resetButton.setEnabled(false);
+            paperTradeButton.setEnabled(false);
+            openButton.setEnabled(false);
             
             saveButton.setBackground(Color.GRAY);
             backtestButton.setBackground(Color.GRAY);
             resetButton.setBackground(Color.GRAY);
+            paperTradeButton.setBackground(Color.GRAY);
+            openButton.setBackground(Color.GRAY);
         } else {
             saveButton.setBackground(themeManager.getPrimary());
             saveButton.setForeground(Color.WHITE);
             backtestButton.setBackground(themeManager.getCardBackground());
             resetButton.setBackground(themeManager.getCardBackground());
+            paperTradeButton.setBackground(themeManager.getCardBackground());
+            openButton.setBackground(themeManager.getCardBackground());
         }
         
         panel.add(saveButton);
+        panel.add(openButton);
         panel.add(backtestButton);
+        panel.add(paperTradeButton);
         panel.add(resetButton);
         
         return panel;
@@ -327,12 +387,78 @@ public class StrategyEditorPanel extends JPanel {
         }
         
         updateStrategyData();
+        if (strategyData.getName().trim().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Enter a strategy name to save it under.", "Save Strategy", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        StrategyStore store = StrategyStore.getInstance();
+        if (!store.save(strategyData)) {
+            if (messageListener != null) {
+                messageListener.accept("Save failed: " + store.getLastError());
+            }
+            JOptionPane.showMessageDialog(this, "The strategy could not be written to disk.\n" + store.getLastError(),
+                "Save Failed", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         if (messageListener != null) {
             messageListener.accept("Strategy saved successfully: " + strategyData.getName());
         }
         JOptionPane.showMessageDialog(this, "Strategy saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
     }
     
+    private void openStrategy() {
+        if (authManager.isGuestMode()) {
+            showUpgradeDialog();
+            return;
+        }
+        
+        StrategyStore store = StrategyStore.getInstance();
+        String[] names = store.getNames();
+        // Strategies that could not be read are missing from the list, so say why
+        if (store.getLastError() != null && messageListener != null) {
+            messageListener.accept(store.getLastError());
+        }
+        if (names.length == 0) {
+            JOptionPane.showMessageDialog(this, "No saved strategies yet.", "Open Strategy", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        Object name = JOptionPane.showInputDialog(this, "Strategy to open:", "Open Strategy",
+            JOptionPane.QUESTION_MESSAGE, null, names, names[names.length - 1]);
+        if (name == null) {
+            return;
+        }
+        StrategyData saved = store.get((String) name);
+        showStrategy(saved);
+        if (messageListener != null) {
+            messageListener.accept("Strategy opened: " + saved.getName());
+        }
+    }
+    
+    // Fills the whole form from the strategy
+    private void showStrategy(StrategyData data) {
+        this.strategyData = data;
+        nameField.setText(data.getName());
+        typeComboBox.setSelectedItem(data.getType());
+        assetClassComboBox.setSelectedItem(data.getAssetClass());
+        timeframeComboBox.setSelectedItem(data.getTimeframe());
+        indicatorsList.clearSelection();
+        ListModel<String> model = indicatorsList.getModel();
+        for (String indicator : data.getIndicators()) {
+            for (int i = 0; i < model.getSize(); i++) {
+                if (model.getElementAt(i).equals(indicator)) {
+                    indicatorsList.addSelectionInterval(i, i);
+                }
+            }
+        }
+        entryConditionsArea.setText(String.join("\n", data.getEntryConditions()));
+        profitTargetSpinner.setValue(data.getProfitTarget());
+        stopLossSpinner.setValue(data.getStopLoss());
+        trailingStopCheckBox.setSelected(data.isUseTrailingStop());
+        maxRiskSpinner.setValue(data.getMaxRisk());
+        maxPositionsSpinner.setValue(data.getMaxPositions());
+        generateCode();
+    }
+    
     private void runBacktest() {
         if (authManager.isGuestMode()) {
             showUpgradeDialog();
@@ -370,6 +496,43 @@ public class StrategyEditorPanel extends JPanel {
         worker.execute();
     }
     
+    // Runs the current settings against the live market data feed until toggled off
+    private void togglePaperTrading() {
+        if (authManager.isGuestMode()) {
+            showUpgradeDialog();
+            return;
+        }
+        if (strategyRunner != null) {
+            strategyRunner.stop();
+            strategyRunner = null;
+            paperTradeButton.setText("Paper Trade");
+            return;
+        }
+        
+        String symbol = JOptionPane.showInputDialog(this, "Symbol to paper trade:", "AAPL");
+        if (symbol == null || symbol.trim().isEmpty()) {
+            return;
+        }
+        updateStrategyData();
+        strategyRunner = new StrategyRunner(strategyData, symbol.trim().toUpperCase(), message -> {
+            if (messageListener != null) {
+                messageListener.accept(message);
+            }
+        });
+        strategyRunner.start();
+        paperTradeButton.setText("Stop Paper Trade");
+    }
+    
+    @Override
+    public void removeNotify() {
+        if (strategyRunner != null) {
+            strategyRunner.stop();
+            strategyRunner = null;
+            paperTradeButton.setText("Paper Trade");
+        }
+        super.removeNotify();
+    }
+    
     private void resetForm() {
         if (authManager.isGuestMode()) {
             showUpgradeDialog();
@@ -392,36 +555,68 @@ public class StrategyEditorPanel extends JPanel {
     }
     
     private void updateStrategyData() {
-        strategyData.setName(nameField.getText());
-        strategyData.setType((String) typeComboBox.getSelectedItem());
-        strategyData.setAssetClass((String) assetClassComboBox.getSelectedItem());
-        strategyData.setTimeframe((String) timeframeComboBox.getSelectedItem());
-        strategyData.setProfitTarget((Double) profitTargetSpinner.getValue());
-        strategyData.setStopLoss((Double) stopLossSpinner.getValue());
-        strategyData.setMaxRisk((Double) maxRiskSpinner.getValue());
-        strategyData.setMaxPositions((Integer) maxPositionsSpinner.getValue());
+        readForm(strategyData);
     }
     
-    private void generateCode() {
-        if (codeGenerationListener != null) {
-            updateStrategyData();
-            String code = generateStrategyCode();
-            codeGenerationListener.accept(code);
+    private StrategyData readForm(StrategyData data) {
+        data.setName(nameField.getText());
+        data.setType((String) typeComboBox.getSelectedItem());
+        data.setAssetClass((String) assetClassComboBox.getSelectedItem());
+        data.setTimeframe((String) timeframeComboBox.getSelectedItem());
+        data.setProfitTarget((Double) profitTargetSpinner.getValue());
+        data.setStopLoss((Double) stopLossSpinner.getValue());
+        data.setUseTrailingStop(trailingStopCheckBox.isSelected());
+        data.setMaxRisk((Double) maxRiskSpinner.getValue());
+        data.setMaxPositions((Integer) maxPositionsSpinner.getValue());
+        data.setIndicators(indicatorsList.getSelectedValuesList().toArray(new String[0]));
+        List<String> conditions = new ArrayList<>();
+        for (String line : entryConditionsArea.getText().split("\n")) {
+            if (!line.isBlank()) {
+                conditions.add(line.trim());
+            }
         }
+        data.setEntryConditions(conditions.toArray(new String[0]));
+        return data;
     }
     
-    private String generateStrategyCode() {
-        if (authManager.isGuestMode()) {
-            return "// Guest Mode - Sign up to generate custom code\n" +
-                   "// Sample strategy code would appear here for authenticated users\n\n" +
-                   "public class SampleMomentumStrategy {\n" +
-                   "    // Strategy implementation\n" +
-                   "    // Entry: RSI > 70, Price > SMA20\n" +
-                   "    // Exit: 5% profit target, 2% stop loss\n" +
-                   "    // Risk: 2% per trade, max 5 positions\n" +
-                   "}";
+    // Called on every edit: drops any generation in flight and restarts the quiet period
+    private void generateCode() {
+        codeGeneration.incrementAndGet();
+        codeTimer.restart();
+    }
+    
+    // Snapshots the form on the EDT and generates the code and JSON from the snapshot in the
+    // background, unless the strategy serializes to what is already shown
+    private void startCodeGeneration() {
+        if (codeGenerationListener == null) {
+            return;
         }
-        
+        long generation = codeGeneration.get();
+        StrategyData snapshot = readForm(new StrategyData());
+        boolean guest = authManager.isGuestMode();
+        codeExecutor.execute(() -> {
+            if (generation != codeGeneration.get()) {
+                return;
+            }
+            codeJson.write(snapshot, false);
+            // Guests are shown placeholder code, so signing in must regenerate an unchanged form
+            long fingerprint = 31 * codeJson.fingerprint() + (guest ? 1 : 0);
+            if (fingerprint == shownFingerprint) {
+                return;
+            }
+            String code = guest ? GUEST_CODE : generateStrategyCode(snapshot);
+            codeJson.write(snapshot, true);
+            String json = codeJson.toString();
+            SwingUtilities.invokeLater(() -> {
+                if (generation == codeGeneration.get() && codeGenerationListener != null) {
+                    shownFingerprint = fingerprint;
+                    codeGenerationListener.accept(code, json);
+                }
+            });
+        });
+    }
+    
+    private static String generateStrategyCode(StrategyData strategyData) {
         StringBuilder code = new StringBuilder();
         code.append("// Generated Trading Strategy: ").append(strategyData.getName()).append("\n\n");
         code.append("import java.util.*;\n");
@@ -492,8 +687,10 @@ public class StrategyEditorPanel extends JPanel {
         }
     }
     
-    public void setCodeGenerationListener(Consumer<String> listener) {
+    // Receives the generated Java source and the strategy's JSON, on the EDT
+    public void setCodeGenerationListener(BiConsumer<String, String> listener) {
         this.codeGenerationListener = listener;
+        shownFingerprint = 0;
     }
     
     public void setMessageListener(Consumer<String> listener) {
@@ -0,0 +1,573 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Writes and reads StrategyData as JSON with no dependencies. The writer streams UTF-8 bytes
+// straight into one growable buffer that is reused by every write, so no intermediate strings
+// or documents are built. The compact form is canonical: it is the line format of saved
+// strategies, and its fingerprint is the strategy's cache key. The pretty form is for display.
+// The reader is a pull parser over the bytes that knows the strategy's shape and skips any
+// field it does not.
+//
+// A writer is not thread-safe; give each thread its own.
+public class StrategyJson {
+    private byte[] buffer = new byte[1024];
+    private int length;
+    private boolean pretty;
+    private int depth;
+    private boolean needsComma;
+    private boolean afterName;
+    
+    // Serializes the strategy, replacing the buffer's previous content; returns its length
+    public int write(StrategyData data, boolean pretty) {
+        this.pretty = pretty;
+        length = 0;
+        depth = 0;
+        needsComma = false;
+        afterName = false;
+        
+        beginObject();
+        name("strategy");
+        beginObject();
+        name("name").value(data.getName());
+        name("type").value(data.getType());
+        name("assetClass").value(data.getAssetClass());
+        name("timeframe").value(data.getTimeframe());
+        name("entryRules");
+        beginObject();
+        name("conditions").values(data.getEntryConditions());
+        name("indicators").values(data.getIndicators());
+        endObject();
+        name("exitRules");
+        beginObject();
+        name("profitTarget").value(data.getProfitTarget());
+        name("stopLoss").value(data.getStopLoss());
+        name("useTrailingStop").value(data.isUseTrailingStop());
+        endObject();
+        name("riskManagement");
+        beginObject();
+        name("maxRiskPerTrade").value(data.getMaxRisk());
+        name("maxPositions").value(data.getMaxPositions());
+        endObject();
+        endObject();
+        endObject();
+        return length;
+    }
+    
+    // The last write's bytes are buffer[0, length()); the array is reused by the next write
+    public byte[] getBuffer() { return buffer; }
+    public int length() { return length; }
+    
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+    
+    // FNV-1a of the last write; over the compact form, equal strategies have equal fingerprints
+    public long fingerprint() {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (buffer[i] & 0xFF)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+    
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    private void beginObject() {
+        separate();
+        put('{');
+        depth++;
+        needsComma = false;
+    }
+    
+    private void endObject() {
+        depth--;
+        newline();
+        put('}');
+        needsComma = true;
+    }
+    
+    private StrategyJson name(String name) {
+        separate();
+        string(name);
+        put(':');
+        if (pretty) {
+            put(' ');
+        }
+        afterName = true;
+        return this;
+    }
+    
+    // Comma before every value but the first in its object or array, then the indentation; a
+    // field's value follows its name directly
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (needsComma) {
+            put(',');
+        }
+        if (depth > 0) {
+            newline();
+        }
+    }
+    
+    private void newline() {
+        if (pretty) {
+            put('\n');
+            for (int i = 0; i < depth; i++) {
+                put(' ');
+                put(' ');
+            }
+        }
+    }
+    
+    private void value(String value) {
+        separate();
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+    }
+    
+    private void value(boolean value) {
+        separate();
+        ascii(value ? "true" : "false");
+        needsComma = true;
+    }
+    
+    private void value(long value) {
+        separate();
+        digits(value);
+        needsComma = true;
+    }
+    
+    // Whole numbers are written without a fraction; non-finite ones, which JSON cannot hold, as null
+    private void value(double value) {
+        separate();
+        if (!Double.isFinite(value)) {
+            ascii("null");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            digits((long) value);
+        } else {
+            ascii(Double.toString(value));
+        }
+        needsComma = true;
+    }
+    
+    // Arrays of strings; in the pretty form one element per line
+    private void values(String[] values) {
+        separate();
+        put('[');
+        depth++;
+        needsComma = false;
+        for (String value : values) {
+            value(value);
+        }
+        depth--;
+        if (values.length > 0) {
+            newline();
+        }
+        put(']');
+        needsComma = true;
+    }
+    
+    private void digits(long value) {
+        if (value == Long.MIN_VALUE) {
+            ascii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        ensure(19);
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, k = length - 1; i < k; i++, k--) {
+            byte swap = buffer[i];
+            buffer[i] = buffer[k];
+            buffer[k] = swap;
+        }
+    }
+    
+    // Escapes quotes, backslashes and control characters and encodes the rest as UTF-8
+    private void string(String value) {
+        // At most six bytes per char, for an escaped control character
+        ensure(value.length() * 6 + 2);
+        buffer[length++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                buffer[length++] = '\\';
+                buffer[length++] = (byte) c;
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x80) {
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | c >> 6);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[length++] = '?'; // Unpaired surrogate, not encodable
+            } else {
+                buffer[length++] = (byte) (0xE0 | c >> 12);
+                buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        buffer[length++] = '"';
+    }
+    
+    private void escapeControl(char c) {
+        buffer[length++] = '\\';
+        switch (c) {
+            case '\n': buffer[length++] = 'n'; break;
+            case '\r': buffer[length++] = 'r'; break;
+            case '\t': buffer[length++] = 't'; break;
+            case '\b': buffer[length++] = 'b'; break;
+            case '\f': buffer[length++] = 'f'; break;
+            default:
+                buffer[length++] = 'u';
+                buffer[length++] = '0';
+                buffer[length++] = '0';
+                buffer[length++] = (byte) Character.forDigit(c >> 4, 16);
+                buffer[length++] = (byte) Character.forDigit(c & 0xF, 16);
+        }
+    }
+    
+    private void ascii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+    
+    private void put(char c) {
+        ensure(1);
+        buffer[length++] = (byte) c;
+    }
+    
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+    
+    public static StrategyData read(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return read(bytes, 0, bytes.length);
+    }
+    
+    // Fields that are missing keep StrategyData's defaults; throws IllegalArgumentException on
+    // malformed JSON
+    public static StrategyData read(byte[] bytes, int offset, int length) {
+        Reader reader = new Reader(bytes, offset, offset + length);
+        StrategyData data = new StrategyData();
+        reader.expect('{');
+        while (reader.nextField()) {
+            if (reader.readName().equals("strategy")) {
+                readStrategy(reader, data);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.end();
+        return data;
+    }
+    
+    private static void readStrategy(Reader reader, StrategyData data) {
+        reader.expect('{');
+        while (reader.nextField()) {
+            switch (reader.readName()) {
+                case "name": data.setName(reader.readString()); break;
+                case "type": data.setType(reader.readString()); break;
+                case "assetClass": data.setAssetClass(reader.readString()); break;
+                case "timeframe": data.setTimeframe(reader.readString()); break;
+                case "entryRules":
+                    reader.expect('{');
+                    while (reader.nextField()) {
+                        switch (reader.readName()) {
+                            case "conditions": data.setEntryConditions(reader.readStrings()); break;
+                            case "indicators": data.setIndicators(reader.readStrings()); break;
+                            default: reader.skipValue();
+                        }
+                    }
+                    break;
+                case "exitRules":
+                    reader.expect('{');
+                    while (reader.nextField()) {
+                        switch (reader.readName()) {
+                            case "profitTarget": data.setProfitTarget(reader.readNumber()); break;
+                            case "stopLoss": data.setStopLoss(reader.readNumber()); break;
+                            case "useTrailingStop": data.setUseTrailingStop(reader.readBoolean()); break;
+                            default: reader.skipValue();
+                        }
+                    }
+                    break;
+                case "riskManagement":
+                    reader.expect('{');
+                    while (reader.nextField()) {
+                        switch (reader.readName()) {
+                            case "maxRiskPerTrade": data.setMaxRisk(reader.readNumber()); break;
+                            case "maxPositions": data.setMaxPositions((int) reader.readNumber()); break;
+                            default: reader.skipValue();
+                        }
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+    }
+    
+    // Pull parser over a byte range
+    private static class Reader {
+        private final byte[] bytes;
+        private final int limit;
+        private int position;
+        private boolean firstField;
+        
+        Reader(byte[] bytes, int offset, int limit) {
+            this.bytes = bytes;
+            this.position = offset;
+            this.limit = limit;
+        }
+        
+        void expect(char c) {
+            if (peek() != c) {
+                throw error("expected '" + c + "'");
+            }
+            position++;
+            firstField = true;
+        }
+        
+        // Consumes the separator before the next field of the current object; false at its end
+        boolean nextField() {
+            byte c = peek();
+            if (c == '}') {
+                // The closed object was a value of the enclosing one, whose next field needs a comma
+                position++;
+                firstField = false;
+                return false;
+            }
+            if (!firstField) {
+                if (c != ',') {
+                    throw error("expected ',' or '}'");
+                }
+                position++;
+            }
+            firstField = false;
+            return true;
+        }
+        
+        String readName() {
+            String name = readString();
+            if (peek() != ':') {
+                throw error("expected ':'");
+            }
+            position++;
+            return name;
+        }
+        
+        // A string, or null for a JSON null
+        String readString() {
+            if (peek() == 'n') {
+                literal("null");
+                return null;
+            }
+            if (peek() != '"') {
+                throw error("expected a string");
+            }
+            int start = ++position;
+            StringBuilder escaped = null;
+            while (true) {
+                if (position >= limit) {
+                    throw error("unterminated string");
+                }
+                byte c = bytes[position];
+                if (c == '"') {
+                    String tail = new String(bytes, start, position - start, StandardCharsets.UTF_8);
+                    position++;
+                    return escaped == null ? tail : escaped.append(tail).toString();
+                }
+                if (c != '\\') {
+                    position++;
+                    continue;
+                }
+                if (escaped == null) {
+                    escaped = new StringBuilder();
+                }
+                escaped.append(new String(bytes, start, position - start, StandardCharsets.UTF_8));
+                if (position + 1 >= limit) {
+                    throw error("unterminated escape");
+                }
+                byte kind = bytes[position + 1];
+                position += 2;
+                switch (kind) {
+                    case 'n': escaped.append('\n'); break;
+                    case 'r': escaped.append('\r'); break;
+                    case 't': escaped.append('\t'); break;
+                    case 'b': escaped.append('\b'); break;
+                    case 'f': escaped.append('\f'); break;
+                    case '"': case '\\': case '/': escaped.append((char) kind); break;
+                    case 'u':
+                        if (position + 4 > limit) {
+                            throw error("truncated unicode escape");
+                        }
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(bytes[position++], 16);
+                            if (digit < 0) {
+                                throw error("invalid unicode escape");
+                            }
+                            code = code << 4 | digit;
+                        }
+                        escaped.append((char) code);
+                        break;
+                    default:
+                        throw error("invalid escape");
+                }
+                start = position;
+            }
+        }
+        
+        String[] readStrings() {
+            if (peek() != '[') {
+                throw error("expected an array");
+            }
+            position++;
+            ArrayList<String> values = new ArrayList<>();
+            if (peek() == ']') {
+                position++;
+                return new String[0];
+            }
+            while (true) {
+                values.add(readString());
+                byte c = peek();
+                position++;
+                if (c == ']') {
+                    return values.toArray(new String[0]);
+                }
+                if (c != ',') {
+                    position--;
+                    throw error("expected ',' or ']'");
+                }
+            }
+        }
+        
+        // NaN for a JSON null
+        double readNumber() {
+            if (peek() == 'n') {
+                literal("null");
+                return Double.NaN;
+            }
+            int start = position;
+            while (position < limit && "+-0123456789.eE".indexOf(bytes[position]) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(new String(bytes, start, position - start, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("expected a number");
+            }
+        }
+        
+        boolean readBoolean() {
+            if (peek() == 't') {
+                literal("true");
+                return true;
+            }
+            literal("false");
+            return false;
+        }
+        
+        void skipValue() {
+            byte c = peek();
+            if (c == '{') {
+                expect('{');
+                while (nextField()) {
+                    readName();
+                    skipValue();
+                }
+            } else if (c == '[') {
+                position++;
+                if (peek() == ']') {
+                    position++;
+                    return;
+                }
+                while (true) {
+                    skipValue();
+                    byte next = peek();
+                    position++;
+                    if (next == ']') {
+                        return;
+                    }
+                    if (next != ',') {
+                        position--;
+                        throw error("expected ',' or ']'");
+                    }
+                }
+            } else if (c == '"') {
+                readString();
+            } else if (c == 't' || c == 'f') {
+                readBoolean();
+            } else {
+                readNumber();
+            }
+        }
+        
+        private void literal(String word) {
+            for (int i = 0; i < word.length(); i++) {
+                if (position + i >= limit || bytes[position + i] != word.charAt(i)) {
+                    throw error("expected " + word);
+                }
+            }
+            position += word.length();
+        }
+        
+        // Only whitespace may follow the document
+        void end() {
+            skipWhitespace();
+            if (position < limit) {
+                throw error("unexpected content after the strategy");
+            }
+        }
+        
+        private byte peek() {
+            skipWhitespace();
+            if (position >= limit) {
+                throw error("unexpected end");
+            }
+            return bytes[position];
+        }
+        
+        private void skipWhitespace() {
+            while (position < limit && (bytes[position] == ' ' || bytes[position] == '\n' || bytes[position] == '\r' || bytes[position] == '\t')) {
+                position++;
+            }
+        }
+        
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Malformed strategy JSON at byte " + position + ": " + message);
+        }
+    }
+}
\ No newline at end of file
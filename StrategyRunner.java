@@ -0,0 +1,152 @@
+import javax.swing.*;
+import java.util.function.Consumer;
+
+// Paper-trades a strategy against live trades from the MarketDataFeed. The strategy type picks
+// the entry signal, and the profit target and stop loss (trailing if enabled) close the
+// position. The fast and slow averages are one-minute EMAs shared through the IndicatorCache,
+// so runners, alerts and anything else on the same symbol compute them once. Signals run on
+// the runner's consumer thread with O(1) state per trade; messages are delivered on the EDT.
+public class StrategyRunner implements MarketEventHandler {
+    private static final int FAST_PERIOD = 10;
+    private static final int SLOW_PERIOD = 40;
+    private static final long AVERAGE_TIMEFRAME_MILLIS = 60_000;
+    private static final double SLOW_ALPHA = 2.0 / (SLOW_PERIOD + 1);
+    private static final int BREAKOUT_WINDOW = 50;
+    private static final int WARMUP_TRADES = 40;
+    private static final double REVERSION_Z = 2.0;
+    
+    private final String symbol;
+    private final String strategyName;
+    private final String type;
+    private final double profitTarget;
+    private final double stopLoss;
+    private final boolean trailingStop;
+    private final Consumer<String> messageListener;
+    private Runnable unsubscribe;
+    private IndicatorCache.Series fastAverage;
+    private IndicatorCache.Series slowAverage;
+    
+    // Signal and position state, touched only on the consumer thread
+    private final double[] window = new double[BREAKOUT_WINDOW];
+    private long tradesSeen;
+    private double slowVariance;
+    private boolean fastAbove;
+    private boolean inPosition;
+    private double entryPrice;
+    private double peakPrice;
+    // Written by the consumer thread, read for the summary on stop
+    private volatile int closedTrades;
+    private volatile int winningTrades;
+    private volatile double realizedReturn;
+    
+    public StrategyRunner(StrategyData strategy, String symbol, Consumer<String> messageListener) {
+        this.symbol = symbol;
+        this.strategyName = strategy.getName().isEmpty() ? strategy.getType() : strategy.getName();
+        this.type = strategy.getType();
+        this.profitTarget = strategy.getProfitTarget() / 100;
+        this.stopLoss = strategy.getStopLoss() / 100;
+        this.trailingStop = strategy.isUseTrailingStop();
+        this.messageListener = messageListener;
+    }
+    
+    public void start() {
+        if (unsubscribe == null) {
+            post(String.format("Paper trading %s on %s", strategyName, symbol));
+            IndicatorCache cache = IndicatorCache.getInstance();
+            fastAverage = cache.acquire(symbol, StreamingIndicator.EMA, FAST_PERIOD, AVERAGE_TIMEFRAME_MILLIS);
+            slowAverage = cache.acquire(symbol, StreamingIndicator.EMA, SLOW_PERIOD, AVERAGE_TIMEFRAME_MILLIS);
+            unsubscribe = MarketDataFeed.getInstance().subscribe("strategy-" + symbol, symbol, this);
+        }
+    }
+    
+    public void stop() {
+        if (unsubscribe != null) {
+            unsubscribe.run();
+            unsubscribe = null;
+            IndicatorCache cache = IndicatorCache.getInstance();
+            cache.release(fastAverage);
+            cache.release(slowAverage);
+            post(String.format("Paper trading stopped: %d trades, %d winners, return %+.2f%%",
+                closedTrades, winningTrades, realizedReturn * 100));
+        }
+    }
+    
+    public boolean isRunning() {
+        return unsubscribe != null;
+    }
+    
+    @Override
+    public void onEvent(MarketEvent event, long sequence) {
+        if (!event.isTrade()) {
+            return;
+        }
+        double price = event.getPrice();
+        boolean entry = updateSignal(price);
+        
+        if (inPosition) {
+            peakPrice = Math.max(peakPrice, price);
+            double reference = trailingStop ? peakPrice : entryPrice;
+            if (price >= entryPrice * (1 + profitTarget)) {
+                exit(price, "profit target");
+            } else if (stopLoss > 0 && price <= reference * (1 - stopLoss)) {
+                exit(price, trailingStop ? "trailing stop" : "stop loss");
+            }
+        } else if (entry) {
+            inPosition = true;
+            entryPrice = price;
+            peakPrice = price;
+            post(String.format("%s: BUY %s @ %.2f", strategyName, symbol, price));
+        }
+    }
+    
+    // Reads the shared averages and updates the deviation and window; returns whether the
+    // strategy's entry fires
+    private boolean updateSignal(double price) {
+        double fast = fastAverage.getValue();
+        double slow = slowAverage.getValue();
+        double deviation = price - slow;
+        if (!Double.isNaN(deviation)) {
+            slowVariance = (1 - SLOW_ALPHA) * (slowVariance + SLOW_ALPHA * deviation * deviation);
+        }
+        
+        double windowHigh = -Double.MAX_VALUE;
+        int filled = (int) Math.min(tradesSeen, BREAKOUT_WINDOW);
+        for (int i = 0; i < filled; i++) {
+            windowHigh = Math.max(windowHigh, window[i]);
+        }
+        window[(int) (tradesSeen % BREAKOUT_WINDOW)] = price;
+        
+        boolean wasAbove = fastAbove;
+        fastAbove = fast > slow;
+        tradesSeen++;
+        if (tradesSeen < WARMUP_TRADES) {
+            return false;
+        }
+        switch (type) {
+            case "Mean Reversion":
+                return slowVariance > 0 && deviation / Math.sqrt(slowVariance) < -REVERSION_Z;
+            case "Breakout":
+                return filled == BREAKOUT_WINDOW && price > windowHigh;
+            default:
+                // Momentum and trend following enter when the fast average crosses above the slow
+                return fastAbove && !wasAbove;
+        }
+    }
+    
+    private void exit(double price, String reason) {
+        double tradeReturn = price / entryPrice - 1;
+        inPosition = false;
+        closedTrades++;
+        if (tradeReturn > 0) {
+            winningTrades++;
+        }
+        realizedReturn = (1 + realizedReturn) * (1 + tradeReturn) - 1;
+        post(String.format("%s: SELL %s @ %.2f (%s, %+.2f%%)", strategyName, symbol, price, reason, tradeReturn * 100));
+    }
+    
+    private void post(String message) {
+        if (messageListener != null) {
+            SwingUtilities.invokeLater(() -> messageListener.accept(message));
+        }
+    }
+}
\ No newline at end of file
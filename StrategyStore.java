@@ -0,0 +1,139 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Saved strategies by name, one compact StrategyJson object per line of an append-only file.
+// A save appends the bytes the writer produced, and a later line for the same name supersedes
+// earlier ones. Strategies are kept as those bytes and only decoded when opened. At launch the
+// file is rewritten without superseded lines once they outnumber the live ones.
+public class StrategyStore {
+    private static final int MIN_COMPACT_LINES = 64;
+    
+    private static StrategyStore instance;
+    
+    private final Path file;
+    private final Map<String, byte[]> strategies = new LinkedHashMap<>();
+    private final StrategyJson json = new StrategyJson();
+    // False after an interrupted write, so the next save starts a new line
+    private boolean lineEnded = true;
+    // Why some saved strategies could not be loaded, or null
+    private String loadError;
+    // Why the last save could not be written, or null once one succeeds; saves are still kept
+    // for the session
+    private String writeError;
+    
+    public static synchronized StrategyStore getInstance() {
+        if (instance == null) {
+            Path dir = new File(System.getProperty("user.home"), ".aitrader").toPath();
+            instance = new StrategyStore(dir.resolve("strategies.jsonl"));
+        }
+        return instance;
+    }
+    
+    public StrategyStore(Path file) {
+        this.file = file;
+        load();
+    }
+    
+    private void load() {
+        try {
+            if (!Files.exists(file)) {
+                return;
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            lineEnded = bytes.length == 0 || bytes[bytes.length - 1] == '\n';
+            int lines = 0;
+            int skipped = 0;
+            int start = 0;
+            while (start < bytes.length) {
+                int end = start;
+                while (end < bytes.length && bytes[end] != '\n') {
+                    end++;
+                }
+                if (end > start) {
+                    lines++;
+                    try {
+                        StrategyData data = StrategyJson.read(bytes, start, end - start);
+                        strategies.remove(data.getName());
+                        strategies.put(data.getName(), Arrays.copyOfRange(bytes, start, end));
+                    } catch (IllegalArgumentException e) {
+                        // Truncated tail from an interrupted write, or a line damaged outside the app
+                        skipped++;
+                    }
+                }
+                start = end + 1;
+            }
+            if (skipped > 0) {
+                loadError = String.format("%d line%s of %s could not be read and %s skipped", skipped,
+                    skipped == 1 ? "" : "s", file, skipped == 1 ? "was" : "were");
+            }
+            if (lines >= MIN_COMPACT_LINES && lines > 2 * strategies.size()) {
+                compact();
+            }
+        } catch (IOException e) {
+            loadError = "Could not read " + file + ": " + e.getMessage();
+        }
+    }
+    
+    // The failed save if the last one failed, else why strategies are missing, else null
+    public synchronized String getLastError() {
+        return writeError != null ? writeError : loadError;
+    }
+    
+    // Names in the order they were last saved, oldest first
+    public synchronized String[] getNames() {
+        return strategies.keySet().toArray(new String[0]);
+    }
+    
+    // A fresh copy of the saved strategy, or null if none has the name
+    public synchronized StrategyData get(String name) {
+        byte[] bytes = strategies.get(name);
+        return bytes == null ? null : StrategyJson.read(bytes, 0, bytes.length);
+    }
+    
+    // Saves under the strategy's name, replacing any earlier save; false if it could not be written
+    public synchronized boolean save(StrategyData data) {
+        json.write(data, false);
+        byte[] bytes = Arrays.copyOf(json.getBuffer(), json.length());
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (!lineEnded) {
+                    out.write('\n');
+                    lineEnded = true;
+                }
+                json.writeTo(out);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            // Part of the line may have been written; the next save must not be appended to it
+            lineEnded = false;
+            writeError = "Could not write " + file + ": " + e.getMessage();
+            return false;
+        }
+        writeError = null;
+        strategies.remove(data.getName());
+        strategies.put(data.getName(), bytes);
+        return true;
+    }
+    
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (byte[] bytes : strategies.values()) {
+                out.write(bytes);
+                out.write('\n');
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        lineEnded = true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+// One technical indicator over one symbol and timeframe, updated in constant time per bar.
+// Incoming bars are rolled up into timeframe buckets by time; when a bar opens a new bucket the
+// previous bucket's close is fed to the indicator, so the value moves once per completed
+// timeframe bar and keeps the value before it for crossing checks.
+public class StreamingIndicator {
+    public static final byte SMA = 0;
+    public static final byte EMA = 1;
+    public static final byte RSI = 2;
+    
+    private static final String[] NAMES = {"SMA", "EMA", "RSI"};
+    private static final long[] TIMEFRAME_UNITS = {86_400_000, 3_600_000, 60_000, 1000};
+    private static final String[] TIMEFRAME_SUFFIXES = {"d", "h", "m", "s"};
+    
+    private final int symbolId;
+    private final byte kind;
+    private final int period;
+    private final long timeframeMillis;
+    private long bucket = Long.MIN_VALUE;
+    private double bucketClose;
+    private long samples;
+    private double value = Double.NaN;
+    private double previousValue = Double.NaN;
+    // Last period closes for SMA, and for seeding EMA
+    private final double[] window;
+    private int windowPosition;
+    private double windowSum;
+    // Wilder-smoothed gains and losses for RSI
+    private double lastClose;
+    private double averageGain;
+    private double averageLoss;
+    
+    public StreamingIndicator(int symbolId, byte kind, int period, long timeframeMillis) {
+        if (kind < SMA || kind > RSI) {
+            throw new IllegalArgumentException("Unknown indicator: " + kind);
+        }
+        if (period < 1) {
+            throw new IllegalArgumentException("Indicator period must be at least 1: " + period);
+        }
+        if (timeframeMillis <= 0) {
+            throw new IllegalArgumentException("Timeframe must be positive: " + timeframeMillis);
+        }
+        this.symbolId = symbolId;
+        this.kind = kind;
+        this.period = period;
+        this.timeframeMillis = timeframeMillis;
+        this.window = new double[kind == RSI ? 0 : period];
+    }
+    
+    public static String getName(byte kind) {
+        return NAMES[kind];
+    }
+    
+    // Largest whole unit, e.g. 900000 -> "15m"
+    public static String formatTimeframe(long millis) {
+        for (int i = 0; i < TIMEFRAME_UNITS.length; i++) {
+            if (millis % TIMEFRAME_UNITS[i] == 0) {
+                return millis / TIMEFRAME_UNITS[i] + TIMEFRAME_SUFFIXES[i];
+            }
+        }
+        return millis + "ms";
+    }
+    
+    public boolean matches(byte kind, int period, long timeframeMillis) {
+        return this.kind == kind && this.period == period && this.timeframeMillis == timeframeMillis;
+    }
+    
+    public int getSymbolId() { return symbolId; }
+    public byte getKind() { return kind; }
+    public int getPeriod() { return period; }
+    public long getTimeframeMillis() { return timeframeMillis; }
+    
+    // NaN until warmed up
+    public double getValue() { return value; }
+    
+    // The value before the latest update; NaN until two values exist
+    public double getPreviousValue() { return previousValue; }
+    
+    public boolean isReady() {
+        return !Double.isNaN(value);
+    }
+    
+    // Completed timeframe bars needed before the first value
+    public int getWarmupBars() {
+        return kind == RSI ? period + 1 : period;
+    }
+    
+    public long getCompletedBars() {
+        return samples;
+    }
+    
+    // E.g. "RSI(14) 15m"
+    public String describe() {
+        return NAMES[kind] + "(" + period + ") " + formatTimeframe(timeframeMillis);
+    }
+    
+    // Forgets every value and bar, as if newly created, so one instance can be replayed over
+    // many series without allocating
+    public void reset() {
+        bucket = Long.MIN_VALUE;
+        samples = 0;
+        value = Double.NaN;
+        previousValue = Double.NaN;
+        Arrays.fill(window, 0);
+        windowPosition = 0;
+        windowSum = 0;
+        averageGain = 0;
+        averageLoss = 0;
+    }
+    
+    // Folds one bar into the current bucket; returns true when it completed a bucket and the
+    // indicator has a new value. Bars from earlier buckets are ignored.
+    public boolean onBar(long time, double close) {
+        long barBucket = Math.floorDiv(time, timeframeMillis);
+        if (bucket == Long.MIN_VALUE || barBucket == bucket) {
+            bucket = barBucket;
+            bucketClose = close;
+            return false;
+        }
+        if (barBucket < bucket) {
+            return false;
+        }
+        double completed = bucketClose;
+        bucket = barBucket;
+        bucketClose = close;
+        return update(completed);
+    }
+    
+    // Feeds one completed timeframe close; returns true if a value is available
+    public boolean update(double close) {
+        samples++;
+        double next;
+        if (kind == RSI) {
+            next = updateRsi(close);
+        } else {
+            double evicted = window[windowPosition];
+            window[windowPosition] = close;
+            windowSum += close - evicted;
+            if (++windowPosition == period) {
+                windowPosition = 0;
+                // Re-sum once per window so rounding error in the running sum cannot build up
+                windowSum = 0;
+                for (double windowClose : window) {
+                    windowSum += windowClose;
+                }
+            }
+            if (samples < period) {
+                next = Double.NaN;
+            } else if (kind == SMA || samples == period) {
+                // EMA is seeded with the SMA of its first period closes
+                next = windowSum / period;
+            } else {
+                next = value + 2.0 / (period + 1) * (close - value);
+            }
+        }
+        previousValue = value;
+        value = next;
+        return !Double.isNaN(next);
+    }
+    
+    private double updateRsi(double close) {
+        if (samples == 1) {
+            lastClose = close;
+            return Double.NaN;
+        }
+        double change = close - lastClose;
+        lastClose = close;
+        double gain = Math.max(change, 0);
+        double loss = Math.max(-change, 0);
+        if (samples <= period + 1) {
+            // Simple average of the first period changes
+            averageGain += gain / period;
+            averageLoss += loss / period;
+            if (samples < period + 1) {
+                return Double.NaN;
+            }
+        } else {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+        if (averageLoss == 0) {
+            return averageGain == 0 ? 50 : 100;
+        }
+        return 100 - 100 / (1 + averageGain / averageLoss);
+    }
+}
\ No newline at end of file
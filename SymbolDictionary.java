@@ -0,0 +1,115 @@
+import java.util.Arrays;
+
+// Global mapping of ticker symbols to dense int IDs (0, 1, 2, ...). Symbols are interned once
+// where they enter the application (user input, imports, subscriptions) and engine structures
+// key on the int, so hot paths compare and hash ints instead of Strings. IDs are never
+// removed or reused. Lookups are lock-free; only interning a new symbol takes the lock.
+public class SymbolDictionary {
+    public static final int NONE = -1;
+    
+    private static final SymbolDictionary instance = new SymbolDictionary();
+    
+    // Open-addressing table of id + 1 (0 is empty), probed linearly from the symbol's hash.
+    // Growth replaces the arrays instead of resizing in place, and a lock-free miss is
+    // re-checked under the lock, so racing readers never return a wrong ID.
+    private volatile int[] table = new int[64];
+    private volatile String[] symbols = new String[32];
+    private int size;
+    
+    public static SymbolDictionary getInstance() {
+        return instance;
+    }
+    
+    // ID for the symbol, assigning the next one if it is new
+    public int idOf(String symbol) {
+        int id = find(symbol);
+        return id != NONE ? id : intern(symbol);
+    }
+    
+    // ID for the symbol, or NONE if it has never been interned
+    public int find(String symbol) {
+        int[] slots = table;
+        String[] names = symbols;
+        int mask = slots.length - 1;
+        for (int i = mix(symbol.hashCode()) & mask; ; i = (i + 1) & mask) {
+            int entry = slots[i];
+            if (entry == 0) {
+                break;
+            }
+            String name = entry <= names.length ? names[entry - 1] : null;
+            if (symbol.equals(name)) {
+                return entry - 1;
+            }
+        }
+        // A symbol interned concurrently may not be visible yet; confirm under the lock
+        synchronized (this) {
+            return probe(table, symbols, symbol);
+        }
+    }
+    
+    public String symbolOf(int id) {
+        String[] names = symbols;
+        if (id < 0 || id >= names.length || names[id] == null) {
+            throw new IllegalArgumentException("Unknown symbol id: " + id);
+        }
+        return names[id];
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    private synchronized int intern(String symbol) {
+        int existing = probe(table, symbols, symbol);
+        if (existing != NONE) {
+            return existing;
+        }
+        int id = size;
+        String[] names = symbols;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = symbol;
+        symbols = names;
+        
+        int[] slots = table;
+        if ((id + 1) * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int other = 0; other < id; other++) {
+                insert(slots, names[other], other);
+            }
+            insert(slots, symbol, id);
+            table = slots;
+        } else {
+            insert(slots, symbol, id);
+            table = slots; // Republish so the new slot is visible to lock-free readers
+        }
+        size = id + 1;
+        return id;
+    }
+    
+    private static int probe(int[] slots, String[] names, String symbol) {
+        int mask = slots.length - 1;
+        for (int i = mix(symbol.hashCode()) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (symbol.equals(names[slots[i] - 1])) {
+                return slots[i] - 1;
+            }
+        }
+        return NONE;
+    }
+    
+    private static void insert(int[] slots, String symbol, int id) {
+        int mask = slots.length - 1;
+        int i = mix(symbol.hashCode()) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = id + 1;
+    }
+    
+    // Spreads String hashes, whose low bits are weak for short uppercase tickers
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,533 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Compressed columnar archive for tick and bar histories. Rows are a timestamp plus a fixed
+// number of double columns (5 for OHLCV bars, 2 for price/size ticks), cut into blocks of
+// BLOCK_ROWS. Each block is an independent bit stream: timestamps as Gorilla-style
+// delta-of-delta codes, then each column XOR-encoded against its previous value. Regular bar
+// intervals cost one bit per timestamp and repeated or nearby prices a few bits per value.
+//
+// A directory at the end of the file holds each block's time range and per-column min/max, so
+// range queries select blocks from the directory alone. Only the selected blocks are decoded,
+// in parallel, straight into the output's primitive arrays. Files are memory-mapped on open.
+public class TimeSeriesArchive {
+    public static final int BAR_COLUMNS = 5;
+    public static final int BLOCK_ROWS = 4096;
+    
+    private static final int MAGIC = 0x41495453; // "AITS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    // Several blocks share a mapping, up to this size
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    
+    private final Path file;
+    private final int columnCount;
+    private final long rowCount;
+    private final int blockCount;
+    // Block directory
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final int[] blockRows;
+    private final long[] blockFirstRow;
+    private final long[] blockMinTimes;
+    private final long[] blockMaxTimes;
+    // [block * columnCount + column]
+    private final double[] blockMins;
+    private final double[] blockMaxes;
+    private final MappedByteBuffer[] segments;
+    private final int[] blockSegments;
+    private final long[] segmentStarts;
+    
+    private TimeSeriesArchive(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (size < HEADER_SIZE || channel.read(header, 0) != HEADER_SIZE
+                    || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(file.getFileName() + " is not a time-series archive");
+            }
+            columnCount = header.getInt(8);
+            blockCount = header.getInt(12);
+            rowCount = header.getLong(16);
+            long directoryOffset = header.getLong(24);
+            
+            int entrySize = directoryEntrySize(columnCount);
+            if (directoryOffset + (long) blockCount * entrySize > size) {
+                throw new IOException(file.getFileName() + " is truncated");
+            }
+            ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, (long) blockCount * entrySize);
+            blockOffsets = new long[blockCount];
+            blockLengths = new int[blockCount];
+            blockRows = new int[blockCount];
+            blockFirstRow = new long[blockCount];
+            blockMinTimes = new long[blockCount];
+            blockMaxTimes = new long[blockCount];
+            blockMins = new double[blockCount * columnCount];
+            blockMaxes = new double[blockCount * columnCount];
+            long row = 0;
+            for (int b = 0; b < blockCount; b++) {
+                blockOffsets[b] = directory.getLong();
+                blockLengths[b] = directory.getInt();
+                blockRows[b] = directory.getInt();
+                blockMinTimes[b] = directory.getLong();
+                blockMaxTimes[b] = directory.getLong();
+                for (int c = 0; c < columnCount; c++) {
+                    blockMins[b * columnCount + c] = directory.getDouble();
+                    blockMaxes[b * columnCount + c] = directory.getDouble();
+                }
+                blockFirstRow[b] = row;
+                row += blockRows[b];
+            }
+            
+            // Group consecutive blocks into mappings that stay under the mapping size limit
+            blockSegments = new int[blockCount];
+            long[] starts = new long[blockCount + 1];
+            long[] ends = new long[blockCount + 1];
+            int segmentCount = 0;
+            for (int b = 0; b < blockCount; b++) {
+                long end = blockOffsets[b] + blockLengths[b];
+                if (segmentCount == 0 || end - starts[segmentCount - 1] > MAX_SEGMENT_BYTES) {
+                    starts[segmentCount] = blockOffsets[b];
+                    segmentCount++;
+                }
+                ends[segmentCount - 1] = end;
+                blockSegments[b] = segmentCount - 1;
+            }
+            segments = new MappedByteBuffer[segmentCount];
+            segmentStarts = Arrays.copyOf(starts, segmentCount);
+            for (int s = 0; s < segmentCount; s++) {
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, starts[s], ends[s] - starts[s]);
+            }
+        }
+    }
+    
+    public static TimeSeriesArchive open(Path file) throws IOException {
+        return new TimeSeriesArchive(file);
+    }
+    
+    // Whether the file starts with the archive header, to tell archives from other imports
+    public static boolean isArchive(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            return channel.read(header, 0) == 8 && header.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    public static void writeBars(Path file, BarSeries bars) throws IOException {
+        int n = bars.size();
+        long[] times = new long[n];
+        double[][] columns = new double[BAR_COLUMNS][n];
+        for (int i = 0; i < n; i++) {
+            times[i] = bars.getTime(i);
+            columns[0][i] = bars.getOpen(i);
+            columns[1][i] = bars.getHigh(i);
+            columns[2][i] = bars.getLow(i);
+            columns[3][i] = bars.getClose(i);
+            columns[4][i] = bars.getVolume(i);
+        }
+        write(file, times, columns, n);
+    }
+    
+    // Writes rows in ascending time order. Blocks are encoded in parallel and the file is
+    // written to a temporary sibling first, so readers never see a partial archive.
+    public static void write(Path file, long[] times, double[][] columns, int size) throws IOException {
+        for (int i = 1; i < size; i++) {
+            if (times[i] < times[i - 1]) {
+                throw new IllegalArgumentException("Archive rows must be in time order");
+            }
+        }
+        int columnCount = columns.length;
+        int blockCount = (size + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        ByteBuffer[] blocks = new ByteBuffer[blockCount];
+        IntStream.range(0, blockCount).parallel().forEach(b -> {
+            int from = b * BLOCK_ROWS;
+            blocks[b] = encodeBlock(times, columns, from, Math.min(size, from + BLOCK_ROWS));
+        });
+        
+        ByteBuffer directory = ByteBuffer.allocate(blockCount * directoryEntrySize(columnCount));
+        long offset = HEADER_SIZE;
+        for (int b = 0; b < blockCount; b++) {
+            int from = b * BLOCK_ROWS;
+            int to = Math.min(size, from + BLOCK_ROWS);
+            directory.putLong(offset);
+            directory.putInt(blocks[b].remaining());
+            directory.putInt(to - from);
+            directory.putLong(times[from]);
+            directory.putLong(times[to - 1]);
+            for (double[] column : columns) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    min = Math.min(min, column[i]);
+                    max = Math.max(max, column[i]);
+                }
+                directory.putDouble(min);
+                directory.putDouble(max);
+            }
+            offset += blocks[b].remaining();
+        }
+        directory.flip();
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(columnCount).putInt(blockCount)
+            .putLong(size).putLong(offset).flip();
+        
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            for (ByteBuffer block : blocks) {
+                writeFully(channel, block);
+            }
+            writeFully(channel, directory);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public long size() {
+        return rowCount;
+    }
+    
+    public int getColumnCount() {
+        return columnCount;
+    }
+    
+    public int getBlockCount() {
+        return blockCount;
+    }
+    
+    public long getFirstTime() {
+        return blockCount == 0 ? 0 : blockMinTimes[0];
+    }
+    
+    public long getLastTime() {
+        return blockCount == 0 ? 0 : blockMaxTimes[blockCount - 1];
+    }
+    
+    // Compressed bytes per row, for comparison with the 8 * (columns + 1) of raw storage
+    public double getBytesPerRow() {
+        long bytes = 0;
+        for (int length : blockLengths) {
+            bytes += length;
+        }
+        return rowCount == 0 ? 0 : (double) bytes / rowCount;
+    }
+    
+    public BarSeries readBars() {
+        return readBars(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+    
+    // Bars with from <= time <= to, decoding only the blocks whose time range overlaps
+    public BarSeries readBars(long from, long to) {
+        if (columnCount != BAR_COLUMNS) {
+            throw new IllegalStateException("Archive has " + columnCount + " columns, not OHLCV bars");
+        }
+        Columns rows = read(from, to);
+        return new BarSeries(rows.times, rows.columns[0], rows.columns[1], rows.columns[2],
+            rows.columns[3], rows.columns[4], rows.size);
+    }
+    
+    // Rows with from <= time <= to as a timestamp column plus the value columns
+    public Columns read(long from, long to) {
+        int first = firstBlockEndingAtOrAfter(from);
+        int last = first;
+        while (last < blockCount && blockMinTimes[last] <= to) {
+            last++;
+        }
+        if (first >= last) {
+            return new Columns(new long[0], new double[columnCount][0], 0);
+        }
+        
+        long rows = blockFirstRow[last - 1] + blockRows[last - 1] - blockFirstRow[first];
+        if (rows > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Range holds too many rows for one read: " + rows);
+        }
+        long[] times = new long[(int) rows];
+        double[][] columns = new double[columnCount][(int) rows];
+        int firstBlock = first;
+        IntStream.range(first, last).parallel().forEach(b ->
+            decodeBlock(b, times, columns, (int) (blockFirstRow[b] - blockFirstRow[firstBlock])));
+        
+        // Only the edge blocks can hold rows outside the range
+        int start = 0;
+        while (start < rows && times[start] < from) {
+            start++;
+        }
+        int end = (int) rows;
+        while (end > start && times[end - 1] > to) {
+            end--;
+        }
+        if (start == 0 && end == rows) {
+            return new Columns(times, columns, end);
+        }
+        double[][] trimmed = new double[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            trimmed[c] = Arrays.copyOfRange(columns[c], start, end);
+        }
+        return new Columns(Arrays.copyOfRange(times, start, end), trimmed, end - start);
+    }
+    
+    // Minimum and maximum of a column over a time range. Blocks that lie wholly inside the range
+    // are answered from the directory; at most the two edge blocks are decoded.
+    public double[] getColumnRange(int column, long from, long to) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int b = firstBlockEndingAtOrAfter(from); b < blockCount && blockMinTimes[b] <= to; b++) {
+            int key = b * columnCount + column;
+            if (blockMins[key] >= min && blockMaxes[key] <= max) {
+                continue; // Cannot change the result
+            }
+            if (blockMinTimes[b] >= from && blockMaxTimes[b] <= to) {
+                min = Math.min(min, blockMins[key]);
+                max = Math.max(max, blockMaxes[key]);
+            } else {
+                long[] times = new long[blockRows[b]];
+                double[][] columns = new double[columnCount][blockRows[b]];
+                decodeBlock(b, times, columns, 0);
+                for (int i = 0; i < times.length; i++) {
+                    if (times[i] >= from && times[i] <= to) {
+                        min = Math.min(min, columns[column][i]);
+                        max = Math.max(max, columns[column][i]);
+                    }
+                }
+            }
+        }
+        return new double[] {min, max};
+    }
+    
+    // Block ranges are ascending, so the first candidate is found by binary search
+    private int firstBlockEndingAtOrAfter(long time) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockMaxTimes[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private void decodeBlock(int block, long[] times, double[][] columns, int offset) {
+        ByteBuffer data = segments[blockSegments[block]].duplicate();
+        int position = (int) (blockOffsets[block] - segmentStarts[blockSegments[block]]);
+        data.position(position).limit(position + blockLengths[block]);
+        BitReader in = new BitReader(data.slice().order(ByteOrder.BIG_ENDIAN));
+        int rows = blockRows[block];
+        
+        long time = in.read(64);
+        long delta = 0;
+        times[offset] = time;
+        for (int i = 1; i < rows; i++) {
+            delta += readDeltaOfDelta(in);
+            time += delta;
+            times[offset + i] = time;
+        }
+        for (double[] column : columns) {
+            long bits = in.read(64);
+            column[offset] = Double.longBitsToDouble(bits);
+            int leading = 0;
+            int meaningful = 0;
+            for (int i = 1; i < rows; i++) {
+                if (in.read(1) != 0) {
+                    if (in.read(1) != 0) {
+                        leading = (int) in.read(5);
+                        meaningful = (int) in.read(6) + 1;
+                    }
+                    bits ^= in.read(meaningful) << (64 - leading - meaningful);
+                }
+                column[offset + i] = Double.longBitsToDouble(bits);
+            }
+        }
+    }
+    
+    private static ByteBuffer encodeBlock(long[] times, double[][] columns, int from, int to) {
+        BitWriter out = new BitWriter((to - from) * (columns.length + 1) * 16);
+        out.write(times[from], 64);
+        long previousDelta = 0;
+        for (int i = from + 1; i < to; i++) {
+            long delta = times[i] - times[i - 1];
+            writeDeltaOfDelta(out, delta - previousDelta);
+            previousDelta = delta;
+        }
+        for (double[] column : columns) {
+            long previous = Double.doubleToRawLongBits(column[from]);
+            out.write(previous, 64);
+            int leading = Integer.MAX_VALUE;
+            int trailing = 0;
+            for (int i = from + 1; i < to; i++) {
+                long bits = Double.doubleToRawLongBits(column[i]);
+                long xor = bits ^ previous;
+                previous = bits;
+                if (xor == 0) {
+                    out.write(0, 1);
+                    continue;
+                }
+                int newLeading = Math.min(31, Long.numberOfLeadingZeros(xor));
+                int newTrailing = Long.numberOfTrailingZeros(xor);
+                if (leading != Integer.MAX_VALUE && newLeading >= leading && newTrailing >= trailing) {
+                    // Fits in the previous value's window: no need to resend its shape
+                    out.write(0b10, 2);
+                    out.write(xor >>> trailing, 64 - leading - trailing);
+                } else {
+                    leading = newLeading;
+                    trailing = newTrailing;
+                    int meaningful = 64 - leading - trailing;
+                    out.write(0b11, 2);
+                    out.write(leading, 5);
+                    out.write(meaningful - 1, 6);
+                    out.write(xor >>> trailing, meaningful);
+                }
+            }
+        }
+        return out.toBuffer();
+    }
+    
+    // Zigzag-coded delta-of-delta with a unary width prefix: 0 | 10+7 | 110+9 | 1110+12 | 1111+64
+    private static void writeDeltaOfDelta(BitWriter out, long deltaOfDelta) {
+        long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+        if (zigzag == 0) {
+            out.write(0, 1);
+        } else if (zigzag < 1L << 7) {
+            out.write(0b10, 2);
+            out.write(zigzag, 7);
+        } else if (zigzag < 1L << 9) {
+            out.write(0b110, 3);
+            out.write(zigzag, 9);
+        } else if (zigzag < 1L << 12) {
+            out.write(0b1110, 4);
+            out.write(zigzag, 12);
+        } else {
+            out.write(0b1111, 4);
+            out.write(zigzag, 64);
+        }
+    }
+    
+    private static long readDeltaOfDelta(BitReader in) {
+        int ones = 0;
+        while (ones < 4 && in.read(1) != 0) {
+            ones++;
+        }
+        long zigzag;
+        switch (ones) {
+            case 0: return 0;
+            case 1: zigzag = in.read(7); break;
+            case 2: zigzag = in.read(9); break;
+            case 3: zigzag = in.read(12); break;
+            default: zigzag = in.read(64); break;
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+    
+    private static int directoryEntrySize(int columnCount) {
+        return 32 + columnCount * 16;
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    // Decoded rows: times[i] with columns[c][i] for i < size
+    public static class Columns {
+        public final long[] times;
+        public final double[][] columns;
+        public final int size;
+        
+        Columns(long[] times, double[][] columns, int size) {
+            this.times = times;
+            this.columns = columns;
+            this.size = size;
+        }
+    }
+    
+    // Packs bits most-significant first into 64-bit words
+    private static class BitWriter {
+        private long[] words;
+        private long bitCount;
+        
+        BitWriter(int expectedBits) {
+            words = new long[Math.max(1, expectedBits / 64 + 1)];
+        }
+        
+        void write(long value, int bits) {
+            if (bits == 0) {
+                return;
+            }
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            int index = (int) (bitCount >>> 6);
+            int free = 64 - (int) (bitCount & 63);
+            if (index + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2 + 2);
+            }
+            if (bits <= free) {
+                words[index] |= value << (free - bits);
+            } else {
+                words[index] |= value >>> (bits - free);
+                words[index + 1] |= value << (64 - (bits - free));
+            }
+            bitCount += bits;
+        }
+        
+        // Whole words, so the reader can always fetch 64 bits at a word index
+        ByteBuffer toBuffer() {
+            int wordCount = (int) ((bitCount + 63) >>> 6);
+            ByteBuffer buffer = ByteBuffer.allocate(wordCount * 8);
+            for (int i = 0; i < wordCount; i++) {
+                buffer.putLong(words[i]);
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+    
+    private static class BitReader {
+        private final ByteBuffer buffer;
+        private final int wordCount;
+        private long bitPosition;
+        
+        BitReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.wordCount = buffer.limit() / 8;
+        }
+        
+        long read(int bits) {
+            if (bits == 0) {
+                return 0;
+            }
+            int index = (int) (bitPosition >>> 6);
+            int offset = (int) (bitPosition & 63);
+            bitPosition += bits;
+            long value = (buffer.getLong(index * 8) << offset) >>> (64 - bits);
+            int spill = offset + bits - 64;
+            if (spill > 0 && index + 1 < wordCount) {
+                value |= buffer.getLong((index + 1) * 8) >>> (64 - spill);
+            }
+            return value;
+        }
+    }
+}
\ No newline at end of file
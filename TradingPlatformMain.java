@@ -16,6 +16,9 @@ public class TradingPlatformMain extends JFrame {
         themeManager = new ThemeManager();
         authManager = new AuthManager();
         
+        // Map stored forecast fits up front so the first forecast can warm start
+        FittedModelStore.getInstance();
+        
         initializeFrame();
         createHeader();
         createContent();
@@ -202,6 +205,38 @@ public class TradingPlatformMain extends JFrame {
         contentPanel.repaint();
     }
     
+    private void showChartsPage() {
+        contentPanel.removeAll();
+        ChartsPage chartsPage = new ChartsPage(this, themeManager, authManager);
+        contentPanel.add(chartsPage, BorderLayout.CENTER);
+        contentPanel.revalidate();
+        contentPanel.repaint();
+    }
+    
+    private void showAlertsPage() {
+        contentPanel.removeAll();
+        AlertsPage alertsPage = new AlertsPage(this, themeManager, authManager);
+        contentPanel.add(alertsPage, BorderLayout.CENTER);
+        contentPanel.revalidate();
+        contentPanel.repaint();
+    }
+    
+    private void showPortfoliosPage() {
+        contentPanel.removeAll();
+        PortfoliosPage portfoliosPage = new PortfoliosPage(this, themeManager, authManager);
+        contentPanel.add(portfoliosPage, BorderLayout.CENTER);
+        contentPanel.revalidate();
+        contentPanel.repaint();
+    }
+    
+    private void showIndicatorsPage() {
+        contentPanel.removeAll();
+        IndicatorsPage indicatorsPage = new IndicatorsPage(this, themeManager, authManager);
+        contentPanel.add(indicatorsPage, BorderLayout.CENTER);
+        contentPanel.revalidate();
+        contentPanel.repaint();
+    }
+    
     private void showPlaceholderPage(String pageName) {
         contentPanel.removeAll();
         
@@ -269,38 +304,6 @@ public class TradingPlatformMain extends JFrame {
         panel.setMaximumSize(new Dimension(800, 400));
         
         switch (pageName) {
-            case "Portfolios":
-                panel.add(createSampleCard("💼 Growth Portfolio", "Tech-focused high-growth stocks"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("🛡️ Conservative Portfolio", "Dividend-paying stable stocks"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("⚖️ Balanced Portfolio", "Mix of growth and value stocks"));
-                break;
-                
-            case "Indicators":
-                panel.add(createSampleCard("📊 RSI", "Relative Strength Index - Momentum oscillator"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("📈 MACD", "Moving Average Convergence Divergence"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("📉 Bollinger Bands", "Volatility and trend indicator"));
-                break;
-                
-            case "Charts":
-                panel.add(createSampleCard("📊 Candlestick Charts", "OHLC price visualization"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("📈 Line Charts", "Simple price trend visualization"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("📉 Volume Charts", "Trading volume analysis"));
-                break;
-                
-            case "Alerts":
-                panel.add(createSampleCard("🔔 Price Alerts", "Get notified when price hits target"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("📧 Email Notifications", "Receive alerts via email"));
-                panel.add(Box.createVerticalStrut(10));
-                panel.add(createSampleCard("📱 Mobile Push", "Real-time mobile notifications"));
-                break;
-                
             default:
                 panel.add(createSampleCard("🚀 Coming Soon", "This feature is under development"));
         }
@@ -456,6 +459,14 @@ public class TradingPlatformMain extends JFrame {
             showStrategiesPage();
         } else if (page.equals("Forecasts")) {
             showForecastsPage();
+        } else if (page.equals("Charts")) {
+            showChartsPage();
+        } else if (page.equals("Alerts")) {
+            showAlertsPage();
+        } else if (page.equals("Portfolios")) {
+            showPortfoliosPage();
+        } else if (page.equals("Indicators")) {
+            showIndicatorsPage();
         } else {
             showPlaceholderPage(page);
         }
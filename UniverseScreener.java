@@ -0,0 +1,519 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Screens a universe of symbols on indicator conditions such as "RSI(14) < 30 AND PRICE >
+// SMA(200)". Daily closes are kept per symbol in a fixed lookback ring, and the screen's
+// operand values and pass flags are columns indexed by symbol. A full screen replays each
+// symbol's closes through the screen's indicators in parallel; every worker thread reuses its
+// own set of StreamingIndicators, reset between symbols, so a scan allocates nothing per
+// symbol. A live bar re-evaluates only its own symbol: it moves today's close (or opens a new
+// day) and replays that one ring.
+//
+// A full screen fills new columns without holding the lock, so live bars keep flowing while it
+// runs; symbols that took a bar meanwhile are evaluated again before the columns are swapped in.
+// Matches are ranked by how far beyond its threshold each symbol is on the screen's first
+// condition, sorted when first read after a change, and handed out as immutable Results.
+public class UniverseScreener implements MarketEventHandler {
+    private static final long DAY_MILLIS = 86_400_000;
+    
+    private final String[] symbols;
+    private final IntIntMap indexes = new IntIntMap();
+    private final int lookback;
+    
+    // Close rings per symbol, oldest at heads[i]; guarded by this
+    private final double[][] closes;
+    private final int[] heads;
+    private final int[] counts;
+    private final long[] lastDays;
+    // Bar count when each symbol last changed, to find those that moved during a full screen
+    private final long[] changedAt;
+    private long barCount;
+    
+    // The current screen's columns; guarded by this, swapped whole by setScreen
+    private Columns columns;
+    private volatile long version;
+    private volatile double scanMillis;
+    private long incrementalUpdates;
+    private long incrementalNanos;
+    // One full screen at a time
+    private final Object scanLock = new Object();
+    private final ThreadLocal<Workspace> workspaces = new ThreadLocal<>();
+    
+    // Loads lookback daily closes per symbol from the sample history, in parallel; the latest
+    // counts as yesterday's close, so today's live bars open a new day
+    public UniverseScreener(String[] symbols, int lookback) {
+        if (lookback < 2) {
+            throw new IllegalArgumentException("Lookback must be at least 2 days: " + lookback);
+        }
+        this.symbols = symbols.clone();
+        this.lookback = lookback;
+        int n = symbols.length;
+        closes = new double[n][];
+        heads = new int[n];
+        counts = new int[n];
+        lastDays = new long[n];
+        changedAt = new long[n];
+        SymbolDictionary dictionary = SymbolDictionary.getInstance();
+        for (int i = 0; i < n; i++) {
+            int symbolId = dictionary.idOf(symbols[i]);
+            if (indexes.containsKey(symbolId)) {
+                throw new IllegalArgumentException("Duplicate symbol: " + symbols[i]);
+            }
+            indexes.put(symbolId, i);
+        }
+        long yesterday = Math.floorDiv(System.currentTimeMillis(), DAY_MILLIS) - 1;
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double[] history = SampleMarketData.dailyCloses(this.symbols[i], lookback);
+            closes[i] = Arrays.copyOf(history, lookback);
+            counts[i] = history.length;
+            heads[i] = 0;
+            lastDays[i] = yesterday;
+        });
+    }
+    
+    public int size() { return symbols.length; }
+    public int getLookback() { return lookback; }
+    public String getSymbol(int index) { return symbols[index]; }
+    
+    public synchronized Screen getScreen() { return columns == null ? null : columns.screen; }
+    public synchronized int getMatchCount() { return columns == null ? 0 : columns.matchCount; }
+    // Bumped by every change to the results; safe to poll from the EDT
+    public long getVersion() { return version; }
+    public double getScanMillis() { return scanMillis; }
+    public synchronized long getIncrementalUpdates() { return incrementalUpdates; }
+    
+    public synchronized double getAverageUpdateMicros() {
+        return incrementalUpdates == 0 ? 0 : incrementalNanos / 1e3 / incrementalUpdates;
+    }
+    
+    public synchronized double getLastClose(int index) {
+        return lastClose(index);
+    }
+    
+    private double lastClose(int index) {
+        return closes[index][(heads[index] + counts[index] - 1) % lookback];
+    }
+    
+    // Replaces the screen and evaluates it across the universe. The scan reads the rings outside
+    // the lock; any symbol that took a bar meanwhile is evaluated again under it before the swap.
+    public void setScreen(Screen screen) {
+        if (screen.maxPeriod > lookback) {
+            throw new IllegalArgumentException("Periods can be at most " + lookback + " days: " + screen);
+        }
+        synchronized (scanLock) {
+            long start = System.nanoTime();
+            long since;
+            synchronized (this) {
+                since = barCount;
+            }
+            Columns next = new Columns(screen, symbols.length);
+            IntStream.range(0, symbols.length).parallel().forEach(i -> next.passes[i] = evaluate(i, next, workspace(screen)));
+            synchronized (this) {
+                Workspace workspace = workspace(screen);
+                for (int i = 0; i < symbols.length; i++) {
+                    if (changedAt[i] > since) {
+                        next.passes[i] = evaluate(i, next, workspace);
+                    }
+                }
+                int count = 0;
+                for (boolean pass : next.passes) {
+                    if (pass) {
+                        count++;
+                    }
+                }
+                next.matchCount = count;
+                columns = next;
+                scanMillis = (System.nanoTime() - start) / 1e6;
+                version++;
+            }
+        }
+    }
+    
+    public void onBar(String symbol, long time, double close) {
+        onBar(SymbolDictionary.getInstance().idOf(symbol), time, close);
+    }
+    
+    // A bar on the symbol's current day moves that day's close, a later one opens the next day;
+    // the symbol alone is then re-evaluated. Symbols outside the universe are ignored.
+    public synchronized void onBar(int symbolId, long time, double close) {
+        int index = indexes.get(symbolId, -1);
+        if (index < 0 || !(close > 0)) {
+            return;
+        }
+        long start = System.nanoTime();
+        long day = Math.floorDiv(time, DAY_MILLIS);
+        if (day < lastDays[index]) {
+            return;
+        }
+        double[] ring = closes[index];
+        if (day == lastDays[index]) {
+            ring[(heads[index] + counts[index] - 1) % lookback] = close;
+        } else if (counts[index] < lookback) {
+            ring[counts[index]++] = close;
+        } else {
+            ring[heads[index]] = close;
+            heads[index] = (heads[index] + 1) % lookback;
+        }
+        lastDays[index] = day;
+        changedAt[index] = ++barCount;
+        if (columns != null) {
+            Columns current = columns;
+            boolean pass = evaluate(index, current, workspace(current.screen));
+            if (pass != current.passes[index]) {
+                current.matchCount += pass ? 1 : -1;
+                current.passes[index] = pass;
+            }
+            current.ranked = null;
+            version++;
+            incrementalUpdates++;
+            incrementalNanos += System.nanoTime() - start;
+        }
+    }
+    
+    @Override
+    public void onEvent(MarketEvent event, long sequence) {
+        if (event.isBar()) {
+            onBar(event.getSymbolId(), event.getTime(), event.getClose());
+        }
+    }
+    
+    // Universe indexes of the first limit matches, best first
+    public synchronized int[] getMatches(int limit) {
+        if (columns == null) {
+            return new int[0];
+        }
+        int[] ranked = columns.rank();
+        return Arrays.copyOf(ranked, Math.min(limit, ranked.length));
+    }
+    
+    // The first limit matches with their symbols, prices and operand values, copied under the
+    // lock so they stay consistent however the screen changes after; null if no screen is set
+    public synchronized Results getResults(int limit) {
+        if (columns == null) {
+            return null;
+        }
+        int[] ranked = columns.rank();
+        int rows = Math.min(limit, ranked.length);
+        String[] rowSymbols = new String[rows];
+        double[] lastCloses = new double[rows];
+        double[][] values = new double[columns.screen.operands.size()][rows];
+        for (int r = 0; r < rows; r++) {
+            int index = ranked[r];
+            rowSymbols[r] = symbols[index];
+            lastCloses[r] = lastClose(index);
+            for (int o = 0; o < values.length; o++) {
+                values[o][r] = columns.operandValues[o][index];
+            }
+        }
+        return new Results(columns.screen, version, columns.matchCount, symbols.length, rowSymbols, lastCloses, values,
+            scanMillis, incrementalUpdates, getAverageUpdateMicros());
+    }
+    
+    // Replays the symbol's ring through the worker's indicators and records the operand values
+    // in the columns; returns whether every condition holds. NaN (warming up) fails any comparison.
+    // Callers either hold the lock or are a full screen, which re-evaluates what changed under it.
+    private boolean evaluate(int index, Columns columns, Workspace workspace) {
+        StreamingIndicator[] indicators = workspace.indicators;
+        for (StreamingIndicator indicator : indicators) {
+            indicator.reset();
+        }
+        double[] ring = closes[index];
+        int head = heads[index];
+        int count = counts[index];
+        for (int k = 0; k < count; k++) {
+            double close = ring[(head + k) % lookback];
+            for (StreamingIndicator indicator : indicators) {
+                indicator.update(close);
+            }
+        }
+        double last = ring[(head + count - 1) % lookback];
+        Screen screen = columns.screen;
+        double[][] operandValues = columns.operandValues;
+        List<Operand> operands = screen.operands;
+        for (int o = 0; o < operands.size(); o++) {
+            Operand operand = operands.get(o);
+            double value;
+            if (operand.kind == Operand.PRICE) {
+                value = last;
+            } else if (operand.kind == Operand.CONSTANT) {
+                value = operand.constant;
+            } else {
+                value = indicators[operand.slot].getValue();
+            }
+            operandValues[o][index] = value;
+        }
+        columns.rankValues[index] = operandValues[screen.lefts[0]][index] / operandValues[screen.rights[0]][index];
+        for (int c = 0; c < screen.lefts.length; c++) {
+            double left = operandValues[screen.lefts[c]][index];
+            double right = operandValues[screen.rights[c]][index];
+            boolean holds;
+            switch (screen.comparisons[c]) {
+                case Screen.LESS: holds = left < right; break;
+                case Screen.LESS_OR_EQUAL: holds = left <= right; break;
+                case Screen.GREATER: holds = left > right; break;
+                default: holds = left >= right; break;
+            }
+            if (!holds) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // The calling thread's indicators for the screen, built on its first use
+    private Workspace workspace(Screen screen) {
+        Workspace workspace = workspaces.get();
+        if (workspace == null || workspace.screen != screen) {
+            workspace = new Workspace(screen);
+            workspaces.set(workspace);
+        }
+        return workspace;
+    }
+    
+    // One screen's operand values, pass flags and ranking, indexed by symbol
+    private static class Columns {
+        final Screen screen;
+        final double[][] operandValues;
+        final boolean[] passes;
+        final double[] rankValues;
+        int matchCount;
+        int[] ranked;
+        
+        Columns(Screen screen, int size) {
+            this.screen = screen;
+            operandValues = new double[screen.operands.size()][size];
+            passes = new boolean[size];
+            rankValues = new double[size];
+        }
+        
+        // Universe indexes of the matches, best first; sorted again only after a change
+        int[] rank() {
+            if (ranked == null) {
+                double sign = screen.rankAscending ? 1 : -1;
+                Integer[] order = new Integer[matchCount];
+                int n = 0;
+                for (int i = 0; i < passes.length; i++) {
+                    if (passes[i]) {
+                        order[n++] = i;
+                    }
+                }
+                Arrays.sort(order, (a, b) -> Double.compare(sign * rankValues[a], sign * rankValues[b]));
+                ranked = new int[n];
+                for (int k = 0; k < n; k++) {
+                    ranked[k] = order[k];
+                }
+            }
+            return ranked;
+        }
+    }
+    
+    // One version of the top matches, safe to read from any thread
+    public static final class Results {
+        private final Screen screen;
+        private final long version;
+        private final int matchCount;
+        private final int universeSize;
+        private final String[] symbols;
+        private final double[] lastCloses;
+        private final double[][] operandValues;
+        private final double scanMillis;
+        private final long incrementalUpdates;
+        private final double averageUpdateMicros;
+        
+        private Results(Screen screen, long version, int matchCount, int universeSize, String[] symbols, double[] lastCloses,
+                double[][] operandValues, double scanMillis, long incrementalUpdates, double averageUpdateMicros) {
+            this.screen = screen;
+            this.version = version;
+            this.matchCount = matchCount;
+            this.universeSize = universeSize;
+            this.symbols = symbols;
+            this.lastCloses = lastCloses;
+            this.operandValues = operandValues;
+            this.scanMillis = scanMillis;
+            this.incrementalUpdates = incrementalUpdates;
+            this.averageUpdateMicros = averageUpdateMicros;
+        }
+        
+        public Screen getScreen() { return screen; }
+        public long getVersion() { return version; }
+        public int getMatchCount() { return matchCount; }
+        public int getUniverseSize() { return universeSize; }
+        public int getRowCount() { return symbols.length; }
+        public String getSymbol(int row) { return symbols[row]; }
+        public double getLastClose(int row) { return lastCloses[row]; }
+        // NaN while the indicator is warming up
+        public double getOperandValue(int operand, int row) { return operandValues[operand][row]; }
+        public double getScanMillis() { return scanMillis; }
+        public long getIncrementalUpdates() { return incrementalUpdates; }
+        public double getAverageUpdateMicros() { return averageUpdateMicros; }
+    }
+    
+    private static class Workspace {
+        final Screen screen;
+        final StreamingIndicator[] indicators;
+        
+        Workspace(Screen screen) {
+            this.screen = screen;
+            indicators = new StreamingIndicator[screen.indicatorCount];
+            for (Operand operand : screen.operands) {
+                if (operand.slot >= 0) {
+                    indicators[operand.slot] = new StreamingIndicator(SymbolDictionary.NONE, operand.kind, operand.period, DAY_MILLIS);
+                }
+            }
+        }
+    }
+    
+    // Price, a constant, or an indicator of the daily closes
+    public static class Operand {
+        public static final byte PRICE = 3;
+        public static final byte CONSTANT = 4;
+        
+        private final byte kind;
+        private final int period;
+        private final double constant;
+        private int slot = -1;
+        
+        private Operand(byte kind, int period, double constant) {
+            this.kind = kind;
+            this.period = period;
+            this.constant = constant;
+        }
+        
+        public byte getKind() { return kind; }
+        public int getPeriod() { return period; }
+        public boolean isIndicator() { return slot >= 0; }
+        
+        // E.g. "RSI(14)", "Price" or "30"
+        public String getName() {
+            if (kind == PRICE) {
+                return "Price";
+            }
+            if (kind == CONSTANT) {
+                return constant == Math.rint(constant) ? String.valueOf((long) constant) : String.valueOf(constant);
+            }
+            return StreamingIndicator.getName(kind) + "(" + period + ")";
+        }
+        
+        private boolean sameAs(Operand other) {
+            return kind == other.kind && period == other.period && Double.compare(constant, other.constant) == 0;
+        }
+    }
+    
+    // Conditions joined by AND, each comparing two operands. Matches rank by the ratio of the
+    // first condition's two sides, furthest beyond it first: lowest RSI first for "RSI(14) < 30",
+    // furthest above the average first for "PRICE > SMA(200)".
+    public static class Screen {
+        static final byte LESS = 0;
+        static final byte LESS_OR_EQUAL = 1;
+        static final byte GREATER = 2;
+        static final byte GREATER_OR_EQUAL = 3;
+        private static final String[] COMPARISONS = {"<", "<=", ">", ">="};
+        private static final Pattern CONDITION = Pattern.compile(
+            "\\s*(\\w+\\s*\\(\\s*\\d+\\s*\\)|[A-Za-z]+|[-+]?\\d+(?:\\.\\d+)?)\\s*(<=|>=|<|>)\\s*" +
+            "(\\w+\\s*\\(\\s*\\d+\\s*\\)|[A-Za-z]+|[-+]?\\d+(?:\\.\\d+)?)\\s*");
+        private static final Pattern INDICATOR = Pattern.compile("(\\w+)\\s*\\(\\s*(\\d+)\\s*\\)");
+        
+        private final List<Operand> operands = new ArrayList<>();
+        private final int[] lefts;
+        private final int[] rights;
+        private final byte[] comparisons;
+        private int indicatorCount;
+        private int maxPeriod;
+        private boolean rankAscending;
+        
+        private Screen(int conditions) {
+            lefts = new int[conditions];
+            rights = new int[conditions];
+            comparisons = new byte[conditions];
+        }
+        
+        // E.g. "RSI(14) < 30 AND PRICE > SMA(200)"; indicators are SMA, EMA and RSI, with periods
+        // no longer than the lookback so they can warm up
+        public static Screen parse(String text, int lookback) {
+            String[] parts = text.trim().split("(?i)\\s+AND\\s+");
+            if (parts.length == 0 || parts[0].isEmpty()) {
+                throw new IllegalArgumentException("Enter at least one condition");
+            }
+            Screen screen = new Screen(parts.length);
+            for (int c = 0; c < parts.length; c++) {
+                Matcher matcher = CONDITION.matcher(parts[c]);
+                if (!matcher.matches()) {
+                    throw new IllegalArgumentException("Cannot read condition: " + parts[c].trim());
+                }
+                screen.lefts[c] = screen.operand(matcher.group(1), lookback);
+                screen.comparisons[c] = (byte) Arrays.asList(COMPARISONS).indexOf(matcher.group(2));
+                screen.rights[c] = screen.operand(matcher.group(3), lookback);
+                if (screen.operands.get(screen.lefts[c]).kind == Operand.CONSTANT && screen.operands.get(screen.rights[c]).kind == Operand.CONSTANT) {
+                    throw new IllegalArgumentException("A condition needs a price or indicator: " + parts[c].trim());
+                }
+            }
+            
+            screen.rankAscending = screen.comparisons[0] <= LESS_OR_EQUAL;
+            return screen;
+        }
+        
+        // Index of the operand, shared with an identical one already in the screen
+        private int operand(String token, int lookback) {
+            String upper = token.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+            Operand operand;
+            Matcher matcher = INDICATOR.matcher(upper);
+            if (matcher.matches()) {
+                byte kind = indicatorKind(matcher.group(1));
+                int period = Integer.parseInt(matcher.group(2));
+                if (period < 1 || period > lookback) {
+                    throw new IllegalArgumentException("Period out of range: " + token + " (1 to " + lookback + " days)");
+                }
+                maxPeriod = Math.max(maxPeriod, period);
+                operand = new Operand(kind, period, 0);
+            } else if (upper.equals("PRICE") || upper.equals("CLOSE")) {
+                operand = new Operand(Operand.PRICE, 0, 0);
+            } else if (Character.isLetter(upper.charAt(0))) {
+                throw new IllegalArgumentException("Unknown operand: " + token + " (use PRICE, SMA(n), EMA(n), RSI(n) or a number)");
+            } else {
+                operand = new Operand(Operand.CONSTANT, 0, Double.parseDouble(upper));
+            }
+            for (int i = 0; i < operands.size(); i++) {
+                if (operands.get(i).sameAs(operand)) {
+                    return i;
+                }
+            }
+            if (operand.kind <= StreamingIndicator.RSI) {
+                operand.slot = indicatorCount++;
+            }
+            operands.add(operand);
+            return operands.size() - 1;
+        }
+        
+        private static byte indicatorKind(String name) {
+            for (byte kind = StreamingIndicator.SMA; kind <= StreamingIndicator.RSI; kind++) {
+                if (StreamingIndicator.getName(kind).equals(name)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown indicator: " + name + " (use SMA, EMA or RSI)");
+        }
+        
+        public int getOperandCount() { return operands.size(); }
+        public Operand getOperand(int index) { return operands.get(index); }
+        public boolean isRankAscending() { return rankAscending; }
+        public int getConditionCount() { return lefts.length; }
+        
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (int c = 0; c < lefts.length; c++) {
+                if (c > 0) {
+                    text.append(" AND ");
+                }
+                text.append(operands.get(lefts[c]).getName()).append(' ').append(COMPARISONS[comparisons[c]])
+                    .append(' ').append(operands.get(rights[c]).getName());
+            }
+            return text.toString();
+        }
+    }
+}
\ No newline at end of file